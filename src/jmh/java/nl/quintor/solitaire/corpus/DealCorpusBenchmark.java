@@ -0,0 +1,64 @@
+package nl.quintor.solitaire.corpus;
+
+import nl.quintor.solitaire.game.GameStateController;
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.models.state.PackedGameState;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of materializing deals from a memory-mapped {@link DealCorpus} of a million deals, as a GameState and as a
+ * PackedGameState, against shuffling them with {@link GameStateController#init(long)}. The deals are visited in a
+ * scattered order, so most reads touch a different page of the mapping.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DealCorpusBenchmark {
+    private static final long DEALS = 1_000_000;
+    private static final long STRIDE = 7919;
+
+    private Path file;
+    private DealCorpus corpus;
+    private long index = 0;
+
+    @Setup
+    public void write() throws IOException {
+        file = Files.createTempFile("deals", ".corpus");
+        DealCorpusWriter.writeNumberedDeals(file, 0, DEALS);
+        corpus = DealCorpus.open(file);
+    }
+
+    @TearDown
+    public void delete() throws IOException {
+        corpus.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public GameState init() {
+        return GameStateController.init(next());
+    }
+
+    @Benchmark
+    public GameState corpusGameState() {
+        return corpus.getGameState(next());
+    }
+
+    @Benchmark
+    public PackedGameState corpusPackedGameState() {
+        return corpus.getPackedGameState(next());
+    }
+
+    private long next() {
+        index = (index + STRIDE) % DEALS;
+        return index;
+    }
+}
@@ -0,0 +1,84 @@
+package nl.quintor.solitaire.game;
+
+import nl.quintor.solitaire.game.moves.MoveCode;
+import nl.quintor.solitaire.game.moves.ex.MoveException;
+import nl.quintor.solitaire.models.deck.Deck;
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.solver.LegalMoves;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link CardMoveChecks} rules on seeded deals: a move that passes all checks, a move that is
+ * rejected (which includes creating the {@link MoveException}) and listing all legal moves of a deal, both as move
+ * objects and as {@link MoveCode}s.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CardMoveChecksBenchmark {
+    @Param({"1", "2", "3"})
+    private long seed;
+
+    private GameState gameState;
+    private Deck legalSource, legalDestination, illegalSource, illegalDestination;
+    private int legalIndex, illegalIndex;
+    private final int[] moveCodes = new int[MoveCode.MAX_MOVES];
+
+    @Setup
+    public void deal() {
+        gameState = GameStateController.init(new Random(seed));
+        for (int source = GameState.FIRST_COLUMN_PILE; source < GameState.PILE_COUNT; source++) {
+            Deck sourceDeck = gameState.getPile(source);
+            int index = sourceDeck.getInvisibleCards();
+            for (int destination = GameState.FIRST_STACK_PILE; destination < GameState.PILE_COUNT; destination++) {
+                Deck destinationDeck = gameState.getPile(destination);
+                if (isLegal(sourceDeck, index, destinationDeck)) {
+                    legalSource = sourceDeck;
+                    legalIndex = index;
+                    legalDestination = destinationDeck;
+                } else if (sourceDeck != destinationDeck) {
+                    illegalSource = sourceDeck;
+                    illegalIndex = index;
+                    illegalDestination = destinationDeck;
+                }
+            }
+        }
+        if (legalSource == null) throw new IllegalStateException("No column card can be moved in deal " + seed);
+    }
+
+    @Benchmark
+    public boolean legalMove() {
+        return isLegal(legalSource, legalIndex, legalDestination);
+    }
+
+    @Benchmark
+    public boolean illegalMove() {
+        return isLegal(illegalSource, illegalIndex, illegalDestination);
+    }
+
+    @Benchmark
+    public Object legalMoves() {
+        return LegalMoves.of(gameState);
+    }
+
+    @Benchmark
+    public int moveGenerator() {
+        return MoveGenerator.generate(gameState, moveCodes);
+    }
+
+    private static boolean isLegal(Deck sourceDeck, int index, Deck destinationDeck) {
+        try {
+            CardMoveChecks.deckLevelChecks(sourceDeck, index, destinationDeck);
+            CardMoveChecks.cardLevelChecks(destinationDeck, sourceDeck.get(index));
+            return true;
+        } catch (MoveException e) {
+            return false;
+        }
+    }
+}
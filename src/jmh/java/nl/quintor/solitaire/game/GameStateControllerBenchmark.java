@@ -0,0 +1,32 @@
+package nl.quintor.solitaire.game;
+
+import nl.quintor.solitaire.models.state.GameState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of dealing a new game with {@link GameStateController#init(Random)} and with the numbered deals of
+ * {@link GameStateController#init(long)}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameStateControllerBenchmark {
+    private long seed = 0;
+    private long dealNumber = 0;
+
+    @Benchmark
+    public GameState init() {
+        return GameStateController.init(new Random(seed++));
+    }
+
+    @Benchmark
+    public GameState initDealNumber() {
+        return GameStateController.init(dealNumber++);
+    }
+}
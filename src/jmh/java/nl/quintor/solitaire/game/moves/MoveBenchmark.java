@@ -0,0 +1,57 @@
+package nl.quintor.solitaire.game.moves;
+
+import nl.quintor.solitaire.game.GameStateController;
+import nl.quintor.solitaire.game.moves.ex.MoveException;
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.solver.LegalMoves;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of applying and reverting {@link MoveCard} and {@link CycleStock} on seeded deals. Every invocation
+ * creates the move from player input, applies it and reverts it, so the GameState is the same for every invocation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveBenchmark {
+    @Param({"1", "2", "3"})
+    private long seed;
+
+    private GameState gameState;
+    private String moveCardInput;
+
+    @Setup
+    public void deal() throws MoveException {
+        gameState = GameStateController.init(new Random(seed));
+        // cycle the stock until a card can be moved; there is always such a point within a few cycles
+        while (moveCardInput == null) {
+            for (RevertibleMove move : LegalMoves.of(gameState)) {
+                if (move instanceof MoveCard) {
+                    moveCardInput = ((MoveCard) move).getPlayerInput();
+                    break;
+                }
+            }
+            if (moveCardInput == null) new CycleStock().apply(gameState);
+        }
+    }
+
+    @Benchmark
+    public String moveCardApplyRevert() throws MoveException {
+        MoveCard move = new MoveCard(moveCardInput);
+        move.apply(gameState);
+        return move.revert(gameState);
+    }
+
+    @Benchmark
+    public String cycleStockApplyRevert() throws MoveException {
+        CycleStock move = new CycleStock();
+        move.apply(gameState);
+        return move.revert(gameState);
+    }
+}
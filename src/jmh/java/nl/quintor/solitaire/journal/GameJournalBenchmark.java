@@ -0,0 +1,71 @@
+package nl.quintor.solitaire.journal;
+
+import nl.quintor.solitaire.game.GameStateController;
+import nl.quintor.solitaire.game.moves.Move;
+import nl.quintor.solitaire.game.moves.MoveCode;
+import nl.quintor.solitaire.game.moves.Quit;
+import nl.quintor.solitaire.game.moves.ex.MoveException;
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.models.state.MoveListener;
+import nl.quintor.solitaire.simulation.GreedyStrategy;
+import nl.quintor.solitaire.simulation.Strategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of recovering a game: replaying the journal records of a greedy game, including the moves the strategy
+ * tried and reverted, onto a new deal. The number of records is printed during the setup, so the replay speed in moves
+ * per second follows from the average time of {@link #replay()} minus that of {@link #deal()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameJournalBenchmark {
+    private static final long DEAL = 1;
+
+    private ByteBuffer records;
+
+    @Setup
+    public void play() throws MoveException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        GameState gameState = GameStateController.init(DEAL);
+        gameState.setMoveListener(new MoveListener() {
+            @Override
+            public void applied(long entry) {
+                buffer.putShort((short) MoveCode.ofJournalEntry(entry));
+            }
+
+            @Override
+            public void reverted(long entry) {
+                buffer.putShort(GameJournal.REVERT);
+            }
+        });
+        Strategy strategy = new GreedyStrategy().createInstance();
+        for (int i = 0; i < 500; i++) {
+            Move move = strategy.nextMove(gameState);
+            if (move instanceof Quit) break;
+            move.apply(gameState);
+        }
+        buffer.flip();
+        records = buffer;
+        System.out.println("Records: " + records.remaining() / GameJournal.RECORD_BYTES);
+    }
+
+    @Benchmark
+    public GameState deal() {
+        return GameStateController.init(DEAL);
+    }
+
+    @Benchmark
+    public GameState replay() throws IOException {
+        GameState gameState = GameStateController.init(DEAL);
+        GameJournal.replay(records.duplicate(), gameState);
+        return gameState;
+    }
+}
@@ -0,0 +1,43 @@
+package nl.quintor.solitaire.ui.cli;
+
+import nl.quintor.solitaire.game.GameStateController;
+import nl.quintor.solitaire.models.state.GameState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of rendering seeded deals with {@link GameStateParser#parseGameState(GameState)}, and of encoding them to
+ * bytes with {@link GameStateEncoder}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameStateParserBenchmark {
+    @Param({"1", "2", "3"})
+    private long seed;
+
+    private GameState gameState;
+    private final GameStateEncoder encoder = new GameStateEncoder();
+
+    @Setup
+    public void deal() {
+        gameState = GameStateController.init(new Random(seed));
+    }
+
+    @Benchmark
+    public String parseGameState() {
+        return GameStateParser.parseGameState(gameState);
+    }
+
+    @Benchmark
+    public int encodeGameState() {
+        encoder.reset();
+        encoder.appendGameState(gameState);
+        return encoder.length();
+    }
+}
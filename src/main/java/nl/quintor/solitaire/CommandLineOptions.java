@@ -0,0 +1,67 @@
+package nl.quintor.solitaire;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parsed command-line options of the form "--name value". Options that are not provided fall back to the default value
+ * passed to the getters.
+ */
+public class CommandLineOptions {
+    private final Map<String, String> options = new HashMap<>();
+
+    /**
+     * Parses the provided arguments. Every argument starting with "--" must be followed by its value.
+     *
+     * @param args the command-line arguments, without the command name
+     * @throws IllegalArgumentException if an argument is not an option name or an option has no value
+     */
+    public CommandLineOptions(String... args) {
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            if (i + 1 == args.length) throw new IllegalArgumentException("Missing value for option " + args[i]);
+            options.put(args[i].substring(2), args[++i]);
+        }
+    }
+
+    /**
+     * Returns the value of an option as a String.
+     *
+     * @param name option name, without the leading "--"
+     * @param defaultValue value to return if the option is not provided
+     * @return option value
+     */
+    public String getString(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    /**
+     * Returns the value of an option as an int.
+     *
+     * @param name option name, without the leading "--"
+     * @param defaultValue value to return if the option is not provided
+     * @return option value
+     * @throws IllegalArgumentException if the value is not a number
+     */
+    public int getInt(String name, int defaultValue) {
+        return Math.toIntExact(getLong(name, defaultValue));
+    }
+
+    /**
+     * Returns the value of an option as a long.
+     *
+     * @param name option name, without the leading "--"
+     * @param defaultValue value to return if the option is not provided
+     * @return option value
+     * @throws IllegalArgumentException if the value is not a number
+     */
+    public long getLong(String name, long defaultValue) {
+        String value = options.get(name);
+        if (value == null) return defaultValue;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option --" + name + " requires a number, not " + value, e);
+        }
+    }
+}
@@ -1,15 +1,31 @@
 package nl.quintor.solitaire;
 
+import nl.quintor.solitaire.corpus.CorpusCommand;
 import nl.quintor.solitaire.game.GameStateController;
-import nl.quintor.solitaire.game.moves.*;
-import nl.quintor.solitaire.game.moves.ex.MoveException;
+import nl.quintor.solitaire.game.moves.AutoPlay;
+import nl.quintor.solitaire.game.moves.Help;
+import nl.quintor.solitaire.game.moves.Hint;
+import nl.quintor.solitaire.game.moves.Move;
+import nl.quintor.solitaire.journal.GameJournal;
+import nl.quintor.solitaire.journal.GameJournalWriter;
+import nl.quintor.solitaire.metrics.GameMetrics;
+import nl.quintor.solitaire.metrics.GameMetrics.Phase;
 import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.server.LoadGenerator;
+import nl.quintor.solitaire.server.ServerCommand;
+import nl.quintor.solitaire.simulation.SimulateCommand;
+import nl.quintor.solitaire.solver.HintEngine;
+import nl.quintor.solitaire.solver.SolverCommand;
 import nl.quintor.solitaire.ui.UI;
 import nl.quintor.solitaire.ui.cli.CommandLineUI;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
 
 
 /**
@@ -19,7 +35,8 @@ public class Main {
     /**
      * Application entry point. Consists of three phases: initialization, game loop and game shutdown. During the
      * initialization phase, the UI, game state and possible moves are created. The game loop is entered, which runs as
-     * long as the game is not over. The game loop essentially consists of:
+     * long as the game is not over. The game loop essentially consists of the following, where the
+     * {@link PlayerCommands} translate and play the input:
      *
      * <ul>
      *     <li>visualize GameState object
@@ -32,47 +49,113 @@ public class Main {
      * When the game loop exits, the result of the game is communicated to the player and the UI is refreshed one final
      * time.
      *
+     * <p>When the first argument is "solve", "simulate", "corpus", "serve" or "load", no game is played; the
+     * {@link SolverCommand}, the {@link SimulateCommand}, the {@link CorpusCommand}, the {@link ServerCommand} or the
+     * {@link LoadGenerator} is run with the remaining arguments as options instead.
+     * Otherwise the arguments are options of the game: "--deal 123" plays deal number 123 instead of a random deal (see
+     * {@link GameStateController#init(long)}), "--journal game.journal" appends every move to a {@link GameJournal} file
+     * and recovers the game from that file if it exists, forcing the file to the disk at most once per "--sync-millis"
+     * (default 1000), "--hint-millis 200" sets the latency budget of a {@link Hint}, "--auto-play false" turns off the
+     * {@link AutoPlay} after every card move and stock cycle, "--render incremental" only redraws what changed between
+     * frames, and "--frame-stats true" shows the number of bytes written per frame. "--metrics true" publishes the
+     * latency of every move implementation and game loop phase as MBeans (see {@link GameMetrics}), and
+     * "--metrics-file metrics.log" appends them to a file every "--metrics-seconds" (default 10) and at the end of the
+     * game; without either option no metrics are recorded.
+     *
      * @param args the command-line arguments
      */
     public static void main(String... args){
+        if (args.length > 0 && args[0].equals("solve")) {
+            SolverCommand.run(new CommandLineOptions(Arrays.copyOfRange(args, 1, args.length)));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("simulate")) {
+            SimulateCommand.run(new CommandLineOptions(Arrays.copyOfRange(args, 1, args.length)));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("corpus")) {
+            CorpusCommand.run(new CommandLineOptions(Arrays.copyOfRange(args, 1, args.length)));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("serve")) {
+            ServerCommand.run(new CommandLineOptions(Arrays.copyOfRange(args, 1, args.length)));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("load")) {
+            LoadGenerator.run(new CommandLineOptions(Arrays.copyOfRange(args, 1, args.length)));
+            return;
+        }
+
         // initialize the GameState, UI and all possible moves
-        UI ui = new CommandLineUI();
-        GameState gameState = GameStateController.init();
-        List<String> keys = Arrays.asList("C", "M", "R", "H", "Q");
-        List<Move> moves = Arrays.asList(new CycleStock(), new MoveCard(), new Revert(), new Help(), new Quit());
-        HashMap<String, Move> possibleMoves = new HashMap<>();
-        for (int i = 0; i<keys.size(); i++) possibleMoves.put(keys.get(i), moves.get(i));
+        CommandLineOptions options = new CommandLineOptions(args);
+        String metricsFile = options.getString("metrics-file", null);
+        GameMetrics metrics = metricsFile != null || Boolean.parseBoolean(options.getString("metrics", "false")) ?
+            new GameMetrics() : GameMetrics.DISABLED;
+        metrics.registerMBeans();
+        if (metricsFile != null) {
+            metrics.startDump(Paths.get(metricsFile), Duration.ofSeconds(options.getLong("metrics-seconds", 10)));
+        }
+        UI ui = new CommandLineUI(options.getString("render", "full").equals("incremental"),
+            Boolean.parseBoolean(options.getString("frame-stats", "false")), metrics);
+        String journalFile = options.getString("journal", null);
+        Path journalPath = journalFile == null ? null : Paths.get(journalFile);
+        GameState gameState;
+        GameJournalWriter journal = null;
+        String startMessage;
+        try {
+            if (journalPath != null && Files.exists(journalPath)) {
+                gameState = GameJournal.recover(journalPath);
+                startMessage = "Recovered " + gameState + " of deal " + gameState.getDealNumber() + " from " + journalPath;
+                journal = GameJournalWriter.append(journalPath, gameState, options.getLong("sync-millis", 1000));
+            } else {
+                gameState = GameStateController.init(options.getLong("deal", GameStateController.randomDealNumber()));
+                gameState.recordVariations();
+                startMessage = "Deal " + gameState.getDealNumber();
+                if (journalPath != null) {
+                    journal = GameJournalWriter.create(journalPath, gameState, options.getLong("sync-millis", 1000));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot use the game journal " + journalPath, e);
+        }
+        HintEngine hintEngine = new HintEngine(Duration.ofMillis(options.getLong("hint-millis", 200)),
+            HintEngine.DEFAULT_CACHE_CAPACITY);
+        PlayerCommands commands = new PlayerCommands(hintEngine,
+            Boolean.parseBoolean(options.getString("auto-play", "true")), metrics);
 
-        // start the game by displaying the help info
-        ui.setMessage(new Help().apply(gameState));
-        String previousInput = "H";
+        // start the game by displaying the deal number and the help info
+        ui.setMessage(startMessage + "\n" + new Help().apply(gameState));
 
         // game loop
         while (!gameState.isGameOver()) {
-            // show gamestate to the player and ask for next move
-            String playerInput = ui.refreshAndRequestMove(gameState, moves).toUpperCase();
+            // show gamestate to the player, ask for the next move and play it
+            Move move = commands.parse(ui.refreshAndRequestMove(gameState, commands.getMoves()));
+            commands.apply(gameState, move, ui);
 
-            // default to the previous input if this input is empty (if the player hits <Return>)
-            playerInput = playerInput.length() == 0 ? previousInput : playerInput;
-            Move move = possibleMoves
-                .getOrDefault(playerInput.substring(0,1), new Dummy()) // default to dummy if the player enters nonsense
-                .createInstance(playerInput);
-            previousInput = playerInput;
+            // persist the moves of this command before the player sees the result
+            long start = metrics.start();
+            try {
+                if (journal != null) journal.commit();
+            } catch (IOException e) {
+                ui.setErrorMessage("Cannot write the game journal: " + e.getMessage());
+            }
+            if (journal != null) metrics.record(Phase.JOURNAL, start);
+        }
+
+        hintEngine.close();
 
-            try{
-                ui.setMessage(move.apply(gameState));
-                GameStateController.detectGameWin(gameState);
-                GameStateController.applyTimePenalty(gameState);
-            } catch (MoveException e){
-                ui.setErrorMessage(e.getMessage());
+        // the game is over, so there is nothing left to recover
+        if (journal != null) {
+            try {
+                journal.close();
+                Files.delete(journalPath);
+            } catch (IOException e) {
+                ui.setErrorMessage("Cannot remove the game journal: " + e.getMessage());
             }
         }
 
         // if the game is over, add the time bonus and refresh one final time but don't show any possible moves
-        if (gameState.isGameWon()){
-            GameStateController.applyBonusScore(gameState);
-            ui.setMessage("Congratulations, you beat the game!!! " + gameState.toString());
-        }
-        ui.refresh(gameState);
+        commands.end(gameState, ui);
+        metrics.close();
     }
 }
@@ -0,0 +1,149 @@
+package nl.quintor.solitaire;
+
+import nl.quintor.solitaire.game.GameStateController;
+import nl.quintor.solitaire.game.MoveGenerator;
+import nl.quintor.solitaire.game.moves.*;
+import nl.quintor.solitaire.game.moves.ex.MoveException;
+import nl.quintor.solitaire.metrics.GameMetrics;
+import nl.quintor.solitaire.metrics.GameMetrics.Phase;
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.solver.HintEngine;
+import nl.quintor.solitaire.ui.UI;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The commands of a player and what a game does with them, shared by the command line game of {@link Main} and the
+ * sessions of the {@link nl.quintor.solitaire.server.GameServer}. A command is a line of the player, of which the first
+ * letter selects the move: "C" cycles the stock, "M" moves cards, "R" reverts, "D" redoes, "J" jumps to a variation,
+ * "I" asks for a hint if there is a {@link HintEngine}, "H" shows the help and "Q" quits. An empty line repeats the
+ * previous command.
+ *
+ * <p>{@link #apply(GameState, Move, UI)} plays a command the same way everywhere: it applies the move, auto-plays safe
+ * cards after a card move or stock cycle (see {@link AutoPlay}), detects a win or a dead end, applies the time penalty
+ * and sets the message for the player, recording every step in the {@link GameMetrics}. What happens around a command,
+ * such as reading the line and persisting the game, is up to the caller.
+ *
+ * <p>A PlayerCommands object remembers the previous command, so every game needs its own.
+ */
+public class PlayerCommands {
+    private final List<Move> moves = new ArrayList<>();
+    private final Map<String, Move> possibleMoves = new HashMap<>();
+    private final AutoPlay autoPlay;
+    private final GameMetrics metrics;
+    private String previousInput = "H";
+
+    /**
+     * Constructs PlayerCommands.
+     *
+     * @param hintEngine engine that answers hints, or null to leave out the hint
+     * @param autoPlay whether to auto-play safe cards after every card move and stock cycle
+     * @param metrics metrics to record the moves and phases in
+     */
+    public PlayerCommands(HintEngine hintEngine, boolean autoPlay, GameMetrics metrics) {
+        add("C", new CycleStock());
+        add("M", new MoveCard());
+        add("R", new Revert());
+        add("D", new Redo());
+        add("J", new Jump());
+        if (hintEngine != null) add("I", new Hint(hintEngine));
+        add("H", new Help());
+        add("Q", new Quit());
+        this.autoPlay = autoPlay ? new AutoPlay() : null;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the moves the player can choose from, to show the player
+     */
+    public List<Move> getMoves() {
+        return Collections.unmodifiableList(moves);
+    }
+
+    /**
+     * Translates a line of the player into a move: the move of the first letter, or a {@link Dummy} if the letter is
+     * not a command. An empty line repeats the previous command.
+     *
+     * @param playerInput line of the player
+     * @return new, unapplied move
+     */
+    public Move parse(String playerInput) {
+        playerInput = playerInput.toUpperCase();
+        playerInput = playerInput.length() == 0 ? previousInput : playerInput;
+        previousInput = playerInput;
+        return possibleMoves.getOrDefault(playerInput.substring(0, 1), new Dummy()).createInstance(playerInput);
+    }
+
+    /**
+     * Plays a move of the player: applies it, auto-plays safe cards after a card move or stock cycle, detects a win or
+     * a dead end and applies the time penalty. The result, or the reason the move is illegal, is set as the message
+     * of the UI.
+     *
+     * @param gameState GameState object to apply the move to
+     * @param move move of the player, see {@link #parse(String)}
+     * @param ui UI to set the message of
+     */
+    public void apply(GameState gameState, Move move, UI ui) {
+        try {
+            long start = metrics.start();
+            String message;
+            try {
+                message = move.apply(gameState);
+            } finally {
+                metrics.recordMove(move, start); // moves that throw are timed as well
+            }
+
+            // play the moves the player would make anyway in the same command, so they are rendered only once
+            if (autoPlay != null && (move instanceof MoveCard || move instanceof CycleStock)) {
+                start = metrics.start();
+                String autoPlayed = autoPlay.apply(gameState);
+                metrics.recordMove(autoPlay, start);
+                if (!autoPlayed.isEmpty()) message += "\n" + autoPlayed;
+            }
+            start = metrics.start();
+            GameStateController.detectGameWin(gameState);
+            GameStateController.detectDeadEnd(gameState);
+            metrics.record(Phase.DETECT_WIN, start);
+            if (gameState.isGameLost() && !(move instanceof Quit)) message += "\n" + lostReason(gameState);
+            ui.setMessage(message);
+            start = metrics.start();
+            GameStateController.applyTimePenalty(gameState);
+            metrics.record(Phase.TIME_PENALTY, start);
+        } catch (MoveException e) {
+            ui.setErrorMessage(e.getMessage());
+        }
+    }
+
+    /**
+     * Ends a game that is over: adds the time bonus if the game is won, and refreshes the UI one final time without
+     * asking for a move.
+     *
+     * @param gameState GameState object of the game that is over
+     * @param ui UI to show the result in
+     */
+    public void end(GameState gameState, UI ui) {
+        if (gameState.isGameWon()) {
+            GameStateController.applyBonusScore(gameState);
+            ui.setMessage("Congratulations, you beat the game!!! " + gameState.toString());
+        }
+        ui.refresh(gameState);
+    }
+
+    /**
+     * Explains why a game that {@link GameStateController#detectDeadEnd(GameState)} lost is lost: no card can move, or
+     * every move only leads back to a layout of the last pass through the stock.
+     */
+    private static String lostReason(GameState gameState) {
+        if (!MoveGenerator.canMoveCard(gameState)) return "No card can be moved any more, the game is lost";
+        return "Cards can only be moved back and forth to layouts of the last pass through the stock, the game is lost";
+    }
+
+    private void add(String key, Move move) {
+        moves.add(move);
+        possibleMoves.put(key, move);
+    }
+}
@@ -0,0 +1,47 @@
+package nl.quintor.solitaire.corpus;
+
+import nl.quintor.solitaire.CommandLineOptions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command-line entry point of the corpus writer, started with "corpus". Writes a {@link DealCorpus} file of consecutive
+ * numbered deals, which can then be played with "simulate --corpus". Supported options:
+ *
+ * <ul>
+ *     <li>--file: path of the corpus file to write, required
+ *     <li>--first: number of the first deal, defaults to 0
+ *     <li>--deals: number of deals, defaults to 1 million
+ * </ul>
+ */
+public class CorpusCommand {
+    private CorpusCommand(){}
+
+    /**
+     * Writes the corpus with the provided options.
+     *
+     * @param options parsed command-line options
+     * @throws IllegalArgumentException if no file is provided
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public static void run(CommandLineOptions options) {
+        String file = options.getString("file", null);
+        if (file == null) throw new IllegalArgumentException("Option --file is required");
+        Path path = Paths.get(file);
+        long first = options.getLong("first", 0);
+        long deals = options.getLong("deals", 1_000_000);
+
+        long start = System.nanoTime();
+        try {
+            DealCorpusWriter.writeNumberedDeals(path, first, deals);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write " + path, e);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote deals %d to %d to %s%n", first, first + deals - 1, path);
+        System.out.printf("%.3fs, %.1f deals/s%n", seconds, seconds == 0 ? 0 : deals / seconds);
+    }
+}
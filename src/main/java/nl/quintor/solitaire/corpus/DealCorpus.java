@@ -0,0 +1,196 @@
+package nl.quintor.solitaire.corpus;
+
+import nl.quintor.solitaire.game.GameStateController;
+import nl.quintor.solitaire.models.card.Card;
+import nl.quintor.solitaire.models.deck.Deck;
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.models.state.PackedGameState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only, memory-mapped file of deals, for regression runs and difficulty analysis over millions of games without
+ * shuffling every deal again. Deal k is read straight from the mapping at a computed offset, so materializing a deal
+ * touches only its own 52 bytes, however large the corpus is.
+ *
+ * <p>The file starts with a header of {@link #HEADER_BYTES} bytes, all numbers big-endian:
+ *
+ * <ul>
+ *     <li>int: the magic number {@link #MAGIC}, "SOLC"
+ *     <li>int: the format {@link #VERSION}
+ *     <li>int: the size of a deal in bytes, {@link #DEAL_BYTES}
+ *     <li>int: reserved, 0
+ *     <li>long: the number of deals
+ *     <li>long: the deal number of the first deal, if the corpus holds consecutive numbered deals (see
+ *     {@link GameStateController#init(long)}), otherwise {@link GameState#NO_DEAL}
+ * </ul>
+ *
+ * The header is followed by the deals, each a fixed-width record of the 52 card ordinals (see {@link Card#of(int)}) in
+ * dealing order, as passed to {@link GameStateController#deal(Deck)}. Corpus files are written by
+ * {@link DealCorpusWriter}.
+ *
+ * <p>A DealCorpus is thread-safe: the mapping is only read with absolute gets, which do not change the state of the
+ * buffer, so any number of threads can read deals from one DealCorpus in parallel. Because a single mapping is limited
+ * to 2 GB, large corpora are mapped in segments of {@link #SEGMENT_DEALS} deals.
+ */
+public class DealCorpus implements Closeable {
+    /**
+     * Magic number at the start of every corpus file: "SOLC" in ASCII.
+     */
+    public static final int MAGIC = 0x534F4C43;
+    /**
+     * Version of the file format.
+     */
+    public static final int VERSION = 1;
+    /**
+     * Size of the header in bytes.
+     */
+    public static final int HEADER_BYTES = 32;
+    /**
+     * Size of a deal in bytes: one byte per card.
+     */
+    public static final int DEAL_BYTES = GameStateController.DEAL_SIZE;
+    /**
+     * Number of deals per mapped segment, the most that fit in 1 GB.
+     */
+    public static final int SEGMENT_DEALS = (1 << 30) / DEAL_BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long size;
+    private final long firstDealNumber;
+
+    private DealCorpus(FileChannel channel, MappedByteBuffer[] segments, long size, long firstDealNumber) {
+        this.channel = channel;
+        this.segments = segments;
+        this.size = size;
+        this.firstDealNumber = firstDealNumber;
+    }
+
+    /**
+     * Opens and maps a corpus file. The deals are not read until they are requested.
+     *
+     * @param path path of the corpus file
+     * @return the opened corpus
+     * @throws IOException if the file cannot be read, or is not a complete corpus file of this version
+     */
+    public static DealCorpus open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) throw new IOException(path + " is not a deal corpus");
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) throw new IOException(path + " is not a deal corpus");
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("Unsupported deal corpus version " + version);
+            int dealBytes = header.getInt();
+            if (dealBytes != DEAL_BYTES) throw new IOException("Unsupported deal size " + dealBytes);
+            header.getInt();
+            long size = header.getLong();
+            long firstDealNumber = header.getLong();
+            if (size < 0 || channel.size() != HEADER_BYTES + size * DEAL_BYTES) {
+                throw new IOException(path + " is incomplete: expected " + size + " deals");
+            }
+
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_DEALS - 1) / SEGMENT_DEALS)];
+            for (int i = 0; i < segments.length; i++) {
+                long deals = Math.min(SEGMENT_DEALS, size - (long) i * SEGMENT_DEALS);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_BYTES + (long) i * SEGMENT_DEALS * DEAL_BYTES, deals * DEAL_BYTES);
+            }
+            return new DealCorpus(channel, segments, size, firstDealNumber);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Getter for size.
+     *
+     * @return number of deals in this corpus
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the deal number of a deal.
+     *
+     * @param index index of the deal in this corpus
+     * @return deal number, or {@link GameState#NO_DEAL} if the deals of this corpus are not numbered
+     * @throws IndexOutOfBoundsException if there is no deal at the index
+     */
+    public long getDealNumber(long index) {
+        checkIndex(index);
+        return firstDealNumber == GameState.NO_DEAL ? GameState.NO_DEAL : firstDealNumber + index;
+    }
+
+    /**
+     * Copies the card ordinals of a deal, in dealing order.
+     *
+     * @param index index of the deal in this corpus
+     * @param ordinals array to copy the ordinals into
+     * @param offset index in the array of the first ordinal
+     * @throws IndexOutOfBoundsException if there is no deal at the index
+     */
+    public void readDeal(long index, byte[] ordinals, int offset) {
+        checkIndex(index);
+        MappedByteBuffer segment = segments[(int) (index / SEGMENT_DEALS)];
+        int position = (int) (index % SEGMENT_DEALS) * DEAL_BYTES;
+        for (int i = 0; i < DEAL_BYTES; i++) ordinals[offset + i] = segment.get(position + i);
+    }
+
+    /**
+     * Deals the game of a deal into a new GameState, with the deal number set if this corpus holds numbered deals.
+     *
+     * @param index index of the deal in this corpus
+     * @return a new GameState object, ready to go
+     * @throws IndexOutOfBoundsException if there is no deal at the index
+     */
+    public GameState getGameState(long index) {
+        byte[] ordinals = new byte[DEAL_BYTES];
+        readDeal(index, ordinals, 0);
+        Deck deck = new Deck(DEAL_BYTES);
+        for (byte ordinal : ordinals) deck.add(Card.of(ordinal));
+        GameState gameState = GameStateController.deal(deck);
+        gameState.setDealNumber(getDealNumber(index));
+        return gameState;
+    }
+
+    /**
+     * Encodes the layout of a deal, without creating a GameState.
+     *
+     * @param index index of the deal in this corpus
+     * @return the packed layout
+     * @throws IndexOutOfBoundsException if there is no deal at the index
+     */
+    public PackedGameState getPackedGameState(long index) {
+        byte[] ordinals = new byte[DEAL_BYTES];
+        readDeal(index, ordinals, 0);
+        return PackedGameState.packDeal(ordinals, 0);
+    }
+
+    /**
+     * Closes the file. The mapped segments stay valid until they are garbage collected; deals must not be read after
+     * closing.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void checkIndex(long index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Deal " + index + ", size: " + size);
+    }
+}
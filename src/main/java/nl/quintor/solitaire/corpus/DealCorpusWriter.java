@@ -0,0 +1,109 @@
+package nl.quintor.solitaire.corpus;
+
+import nl.quintor.solitaire.game.GameStateController;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a deal corpus file, see {@link DealCorpus} for the format. Deals are appended through a buffer and written to
+ * the file in large blocks; the header, which holds the number of deals, is written when the writer is closed. A
+ * corpus file is incomplete, and cannot be opened by {@link DealCorpus#open(Path)}, until its writer has been closed.
+ *
+ * <p>A DealCorpusWriter is not thread-safe.
+ */
+public class DealCorpusWriter implements Closeable {
+    private static final int BUFFER_DEALS = 4096;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_DEALS * DealCorpus.DEAL_BYTES);
+    private final long firstDealNumber;
+    private long size = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a corpus file, replacing an existing file.
+     *
+     * @param path path of the corpus file
+     * @param firstDealNumber deal number of the first deal if the corpus holds consecutive numbered deals, otherwise
+     *                        {@link nl.quintor.solitaire.models.state.GameState#NO_DEAL}
+     * @throws IOException if the file cannot be created
+     */
+    public DealCorpusWriter(Path path, long firstDealNumber) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        this.firstDealNumber = firstDealNumber;
+        channel.position(DealCorpus.HEADER_BYTES);
+    }
+
+    /**
+     * Writes a corpus of consecutive numbered deals, shuffled with {@link GameStateController#shuffle(long, byte[])}.
+     *
+     * @param path path of the corpus file
+     * @param firstDealNumber number of the first deal
+     * @param deals number of deals to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeNumberedDeals(Path path, long firstDealNumber, long deals) throws IOException {
+        byte[] ordinals = new byte[DealCorpus.DEAL_BYTES];
+        try (DealCorpusWriter writer = new DealCorpusWriter(path, firstDealNumber)) {
+            for (long deal = firstDealNumber; deal < firstDealNumber + deals; deal++) {
+                GameStateController.shuffle(deal, ordinals);
+                writer.write(ordinals, 0);
+            }
+        }
+    }
+
+    /**
+     * Appends a deal.
+     *
+     * @param ordinals card ordinals in dealing order, see {@link GameStateController#deal(nl.quintor.solitaire.models.deck.Deck)}
+     * @param offset index of the first of the {@link DealCorpus#DEAL_BYTES} ordinals
+     * @throws IOException if the file cannot be written
+     * @throws IllegalStateException if this writer has been closed
+     */
+    public void write(byte[] ordinals, int offset) throws IOException {
+        if (closed) throw new IllegalStateException("The corpus has been closed");
+        if (buffer.remaining() < DealCorpus.DEAL_BYTES) flush();
+        buffer.put(ordinals, offset, DealCorpus.DEAL_BYTES);
+        size++;
+    }
+
+    /**
+     * Getter for size.
+     *
+     * @return number of deals written so far
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Writes the remaining deals and the header, and closes the file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try (FileChannel ignored = channel) {
+            flush();
+            ByteBuffer header = ByteBuffer.allocate(DealCorpus.HEADER_BYTES);
+            header.putInt(DealCorpus.MAGIC).putInt(DealCorpus.VERSION).putInt(DealCorpus.DEAL_BYTES).putInt(0)
+                .putLong(size).putLong(firstDealNumber).flip();
+            while (header.hasRemaining()) channel.write(header, header.position());
+            channel.force(false);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+}
@@ -10,13 +10,42 @@ import nl.quintor.solitaire.models.deck.DeckType;
 
 /**
  * Library class for card move legality checks. The class is not instantiable, all constructors are private and all methods are
- * static. The class contains several private helper methods. All methods throw {@link MoveException}s, which can
+ * static. The class contains several private helper methods. The check methods throw {@link MoveException}s, which can
  * contain a message that is fed to the {@link nl.quintor.solitaire.ui.UI}-implementation as error messages to be
  * shown to the user.
+ *
+ * <p>Whether a card can go on another card is decided by lookup tables that are computed once, indexed by
+ * {@link Card#getOrdinal()} of the card below, or {@link #EMPTY_PILE} for an empty pile. Each table entry is a bitset
+ * with a bit per card ordinal that can go on top. Jokers can never be placed, and nothing can be placed on them. The
+ * boolean fast-path methods {@link #isLegalMove(Deck, int, Deck)}, {@link #canGoOnStack(Card, Card)} and
+ * {@link #canGoOnColumn(Card, Card)} only read these tables; the throwing checks use them as well, and only work out
+ * the reason when a move is illegal.
  */
 public class CardMoveChecks {
+    /**
+     * Table index of an empty pile, following the 0-53 card ordinals.
+     */
+    public static final int EMPTY_PILE = 54;
+
     private CardMoveChecks(){}
     private final static String helpInstructions = new Help().toString();
+    private final static long[] stackMoves = new long[EMPTY_PILE + 1]; // per card below, bits of cards that can go on it
+    private final static long[] columnMoves = new long[EMPTY_PILE + 1]; // per card below, bits of cards that can go on it
+    private final static long redCards;
+
+    static {
+        long red = 0;
+        for (int below = 0; below <= EMPTY_PILE; below++) {
+            Card targetCard = below == EMPTY_PILE ? null : Card.of(below);
+            for (int ordinal = 0; ordinal < EMPTY_PILE; ordinal++) {
+                Card cardToAdd = Card.of(ordinal);
+                if (stackRule(targetCard, cardToAdd)) stackMoves[below] |= 1L << ordinal;
+                if (columnRule(targetCard, cardToAdd)) columnMoves[below] |= 1L << ordinal;
+            }
+        }
+        for (int ordinal = 0; ordinal < EMPTY_PILE; ordinal++) if (redSuitRule(Card.of(ordinal))) red |= 1L << ordinal;
+        redCards = red;
+    }
 
     /**
      * Verifies that the player input for a CardMove is syntactically legal. Legal input consists of three parts:
@@ -30,7 +59,18 @@ public class CardMoveChecks {
      * @throws MoveException on syntax error
      */
     public static void checkPlayerInput(String[] input) throws MoveException{
-        // TODO: Write implementation
+        if (input.length != 3 || !"M".equals(input[0])) {
+            throw new MoveException("Invalid Move syntax. Expected \"M Source Destination\".\nSee " + helpInstructions +
+                " for instructions.");
+        }
+        if (!input[1].matches("O|S[A-D]|[A-G]\\d{1,2}")) {
+            throw new MoveException("Invalid Move syntax. \"" + input[1] + "\" is not a valid source location.\nSee " +
+                helpInstructions + " for instructions.");
+        }
+        if (!input[2].matches("O|S[A-D]|[A-G]")) {
+            throw new MoveException("Invalid Move syntax. \"" + input[2] + "\" is not a valid destination location.\nSee " +
+                helpInstructions + " for instructions.");
+        }
     }
 
     /**
@@ -45,7 +85,13 @@ public class CardMoveChecks {
      * @throws MoveException on illegal move
      */
     public static void deckLevelChecks(Deck sourceDeck, int sourceCardIndex, Deck destinationDeck) throws MoveException {
-        // TODO: Write implementation
+        if (sourceDeck == destinationDeck) throw new MoveException("Move source and destination can't be the same");
+        if (sourceDeck.isEmpty()) throw new MoveException("You can't move a card from an empty deck");
+        if (destinationDeck.getDeckType() == DeckType.STOCK) throw new MoveException("You can't move cards to the stock");
+        if (sourceCardIndex < sourceDeck.getInvisibleCards()) throw new MoveException("You can't move an invisible card");
+        if (destinationDeck.getDeckType() == DeckType.STACK && sourceCardIndex < sourceDeck.size() - 1) {
+            throw new MoveException("You can't move more than 1 card at a time to a Stack Pile");
+        }
     }
 
     /**
@@ -59,31 +105,101 @@ public class CardMoveChecks {
      * @throws MoveException on illegal move
      */
     public static void cardLevelChecks(Deck targetDeck, Card cardToAdd) throws MoveException {
-        // TODO: Write implementation
+        Card targetCard = targetDeck.isEmpty() ? null : targetDeck.get(targetDeck.size() - 1);
+        if (targetDeck.getDeckType() == DeckType.STACK) checkStackMove(targetCard, cardToAdd);
+        else if (targetDeck.getDeckType() == DeckType.COLUMN) checkColumnMove(targetCard, cardToAdd);
+        else throw new MoveException("Target deck is neither Stack nor Column.");
+    }
+
+    /**
+     * Determines if a card move is legal, applying the rules of {@link #deckLevelChecks(Deck, int, Deck)} and
+     * {@link #cardLevelChecks(Deck, Card)} without creating a {@link MoveException}. Meant for move generators and
+     * search engines, which test many more illegal moves than legal ones.
+     *
+     * @param sourceDeck deck that the card(s) originate from
+     * @param sourceCardIndex index of the (first) card
+     * @param destinationDeck deck that the card(s) will be transferred to
+     * @return true if the move passes all deck and card level checks
+     */
+    public static boolean isLegalMove(Deck sourceDeck, int sourceCardIndex, Deck destinationDeck) {
+        if (sourceDeck == destinationDeck || sourceCardIndex >= sourceDeck.size()) return false;
+        if (sourceCardIndex < sourceDeck.getInvisibleCards()) return false;
+        Card cardToAdd = sourceDeck.get(sourceCardIndex);
+        Card targetCard = destinationDeck.isEmpty() ? null : destinationDeck.get(destinationDeck.size() - 1);
+        if (destinationDeck.getDeckType() == DeckType.STACK) {
+            return sourceCardIndex == sourceDeck.size() - 1 && canGoOnStack(targetCard, cardToAdd);
+        }
+        return destinationDeck.getDeckType() == DeckType.COLUMN && canGoOnColumn(targetCard, cardToAdd);
+    }
+
+    /**
+     * Determines if a card can be added to a stack pile, the boolean version of {@link #checkStackMove(Card, Card)}.
+     *
+     * @param targetCard top card of the stack pile, or null if the stack pile is empty
+     * @param cardToAdd card to add to the stack pile
+     * @return true if the move is legal
+     */
+    public static boolean canGoOnStack(Card targetCard, Card cardToAdd) {
+        return canGoOnStack(targetCard == null ? EMPTY_PILE : targetCard.getOrdinal(), cardToAdd.getOrdinal());
+    }
+
+    /**
+     * Determines if a card can be added to a stack pile, by card ordinal.
+     *
+     * @param targetOrdinal ordinal of the top card of the stack pile, or {@link #EMPTY_PILE}
+     * @param ordinal ordinal of the card to add to the stack pile
+     * @return true if the move is legal
+     */
+    public static boolean canGoOnStack(int targetOrdinal, int ordinal) {
+        return (stackMoves[targetOrdinal] >>> ordinal & 1) != 0;
+    }
+
+    /**
+     * Determines if a card can be added to a column, the boolean version of {@link #checkColumnMove(Card, Card)}.
+     *
+     * @param targetCard last card of the column, or null if the column is empty
+     * @param cardToAdd card to add to the column
+     * @return true if the move is legal
+     */
+    public static boolean canGoOnColumn(Card targetCard, Card cardToAdd) {
+        return canGoOnColumn(targetCard == null ? EMPTY_PILE : targetCard.getOrdinal(), cardToAdd.getOrdinal());
+    }
+
+    /**
+     * Determines if a card can be added to a column, by card ordinal.
+     *
+     * @param targetOrdinal ordinal of the last card of the column, or {@link #EMPTY_PILE}
+     * @param ordinal ordinal of the card to add to the column
+     * @return true if the move is legal
+     */
+    public static boolean canGoOnColumn(int targetOrdinal, int ordinal) {
+        return (columnMoves[targetOrdinal] >>> ordinal & 1) != 0;
     }
 
     // Helper methods
 
     /**
-     * Verifies that the proposed move is legal given that the targetCard is the top of a stack pile.
+     * Verifies that the proposed move is legal given that the targetCard is the top of a stack pile. The stack pile
+     * table decides; the rules are only looked at again to explain why a move is illegal.
      *
      * @param targetCard top card of a stack or null if the stack is empty
      * @param cardToAdd card to add to the stack
      * @throws MoveException on illegal move
      */
     static void checkStackMove(Card targetCard, Card cardToAdd) throws MoveException {
-        // TODO: Write implementation
+        if (!canGoOnStack(targetCard, cardToAdd)) throw new MoveException(stackRejection(targetCard, cardToAdd));
     }
 
     /**
-     * Verifies that the proposed move is legal given that the targetCard is the last card of a column.
+     * Verifies that the proposed move is legal given that the targetCard is the last card of a column. The column
+     * table decides; the rules are only looked at again to explain why a move is illegal.
      *
      * @param targetCard last card of a column or null if the column is empty
      * @param cardToAdd card to add to the column
      * @throws MoveException on illegal move
      */
     static void checkColumnMove(Card targetCard, Card cardToAdd) throws MoveException {
-        /// TODO: Write implementation
+        if (!canGoOnColumn(targetCard, cardToAdd)) throw new MoveException(columnRejection(targetCard, cardToAdd));
     }
 
     /**
@@ -94,8 +210,7 @@ public class CardMoveChecks {
      * @return true if the cards are of different colors
      */
     static boolean opposingColor(Card card1, Card card2){
-        // TODO: Write implementation
-        return true;
+        return redSuit(card1) != redSuit(card2);
     }
 
     /**
@@ -108,6 +223,55 @@ public class CardMoveChecks {
      */
     static boolean redSuit(Card card){
         if (card.getSuit() == Suit.JOKER) throw new RuntimeException("Method redSuit() should not be used with Jokers");
+        return (redCards >>> card.getOrdinal() & 1) != 0;
+    }
+
+    /**
+     * Explains why the stack pile table rejects a card: the first part of {@link #stackRule(Card, Card)} it fails.
+     */
+    private static String stackRejection(Card targetCard, Card cardToAdd) {
+        if (cardToAdd.getSuit() == Suit.JOKER) return "Jokers can't be placed on a Stack Pile";
+        if (targetCard == null) return "An Ace has to be the first card of a Stack Pile";
+        if (targetCard.getSuit() != cardToAdd.getSuit()) return "Stack Piles can only contain same-suit cards";
+        return "Stack Piles hold same-suit cards of increasing Rank from Ace to King";
+    }
+
+    /**
+     * Explains why the column table rejects a card: the first part of {@link #columnRule(Card, Card)} it fails.
+     */
+    private static String columnRejection(Card targetCard, Card cardToAdd) {
+        if (targetCard == null) return "A King has to be the first card of a Column";
+        boolean jokers = targetCard.getSuit() == Suit.JOKER || cardToAdd.getSuit() == Suit.JOKER;
+        if (jokers || !opposingColor(targetCard, cardToAdd)) {
+            return "Column cards have to alternate colors (red and black)";
+        }
+        return "Columns hold alternating-color cards of decreasing rank from King to Two";
+    }
+
+    /**
+     * Rule behind the stack pile table: an Ace on an empty stack pile, otherwise the next Rank of the same Suit. Jokers
+     * are never allowed.
+     */
+    private static boolean stackRule(Card targetCard, Card cardToAdd) {
+        if (cardToAdd.getSuit() == Suit.JOKER) return false;
+        if (targetCard == null) return cardToAdd.getRank() == Rank.ACE;
+        if (targetCard.getSuit() != cardToAdd.getSuit()) return false;
+        return targetCard.getRank() == Rank.ACE ? cardToAdd.getRank() == Rank.TWO :
+            targetCard.getRank() != Rank.KING && cardToAdd.getRank().ordinal() == targetCard.getRank().ordinal() + 1;
+    }
+
+    /**
+     * Rule behind the column table: a King in an empty column, otherwise the previous Rank of the opposing color, but
+     * never on an Ace. Jokers are never allowed.
+     */
+    private static boolean columnRule(Card targetCard, Card cardToAdd) {
+        if (cardToAdd.getSuit() == Suit.JOKER) return false;
+        if (targetCard == null) return cardToAdd.getRank() == Rank.KING;
+        if (targetCard.getSuit() == Suit.JOKER || redSuitRule(targetCard) == redSuitRule(cardToAdd)) return false;
+        return targetCard.getRank() != Rank.ACE && cardToAdd.getRank().ordinal() == targetCard.getRank().ordinal() - 1;
+    }
+
+    private static boolean redSuitRule(Card card) {
         return card.getSuit() == Suit.DIAMONDS || card.getSuit() == Suit.HEARTS;
     }
 }
@@ -1,5 +1,6 @@
 package nl.quintor.solitaire.game;
 
+import nl.quintor.solitaire.models.card.Card;
 import nl.quintor.solitaire.models.deck.Deck;
 import nl.quintor.solitaire.models.deck.DeckType;
 import nl.quintor.solitaire.models.state.GameState;
@@ -8,24 +9,110 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Library class for GameState initiation and status checks that are called from {@link nl.quintor.solitaire.Main}.
  * The class is not instantiable, all constructors are private and all methods are static.
  */
 public class GameStateController {
+    /**
+     * Number of cards in a numbered deal: a full deck without the Jokers.
+     */
+    public static final int DEAL_SIZE = 52;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
     private GameStateController(){}
 
     /**
-     * Creates and initializes a new GameState object. The newly created GameState is populated with shuffled cards. The
-     * stack pile and column maps are filled with headers and Deck objects. The column decks have an appropriate number
-     * of invisible cards set.
+     * Creates and initializes a new GameState object from a random deal number, see {@link #init(long)}. The newly
+     * created GameState is populated with shuffled cards. The stack pile and column maps are filled with headers and
+     * Deck objects. The column decks have an appropriate number of invisible cards set.
      *
      * @return a new GameState object, ready to go
      */
     public static GameState init(){
-        // TODO: Write implementation
-        return new GameState();
+        return init(randomDealNumber());
+    }
+
+    /**
+     * Creates and initializes a new GameState object like {@link #init()}, shuffling the cards with the provided source
+     * of randomness. The same seed always deals the same game.
+     *
+     * @param random source of randomness for the shuffle
+     * @return a new GameState object, ready to go
+     */
+    public static GameState init(Random random){
+        Deck deck = Deck.createDefaultDeck();
+        Collections.shuffle(deck, random);
+        return deal(deck);
+    }
+
+    /**
+     * Creates and initializes the GameState object of a numbered deal. Like FreeCell deal numbers, a deal number
+     * identifies a game: the same number deals the same game on every machine and in every version, so deals can be
+     * reported, replayed and benchmarked. The shuffle is part of that contract and must never change:
+     *
+     * <ol>
+     *     <li>start with the card ordinals 0 to 51 in order (see {@link Card#of(int)});
+     *     <li>seed a SplitMix64 generator (the generator of {@link java.util.SplittableRandom}) with the deal number: for
+     *     every next value, add 0x9E3779B97F4A7C15 to the state and return the state mixed by {@link #mix64(long)};
+     *     <li>Fisher-Yates shuffle: for i from 51 down to 1, swap the card at i with the card at j, where j is the high
+     *     32 bits of the next value multiplied by i + 1, shifted right by 32;
+     *     <li>deal the shuffled cards with {@link #deal(Deck)}.
+     * </ol>
+     *
+     * Dealing a numbered game takes no locks and shares no state, so any number of threads can deal consecutive
+     * numbers concurrently.
+     *
+     * @param dealNumber number of the deal, 0 or more
+     * @return a new GameState object, ready to go, with the deal number set
+     * @throws IllegalArgumentException if the deal number is negative
+     */
+    public static GameState init(long dealNumber){
+        GameState gameState = deal(shuffle(dealNumber));
+        gameState.setDealNumber(dealNumber);
+        return gameState;
+    }
+
+    /**
+     * Returns a random deal number below a billion, short enough for players to report.
+     *
+     * @return random deal number
+     */
+    public static long randomDealNumber(){
+        return ThreadLocalRandom.current().nextLong(1_000_000_000L);
+    }
+
+    /**
+     * Creates and initializes a new GameState object with the cards of the provided deck, in order: the columns get the
+     * first 28 cards, column A one card, column B the next two and so on, with all but the last card of every column
+     * invisible. The next card is shown on the stock, and the remaining cards wait face down in the waste. The deck is
+     * emptied.
+     *
+     * @param deck deck of shuffled cards, at least 29
+     * @return a new GameState object, ready to go
+     */
+    public static GameState deal(Deck deck){
+        GameState gameState = new GameState();
+        for (String header : GameState.STACK_HEADERS) gameState.getStackPiles().put(header, new Deck(DeckType.STACK));
+        for (int i = 0; i < GameState.COLUMN_HEADERS.size(); i++) {
+            Deck column = new Deck(DeckType.COLUMN);
+            List<Card> dealt = deck.subList(0, i + 1);
+            column.addAll(dealt);
+            dealt.clear();
+            column.setInvisibleCards(i);
+            gameState.getColumns().put(GameState.COLUMN_HEADERS.get(i), column);
+        }
+
+        // the stock shows one card, the rest of the deck is waiting face down in the waste
+        gameState.getStock().add(deck.remove(0));
+        gameState.getWaste().addAll(deck);
+        deck.clear();
+        gameState.rehashZobrist();
+        return gameState;
     }
 
     /**
@@ -56,6 +143,108 @@ public class GameStateController {
      * @param gameState GameState object of which it is determined if the game has been won
      */
     public static void detectGameWin(GameState gameState){
-        // TODO: Write implementation
+        if (hasWinningLayout(gameState)) gameState.setGameWon(true);
+    }
+
+    /**
+     * Determines if the card layout of the provided GameState object wins the game: there are no invisible cards left
+     * in the columns and the stock and waste are empty. Unlike {@link #detectGameWin(GameState)}, this method does not
+     * change the GameState object. Takes constant time, as the moves keep count of the invisible cards (see
+     * {@link GameState#getFaceDownCards()}), so a layout that was changed other than by moves or
+     * {@link Deck#setInvisibleCards(int)} needs a {@link GameState#rehashZobrist()} first.
+     *
+     * @param gameState GameState object of which the layout is checked
+     * @return true if the layout wins the game
+     */
+    public static boolean hasWinningLayout(GameState gameState){
+        return gameState.getFaceDownCards() == 0 && gameState.getStock().isEmpty() && gameState.getWaste().isEmpty();
+    }
+
+    /**
+     * Detects if the game can no longer be won, and if so, sets the gameLost flag in the GameState object. The game is
+     * lost if no card can be moved any more, not even a card that cycling the stock would show: only cycling the stock
+     * is left, which never changes the rest of the layout (see {@link MoveGenerator#canMoveCard(GameState)}). It is
+     * lost as well if a whole pass through the stock brought the layout back to where it was, and every move only
+     * leads back to a layout of that pass (see {@link MoveGenerator#canReachNewLayout(GameState)}): the player is only
+     * moving cards back and forth. A move of a stock or waste card always counts as a way out.
+     *
+     * <p>Every call remembers the layout of the stack piles and columns for the current pass (see
+     * {@link GameState#recordPassLayout()}). Cards are only looked at when the stock shows its first card, which is
+     * once per pass through the stock, or when the stock is used up; other calls take constant time. The Zobrist hash
+     * of the layout at the first card of each pass is remembered in the GameState as well (see
+     * {@link GameState#setPassStart(int, long)}). A player who is stuck cycles the stock to look for a move, so the
+     * dead end is found within one or two passes.
+     *
+     * @param gameState GameState object of which it is determined if the game has been lost
+     */
+    public static void detectDeadEnd(GameState gameState){
+        if (gameState.isGameOver()) return;
+        gameState.recordPassLayout();
+        if (gameState.getStock().size() > 1 || hasWinningLayout(gameState)) return;
+        if (!MoveGenerator.canMoveCard(gameState)) {
+            gameState.setGameLost(true);
+            return;
+        }
+        if (gameState.getStock().size() != 1) return;
+
+        // the first card of a pass: compare the layout with the one at the first card of the previous pass
+        int cycle = gameState.getStockCycles();
+        int passStartCycle = gameState.getPassStartCycle();
+        if (cycle == passStartCycle) return;
+        boolean unchanged = passStartCycle >= 0 && cycle == passStartCycle + 1 &&
+            gameState.getZobristHash() == gameState.getPassStartHash();
+        if (unchanged && !MoveGenerator.canReachNewLayout(gameState)) {
+            gameState.setGameLost(true);
+            return;
+        }
+        gameState.setPassStart(cycle, gameState.getZobristHash());
+    }
+
+    /**
+     * Shuffles the 52 card ordinals of a numbered deal, see {@link #init(long)}, without creating Card or Deck objects.
+     * Dealing the cards of the provided array from the first to the last with {@link #deal(Deck)} deals the same game
+     * as {@link #init(long)}.
+     *
+     * @param dealNumber number of the deal, 0 or more
+     * @param ordinals array of at least 52 bytes to fill with the card ordinals, in dealing order
+     * @throws IllegalArgumentException if the deal number is negative
+     */
+    public static void shuffle(long dealNumber, byte[] ordinals){
+        if (dealNumber < 0) throw new IllegalArgumentException("Deal numbers are 0 or more");
+        for (int i = 0; i < DEAL_SIZE; i++) ordinals[i] = (byte) i;
+        long state = dealNumber;
+        for (int i = DEAL_SIZE - 1; i > 0; i--) {
+            state += GOLDEN_GAMMA;
+            int j = (int) (((mix64(state) >>> 32) * (i + 1)) >>> 32);
+            byte swap = ordinals[i];
+            ordinals[i] = ordinals[j];
+            ordinals[j] = swap;
+        }
+    }
+
+    /**
+     * Shuffles the 52 cards of a numbered deal, see {@link #init(long)}.
+     *
+     * @param dealNumber number of the deal
+     * @return the shuffled deck
+     */
+    private static Deck shuffle(long dealNumber){
+        byte[] ordinals = new byte[DEAL_SIZE];
+        shuffle(dealNumber, ordinals);
+        Deck deck = new Deck(DEAL_SIZE);
+        for (byte ordinal : ordinals) deck.add(Card.of(ordinal));
+        return deck;
+    }
+
+    /**
+     * The SplitMix64 output function: mixes the bits of the generator state into a well-distributed value.
+     *
+     * @param z generator state
+     * @return next value
+     */
+    private static long mix64(long z){
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
 }
@@ -0,0 +1,212 @@
+package nl.quintor.solitaire.game;
+
+import nl.quintor.solitaire.game.moves.MoveCode;
+import nl.quintor.solitaire.models.card.Card;
+import nl.quintor.solitaire.models.card.Rank;
+import nl.quintor.solitaire.models.deck.Deck;
+import nl.quintor.solitaire.models.state.GameState;
+
+/**
+ * Library class that lists the legal moves in a {@link GameState} as {@link MoveCode}s, using the {@link CardMoveChecks}
+ * rules. The class is not instantiable, all constructors are private and all methods are static.
+ *
+ * <p>The moves are written to a buffer provided by the caller. Listing moves creates no objects at all, which makes it
+ * suitable for hints, solvers and bots that list moves millions of times.
+ *
+ * <p>The moves are ordered from most to least promising: moves to a stack pile, moves that turn over an invisible
+ * column card, the other moves from the stock and between columns, moves from a stack pile back to a column and
+ * finally cycling the stock. Moving a whole column to another empty column, or an Ace between stack piles, is never
+ * listed, as it does not change anything.
+ */
+public class MoveGenerator {
+    private static final int TO_STACK = 0;
+    private static final int REVEALING = 1;
+    private static final int OTHER = 2;
+    private static final int FROM_STACK = 3;
+
+    private MoveGenerator(){}
+
+    /**
+     * Writes the legal moves in the provided GameState object to the buffer, most promising first.
+     *
+     * @param gameState GameState object to list the moves for
+     * @param moves buffer for the move codes, {@link MoveCode#MAX_MOVES} long is always enough
+     * @return number of moves written to the buffer
+     */
+    public static int generate(GameState gameState, int[] moves) {
+        int count = 0;
+        for (int source = 0; source < GameState.PILE_COUNT; source++) {
+            if (source == GameState.WASTE_PILE) continue;
+            Deck sourceDeck = gameState.getPile(source);
+            if (sourceDeck.isEmpty()) continue;
+            int firstIndex = source >= GameState.FIRST_COLUMN_PILE ? sourceDeck.getInvisibleCards() : sourceDeck.size() - 1;
+            for (int index = firstIndex; index < sourceDeck.size(); index++) {
+                for (int destination = GameState.FIRST_STACK_PILE; destination < GameState.PILE_COUNT; destination++) {
+                    if (!isListed(gameState, source, index, destination)) continue;
+                    moves[count++] = MoveCode.of(source, index, destination);
+                }
+            }
+        }
+        sort(gameState, moves, count);
+        if (!gameState.getStock().isEmpty() || !gameState.getWaste().isEmpty()) moves[count++] = MoveCode.CYCLE_STOCK;
+        return count;
+    }
+
+    /**
+     * Determines if any card can still be moved, now or after cycling the stock: a card move that
+     * {@link #generate(GameState, int[])} would list, or a move of any card of the stock or waste to a stack pile or
+     * column. Cycling the stock shows every card of the stock and waste in turn without changing the rest of the
+     * layout, so if no card can be moved, only cycling the stock is left and the game can never be won. Creates no
+     * objects, and returns at the first card that can move.
+     *
+     * @param gameState GameState object to check
+     * @return true if a card can be moved
+     */
+    public static boolean canMoveCard(GameState gameState) {
+        for (int source = GameState.FIRST_STACK_PILE; source < GameState.PILE_COUNT; source++) {
+            Deck sourceDeck = gameState.getPile(source);
+            for (int index = firstMovable(source, sourceDeck); index < sourceDeck.size(); index++) {
+                for (int destination = GameState.FIRST_STACK_PILE; destination < GameState.PILE_COUNT; destination++) {
+                    if (isListed(gameState, source, index, destination)) return true;
+                }
+            }
+        }
+        return canMoveAny(gameState, gameState.getStock()) || canMoveAny(gameState, gameState.getWaste());
+    }
+
+    /**
+     * Determines if a move can lead to a layout that was not seen during the current pass through the stock (see
+     * {@link GameState#isPassLayout(long)}): a card move that {@link #generate(GameState, int[])} would list and that
+     * gives the stack piles and columns a layout that was not remembered, or a move of any card of the stock or waste
+     * to a stack pile or column. Creates no objects, and returns at the first such move.
+     *
+     * @param gameState GameState object to check
+     * @return true if a move leads to a layout that was not seen during the current pass
+     */
+    public static boolean canReachNewLayout(GameState gameState) {
+        for (int source = GameState.FIRST_STACK_PILE; source < GameState.PILE_COUNT; source++) {
+            Deck sourceDeck = gameState.getPile(source);
+            for (int index = firstMovable(source, sourceDeck); index < sourceDeck.size(); index++) {
+                for (int destination = GameState.FIRST_STACK_PILE; destination < GameState.PILE_COUNT; destination++) {
+                    if (!isListed(gameState, source, index, destination)) continue;
+                    if (!gameState.isPassLayout(gameState.getTableauHashAfter(source, index, destination))) return true;
+                }
+            }
+        }
+        return canMoveAny(gameState, gameState.getStock()) || canMoveAny(gameState, gameState.getWaste());
+    }
+
+    /**
+     * Determines if a legal move cannot make progress on its own: a move from a stack pile back to a column, or a move
+     * between columns that leaves visible cards of the source column behind. Strategies and searches that play quickly
+     * skip such moves.
+     *
+     * @param gameState GameState object the move is played in
+     * @param code move code of a legal move
+     * @return true if the move takes cards from a stack pile, or from a column to another column without taking all
+     * visible cards of the column
+     */
+    public static boolean isAimless(GameState gameState, int code) {
+        if (MoveCode.isCycleStock(code)) return false;
+        int source = MoveCode.source(code);
+        if (source == GameState.STOCK_PILE || MoveCode.destination(code) < GameState.FIRST_COLUMN_PILE) return false;
+        if (source < GameState.FIRST_COLUMN_PILE) return true;
+        return MoveCode.index(code) > gameState.getPile(source).getInvisibleCards();
+    }
+
+    /**
+     * Determines if a legal move to a stack pile is safe: no later move can need the card outside the stack piles. A
+     * card is only ever needed as the target of a card of the next lower rank and the other colour, so Aces and twos
+     * are always safe, and any other card is safe once both cards of the next lower rank and the other colour are on
+     * the stack piles. Playing safe moves right away never loses a game that could be won.
+     *
+     * @param gameState GameState object the move is played in
+     * @param code move code of a legal move
+     * @return true if the move takes a card from the stock or a column to a stack pile, and the card is safe there
+     */
+    public static boolean isSafe(GameState gameState, int code) {
+        if (MoveCode.isCycleStock(code) || MoveCode.destination(code) >= GameState.FIRST_COLUMN_PILE) return false;
+        int source = MoveCode.source(code);
+        if (source >= GameState.FIRST_STACK_PILE && source < GameState.FIRST_COLUMN_PILE) return false;
+        Deck sourceDeck = gameState.getPile(source);
+        Card card = sourceDeck.get(sourceDeck.size() - 1);
+        int rank = card.getRank() == Rank.ACE ? 1 : card.getRank().ordinal() + 2; // the height of the stack pile it goes on
+        if (rank <= 2) return true;
+
+        // stack piles hold a single suit from the Ace up, so their size is the rank of their top card
+        boolean red = CardMoveChecks.redSuit(card);
+        int covered = 0;
+        for (int pile = GameState.FIRST_STACK_PILE; pile < GameState.FIRST_COLUMN_PILE; pile++) {
+            Deck stack = gameState.getPile(pile);
+            if (stack.size() >= rank - 1 && CardMoveChecks.redSuit(stack.get(0)) != red) covered++;
+        }
+        return covered == 2;
+    }
+
+    /**
+     * Returns the index of the first card of a stack pile or column that can be moved: the first visible card of a
+     * column, or the top card of a stack pile.
+     */
+    private static int firstMovable(int source, Deck sourceDeck) {
+        return Math.max(source >= GameState.FIRST_COLUMN_PILE ? sourceDeck.getInvisibleCards() : sourceDeck.size() - 1, 0);
+    }
+
+    /**
+     * Determines if {@link #generate(GameState, int[])} lists a card move: a legal move that changes something.
+     */
+    private static boolean isListed(GameState gameState, int source, int index, int destination) {
+        Deck sourceDeck = gameState.getPile(source);
+        Deck destinationDeck = gameState.getPile(destination);
+        boolean column = source >= GameState.FIRST_COLUMN_PILE;
+        boolean stack = source >= GameState.FIRST_STACK_PILE && !column;
+        boolean toColumn = destination >= GameState.FIRST_COLUMN_PILE;
+        if (stack && !toColumn) return false;
+        if (column && index == 0 && destinationDeck.isEmpty() && toColumn) return false;
+        return CardMoveChecks.isLegalMove(sourceDeck, index, destinationDeck);
+    }
+
+    /**
+     * Determines if any card of the stock or waste could be moved to a stack pile or column if it were on top of the
+     * stock.
+     */
+    private static boolean canMoveAny(GameState gameState, Deck cards) {
+        for (int i = 0; i < cards.size(); i++) {
+            Card card = cards.get(i);
+            for (int destination = GameState.FIRST_STACK_PILE; destination < GameState.PILE_COUNT; destination++) {
+                Deck destinationDeck = gameState.getPile(destination);
+                Card targetCard = destinationDeck.isEmpty() ? null : destinationDeck.get(destinationDeck.size() - 1);
+                boolean legal = destination < GameState.FIRST_COLUMN_PILE ? CardMoveChecks.canGoOnStack(targetCard, card)
+                    : CardMoveChecks.canGoOnColumn(targetCard, card);
+                if (legal) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Orders card moves by category, keeping the order of moves within a category. Insertion sort, as there are only a
+     * few dozen moves at most.
+     */
+    private static void sort(GameState gameState, int[] moves, int count) {
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            int category = category(gameState, move);
+            int j = i - 1;
+            while (j >= 0 && category(gameState, moves[j]) > category) {
+                moves[j + 1] = moves[j];
+                j--;
+            }
+            moves[j + 1] = move;
+        }
+    }
+
+    private static int category(GameState gameState, int move) {
+        int source = MoveCode.source(move);
+        int index = MoveCode.index(move);
+        if (MoveCode.destination(move) < GameState.FIRST_COLUMN_PILE) return TO_STACK;
+        if (source >= GameState.FIRST_COLUMN_PILE) {
+            return index > 0 && index == gameState.getPile(source).getInvisibleCards() ? REVEALING : OTHER;
+        }
+        return source >= GameState.FIRST_STACK_PILE ? FROM_STACK : OTHER;
+    }
+}
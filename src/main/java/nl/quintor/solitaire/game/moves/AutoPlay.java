@@ -0,0 +1,126 @@
+package nl.quintor.solitaire.game.moves;
+
+import nl.quintor.solitaire.game.CardMoveChecks;
+import nl.quintor.solitaire.game.GameStateController;
+import nl.quintor.solitaire.game.MoveGenerator;
+import nl.quintor.solitaire.game.moves.ex.MoveException;
+import nl.quintor.solitaire.models.deck.Deck;
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.models.state.MoveJournal;
+import nl.quintor.solitaire.models.state.VariationTree;
+
+/**
+ * Class that plays the card moves to the stack piles that a player would make anyway, after every {@link MoveCard} and
+ * {@link CycleStock} of the player. It plays every safe move (see {@link MoveGenerator#isSafe(GameState, int)}) from
+ * the stock and the columns until there are none left. Once the stock is empty and all column cards are face up (see
+ * {@link GameStateController#hasWinningLayout(GameState)}), every column is a single run of alternating colours, so
+ * the lowest card left is always on top of a column and safe: the auto-play then plays all cards to the stack piles and
+ * finishes the game in one go.
+ *
+ * <p>The card moves are applied straight onto the GameState, in a single batch, and together they form one compound
+ * move. Each of them is a regular {@link MoveCard} whose move code has the {@link MoveCode#AUTO_PLAYED} flag, so they
+ * keep their flag in the moves journal, the {@link VariationTree} and the game journal. {@link Revert} reverts all
+ * auto-played moves on top of the moves journal at once, and {@link Redo} redoes them at once.
+ */
+public class AutoPlay implements Move {
+    private final static String name = System.getProperty("os.name").contains("Windows") ? "Auto-play" : "A̲uto-play";
+
+    /**
+     * Plays the safe moves to the stack piles in a single batch.
+     *
+     * @param gameState GameState object to which the moves will be applied
+     * @return result of the auto-play, for example "Auto-played 2 card(s) to the stack piles" or "Finished the game:
+     * auto-played 9 card(s) to the stack piles", or an empty String if no card could be played
+     * @throws MoveException never, all moves are legal
+     */
+    @Override
+    public String apply(GameState gameState) throws MoveException {
+        int played = 0;
+        for (int code = nextMove(gameState); code != MoveCode.INVALID; code = nextMove(gameState)) {
+            new MoveCard(code | MoveCode.AUTO_PLAYED).apply(gameState);
+            played++;
+        }
+        if (played == 0) return "";
+        String result = played + " card(s) to the stack piles";
+        return GameStateController.hasWinningLayout(gameState) ? "Finished the game: auto-played " + result :
+            "Auto-played " + result;
+    }
+
+    @Override
+    public Move createInstance(String playerInput) {
+        return new AutoPlay();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Determines if the newest move in the moves journal was auto-played.
+     *
+     * @param gameState GameState object with at least one move
+     * @return true if the newest move has the {@link MoveCode#AUTO_PLAYED} flag
+     */
+    static boolean isNewest(GameState gameState) {
+        return MoveCode.isAutoPlayed(MoveCode.ofJournalEntry(gameState.getMoveJournal().peek()));
+    }
+
+    /**
+     * Reverts the compound move on top of the moves journal: all auto-played moves, up to the move of the player.
+     *
+     * @param gameState GameState object whose newest move was auto-played
+     * @return result of the revert, for example "Reverted auto-play of 2 card(s)"
+     */
+    static String revert(GameState gameState) {
+        MoveJournal journal = gameState.getMoveJournal();
+        int reverted = 0;
+        while (journal.size() > 0 && MoveCode.isAutoPlayed(MoveCode.ofJournalEntry(journal.peek()))) {
+            RevertibleMove.fromJournalEntry(journal.peek()).revert(gameState);
+            reverted++;
+        }
+        return "Reverted auto-play of " + reverted + " card(s)";
+    }
+
+    /**
+     * Redoes a reverted compound move: follows the redo children of the {@link VariationTree} as long as they were
+     * auto-played.
+     *
+     * @param gameState GameState object that records variations, whose redo child was auto-played
+     * @return result of the redo, for example "Auto-played 2 card(s) to the stack piles"
+     * @throws MoveException if a move cannot be applied
+     */
+    static String redo(GameState gameState) throws MoveException {
+        VariationTree variations = gameState.getVariations();
+        int played = 0;
+        for (int child = variations.getRedoChild(variations.getCurrent());
+             child != VariationTree.NONE && MoveCode.isAutoPlayed(JournalEntry.code(variations.getEntry(child)));
+             child = variations.getRedoChild(variations.getCurrent())) {
+            MoveCode.toMove(JournalEntry.code(variations.getEntry(child))).apply(gameState);
+            played++;
+        }
+        return "Auto-played " + played + " card(s) to the stack piles";
+    }
+
+    /**
+     * Finds the next safe card to play from the stock or the top of a column to a stack pile.
+     *
+     * @param gameState GameState object to search
+     * @return move code of a safe move, without flags, or {@link MoveCode#INVALID} if there is none
+     */
+    private static int nextMove(GameState gameState) {
+        for (int source = GameState.STOCK_PILE; source < GameState.PILE_COUNT; source++) {
+            if (source == GameState.WASTE_PILE) continue;
+            if (source == GameState.FIRST_STACK_PILE) source = GameState.FIRST_COLUMN_PILE;
+            Deck sourceDeck = gameState.getPile(source);
+            if (sourceDeck.isEmpty()) continue;
+            int index = sourceDeck.size() - 1;
+            for (int stack = GameState.FIRST_STACK_PILE; stack < GameState.FIRST_COLUMN_PILE; stack++) {
+                if (!CardMoveChecks.isLegalMove(sourceDeck, index, gameState.getPile(stack))) continue;
+                int code = MoveCode.of(source, index, stack);
+                if (MoveGenerator.isSafe(gameState, code)) return code;
+            }
+        }
+        return MoveCode.INVALID;
+    }
+}
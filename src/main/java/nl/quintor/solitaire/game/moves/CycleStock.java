@@ -6,11 +6,27 @@ import nl.quintor.solitaire.models.state.GameState;
 
 /**
  * Class that represents a player action to cycle the stock. This is an action that influences the {@link GameState}, is
- * revertible and influences the {@link GameState#baseScore}. It stores the previous score in case this move is reverted.
+ * revertible and influences the {@link GameState#baseScore}. It remembers whether the stock was turned over, which
+ * implies the score penalty, in case this move is reverted.
+ * Like all moves that change the card layout, it keeps the {@link GameState#getZobristHash()} up to date. The card
+ * counters of the GameState stay the same, as the move neither turns over column cards nor touches the stack piles.
  */
 public class CycleStock implements RevertibleMove {
     private final static String name = System.getProperty("os.name").contains("Windows") ? "Cycle stock" : "C̲ycle stock";
-    private long previousScore = 0;
+    private static final int RECYCLE_PENALTY = -100;
+    private boolean recycled = false;
+
+    /**
+     * Recreates an applied stock cycle from its journal entry.
+     *
+     * @param entry journal entry, see {@link JournalEntry}
+     * @return the applied move, ready to be reverted
+     */
+    static CycleStock fromJournalEntry(long entry) {
+        CycleStock move = new CycleStock();
+        move.recycled = JournalEntry.cycledStock(entry);
+        return move;
+    }
 
     @Override
     public Move createInstance(String playerInput) {
@@ -32,14 +48,48 @@ public class CycleStock implements RevertibleMove {
      */
     @Override
     public String apply(GameState gameState) throws MoveException{
-        // TODO: Write implementation
-        return null;
+        Deck stock = gameState.getStock();
+        Deck waste = gameState.getWaste();
+        if (stock.isEmpty() && waste.isEmpty()) throw new MoveException("Stock is empty");
+
+        // all cards have been seen, turn the stock over and start a new cycle
+        if (waste.isEmpty()) {
+            gameState.toggleZobristKeys(stock, 0, stock.size());
+            waste.addAll(stock);
+            stock.clear();
+            gameState.toggleZobristKeys(waste, 0, waste.size());
+            gameState.setStockCycles(gameState.getStockCycles() + 1);
+            addScore(gameState);
+            recycled = true;
+        }
+        drawCard(gameState);
+        gameState.remember(this);
+        gameState.verifyZobristHash();
+        return "Stock card " + stock.size() + " out of " + (stock.size() + waste.size()) + ", cycle " +
+            gameState.getStockCycles();
     }
 
     @Override
     public String revert(GameState gameState){
-        // TODO: Write implementation
-        return "";
+        Deck stock = gameState.getStock();
+        Deck waste = gameState.getWaste();
+        returnCard(gameState);
+        if (recycled) {
+            gameState.toggleZobristKeys(waste, 0, waste.size());
+            stock.addAll(waste);
+            waste.clear();
+            gameState.toggleZobristKeys(stock, 0, stock.size());
+            gameState.setStockCycles(gameState.getStockCycles() - 1);
+            gameState.setBaseScore(gameState.getBaseScore() - RECYCLE_PENALTY);
+        }
+        gameState.forget(this);
+        gameState.verifyZobristHash();
+        return "Reverted stock cycle";
+    }
+
+    @Override
+    public long toJournalEntry() {
+        return JournalEntry.of(MoveCode.CYCLE_STOCK, 0, false, recycled, recycled ? RECYCLE_PENALTY : 0);
     }
 
     @Override
@@ -48,12 +98,38 @@ public class CycleStock implements RevertibleMove {
     }
 
     /**
-     * Subtracts a hundred points from {@link GameState#baseScore} and stores the previous value.
+     * Turns the first card of the {@link GameState#waste} face up on top of the {@link GameState#stock}.
+     *
+     * @param gameState GameState object with a non-empty waste
+     */
+    static void drawCard(GameState gameState) {
+        Deck stock = gameState.getStock();
+        Deck waste = gameState.getWaste();
+        gameState.toggleZobristKeys(waste, 0, 1);
+        stock.add(waste.remove(0));
+        gameState.toggleZobristKeys(stock, stock.size() - 1, stock.size());
+    }
+
+    /**
+     * Reverts {@link #drawCard(GameState)}: returns the top card of the {@link GameState#stock} to the front of the
+     * {@link GameState#waste}.
+     *
+     * @param gameState GameState object with a non-empty stock
+     */
+    static void returnCard(GameState gameState) {
+        Deck stock = gameState.getStock();
+        Deck waste = gameState.getWaste();
+        gameState.toggleZobristKeys(stock, stock.size() - 1, stock.size());
+        waste.add(0, stock.remove(stock.size() - 1));
+        gameState.toggleZobristKeys(waste, 0, 1);
+    }
+
+    /**
+     * Subtracts a hundred points from {@link GameState#baseScore}.
      *
      * @param gameState GameState object that the method is applied to
      */
     private void addScore(GameState gameState){
-        previousScore = gameState.getBaseScore();
-        gameState.setBaseScore(previousScore - 100);
+        gameState.setBaseScore(gameState.getBaseScore() + RECYCLE_PENALTY);
     }
 }
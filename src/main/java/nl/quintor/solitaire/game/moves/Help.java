@@ -16,8 +16,16 @@ public class Help implements Move{
      */
     @Override
     public String apply(GameState gameState) {
-        // TODO: Write implementation
-        return null;
+        return "\nYou can give a command with the Capital letter followed by <Return>,\n" +
+            "so in order to display these instructions, simply type \"H + <Return>\"!\n" +
+            "You can simply hit <Return> to repeat the last command you entered.\n" +
+            "The " + name + " command requires arguments. The syntax is: \n\n" +
+            "M Source Destination (case insensitive)\n\n" +
+            "For example:\n" +
+            "\"M O SA\" moves the top card from the Stock to the top of Stack Pile A\n" +
+            "\"M SB F\" moves the top card from Stack Pile B to the end of Column F\n\n" +
+            "Dutch Patience rules: http://www.patiencespel.nl/patiencespelregels.php\n" +
+            "English Patience rules: http://digsolitaire.com/solitaire-rules.php\n";
     }
 
     @Override
@@ -27,7 +35,6 @@ public class Help implements Move{
 
     @Override
     public String toString() {
-        // TODO: Write implementation
-        return null;
+        return name;
     }
 }
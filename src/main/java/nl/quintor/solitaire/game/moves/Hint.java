@@ -0,0 +1,43 @@
+package nl.quintor.solitaire.game.moves;
+
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.solver.HintEngine;
+
+/**
+ * Class that represents a player action to ask for a hint: the best next move with an estimate of the chance to win.
+ * The hint is found by a {@link HintEngine}, which searches in the background within its latency budget.
+ */
+public class Hint implements Move {
+    private final static String name = System.getProperty("os.name").contains("Windows") ? "Hint" : "Hi̲nt";
+    private final HintEngine engine;
+
+    /**
+     * Constructs a Hint move.
+     *
+     * @param engine engine that searches for the hints, shared by all Hint moves of a game
+     */
+    public Hint(HintEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Returns a hint for the UI to show the player. Does not influence the {@link GameState}.
+     *
+     * @param gameState GameState object to suggest a move for
+     * @return the suggested move and the chance to win, for example "Hint: M A3 SB (win likelihood 35%, 1200 playouts)"
+     */
+    @Override
+    public String apply(GameState gameState) {
+        return engine.hint(gameState).toString();
+    }
+
+    @Override
+    public Move createInstance(String playerInput) {
+        return new Hint(engine);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,87 @@
+package nl.quintor.solitaire.game.moves;
+
+/**
+ * Library class that packs an applied {@link RevertibleMove} into a single long for the undo journal of the
+ * {@link nl.quintor.solitaire.models.state.GameState}. The class is not instantiable, all constructors are private and
+ * all methods are static.
+ *
+ * <p>Layout, from the least significant bit:
+ * <ul>
+ *     <li>bits 0-13: the {@link MoveCode}, without flags</li>
+ *     <li>bits 14-18: number of cards moved</li>
+ *     <li>bit 19: a face-down column card was turned over</li>
+ *     <li>bit 20: the stock was cycled (a card move that emptied the stock) or turned over (a stock cycle)</li>
+ *     <li>bit 21: the {@link MoveCode#AUTO_PLAYED} flag of the move code</li>
+ *     <li>bits 32-63: the change of the base score, signed</li>
+ * </ul>
+ */
+final class JournalEntry {
+    private static final int CODE_MASK = (1 << 14) - 1;
+    private static final int COUNT_SHIFT = 14;
+    private static final int COUNT_MASK = 0x1F;
+    private static final long SHOWED_INVISIBLE = 1L << 19;
+    private static final long CYCLED_STOCK = 1L << 20;
+    private static final long AUTO_PLAYED = 1L << 21;
+    private static final int SCORE_SHIFT = 32;
+
+    private JournalEntry(){}
+
+    /**
+     * Packs an applied move.
+     *
+     * @param code move code
+     * @param cardCount number of cards moved, up to 31
+     * @param showedInvisible whether a face-down column card was turned over
+     * @param cycledStock whether the stock was cycled or turned over
+     * @param scoreDelta change of the base score
+     * @return journal entry
+     */
+    static long of(int code, int cardCount, boolean showedInvisible, boolean cycledStock, int scoreDelta) {
+        return (code & CODE_MASK)
+            | (long) (cardCount & COUNT_MASK) << COUNT_SHIFT
+            | (showedInvisible ? SHOWED_INVISIBLE : 0)
+            | (cycledStock ? CYCLED_STOCK : 0)
+            | (MoveCode.isAutoPlayed(code) ? AUTO_PLAYED : 0)
+            | (long) scoreDelta << SCORE_SHIFT;
+    }
+
+    /**
+     * @param entry journal entry
+     * @return move code, with its {@link MoveCode#AUTO_PLAYED} flag
+     */
+    static int code(long entry) {
+        return (int) entry & CODE_MASK | ((entry & AUTO_PLAYED) != 0 ? MoveCode.AUTO_PLAYED : 0);
+    }
+
+    /**
+     * @param entry journal entry
+     * @return number of cards moved
+     */
+    static int cardCount(long entry) {
+        return (int) (entry >>> COUNT_SHIFT) & COUNT_MASK;
+    }
+
+    /**
+     * @param entry journal entry
+     * @return whether a face-down column card was turned over
+     */
+    static boolean showedInvisible(long entry) {
+        return (entry & SHOWED_INVISIBLE) != 0;
+    }
+
+    /**
+     * @param entry journal entry
+     * @return whether the stock was cycled or turned over
+     */
+    static boolean cycledStock(long entry) {
+        return (entry & CYCLED_STOCK) != 0;
+    }
+
+    /**
+     * @param entry journal entry
+     * @return change of the base score
+     */
+    static int scoreDelta(long entry) {
+        return (int) (entry >> SCORE_SHIFT);
+    }
+}
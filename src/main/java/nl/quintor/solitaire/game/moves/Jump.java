@@ -0,0 +1,106 @@
+package nl.quintor.solitaire.game.moves;
+
+import nl.quintor.solitaire.game.moves.ex.MoveException;
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.models.state.VariationTree;
+
+import java.util.List;
+
+/**
+ * Class that represents a player action to switch to another node of the {@link VariationTree}, for example "J 12", or,
+ * without a node number, to list the variations. Jumping reverts the moves up to the position where the current line
+ * and the target line branch off, and then applies the moves of the target line from there: the moves both lines
+ * share are left alone.
+ */
+public class Jump implements Move {
+    private final static String name = System.getProperty("os.name").contains("Windows") ? "Jump" : "J̲ump";
+    private String playerInput;
+
+    public Jump(){}
+
+    public Jump(String playerInput){
+        this.playerInput = playerInput;
+    }
+
+    /**
+     * Jumps to the node in the player input, or lists the end points of all variations if no node is provided.
+     *
+     * @param gameState GameState object to which the jump will be applied
+     * @return list of variations, or the result of the jump
+     * @throws MoveException if variations are not recorded, the node does not exist, or the line to the node branches
+     * off before the oldest move that can be reverted
+     */
+    @Override
+    public String apply(GameState gameState) throws MoveException {
+        VariationTree variations = gameState.getVariations();
+        if (variations == null) throw new MoveException("Cannot jump; variations are not recorded.");
+        String[] input = playerInput == null ? new String[0] : playerInput.trim().split("\\s+");
+        if (input.length < 2) return listVariations(variations);
+
+        int target = parseNode(input[1], variations);
+        int ancestor = variations.getCommonAncestor(variations.getCurrent(), target);
+        int reverts = variations.getDepth(variations.getCurrent()) - variations.getDepth(ancestor);
+        List<RevertibleMove> moves = gameState.getMoves();
+        if (reverts > moves.size()) throw new MoveException("Cannot jump; node " + target +
+            " branches off before the oldest move that can be reverted");
+
+        int[] path = variations.getPath(ancestor, target);
+        for (int i = 0; i < reverts; i++) moves.get(moves.size() - 1).revert(gameState);
+        for (int node : path) MoveCode.toMove(JournalEntry.code(variations.getEntry(node))).apply(gameState);
+        return "Jumped to node " + target + ": reverted " + reverts + " and played " + path.length + " move(s)";
+    }
+
+    @Override
+    public Move createInstance(String playerInput) {
+        return new Jump(playerInput);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Parses a node number.
+     *
+     * @param token node number from the player input
+     * @param variations tree that should contain the node
+     * @return node number
+     * @throws MoveException if the token is not a node of the tree
+     */
+    private static int parseNode(String token, VariationTree variations) throws MoveException {
+        try {
+            int node = Integer.parseInt(token);
+            if (variations.contains(node)) return node;
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new MoveException("Node " + token + " does not exist");
+    }
+
+    /**
+     * Lists the end points of all variations, for example "Variations: 4 (3 moves, last M O F), 7 (current, 2 moves,
+     * last C); jump with J &lt;node&gt;, J 0 for the deal".
+     *
+     * @param variations tree to list
+     * @return list of variations
+     */
+    private static String listVariations(VariationTree variations) {
+        StringBuilder builder = new StringBuilder("Variations: ");
+        int[] leaves = variations.getLeaves();
+        for (int i = 0; i < leaves.length; i++) {
+            int node = leaves[i];
+            if (i > 0) builder.append(", ");
+            builder.append(node).append(" (");
+            if (node == variations.getCurrent()) builder.append("current, ");
+            builder.append(variations.getDepth(node)).append(" moves");
+            if (node != VariationTree.ROOT) {
+                builder.append(", last ").append(MoveCode.toPlayerInput(JournalEntry.code(variations.getEntry(node))));
+            }
+            builder.append(')');
+        }
+        int current = variations.getCurrent();
+        if (variations.getRedoChild(current) != VariationTree.NONE) builder.append("; current node ").append(current);
+        return builder.append("; jump with J <node>, J 0 for the deal").toString();
+    }
+}
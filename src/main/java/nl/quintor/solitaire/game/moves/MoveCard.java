@@ -2,28 +2,38 @@ package nl.quintor.solitaire.game.moves;
 
 import nl.quintor.solitaire.game.CardMoveChecks;
 import nl.quintor.solitaire.game.moves.ex.MoveException;
+import nl.quintor.solitaire.models.card.Card;
 import nl.quintor.solitaire.models.deck.Deck;
 import nl.quintor.solitaire.models.deck.DeckType;
 import nl.quintor.solitaire.models.state.GameState;
 
+import java.util.List;
+
 /**
  * Class that represents a player action to move a card or multiple cards. This is an action that influences the
  * {@link GameState}, is revertible and influences the {@link GameState#baseScore}. It contains several helper methods
  * to get the job done, and uses the {@link CardMoveChecks} library class to determine if the requested card move is legal.
  *
- * <p>To make reverting the move possible, instances of this class store the player input, the source deck, the cards moved,
- * the destination deck, whether or not a previously invisible card was exposed on the source deck, whether or not
- * the stock was cycled because the first card was removed from it, and finally the previous score.
+ * <p>The move runs on its {@link MoveCode}. Moves created by players carry their input, which is parsed into a move
+ * code once, when the move is applied. Moves created by engines, replays or the network are created from a move code
+ * directly and skip string handling completely.
+ *
+ * <p>To make reverting the move possible, instances of this class store the move code, the number of cards moved,
+ * whether or not a previously invisible card was exposed on the source deck, whether or not the stock was cycled
+ * because the first card was removed from it, and finally the change of the score. The GameState remembers exactly
+ * these values as a {@link JournalEntry}; the decks are looked up by pile number when the move is reverted.
+ *
+ * <p>Applying and reverting the move keeps the {@link GameState#getZobristHash()} and the card counters of the
+ * GameState up to date.
  */
 public class MoveCard implements RevertibleMove {
     private final static String name = System.getProperty("os.name").contains("Windows") ? "Move" : "M̲ove";
     private String playerInput;
-    private Deck sourceDeck;
-    private Deck movedCards;
-    private Deck destinationDeck;
+    private int code = MoveCode.INVALID;
+    private int cardCount = 0;
     private boolean showedInvisible = false;
     private boolean cycledStock = false;
-    private long previousScore = 0;
+    private int scoreDelta = 0;
 
     public MoveCard(){}
 
@@ -31,14 +41,39 @@ public class MoveCard implements RevertibleMove {
         this.playerInput = playerInput;
     }
 
+    /**
+     * Creates a card move from its move code.
+     *
+     * @param code card move code, see {@link MoveCode}; a code that names a pile that does not exist is rejected when
+     * the move is applied
+     */
+    public MoveCard(int code){
+        this.code = code;
+    }
+
+    /**
+     * Recreates an applied card move from its journal entry.
+     *
+     * @param entry journal entry, see {@link JournalEntry}
+     * @return the applied move, ready to be reverted
+     */
+    static MoveCard fromJournalEntry(long entry) {
+        MoveCard move = new MoveCard(JournalEntry.code(entry));
+        move.cardCount = JournalEntry.cardCount(entry);
+        move.showedInvisible = JournalEntry.showedInvisible(entry);
+        move.cycledStock = JournalEntry.cycledStock(entry);
+        move.scoreDelta = JournalEntry.scoreDelta(entry);
+        return move;
+    }
+
     @Override
     public Move createInstance(String playerInput) {
         return new MoveCard(playerInput);
     }
 
     /**
-     * Moves a card. Applying this move requires additional player input in the form of two arguments: the source and
-     * the destination, separated from the move command by spaces, case-insensitive.
+     * Moves a card. Applying a move created by a player requires additional player input in the form of two arguments:
+     * the source and the destination, separated from the move command by spaces, case-insensitive.
      *
      * The move is checked by the {@link CardMoveChecks} class. If everything checks out, the move is executed.
      * If a previously invisible column card is exposed, it is turned face-upwards. The stock is cycled when appropriate.
@@ -50,14 +85,99 @@ public class MoveCard implements RevertibleMove {
      */
     @Override
     public String apply(GameState gameState) throws MoveException {
-        // TODO: Write implementation
-        return null;
+        if (code == MoveCode.INVALID) code = parse(playerInput);
+        int source = MoveCode.source(code);
+        int destination = MoveCode.destination(code);
+        if (source >= GameState.PILE_COUNT || destination >= GameState.PILE_COUNT) {
+            throw new MoveException("Unknown pile");
+        }
+        Deck sourceDeck = gameState.getPile(source);
+        Deck destinationDeck = gameState.getPile(destination);
+        int cardIndex = getCardIndex(sourceDeck, source, MoveCode.index(code));
+        CardMoveChecks.deckLevelChecks(sourceDeck, cardIndex, destinationDeck);
+        CardMoveChecks.cardLevelChecks(destinationDeck, sourceDeck.get(cardIndex));
+
+        // transfer the cards
+        List<Card> cardsToMove = sourceDeck.subList(cardIndex, sourceDeck.size());
+        cardCount = cardsToMove.size();
+        gameState.toggleZobristKeys(sourceDeck, cardIndex, sourceDeck.size());
+        destinationDeck.addAll(cardsToMove);
+        cardsToMove.clear();
+        int destinationIndex = destinationDeck.size() - cardCount;
+        gameState.toggleZobristKeys(destinationDeck, destinationIndex, destinationDeck.size());
+        countFoundationCards(gameState, sourceDeck, destinationDeck, cardCount);
+
+        // turn over the last card of a column if it was invisible
+        int invisibleCards = sourceDeck.getInvisibleCards();
+        if (sourceDeck.getDeckType() == DeckType.COLUMN && invisibleCards > 0 && invisibleCards == sourceDeck.size()) {
+            gameState.toggleZobristKeys(sourceDeck, invisibleCards - 1, invisibleCards);
+            sourceDeck.setInvisibleCards(invisibleCards - 1);
+            gameState.toggleZobristKeys(sourceDeck, invisibleCards - 1, invisibleCards);
+            showedInvisible = true;
+        }
+
+        // show the next stock card if the top card was taken
+        if (sourceDeck.getDeckType() == DeckType.STOCK && sourceDeck.isEmpty() && !gameState.getWaste().isEmpty()) {
+            CycleStock.drawCard(gameState);
+            cycledStock = true;
+        }
+
+        addScore(gameState, sourceDeck.getDeckType(), destinationDeck.getDeckType());
+        gameState.remember(this);
+        gameState.verifyZobristHash();
+        return "Moved " + describe(destinationDeck.subList(destinationIndex, destinationDeck.size())) + " from " +
+            MoveCode.token(source, cardIndex) + " to " + MoveCode.token(destination, -1);
     }
 
     @Override
     public String revert(GameState gameState){
-        // TODO: Write implementation
-        return null;
+        Deck sourceDeck = gameState.getPile(MoveCode.source(code));
+        Deck destinationDeck = gameState.getPile(MoveCode.destination(code));
+        if (cycledStock) CycleStock.returnCard(gameState);
+        if (showedInvisible) {
+            int invisibleCards = sourceDeck.getInvisibleCards();
+            gameState.toggleZobristKeys(sourceDeck, invisibleCards, invisibleCards + 1);
+            sourceDeck.setInvisibleCards(invisibleCards + 1);
+            gameState.toggleZobristKeys(sourceDeck, invisibleCards, invisibleCards + 1);
+        }
+
+        int destinationIndex = destinationDeck.size() - cardCount;
+        List<Card> movedCards = destinationDeck.subList(destinationIndex, destinationDeck.size());
+        String message = "Reverted move of " + describe(movedCards);
+        gameState.toggleZobristKeys(destinationDeck, destinationIndex, destinationDeck.size());
+        sourceDeck.addAll(movedCards);
+        movedCards.clear();
+        gameState.toggleZobristKeys(sourceDeck, sourceDeck.size() - cardCount, sourceDeck.size());
+        countFoundationCards(gameState, sourceDeck, destinationDeck, -cardCount);
+
+        gameState.setBaseScore(gameState.getBaseScore() - scoreDelta);
+        gameState.forget(this);
+        gameState.verifyZobristHash();
+        return message;
+    }
+
+    @Override
+    public long toJournalEntry() {
+        return JournalEntry.of(code, cardCount, showedInvisible, cycledStock, scoreDelta);
+    }
+
+    /**
+     * Getter for playerInput.
+     *
+     * @return the player input this move was created with, for example "M A3 SB", or the equivalent input of the move
+     * code if the move was created from a move code
+     */
+    public String getPlayerInput() {
+        return playerInput != null ? playerInput : MoveCode.toPlayerInput(code);
+    }
+
+    /**
+     * Getter for code.
+     *
+     * @return the move code, or {@link MoveCode#INVALID} if the player input has not been parsed yet
+     */
+    public int getCode() {
+        return code;
     }
 
     @Override
@@ -66,59 +186,84 @@ public class MoveCard implements RevertibleMove {
     }
 
     /**
-     * Returns the index of the source card based on the first player input parameter, the locationToken. If the requested
-     * card is in the stock or a stack pile, the last card of that deck is returned. If the requested card is located in
-     * a column, the specified row number is returned. Assumes the locationToken is syntactically correct and cast to
-     * uppercase.
+     * Parses player input into a move code. If the input is not a valid card move, the reason is determined by
+     * {@link CardMoveChecks#checkPlayerInput(String[])}; syntactically correct input can then only have a row number
+     * that no column can reach.
+     *
+     * @param playerInput player input, for example "M A3 SB"
+     * @return card move code
+     * @throws MoveException on syntax error or a row number that is out of range
+     */
+    private static int parse(String playerInput) throws MoveException {
+        int code = MoveCode.parse(playerInput);
+        if (code != MoveCode.INVALID) return code;
+        String[] input = playerInput == null ? new String[0] : playerInput.trim().toUpperCase().split("\\s+");
+        CardMoveChecks.checkPlayerInput(input);
+        throw new MoveException("Column " + input[1].substring(0, 1) + " has no card " + input[1].substring(1));
+    }
+
+    /**
+     * Returns the index of the source card. If the requested card is in the stock or a stack pile, the last card of that
+     * deck is returned. If the requested card is located in a column, the encoded row number is returned.
      *
      * @param sourceDeck Deck in which the card is looked up
-     * @param locationToken syntactically correct String representation of the source card location
+     * @param source pile number of the source deck
+     * @param row encoded row number
      * @return index in Deck
-     * @throws MoveException if no index could be determined
+     * @throws MoveException if the column has no card at the row number
      */
-    private int getCardIndex(Deck sourceDeck, String locationToken) throws MoveException {
-        if (sourceDeck.getDeckType() == DeckType.STOCK || sourceDeck.getDeckType() == DeckType.STACK) return sourceDeck.size() - 1;
-        if (sourceDeck.getDeckType() == DeckType.COLUMN){
-            int row = Integer.parseInt(locationToken.substring(1));
-            if (row >= sourceDeck.size()) throw new MoveException("Column " + locationToken.substring(0, 1) + " has no card " + row);
-            return row;
+    private int getCardIndex(Deck sourceDeck, int source, int row) throws MoveException {
+        if (sourceDeck.getDeckType() != DeckType.COLUMN) return sourceDeck.size() - 1;
+        if (row >= sourceDeck.size()) {
+            throw new MoveException("Column " + MoveCode.token(source, -1) + " has no card " + row);
         }
-        throw new MoveException("Card index for token \n" + locationToken + "\n could not be determined.");
+        return row;
     }
 
     /**
-     * Determines which deck of the {@link GameState} is requested by the provided locationToken.
-     * Assumes the locationToken is syntactically correct and cast to uppercase.
+     * Describes moved cards the way {@link Deck#toString()} does, for example "[♧ 8, ♥ 7]".
      *
-     * @param gameState GameState object from which the deck is returned
-     * @param locationToken syntactically correct String representation of a card location
-     * @return the deck represented by the locationToken
-     * @throws MoveException if the deck could not be determined
+     * @param cards moved cards
+     * @return short descriptions of the cards
      */
-    private Deck getDeck(GameState gameState, String locationToken) throws MoveException {
-        String deckHeader = locationToken.substring(0 ,1);
-        if ("O".equals(deckHeader)) return gameState.getStock();
-        if (gameState.getStackPiles().containsKey(locationToken)) return gameState.getStackPiles().get(locationToken);
-        if (gameState.getColumns().containsKey(deckHeader)) return gameState.getColumns().get(deckHeader);
-        throw new MoveException("Deck for token \n" + locationToken + "\n could not be determined.");
+    private static String describe(List<Card> cards){
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < cards.size(); i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(cards.get(i).toShortString());
+        }
+        return builder.append(']').toString();
     }
 
     /**
-     * Calculates a new {@link GameState#baseScore} based on the type of card move this instance represents and stores
-     * the previous value.
+     * Keeps the number of cards on the stack piles up to date, see {@link GameState#addFoundationCards(int)}.
      *
      * @param gameState GameState object that the method is applied to
+     * @param sourceDeck deck the cards were taken from
+     * @param destinationDeck deck the cards were put on
+     * @param cardCount number of cards moved, negative when the move is reverted
      */
-    private void addScore(GameState gameState){
-        previousScore = gameState.getBaseScore();
-        long newScore = previousScore;
+    private static void countFoundationCards(GameState gameState, Deck sourceDeck, Deck destinationDeck, int cardCount){
+        if (destinationDeck.getDeckType() == DeckType.STACK) gameState.addFoundationCards(cardCount);
+        if (sourceDeck.getDeckType() == DeckType.STACK) gameState.addFoundationCards(-cardCount);
+    }
 
-        if (sourceDeck.getDeckType() == DeckType.STOCK && destinationDeck.getDeckType() == DeckType.COLUMN) newScore += 5;
-        if (sourceDeck.getDeckType() == DeckType.STOCK && destinationDeck.getDeckType() == DeckType.STACK) newScore += 10;
-        if (sourceDeck.getDeckType() == DeckType.COLUMN && destinationDeck.getDeckType() == DeckType.STACK) newScore += 10;
-        if (showedInvisible) newScore += 5;
-        if (sourceDeck.getDeckType() == DeckType.STACK) newScore -= 15;
+    /**
+     * Calculates a new {@link GameState#baseScore} based on the type of card move this instance represents and stores
+     * the change.
+     *
+     * @param gameState GameState object that the method is applied to
+     * @param source type of the source deck
+     * @param destination type of the destination deck
+     */
+    private void addScore(GameState gameState, DeckType source, DeckType destination){
+        scoreDelta = 0;
+        if (source == DeckType.STOCK && destination == DeckType.COLUMN) scoreDelta += 5;
+        if (source == DeckType.STOCK && destination == DeckType.STACK) scoreDelta += 10;
+        if (source == DeckType.COLUMN && destination == DeckType.STACK) scoreDelta += 10;
+        if (showedInvisible) scoreDelta += 5;
+        if (source == DeckType.STACK) scoreDelta -= 15;
 
-        gameState.setBaseScore(newScore);
+        gameState.setBaseScore(gameState.getBaseScore() + scoreDelta);
     }
 }
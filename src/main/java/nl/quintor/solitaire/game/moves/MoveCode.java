@@ -0,0 +1,209 @@
+package nl.quintor.solitaire.game.moves;
+
+import nl.quintor.solitaire.models.state.GameState;
+
+/**
+ * Library class for moves encoded as a single int, as produced by {@link nl.quintor.solitaire.game.MoveGenerator}. The
+ * class is not instantiable, all constructors are private and all methods are static.
+ *
+ * <p>A card move is encoded as its source pile (bits 0-3), the index of the (first) card in the source pile (bits 4-8)
+ * and the destination pile (bits 9-12), with pile numbers as in {@link GameState#getPile(int)}. Cycling the stock is
+ * encoded as {@link #CYCLE_STOCK}, which has bit 13 set and is never a card move. For card moves from the stock or a
+ * stack pile the index is informative only: those moves always take the top card. Bit 14, {@link #AUTO_PLAYED}, marks
+ * a card move that was played by {@link AutoPlay} rather than by the player; it does not change what the move does.
+ *
+ * <p>{@link #parse(CharSequence)} turns player input such as "M A3 SB" into a move code in a single pass, so moves
+ * from players, bots, replays and the network all end up in the same compact form.
+ */
+public final class MoveCode {
+    /**
+     * Code of cycling the stock.
+     */
+    public static final int CYCLE_STOCK = 1 << 13;
+    /**
+     * Flag of a card move that was played by {@link AutoPlay}, as part of the compound move that follows a player move.
+     */
+    public static final int AUTO_PLAYED = 1 << 14;
+    /**
+     * Result of {@link #parse(CharSequence)} for input that is not a card move.
+     */
+    public static final int INVALID = -1;
+    /**
+     * Upper limit of the number of legal moves in any position: every card can go to at most one stack pile and at
+     * most six columns, so 52 * 7 card moves plus cycling the stock never exceed it. A buffer of this size is always
+     * large enough.
+     */
+    public static final int MAX_MOVES = 512;
+
+    private static final int PILE_BITS = 4;
+    private static final int INDEX_BITS = 5;
+    private static final int PILE_MASK = (1 << PILE_BITS) - 1;
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+
+    private MoveCode(){}
+
+    /**
+     * Encodes a card move.
+     *
+     * @param source source pile number
+     * @param index index of the (first) card to move in the source pile
+     * @param destination destination pile number
+     * @return move code
+     */
+    public static int of(int source, int index, int destination) {
+        return source | index << PILE_BITS | destination << (PILE_BITS + INDEX_BITS);
+    }
+
+    /**
+     * @param code move code
+     * @return true if the code represents cycling the stock
+     */
+    public static boolean isCycleStock(int code) {
+        return code == CYCLE_STOCK;
+    }
+
+    /**
+     * @param code move code
+     * @return true if the code has the {@link #AUTO_PLAYED} flag
+     */
+    public static boolean isAutoPlayed(int code) {
+        return (code & AUTO_PLAYED) != 0;
+    }
+
+    /**
+     * @param code code of a card move
+     * @return source pile number
+     */
+    public static int source(int code) {
+        return code & PILE_MASK;
+    }
+
+    /**
+     * @param code code of a card move
+     * @return index of the (first) card to move in the source pile
+     */
+    public static int index(int code) {
+        return code >>> PILE_BITS & INDEX_MASK;
+    }
+
+    /**
+     * @param code code of a card move
+     * @return destination pile number
+     */
+    public static int destination(int code) {
+        return code >>> (PILE_BITS + INDEX_BITS) & PILE_MASK;
+    }
+
+    /**
+     * Parses card move player input, "M Source Destination", into a move code. The input is case-insensitive and the
+     * parts may be separated by any amount of whitespace. The source is "O", a stack header or a column header followed
+     * by a row number of one or two digits; the destination is "O", a stack header or a column header. Like
+     * {@link nl.quintor.solitaire.game.CardMoveChecks#checkPlayerInput(String[])}, this only checks the syntax, not
+     * whether the move is legal. No objects are created.
+     *
+     * @param input player input
+     * @return move code, or {@link #INVALID} if the input is not syntactically correct or the row number is too large to
+     * encode
+     */
+    public static int parse(CharSequence input) {
+        if (input == null) return INVALID;
+        int length = input.length();
+        int commandStart = skipWhitespace(input, 0);
+        int commandEnd = skipToken(input, commandStart);
+        int sourceStart = skipWhitespace(input, commandEnd);
+        int sourceEnd = skipToken(input, sourceStart);
+        int destinationStart = skipWhitespace(input, sourceEnd);
+        int destinationEnd = skipToken(input, destinationStart);
+        if (skipWhitespace(input, destinationEnd) != length) return INVALID;
+        if (commandEnd - commandStart != 1 || Character.toUpperCase(input.charAt(commandStart)) != 'M') return INVALID;
+
+        int source = location(input, sourceStart, sourceEnd, true);
+        int destination = location(input, destinationStart, destinationEnd, false);
+        if (source == INVALID || destination == INVALID) return INVALID;
+        return source | destination << (PILE_BITS + INDEX_BITS);
+    }
+
+    /**
+     * Creates the move object of an encoded move, without going through player input.
+     *
+     * @param code move code
+     * @return new, unapplied move
+     */
+    public static RevertibleMove toMove(int code) {
+        return isCycleStock(code) ? new CycleStock() : new MoveCard(code);
+    }
+
+    /**
+     * Returns the move code of an applied move from its journal entry, see
+     * {@link RevertibleMove#toJournalEntry()}.
+     *
+     * @param entry journal entry
+     * @return move code
+     */
+    public static int ofJournalEntry(long entry) {
+        return JournalEntry.code(entry);
+    }
+
+    /**
+     * Returns the player input of an encoded move, for example "M A3 SB" or "C".
+     *
+     * @param code move code
+     * @return player input
+     */
+    public static String toPlayerInput(int code) {
+        if (isCycleStock(code)) return "C";
+        return "M " + token(source(code), index(code)) + " " + token(destination(code), -1);
+    }
+
+    /**
+     * Returns the player input token of a pile, for example "O", "SB" or "C4".
+     *
+     * @param pile pile number, see {@link GameState#getPile(int)}
+     * @param index card index for column sources, negative for destinations
+     * @return location token
+     */
+    public static String token(int pile, int index) {
+        if (pile == GameState.STOCK_PILE) return "O";
+        if (pile < GameState.FIRST_COLUMN_PILE) return GameState.STACK_HEADERS.get(pile - GameState.FIRST_STACK_PILE);
+        String header = GameState.COLUMN_HEADERS.get(pile - GameState.FIRST_COLUMN_PILE);
+        return index < 0 ? header : header + index;
+    }
+
+    /**
+     * Parses a source or destination token.
+     *
+     * @return pile number and, for column sources, the row number shifted to the index bits, or {@link #INVALID}
+     */
+    private static int location(CharSequence input, int start, int end, boolean source) {
+        if (start == end) return INVALID;
+        char header = Character.toUpperCase(input.charAt(start));
+        int length = end - start;
+        if (header == 'O') return length == 1 ? GameState.STOCK_PILE : INVALID;
+        if (header == 'S') {
+            if (length != 2) return INVALID;
+            int stack = Character.toUpperCase(input.charAt(start + 1)) - 'A';
+            return stack >= 0 && stack < GameState.STACK_HEADERS.size() ? GameState.FIRST_STACK_PILE + stack : INVALID;
+        }
+        int column = header - 'A';
+        if (column < 0 || column >= GameState.COLUMN_HEADERS.size()) return INVALID;
+        if (!source) return length == 1 ? GameState.FIRST_COLUMN_PILE + column : INVALID;
+        if (length < 2 || length > 3) return INVALID;
+        int row = 0;
+        for (int i = start + 1; i < end; i++) {
+            char digit = input.charAt(i);
+            if (digit < '0' || digit > '9') return INVALID;
+            row = row * 10 + digit - '0';
+        }
+        return row > INDEX_MASK ? INVALID : GameState.FIRST_COLUMN_PILE + column | row << PILE_BITS;
+    }
+
+    private static int skipWhitespace(CharSequence input, int index) {
+        while (index < input.length() && Character.isWhitespace(input.charAt(index))) index++;
+        return index;
+    }
+
+    private static int skipToken(CharSequence input, int index) {
+        while (index < input.length() && !Character.isWhitespace(input.charAt(index))) index++;
+        return index;
+    }
+}
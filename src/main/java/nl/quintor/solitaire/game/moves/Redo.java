@@ -0,0 +1,43 @@
+package nl.quintor.solitaire.game.moves;
+
+import nl.quintor.solitaire.game.moves.ex.MoveException;
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.models.state.VariationTree;
+
+/**
+ * Class that represents a player action to play a previously reverted move again. Moves are redone along the
+ * {@link VariationTree}: from every position, the move that was played there last. The moves of an {@link AutoPlay} are
+ * redone together, as one compound move.
+ */
+public class Redo implements Move {
+    private final static String name = System.getProperty("os.name").contains("Windows") ? "Redo" : "Red̲o";
+
+    /**
+     * Applies the move that leads to the redo child of the current node in the {@link GameState#getVariations()} tree,
+     * or, if that move was auto-played, all auto-played moves along the redo children.
+     *
+     * @param gameState GameState object to which the move will be applied
+     * @return result of the redone move
+     * @throws MoveException if variations are not recorded or there is no reverted move to redo
+     */
+    @Override
+    public String apply(GameState gameState) throws MoveException {
+        VariationTree variations = gameState.getVariations();
+        if (variations == null) throw new MoveException("Cannot redo; variations are not recorded.");
+        int child = variations.getRedoChild(variations.getCurrent());
+        if (child == VariationTree.NONE) throw new MoveException("Cannot redo; no moves have been reverted.");
+        int code = JournalEntry.code(variations.getEntry(child));
+        if (MoveCode.isAutoPlayed(code)) return "Redo: " + AutoPlay.redo(gameState);
+        return "Redo: " + MoveCode.toMove(code).apply(gameState);
+    }
+
+    @Override
+    public Move createInstance(String playerInput) {
+        return new Redo();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -6,14 +6,16 @@ import nl.quintor.solitaire.models.state.GameState;
 import java.util.List;
 
 /**
- * Class that represents a player action to revert another move that implements {@link RevertibleMove}.
+ * Class that represents a player action to revert another move that implements {@link RevertibleMove}. The moves of an
+ * {@link AutoPlay} are reverted together, as one compound move.
  */
 public class Revert implements Move {
     private final static String name = System.getProperty("os.name").contains("Windows") ? "Revert" : "R̲evert";
 
     /**
      * Applies the {@link RevertibleMove#revert(GameState)}-method of the previous RevertibleMove contained in the
-     * {@link GameState#moves} list to the Gamestate object.
+     * {@link GameState#moves} list to the Gamestate object. If that move was auto-played, all auto-played moves before
+     * it, up to the move of the player, are reverted as well.
      *
      * @param gameState GameState object to which the revert operation will be applied
      * @return return value of the reverting Move's {@link RevertibleMove#revert(GameState)} method
@@ -21,8 +23,10 @@ public class Revert implements Move {
      */
     @Override
     public String apply(GameState gameState) throws MoveException{
-        // TODO: Write implementation
-        return null;
+        List<RevertibleMove> moves = gameState.getMoves();
+        if (moves.isEmpty()) throw new MoveException("Cannot revert; no moves have been played.");
+        if (AutoPlay.isNewest(gameState)) return AutoPlay.revert(gameState);
+        return moves.get(moves.size() - 1).revert(gameState);
     }
 
     @Override
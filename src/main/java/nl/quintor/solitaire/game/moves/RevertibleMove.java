@@ -5,6 +5,9 @@ import nl.quintor.solitaire.models.state.GameState;
 /**
  * Interface representing a move that is revertible. All revertible moves are moves that effect the {@link GameState},
  * otherwise there would be no point in reverting them.
+ *
+ * <p>Applied moves are remembered by the GameState as journal entries: a single long that holds everything needed to
+ * revert the move (see {@link #toJournalEntry()} and {@link #fromJournalEntry(long)}).
  */
 public interface RevertibleMove extends Move{
     /**
@@ -15,4 +18,22 @@ public interface RevertibleMove extends Move{
      * @return message with the result of reverting this move
      */
     String revert(GameState gameState);
+
+    /**
+     * Packs this applied move into a journal entry, see {@link JournalEntry}.
+     *
+     * @return journal entry of this move
+     */
+    long toJournalEntry();
+
+    /**
+     * Recreates an applied move from its journal entry. The move can be reverted, but not applied again.
+     *
+     * @param entry journal entry created by {@link #toJournalEntry()}
+     * @return the applied move
+     */
+    static RevertibleMove fromJournalEntry(long entry) {
+        return MoveCode.isCycleStock(JournalEntry.code(entry)) ? CycleStock.fromJournalEntry(entry) :
+            MoveCard.fromJournalEntry(entry);
+    }
 }
@@ -0,0 +1,164 @@
+package nl.quintor.solitaire.journal;
+
+import nl.quintor.solitaire.game.GameStateController;
+import nl.quintor.solitaire.game.moves.MoveCode;
+import nl.quintor.solitaire.game.moves.RevertibleMove;
+import nl.quintor.solitaire.game.moves.ex.MoveException;
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.models.state.MoveJournal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Library class that recovers a game from its journal file after the JVM died in the middle of the game. The class is
+ * not instantiable, all constructors are private and all methods are static.
+ *
+ * <p>A journal file is written by {@link GameJournalWriter} and starts with a header of {@link #HEADER_BYTES} bytes, all
+ * numbers big-endian:
+ *
+ * <ul>
+ *     <li>int: the magic number {@link #MAGIC}, "SOLJ"
+ *     <li>int: the format {@link #VERSION}
+ *     <li>int: flags, {@link #RECORD_VARIATIONS} if the game records its variations
+ *     <li>int: reserved, 0
+ *     <li>long: the deal number of the game, see {@link GameStateController#init(long)}
+ *     <li>long: the start time of the game, in milliseconds since the epoch
+ * </ul>
+ *
+ * The header is followed by one record of two bytes per move, in the order the moves were applied and reverted: the
+ * {@link MoveCode} of an applied move, including its {@link MoveCode#AUTO_PLAYED} flag so that a recovered auto-play is
+ * still reverted as a whole, or {@link #REVERT} for a revert of the newest move. Reverts need no more than
+ * that, because the game itself remembers how to revert its moves. A single trailing byte, a record that was cut off
+ * by the crash, is ignored.
+ *
+ * <p>Recovery deals the game again and replays the records straight onto the GameState, without any player input or
+ * rendering. The same format serves as a compact image of a game in memory: {@link MoveRecorder} collects the records
+ * of a game, and {@link #recover(ByteBuffer)} rebuilds the game from a header and those records.
+ */
+public class GameJournal {
+    /**
+     * Magic number at the start of every journal file: "SOLJ" in ASCII.
+     */
+    public static final int MAGIC = 0x534F4C4A;
+    /**
+     * Version of the file format.
+     */
+    public static final int VERSION = 1;
+    /**
+     * Size of the header in bytes.
+     */
+    public static final int HEADER_BYTES = 32;
+    /**
+     * Size of a record in bytes.
+     */
+    public static final int RECORD_BYTES = 2;
+    /**
+     * Record of a revert of the newest move.
+     */
+    public static final short REVERT = (short) 0x8000;
+    /**
+     * Header flag of a game that records its variations, see {@link GameState#recordVariations()}.
+     */
+    public static final int RECORD_VARIATIONS = 1;
+
+    private GameJournal(){}
+
+    /**
+     * Rebuilds the game of a journal file: deals the game of the journaled deal number, restores its start time and
+     * replays all moves.
+     *
+     * @param path path of the journal file
+     * @return GameState object of the journaled game, with its moves journal and variations
+     * @throws IOException if the file cannot be read, is not a journal file of this version, or holds a move that cannot
+     * be replayed
+     */
+    public static GameState recover(Path path) throws IOException {
+        ByteBuffer journal;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) throw new IOException(path + " is not a game journal");
+            journal = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+            while (journal.hasRemaining() && channel.read(journal) >= 0) {
+                // read until the buffer is full
+            }
+            journal.flip();
+        }
+        return recover(journal);
+    }
+
+    /**
+     * Rebuilds a game from a journal in memory, from the current position of the buffer up to its limit, the same way
+     * as {@link #recover(Path)}.
+     *
+     * @param journal buffer with the header and the records
+     * @return GameState object of the journaled game, with its moves journal and variations
+     * @throws IOException if the buffer does not hold a journal of this version, or holds a move that cannot be replayed
+     */
+    public static GameState recover(ByteBuffer journal) throws IOException {
+        if (journal.remaining() < HEADER_BYTES || journal.getInt() != MAGIC) throw new IOException("Not a game journal");
+        int version = journal.getInt();
+        if (version != VERSION) throw new IOException("Unsupported game journal version " + version);
+        int flags = journal.getInt();
+        journal.getInt();
+        long dealNumber = journal.getLong();
+        long startEpochMilli = journal.getLong();
+
+        GameState gameState = GameStateController.init(dealNumber);
+        gameState.setStartTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(startEpochMilli), ZoneId.systemDefault()));
+        if ((flags & RECORD_VARIATIONS) != 0) gameState.recordVariations();
+        replay(journal, gameState);
+        GameStateController.detectGameWin(gameState);
+        return gameState;
+    }
+
+    /**
+     * Writes the header of a journal for a new game.
+     *
+     * @param gameState GameState object of a numbered deal, without moves
+     * @param buffer buffer to write the {@link #HEADER_BYTES} bytes of the header to, at its current position
+     * @throws IllegalArgumentException if the game was not dealt from a deal number
+     */
+    public static void writeHeader(GameState gameState, ByteBuffer buffer) {
+        if (gameState.getDealNumber() == GameState.NO_DEAL) {
+            throw new IllegalArgumentException("Only numbered deals can be journaled");
+        }
+        buffer.putInt(MAGIC).putInt(VERSION)
+            .putInt(gameState.getVariations() != null ? RECORD_VARIATIONS : 0).putInt(0)
+            .putLong(gameState.getDealNumber())
+            .putLong(gameState.getStartTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    /**
+     * Replays records onto a GameState, from the current position of the buffer up to its limit.
+     *
+     * @param records buffer with the records
+     * @param gameState GameState object to apply the records to
+     * @return number of records replayed
+     * @throws IOException if a record cannot be replayed
+     */
+    static long replay(ByteBuffer records, GameState gameState) throws IOException {
+        MoveJournal moves = gameState.getMoveJournal();
+        long count = 0;
+        while (records.remaining() >= RECORD_BYTES) {
+            short record = records.getShort();
+            try {
+                if (record == REVERT) {
+                    if (moves.size() == 0) throw new MoveException("No move to revert");
+                    RevertibleMove.fromJournalEntry(moves.peek()).revert(gameState);
+                } else {
+                    MoveCode.toMove(record).apply(gameState);
+                }
+            } catch (MoveException | RuntimeException e) {
+                throw new IOException("Cannot replay record " + count + ": " + e.getMessage(), e);
+            }
+            count++;
+        }
+        return count;
+    }
+}
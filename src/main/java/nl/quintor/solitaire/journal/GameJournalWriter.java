@@ -0,0 +1,154 @@
+package nl.quintor.solitaire.journal;
+
+import nl.quintor.solitaire.game.moves.MoveCode;
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.models.state.MoveListener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends the moves of a game to its journal file, see {@link GameJournal} for the format. The writer listens to the
+ * GameState (see {@link GameState#setMoveListener(MoveListener)}) and buffers a record for every applied and reverted
+ * move; {@link #commit()} writes the buffered records to the file.
+ *
+ * <p>Committed records survive a crash of the JVM, because they have been handed to the operating system. To survive a
+ * crash of the machine as well they have to be forced to the disk, which is far slower than playing a move, so the
+ * writer forces the file at most once per sync interval: a crash of the machine loses at most the moves of the last
+ * interval. Closing the writer always forces the file.
+ *
+ * <p>A GameJournalWriter is not thread-safe.
+ */
+public class GameJournalWriter implements MoveListener, Closeable {
+    private static final int BUFFER_RECORDS = 4096;
+
+    private final FileChannel channel;
+    private final GameState gameState;
+    private final long syncIntervalNanos;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * GameJournal.RECORD_BYTES);
+    private long lastSync = System.nanoTime();
+    private boolean unsynced = false;
+
+    private GameJournalWriter(FileChannel channel, GameState gameState, long syncIntervalMillis) {
+        this.channel = channel;
+        this.gameState = gameState;
+        this.syncIntervalNanos = syncIntervalMillis * 1_000_000;
+    }
+
+    /**
+     * Creates a journal file for a new game, replacing an existing file, and starts listening to the game.
+     *
+     * @param path path of the journal file
+     * @param gameState GameState object of a numbered deal, without moves
+     * @param syncIntervalMillis minimum time between two forces of the file to the disk, 0 to force on every commit
+     * @return writer of the journal
+     * @throws IOException if the file cannot be created
+     * @throws IllegalArgumentException if the game was not dealt from a deal number
+     */
+    public static GameJournalWriter create(Path path, GameState gameState, long syncIntervalMillis) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(GameJournal.HEADER_BYTES);
+        GameJournal.writeHeader(gameState, header);
+        header.flip();
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        GameJournalWriter writer = new GameJournalWriter(channel, gameState, syncIntervalMillis);
+        try {
+            while (header.hasRemaining()) channel.write(header);
+            channel.force(false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        gameState.setMoveListener(writer);
+        return writer;
+    }
+
+    /**
+     * Continues the journal file of a recovered game: drops a cut-off trailing record and starts listening to the game.
+     *
+     * @param path path of the journal file
+     * @param gameState GameState object recovered from the file by {@link GameJournal#recover(Path)}
+     * @param syncIntervalMillis minimum time between two forces of the file to the disk, 0 to force on every commit
+     * @return writer of the journal
+     * @throws IOException if the file cannot be opened
+     */
+    public static GameJournalWriter append(Path path, GameState gameState, long syncIntervalMillis) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE);
+        try {
+            long records = (channel.size() - GameJournal.HEADER_BYTES) / GameJournal.RECORD_BYTES;
+            long end = GameJournal.HEADER_BYTES + records * GameJournal.RECORD_BYTES;
+            channel.truncate(end);
+            channel.position(end);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        GameJournalWriter writer = new GameJournalWriter(channel, gameState, syncIntervalMillis);
+        gameState.setMoveListener(writer);
+        return writer;
+    }
+
+    @Override
+    public void applied(long entry) {
+        record((short) MoveCode.ofJournalEntry(entry));
+    }
+
+    @Override
+    public void reverted(long entry) {
+        record(GameJournal.REVERT);
+    }
+
+    /**
+     * Writes the buffered records to the file, and forces the file to the disk if the sync interval has passed since
+     * the last force. Called once per player command, after the command has been applied.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void commit() throws IOException {
+        write();
+        if (unsynced && System.nanoTime() - lastSync >= syncIntervalNanos) sync();
+    }
+
+    /**
+     * Stops listening to the game, writes the buffered records, forces the file to the disk and closes it.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        gameState.setMoveListener(null);
+        try (FileChannel ignored = channel) {
+            write();
+            sync();
+        }
+    }
+
+    private void record(short record) {
+        if (!buffer.hasRemaining()) {
+            try {
+                write(); // a single command moved more cards than fit the buffer
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write the game journal", e);
+            }
+        }
+        buffer.putShort(record);
+    }
+
+    private void write() throws IOException {
+        buffer.flip();
+        if (buffer.hasRemaining()) unsynced = true;
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    private void sync() throws IOException {
+        channel.force(false);
+        lastSync = System.nanoTime();
+        unsynced = false;
+    }
+}
@@ -0,0 +1,87 @@
+package nl.quintor.solitaire.journal;
+
+import nl.quintor.solitaire.game.moves.MoveCode;
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.models.state.MoveListener;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Records the moves of a game in memory, in the record format of {@link GameJournal}: two bytes per applied or
+ * reverted move. Together with the journal header, the records rebuild the game with
+ * {@link GameJournal#recover(ByteBuffer)}, moves journal and variations included, so a game can be stored as a few
+ * bytes per move instead of as objects.
+ *
+ * <p>A MoveRecorder is not thread-safe.
+ */
+public class MoveRecorder implements MoveListener {
+    private static final int INITIAL_CAPACITY = 64;
+    private byte[] records;
+    private int size;
+
+    private MoveRecorder(byte[] records, int size) {
+        this.records = records;
+        this.size = size;
+    }
+
+    /**
+     * Starts recording the moves of a game.
+     *
+     * @param gameState GameState object of a numbered deal, without moves
+     * @return recorder that listens to the game
+     */
+    public static MoveRecorder record(GameState gameState) {
+        MoveRecorder recorder = new MoveRecorder(new byte[INITIAL_CAPACITY], 0);
+        gameState.setMoveListener(recorder);
+        return recorder;
+    }
+
+    /**
+     * Continues recording the moves of a game that was rebuilt from the provided records.
+     *
+     * @param gameState GameState object rebuilt by {@link GameJournal#recover(ByteBuffer)}
+     * @param records buffer with the records the game was rebuilt from, from its position up to its limit
+     * @return recorder that listens to the game
+     */
+    public static MoveRecorder resume(GameState gameState, ByteBuffer records) {
+        int size = records.remaining();
+        byte[] copy = new byte[Math.max(INITIAL_CAPACITY, size)];
+        records.get(copy, 0, size);
+        MoveRecorder recorder = new MoveRecorder(copy, size);
+        gameState.setMoveListener(recorder);
+        return recorder;
+    }
+
+    @Override
+    public void applied(long entry) {
+        record((short) MoveCode.ofJournalEntry(entry));
+    }
+
+    @Override
+    public void reverted(long entry) {
+        record(GameJournal.REVERT);
+    }
+
+    /**
+     * @return number of bytes recorded
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Writes the records to a buffer.
+     *
+     * @param buffer buffer to write {@link #size()} bytes to, at its current position
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.put(records, 0, size);
+    }
+
+    private void record(short record) {
+        if (size + GameJournal.RECORD_BYTES > records.length) records = Arrays.copyOf(records, records.length * 2);
+        records[size++] = (byte) (record >> 8);
+        records[size++] = (byte) record;
+    }
+}
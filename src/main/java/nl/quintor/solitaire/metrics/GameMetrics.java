@@ -0,0 +1,274 @@
+package nl.quintor.solitaire.metrics;
+
+import nl.quintor.solitaire.game.moves.Move;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency statistics of the game loop of {@link nl.quintor.solitaire.Main}: one {@link LatencyStats} per {@link Phase}
+ * and one per {@link Move} implementation, so a slow game can be traced to the move, the win detection, the rendering
+ * or the terminal. The statistics can be published as MBeans in the domain {@link #DOMAIN}, for example
+ * "nl.quintor.solitaire:type=Move,name=MoveCard", and dumped to a file at a fixed interval.
+ *
+ * <p>A sample is taken as
+ *
+ * <pre>
+ *     long start = metrics.start();
+ *     ... the work ...
+ *     metrics.record(Phase.DETECT_WIN, start);
+ * </pre>
+ *
+ * With {@link #DISABLED} metrics, {@link #start()} does not read the clock and the record methods return at once, so a
+ * sample costs a single branch. Enabled metrics can be recorded from any number of threads.
+ */
+public class GameMetrics implements Closeable {
+    /**
+     * JMX domain of the MBeans.
+     */
+    public static final String DOMAIN = "nl.quintor.solitaire";
+    /**
+     * Metrics that record nothing.
+     */
+    public static final GameMetrics DISABLED = new GameMetrics(false);
+
+    /**
+     * Enum representing the phases of the game loop other than applying a move, which is recorded per {@link Move}
+     * implementation instead.
+     */
+    public enum Phase {
+        /**
+         * Encoding a frame: the game state, the message and the moves.
+         */
+        RENDER,
+        /**
+         * Writing a frame to the terminal.
+         */
+        OUTPUT,
+        /**
+         * Waiting for a line of the player, including the time the player needs to think.
+         */
+        INPUT,
+        /**
+         * {@link nl.quintor.solitaire.game.GameStateController#detectGameWin} and
+         * {@link nl.quintor.solitaire.game.GameStateController#detectDeadEnd}.
+         */
+        DETECT_WIN,
+        /**
+         * {@link nl.quintor.solitaire.game.GameStateController#applyTimePenalty}.
+         */
+        TIME_PENALTY,
+        /**
+         * Committing the moves of a command to the game journal.
+         */
+        JOURNAL
+    }
+
+    private final boolean enabled;
+    private final long createdAt = System.nanoTime();
+    private final Map<Phase, LatencyStats> phases = new EnumMap<>(Phase.class);
+    private final Map<Class<?>, LatencyStats> moves = new ConcurrentHashMap<>();
+    private final List<ObjectName> registered = new ArrayList<>();
+    private volatile boolean publishing = false;
+    private ScheduledExecutorService dumper;
+    private Path dumpFile;
+
+    /**
+     * Constructs enabled GameMetrics.
+     */
+    public GameMetrics() {
+        this(true);
+    }
+
+    private GameMetrics(boolean enabled) {
+        this.enabled = enabled;
+        if (enabled) for (Phase phase : Phase.values()) phases.put(phase, new LatencyStats(createdAt));
+    }
+
+    /**
+     * @return false for the {@link #DISABLED} metrics
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts a sample.
+     *
+     * @return the current time in nanoseconds, or 0 if disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the latency of a phase.
+     *
+     * @param phase phase of the game loop
+     * @param start result of {@link #start()} at the beginning of the phase
+     */
+    public void record(Phase phase, long start) {
+        if (enabled) phases.get(phase).record(System.nanoTime() - start);
+    }
+
+    /**
+     * Records the latency of applying a move, whether it succeeded or not.
+     *
+     * @param move the applied move
+     * @param start result of {@link #start()} before the move was applied
+     */
+    public void recordMove(Move move, long start) {
+        if (!enabled) return;
+        long nanos = System.nanoTime() - start;
+        LatencyStats stats = moves.get(move.getClass());
+        if (stats == null) stats = moves.computeIfAbsent(move.getClass(), this::newMoveStats);
+        stats.record(nanos);
+    }
+
+    /**
+     * @param phase phase of the game loop
+     * @return statistics of the phase, or null if disabled
+     */
+    public LatencyStats getPhase(Phase phase) {
+        return phases.get(phase);
+    }
+
+    /**
+     * @return statistics per applied move implementation, by simple class name
+     */
+    public Map<String, LatencyStats> getMoves() {
+        Map<String, LatencyStats> byName = new TreeMap<>();
+        moves.forEach((type, stats) -> byName.put(type.getSimpleName(), stats));
+        return byName;
+    }
+
+    /**
+     * Publishes the statistics as MBeans of the platform MBean server: "type=Phase" with the phase as name, and
+     * "type=Move" with the simple class name of the move, registered when the move is first applied. Does nothing if
+     * disabled.
+     *
+     * @throws IllegalStateException if the MBeans cannot be registered, for example because other metrics already are
+     */
+    public synchronized void registerMBeans() {
+        if (!enabled || publishing) return;
+        publishing = true;
+        phases.forEach((phase, stats) -> register("Phase", phase.name(), stats));
+        moves.forEach((type, stats) -> register("Move", type.getSimpleName(), stats));
+    }
+
+    /**
+     * Appends a {@link #report()} to a file now, and after that at a fixed interval on a background thread until the
+     * metrics are closed. The background dump stops at the first error while writing the file. Does nothing if
+     * disabled.
+     *
+     * @param file file to append to, created if it does not exist
+     * @param interval time between two dumps
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public synchronized void startDump(Path file, Duration interval) {
+        if (!enabled || dumper != null) return;
+        dump(file);
+        dumpFile = file;
+        dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> dump(file), interval.toNanos(), interval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Appends a {@link #report()} to a file, preceded by the time.
+     *
+     * @param file file to append to, created if it does not exist
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public void dump(Path file) {
+        String dump = "Metrics at " + LocalDateTime.now() + "\n" + report();
+        try {
+            Files.write(file, dump.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot dump the metrics to " + file, e);
+        }
+    }
+
+    /**
+     * Describes all statistics with samples, one per line: first the phases, then the moves.
+     *
+     * @return the report
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        phases.forEach((phase, stats) -> {
+            if (stats.getCount() > 0) report.append("phase ").append(phase).append(": ").append(stats).append('\n');
+        });
+        getMoves().forEach((name, stats) -> report.append("move ").append(name).append(": ").append(stats).append('\n'));
+        return report.toString();
+    }
+
+    /**
+     * Stops the dump after a final one, and unregisters the MBeans.
+     */
+    @Override
+    public synchronized void close() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            try {
+                dump(dumpFile);
+            } catch (UncheckedIOException e) {
+                // the dump stopped at this error before
+            }
+            dumper = null;
+        }
+        publishing = false;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                // unregistered by someone else, nothing left to do
+            }
+        }
+        registered.clear();
+    }
+
+    private LatencyStats newMoveStats(Class<?> type) {
+        LatencyStats stats = new LatencyStats(createdAt);
+        if (publishing) {
+            synchronized (this) {
+                if (publishing) register("Move", type.getSimpleName(), stats);
+            }
+        }
+        return stats;
+    }
+
+    private void register(String type, String name, LatencyStats stats) {
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + ",name=" + name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(stats, objectName);
+            registered.add(objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register the metrics of " + type + " " + name, e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package nl.quintor.solitaire.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds, for percentiles such as the p99 move latency. Any number of threads
+ * can record at the same time; recording a value is a single atomic increment and creates no objects.
+ *
+ * <p>The buckets are log-linear: values below {@link #SUB_BUCKETS} have a bucket each, and every power of two above
+ * that is split into {@link #SUB_BUCKETS} buckets of equal width. A percentile is therefore reported with a relative
+ * error of at most 1/{@link #SUB_BUCKETS}, about 6%, over the whole range of a long.
+ */
+public class LatencyHistogram {
+    /**
+     * Number of buckets per power of two.
+     */
+    public static final int SUB_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos latency in nanoseconds, negative values count as 0
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucket(Math.max(nanos, 0)));
+    }
+
+    /**
+     * Copies the counts of all buckets. Counts recorded during the copy may or may not be included.
+     *
+     * @return number of recorded values per bucket
+     */
+    public long[] getCounts() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) copy[i] = counts.get(i);
+        return copy;
+    }
+
+    /**
+     * Returns the value at a percentile of bucket counts, such as those of {@link #getCounts()} or the difference of
+     * two copies, which gives the percentile of the values recorded in between.
+     *
+     * @param counts number of recorded values per bucket
+     * @param percentile percentile from 0 to 100, for example 99 for the p99
+     * @return the highest value of the bucket that holds the percentile, or 0 if no values were recorded
+     */
+    public static long valueAtPercentile(long[] counts, double percentile) {
+        long total = 0;
+        for (long count : counts) total += count;
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return highestValue(i);
+        }
+        return Long.MAX_VALUE; // not reached, the last bucket with a count holds the highest rank
+    }
+
+    /**
+     * @param value value of at least 0
+     * @return bucket of the value
+     */
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @param bucket bucket number
+     * @return highest value that falls into the bucket
+     */
+    static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
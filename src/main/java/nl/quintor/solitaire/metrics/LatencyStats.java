@@ -0,0 +1,103 @@
+package nl.quintor.solitaire.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count, total, maximum and {@link LatencyHistogram} of the latency of one kind of work, for example one phase of the
+ * game loop. Recording is lock-free and creates no objects; the getters, which are called by JMX and the metrics dump,
+ * compute their values from a copy of the histogram.
+ */
+public class LatencyStats implements LatencyStatsMXBean {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final long createdAt;
+
+    /**
+     * Constructs empty LatencyStats.
+     */
+    public LatencyStats() {
+        this(System.nanoTime());
+    }
+
+    /**
+     * Constructs empty LatencyStats that compute their rate from an earlier time, such as the start of the game.
+     *
+     * @param createdAt {@link System#nanoTime()} to compute the rate from
+     */
+    LatencyStats(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Records a sample.
+     *
+     * @param nanos latency in nanoseconds, negative values count as 0
+     */
+    public void record(long nanos) {
+        long sample = Math.max(nanos, 0);
+        count.increment();
+        totalNanos.add(sample);
+        maxNanos.accumulate(sample);
+        histogram.record(sample);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getRatePerSecond() {
+        return getCount() / Math.max((System.nanoTime() - createdAt) / 1e9, 1e-9);
+    }
+
+    @Override
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    @Override
+    public long getMeanNanos() {
+        long samples = getCount();
+        return samples == 0 ? 0 : getTotalNanos() / samples;
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return LatencyHistogram.valueAtPercentile(histogram.getCounts(), 50);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return LatencyHistogram.valueAtPercentile(histogram.getCounts(), 99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return LatencyHistogram.valueAtPercentile(histogram.getCounts(), 99.9);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Describes the statistics in microseconds, for example "12 samples, 0.4/s, mean 3.1 µs, p50 2.9 µs, p99 8.0 µs,
+     * p99.9 8.0 µs, max 7.8 µs". The percentiles are the upper bounds of their histogram buckets, so they can exceed
+     * the maximum.
+     *
+     * @return the description
+     */
+    @Override
+    public String toString() {
+        long[] counts = histogram.getCounts();
+        return String.format("%d samples, %.1f/s, mean %.1f µs, p50 %.1f µs, p99 %.1f µs, p99.9 %.1f µs, max %.1f µs",
+            getCount(), getRatePerSecond(), getMeanNanos() / 1e3,
+            LatencyHistogram.valueAtPercentile(counts, 50) / 1e3, LatencyHistogram.valueAtPercentile(counts, 99) / 1e3,
+            LatencyHistogram.valueAtPercentile(counts, 99.9) / 1e3, getMaxNanos() / 1e3);
+    }
+}
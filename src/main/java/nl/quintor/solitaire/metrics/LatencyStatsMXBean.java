@@ -0,0 +1,47 @@
+package nl.quintor.solitaire.metrics;
+
+/**
+ * Management interface of {@link LatencyStats}, as published by {@link GameMetrics#registerMBeans()}. All latencies are
+ * in nanoseconds; percentiles have the precision of a {@link LatencyHistogram}.
+ */
+public interface LatencyStatsMXBean {
+    /**
+     * @return number of recorded samples
+     */
+    long getCount();
+
+    /**
+     * @return samples per second since the statistics were created, or since the start of their {@link GameMetrics}
+     */
+    double getRatePerSecond();
+
+    /**
+     * @return sum of all samples
+     */
+    long getTotalNanos();
+
+    /**
+     * @return average sample, or 0 without samples
+     */
+    long getMeanNanos();
+
+    /**
+     * @return median sample
+     */
+    long getP50Nanos();
+
+    /**
+     * @return 99th percentile of the samples
+     */
+    long getP99Nanos();
+
+    /**
+     * @return 99.9th percentile of the samples
+     */
+    long getP999Nanos();
+
+    /**
+     * @return largest sample, or 0 without samples
+     */
+    long getMaxNanos();
+}
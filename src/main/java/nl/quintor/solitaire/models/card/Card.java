@@ -6,8 +6,18 @@ package nl.quintor.solitaire.models.card;
  * {@link #hashCode()} and {@link #equals(Object)} methods. The ordinal also forms the basis for the natural
  * ordering of the Card instances. This order can be overridden in a {@link java.util.Collection} using a
  * {@link java.util.Comparator}{@literal <}{@link Card}{@literal >}.
+ *
+ * <p>
+ * All 54 possible cards are pre-built in a registry. The factory methods {@link #of(int)} and {@link #of(Suit, Rank)}
+ * return these canonical instances, so dealing and parsing cards does not allocate and canonical cards can safely be
+ * compared by identity. The public constructors remain available, but create non-canonical copies.
  */
 public final class Card implements Comparable<Card> {
+    private static final Card[] REGISTRY = new Card[54];
+    static {
+        for (int ordinal = 0; ordinal < REGISTRY.length; ordinal++) REGISTRY[ordinal] = new Card(ordinal);
+    }
+
     private final Suit suit;
     private final Rank rank;
     private final int ordinal;
@@ -20,11 +30,12 @@ public final class Card implements Comparable<Card> {
      *
      * @param suit the {@link Suit} of the new card
      * @param rank the {@link Rank} of the new card
+     * @throws IllegalArgumentException if only one of the Suit and Rank is a joker's
      */
     public Card(Suit suit, Rank rank) {
         this.suit = suit;
         this.rank = rank;
-        this.ordinal = suit.ordinal() * 13 + rank.ordinal();
+        this.ordinal = ordinalOf(suit, rank);
         this.setDescriptions();
     }
 
@@ -43,6 +54,43 @@ public final class Card implements Comparable<Card> {
         this.setDescriptions();
     }
 
+    /**
+     * Returns the canonical Card instance with the provided ordinal.
+     *
+     * @param ordinal 0-53 value corresponding to a single Card object
+     * @return the pre-built Card with that ordinal
+     */
+    public static Card of(int ordinal) {
+        if (ordinal < 0 || ordinal > 53) throw new IllegalArgumentException("0 <= ordinal <= 53");
+        return REGISTRY[ordinal];
+    }
+
+    /**
+     * Returns the canonical Card instance with the provided {@link Suit} and {@link Rank}.
+     *
+     * @param suit the {@link Suit} of the card
+     * @param rank the {@link Rank} of the card
+     * @return the pre-built Card with that Suit and Rank
+     * @throws IllegalArgumentException if only one of the Suit and Rank is a joker's
+     */
+    public static Card of(Suit suit, Rank rank) {
+        return of(ordinalOf(suit, rank));
+    }
+
+    /**
+     * Calculates the ordinal of a card from its {@link Suit} and {@link Rank}. Jokers take ordinals 52 and 53.
+     *
+     * @param suit the {@link Suit} of the card
+     * @param rank the {@link Rank} of the card
+     * @return 0-53 ordinal value
+     */
+    private static int ordinalOf(Suit suit, Rank rank) {
+        if ((suit == Suit.JOKER) != (rank == Rank.JOKER_BLACK || rank == Rank.JOKER_RED)) {
+            throw new IllegalArgumentException("Jokers have to be of Suit JOKER and Rank JOKER_BLACK or JOKER_RED");
+        }
+        return suit == Suit.JOKER ? 52 + rank.ordinal() - Rank.JOKER_BLACK.ordinal() : suit.ordinal() * 13 + rank.ordinal();
+    }
+
     /**
      * Suit getter
      *
@@ -70,9 +118,18 @@ public final class Card implements Comparable<Card> {
         return ordinal;
     }
 
+    /**
+     * Sets the long and short descriptions. Canonical cards compute them once; copies share the canonical Strings.
+     */
     private void setDescriptions() {
-        this.description = suit + " " + rank;
-        this.shortDescription = suit.getSymbol() + " " + rank.getSymbol();
+        Card canonical = REGISTRY[ordinal];
+        if (canonical != null) {
+            this.description = canonical.description;
+            this.shortDescription = canonical.shortDescription;
+        } else {
+            this.description = suit + " " + rank;
+            this.shortDescription = suit.getSymbol() + " " + rank.getSymbol();
+        }
     }
 
     /**
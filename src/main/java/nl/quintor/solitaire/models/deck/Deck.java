@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -19,6 +20,7 @@ import java.util.stream.IntStream;
  */
 public final class Deck extends ArrayList<Card> {
     private int invisibleCards = 0;
+    private transient IntConsumer invisibleCardsListener;
     private DeckType deckType;
 
     /**
@@ -62,7 +64,7 @@ public final class Deck extends ArrayList<Card> {
      * @return a standard deck of cards without Jokers.
      */
     public static Deck createDefaultDeck(){
-        return IntStream.range(0, 52).mapToObj(Card::new).collect(Collectors.toCollection(Deck::new));
+        return IntStream.range(0, 52).mapToObj(Card::of).collect(Collectors.toCollection(Deck::new));
     }
 
     /**
@@ -71,7 +73,7 @@ public final class Deck extends ArrayList<Card> {
      * @return a standard deck of cards with Jokers.
      */
     public static Deck createDefaultDeckWithJokers(){
-        return IntStream.range(0, 54).mapToObj(Card::new).collect(Collectors.toCollection(Deck::new));
+        return IntStream.range(0, 54).mapToObj(Card::of).collect(Collectors.toCollection(Deck::new));
     }
 
     /**
@@ -82,7 +84,7 @@ public final class Deck extends ArrayList<Card> {
     public static Deck createPiquetDeck(){
         return IntStream.range(0, 52)
             .filter(i -> i % 13 > 4)
-            .mapToObj(Card::new)
+            .mapToObj(Card::of)
             .collect(Collectors.toCollection(Deck::new));
     }
 
@@ -119,9 +121,21 @@ public final class Deck extends ArrayList<Card> {
      * @param invisibleCards number of invisible cards in this deck
      */
     public void setInvisibleCards(int invisibleCards) {
+        if (invisibleCardsListener != null) invisibleCardsListener.accept(invisibleCards - this.invisibleCards);
         this.invisibleCards = invisibleCards;
     }
 
+    /**
+     * Setter for invisibleCardsListener. A {@link nl.quintor.solitaire.models.state.GameState} listens to its columns
+     * to keep count of their invisible cards.
+     *
+     * @param invisibleCardsListener listener that is told the change of the number of invisible cards on every call of
+     * {@link #setInvisibleCards(int)}, or null for none
+     */
+    public void setInvisibleCardsListener(IntConsumer invisibleCardsListener) {
+        this.invisibleCardsListener = invisibleCardsListener;
+    }
+
     /**
      * Returns a {@link String} of the cards in this Deck, ordered by the argument
      * {@link Comparator}{@literal &lt;}{@link Card}{@literal &gt;} in ascending order, with comparison symbols (&lt; and =)
@@ -148,6 +162,11 @@ public final class Deck extends ArrayList<Card> {
      */
     @Override
     public String toString() {
-        return "[" + this.stream().map(Card::toShortString).collect(Collectors.joining(", ")) + "]";
+        StringBuilder builder = new StringBuilder(2 + size() * 6).append('[');
+        for (int i = 0; i < size(); i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(get(i).toShortString());
+        }
+        return builder.append(']').toString();
     }
 }
@@ -1,39 +1,115 @@
 package nl.quintor.solitaire.models.state;
 
 import nl.quintor.solitaire.game.moves.RevertibleMove;
+import nl.quintor.solitaire.models.card.Card;
 import nl.quintor.solitaire.models.deck.Deck;
 import nl.quintor.solitaire.models.deck.DeckType;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.time.ZoneId;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.IntConsumer;
 
 /**
  * Class that holds the complete state of the game, consisting of 1 stock, 7 columns and 4 stacks of {@link Deck}s, and
  * two booleans gameOver and gameLost which together indicate if the game is over.
- * <p>It can also hold a waste deck, a list of moves, the number of times the stock has been cycled, the base score, the bonus
+ * <p>It can also hold a waste deck, a journal of moves, the number of times the stock has been cycled, the base score, the bonus
  * time score and the start time of the game. These additional state variables can be used if additional features beyond
  * the base game are implemented.
  *
  * <p>Almost all methods are basic getters and setters, except for {@link #remember(RevertibleMove)},
  * {@link #forget(RevertibleMove)}, {@link #isGameOver()} and {@link #getScore()}.
+ *
+ * <p>The card layout is also identified by a 64-bit Zobrist hash, the XOR of one key per card, determined by the card,
+ * the pile it is in, its position in that pile and whether it is face up. Moves keep the hash up to date by toggling
+ * the keys of the cards they take out of and put into piles (see {@link #toggleZobristKeys(Deck, int, int)}), so the
+ * hash never has to be recomputed from scratch. The piles are numbered in the order stock, waste, stack piles and
+ * columns (see {@link #getPile(int)}). Positions in the waste are counted from its end, because cards are drawn from
+ * the front of the waste.
+ * The part of the hash that covers the stack piles and columns is kept as well (see {@link #getTableauHash()}).
+ *
+ * <p>Two card counters are kept up to date as well, so checking for a win does not have to walk the piles: the number of
+ * invisible column cards, which the columns report whenever a card is turned over (see
+ * {@link Deck#setInvisibleCardsListener(java.util.function.IntConsumer)}), and the number of cards on the stack piles,
+ * which moves count (see {@link #addFoundationCards(int)}). Both are counted from the layout the first time the piles
+ * are used, so a layout built by hand needs no extra call, and again by {@link #rehashZobrist()}. After that only moves
+ * and {@link Deck#setInvisibleCards(int)} keep them up to date: a layout that is changed otherwise, for example by
+ * adding cards to a stack pile or by replacing a column, needs a {@link #rehashZobrist()} afterwards.
  */
 public final class GameState {
+    /**
+     * Headers of the stack piles, in the order in which they are laid out.
+     */
+    public static final List<String> STACK_HEADERS = Collections.unmodifiableList(Arrays.asList("SA", "SB", "SC", "SD"));
+    /**
+     * Headers of the columns, in the order in which they are laid out.
+     */
+    public static final List<String> COLUMN_HEADERS =
+        Collections.unmodifiableList(Arrays.asList("A", "B", "C", "D", "E", "F", "G"));
+    /**
+     * Pile number of the stock.
+     */
+    public static final int STOCK_PILE = 0;
+    /**
+     * Pile number of the waste.
+     */
+    public static final int WASTE_PILE = 1;
+    /**
+     * Pile number of the first stack pile, the others follow in {@link #STACK_HEADERS} order.
+     */
+    public static final int FIRST_STACK_PILE = 2;
+    /**
+     * Pile number of the first column, the others follow in {@link #COLUMN_HEADERS} order.
+     */
+    public static final int FIRST_COLUMN_PILE = FIRST_STACK_PILE + STACK_HEADERS.size();
+    /**
+     * Total number of piles.
+     */
+    public static final int PILE_COUNT = FIRST_COLUMN_PILE + COLUMN_HEADERS.size();
+    /**
+     * Deal number of a GameState that was not dealt from a deal number.
+     */
+    public static final long NO_DEAL = -1;
+    /**
+     * Maximum number of layouts remembered per pass through the stock, see {@link #recordPassLayout()}.
+     */
+    public static final int PASS_LAYOUTS = 64;
+
+
     private final Deck waste = new Deck(DeckType.WASTE);
     private final Deck stock = new Deck(DeckType.STOCK);
     private final Map<String, Deck> stackPiles = new LinkedHashMap<>(); // entries of header and deck
     private final Map<String, Deck> columns = new LinkedHashMap<>(); // entries of header and deck
-    private final List<RevertibleMove> moves = new ArrayList<>();
+    private final MoveJournal moves = new MoveJournal();
+    private final List<RevertibleMove> moveView = new JournalView();
+    private VariationTree variations;
+    private MoveListener moveListener;
+    private long dealNumber = NO_DEAL;
     private int stockCycles = 0;
+    private int passStartCycle = -1;
+    private long passStartHash = 0;
+    private long[] passLayouts; // tableau hashes of the layouts of the current pass, created when first recorded
+    private int passLayoutCount = 0; // more than PASS_LAYOUTS if layouts were dropped
     private long baseScore = 0;
     private long timeScore = 0;
     private LocalDateTime startTime = LocalDateTime.now();
+    private long startEpochMilli = toEpochMilli(startTime); // lets getPlayingSeconds() read the clock without allocating
     private LocalDateTime endTime;
     private boolean gameLost = false;
     private boolean gameWon = false;
+    private Deck[] piles;
+    private long zobristHash = 0;
+    private long tableauHash = 0;
+    private int faceDownCards = 0;
+    private int foundationCards = 0;
+    private final IntConsumer faceDownCounter = delta -> faceDownCards += delta;
+    private boolean verifyZobristHash = false;
 
     /**
      * Getter for waste deck.
@@ -72,14 +148,80 @@ public final class GameState {
     }
 
     /**
-     * Getter for moves list.
+     * Getter for moves list. The list is a read-only view of the {@link MoveJournal}: its elements are recreated from
+     * their journal entries on access, and can only be reverted.
      *
-     * @return moves list
+     * @return moves list, oldest move first
      */
     public List<RevertibleMove> getMoves() {
+        return moveView;
+    }
+
+    /**
+     * Getter for the undo journal.
+     *
+     * @return journal of the moves that can be reverted
+     */
+    public MoveJournal getMoveJournal() {
         return moves;
     }
 
+    /**
+     * Getter for the variation tree.
+     *
+     * @return tree of all lines of play since {@link #recordVariations()} was called, or null if variations are not
+     * recorded
+     */
+    public VariationTree getVariations() {
+        return variations;
+    }
+
+    /**
+     * Starts recording all lines of play in a {@link VariationTree}, which makes it possible to redo reverted moves and
+     * switch between variations. The current position becomes the root of the tree; if a move played before it is
+     * reverted, the tree starts over from the new position. Engines that apply and revert moves by the million should
+     * work on a GameState that does not record variations.
+     */
+    public void recordVariations() {
+        variations = new VariationTree();
+    }
+
+    /**
+     * Limits the number of moves that can be reverted. When more moves are played, the oldest are forgotten.
+     *
+     * @param maxDepth maximum number of revertible moves, at least 1, or {@link MoveJournal#UNLIMITED}
+     */
+    public void setUndoDepth(int maxDepth) {
+        moves.setMaxDepth(maxDepth);
+    }
+
+    /**
+     * Setter for moveListener.
+     *
+     * @param moveListener listener to tell about every applied and reverted move, or null for none
+     */
+    public void setMoveListener(MoveListener moveListener) {
+        this.moveListener = moveListener;
+    }
+
+    /**
+     * Getter for dealNumber.
+     *
+     * @return number of the deal this game was dealt from, or {@link #NO_DEAL}
+     */
+    public long getDealNumber() {
+        return dealNumber;
+    }
+
+    /**
+     * Setter for dealNumber.
+     *
+     * @param dealNumber number of the deal this game was dealt from, or {@link #NO_DEAL}
+     */
+    public void setDealNumber(long dealNumber) {
+        this.dealNumber = dealNumber;
+    }
+
     /**
      * Getter for stockCycles.
      *
@@ -98,6 +240,95 @@ public final class GameState {
         this.stockCycles = stockCycles;
     }
 
+    /**
+     * Getter for passStartCycle.
+     *
+     * @return stock cycle of the last recorded start of a pass through the stock, or -1 if none was recorded
+     */
+    public int getPassStartCycle() {
+        return passStartCycle;
+    }
+
+    /**
+     * Getter for passStartHash.
+     *
+     * @return Zobrist hash of the layout at the last recorded start of a pass through the stock
+     */
+    public long getPassStartHash() {
+        return passStartHash;
+    }
+
+    /**
+     * Records the start of a pass through the stock, so that a pass that leaves the layout as it was can be detected
+     * (see {@link nl.quintor.solitaire.game.GameStateController#detectDeadEnd(GameState)}).
+     *
+     * @param stockCycle stock cycle of the pass
+     * @param zobristHash Zobrist hash of the layout at the start of the pass
+     */
+    public void setPassStart(int stockCycle, long zobristHash) {
+        this.passStartCycle = stockCycle;
+        this.passStartHash = zobristHash;
+        passLayoutCount = 0;
+        recordPassLayout();
+    }
+
+    /**
+     * Remembers the current layout of the stack piles and columns as one of the layouts of the current pass through
+     * the stock, which {@link #setPassStart(int, long)} starts. A layout that was already remembered is not remembered
+     * again. At most {@link #PASS_LAYOUTS} layouts are remembered; if a pass has more, they are all forgotten and
+     * {@link #isPassLayout(long)} finds none.
+     */
+    public void recordPassLayout() {
+        if (passLayoutCount > PASS_LAYOUTS || isPassLayout(tableauHash)) return;
+        if (passLayouts == null) passLayouts = new long[PASS_LAYOUTS];
+        if (passLayoutCount < PASS_LAYOUTS) passLayouts[passLayoutCount] = tableauHash;
+        passLayoutCount++;
+    }
+
+    /**
+     * Determines if a layout of the stack piles and columns was remembered during the current pass through the stock.
+     *
+     * @param tableauHash tableau hash of the layout, see {@link #getTableauHash()}
+     * @return true if the layout was remembered by {@link #recordPassLayout()}, false if not or if the pass had too
+     * many layouts to remember
+     */
+    public boolean isPassLayout(long tableauHash) {
+        if (passLayoutCount > PASS_LAYOUTS) return false;
+        for (int i = 0; i < passLayoutCount; i++) if (passLayouts[i] == tableauHash) return true;
+        return false;
+    }
+
+    /**
+     * Getter for faceDownCards. Counts the invisible cards the first time it is called, if no move or
+     * {@link #rehashZobrist()} did so before.
+     *
+     * @return number of invisible cards in the columns
+     */
+    public int getFaceDownCards() {
+        piles();
+        return faceDownCards;
+    }
+
+    /**
+     * Getter for foundationCards. Counts the cards the first time it is called, if no move or {@link #rehashZobrist()}
+     * did so before.
+     *
+     * @return number of cards on the stack piles
+     */
+    public int getFoundationCards() {
+        piles();
+        return foundationCards;
+    }
+
+    /**
+     * Counts cards that a move put on or took off the stack piles.
+     *
+     * @param delta change of the number of cards on the stack piles
+     */
+    public void addFoundationCards(int delta) {
+        foundationCards += delta;
+    }
+
     /**
      * Getter for baseScore.
      *
@@ -150,6 +381,7 @@ public final class GameState {
      */
     public void setStartTime(LocalDateTime startTime) {
         this.startTime = startTime;
+        this.startEpochMilli = toEpochMilli(startTime);
     }
 
     /**
@@ -207,21 +439,169 @@ public final class GameState {
     }
 
     /**
-     * Stores the provided {@link RevertibleMove} in the moves list.
+     * Stores the provided, just applied {@link RevertibleMove} in the moves journal as a single packed entry. If
+     * variations are recorded, the {@link VariationTree} advances to the node of the move. The {@link MoveListener}, if
+     * any, is told about the move.
      *
-     * @param move move to be added to the moves list
+     * @param move move to be added to the moves journal
      */
     public void remember(RevertibleMove move){
-        moves.add(move);
+        long entry = move.toJournalEntry();
+        moves.push(entry);
+        if (variations != null) variations.advance(entry);
+        if (moveListener != null) moveListener.applied(entry);
     }
 
     /**
-     * Removes the provided {@link RevertibleMove} from the moves list.
+     * Removes the provided, just reverted {@link RevertibleMove} from the moves journal. Moves are reverted in reverse
+     * order, so this is always the newest entry. If variations are recorded, the {@link VariationTree} returns to the
+     * parent node; the move itself stays in the tree and can be redone. The {@link MoveListener}, if any, is told
+     * about the revert.
      *
-     * @param move move to be removed from the moves list
+     * @param move move to be removed from the moves journal
      */
     public void forget(RevertibleMove move){
-        moves.remove(move);
+        long entry = moves.pop();
+        if (variations != null) {
+            if (variations.getCurrent() == VariationTree.ROOT) variations.clear(); // reverted past the root, start over
+            else variations.retreat();
+        }
+        if (moveListener != null) moveListener.reverted(entry);
+    }
+
+    /**
+     * Returns the pile with the provided number. Stock and waste are numbered {@link #STOCK_PILE} and
+     * {@link #WASTE_PILE}, the stack piles and columns follow from {@link #FIRST_STACK_PILE} and
+     * {@link #FIRST_COLUMN_PILE} onwards.
+     *
+     * @param pile pile number, 0 up to {@link #PILE_COUNT}
+     * @return the pile
+     * @throws IllegalStateException if the stack piles and columns have not been set up yet
+     */
+    public Deck getPile(int pile) {
+        return piles()[pile];
+    }
+
+    /**
+     * Returns the number of the provided pile, the inverse of {@link #getPile(int)}.
+     *
+     * @param deck one of the piles of this GameState
+     * @return the pile number
+     * @throws IllegalArgumentException if the deck is not a pile of this GameState
+     */
+    public int getPileIndex(Deck deck) {
+        Deck[] piles = piles();
+        for (int i = 0; i < piles.length; i++) if (piles[i] == deck) return i;
+        throw new IllegalArgumentException("Deck is not a pile of this GameState");
+    }
+
+    /**
+     * Getter for the Zobrist hash of the card layout.
+     *
+     * @return the 64-bit Zobrist hash
+     */
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
+    /**
+     * Getter for the tableau hash: the part of the Zobrist hash that covers the stack piles and columns, leaving out
+     * the stock and waste. Layouts that only differ in the card the stock shows have the same tableau hash.
+     *
+     * @return the 64-bit tableau hash
+     */
+    public long getTableauHash() {
+        return tableauHash;
+    }
+
+    /**
+     * Returns the tableau hash the layout would have after moving the cards from the provided index of a stack pile or
+     * column on top of another stack pile or column, see {@link #getTableauHash()}. The move is not made, and not
+     * checked either.
+     *
+     * @param source pile number of the stack pile or column the cards are taken from
+     * @param index index of the first card to move
+     * @param destination pile number of the stack pile or column the cards are put on
+     * @return the 64-bit tableau hash after the move
+     */
+    public long getTableauHashAfter(int source, int index, int destination) {
+        Deck sourceDeck = piles()[source];
+        int destinationSize = piles[destination].size();
+        long hash = tableauHash;
+        for (int i = index; i < sourceDeck.size(); i++) {
+            Card card = sourceDeck.get(i);
+            hash ^= zobristKey(source, sourceDeck, i);
+            hash ^= ZobristKeys.key(card, destination, destinationSize + i - index, true);
+        }
+        if (source >= FIRST_COLUMN_PILE && index > 0 && index == sourceDeck.getInvisibleCards()) {
+            Card turned = sourceDeck.get(index - 1);
+            hash ^= ZobristKeys.key(turned, source, index - 1, false) ^ ZobristKeys.key(turned, source, index - 1, true);
+        }
+        return hash;
+    }
+
+    /**
+     * Toggles the Zobrist keys of the cards in the provided range of a pile, as they are currently placed. Cards that
+     * leave a pile must be toggled before they are removed, cards that enter a pile after they have been added. A card
+     * that is turned over is toggled both before and after turning.
+     *
+     * @param deck one of the piles of this GameState
+     * @param fromIndex index of the first card, inclusive
+     * @param toIndex index of the last card, exclusive
+     */
+    public void toggleZobristKeys(Deck deck, int fromIndex, int toIndex) {
+        int pile = getPileIndex(deck);
+        for (int i = fromIndex; i < toIndex; i++) {
+            long key = zobristKey(pile, deck, i);
+            zobristHash ^= key;
+            if (pile >= FIRST_STACK_PILE) tableauHash ^= key;
+        }
+    }
+
+    /**
+     * Computes the Zobrist hash of the card layout from scratch, by walking all piles.
+     *
+     * @return the 64-bit Zobrist hash
+     */
+    public long computeZobristHash() {
+        return computeHash(STOCK_PILE);
+    }
+
+    /**
+     * Resets the Zobrist hash and the card counters to a full recompute. Needed after the piles have been changed other
+     * than by moves, for example when a game is dealt.
+     */
+    public void rehashZobrist() {
+        zobristHash = computeZobristHash();
+        tableauHash = computeHash(FIRST_STACK_PILE);
+        faceDownCards = countFaceDownCards();
+        foundationCards = countFoundationCards();
+    }
+
+    /**
+     * Setter for verifyZobristHash. In verification mode, {@link #verifyZobristHash()} compares the incrementally
+     * maintained hash and card counters with a full recompute. Meant for tests, as a recompute walks all piles.
+     *
+     * @param verifyZobristHash true to enable verification
+     */
+    public void setVerifyZobristHash(boolean verifyZobristHash) {
+        this.verifyZobristHash = verifyZobristHash;
+    }
+
+    /**
+     * Verifies the Zobrist hash and the card counters against a full recompute if verification mode is enabled. Called
+     * by moves after they have been applied or reverted.
+     *
+     * @throws IllegalStateException if the hash or a counter is out of sync with the card layout
+     */
+    public void verifyZobristHash() {
+        if (!verifyZobristHash) return;
+        if (zobristHash != computeZobristHash() || tableauHash != computeHash(FIRST_STACK_PILE)) {
+            throw new IllegalStateException("Zobrist hash is out of sync with the card layout");
+        }
+        if (faceDownCards != countFaceDownCards() || foundationCards != countFoundationCards()) {
+            throw new IllegalStateException("Card counters are out of sync with the card layout");
+        }
     }
 
     public LocalDateTime getEndTime() {
@@ -232,6 +612,69 @@ public final class GameState {
         this.endTime = endTime;
     }
 
+    private Deck[] piles() {
+        if (piles == null) {
+            if (stackPiles.size() != STACK_HEADERS.size() || columns.size() != COLUMN_HEADERS.size()) {
+                throw new IllegalStateException("The stack piles and columns have not been set up");
+            }
+            Deck[] result = new Deck[PILE_COUNT];
+            result[STOCK_PILE] = stock;
+            result[WASTE_PILE] = waste;
+            for (int i = 0; i < STACK_HEADERS.size(); i++) {
+                result[FIRST_STACK_PILE + i] = stackPiles.get(STACK_HEADERS.get(i));
+            }
+            for (int i = 0; i < COLUMN_HEADERS.size(); i++) {
+                result[FIRST_COLUMN_PILE + i] = columns.get(COLUMN_HEADERS.get(i));
+            }
+            for (Deck column : columns.values()) column.setInvisibleCardsListener(faceDownCounter);
+            faceDownCards = countFaceDownCards();
+            foundationCards = countFoundationCards();
+            piles = result;
+        }
+        return piles;
+    }
+
+    private long computeHash(int firstPile) {
+        long hash = 0;
+        Deck[] piles = piles();
+        for (int pile = firstPile; pile < piles.length; pile++) {
+            for (int i = 0; i < piles[pile].size(); i++) hash ^= zobristKey(pile, piles[pile], i);
+        }
+        return hash;
+    }
+
+    private int countFaceDownCards() {
+        int count = 0;
+        for (Deck column : columns.values()) count += column.getInvisibleCards();
+        return count;
+    }
+
+    private int countFoundationCards() {
+        int count = 0;
+        for (Deck stackPile : stackPiles.values()) count += stackPile.size();
+        return count;
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long zobristKey(int pile, Deck deck, int index) {
+        int position = pile == WASTE_PILE ? deck.size() - 1 - index : index;
+        boolean faceUp = pile != WASTE_PILE && index >= deck.getInvisibleCards();
+        return ZobristKeys.key(deck.get(index), pile, position, faceUp);
+    }
+
+    /**
+     * Returns the playing time: from the start time up to the end time, or up to now if the game has not ended.
+     *
+     * @return playing time in seconds
+     */
+    public long getPlayingSeconds() {
+        if (endTime != null) return Duration.between(startTime, endTime).getSeconds();
+        return (System.currentTimeMillis() - startEpochMilli) / 1000;
+    }
+
     /**
      * String representation summarizing this GameState object, for example "12 move(s) played in 00:01:15 for 45 points".
      *
@@ -239,10 +682,24 @@ public final class GameState {
      */
     @Override
     public String toString(){
-        LocalDateTime calculatedPlayingTime = endTime == null ? LocalDateTime.now():endTime;
-        long duration = Duration.between(startTime, calculatedPlayingTime).getSeconds();
-        return moves.size() + " move(s) played in " + String.format("%02d", duration / 3600) + ":" +
+        long duration = getPlayingSeconds();
+        return moves.getMovesPlayed() + " move(s) played in " + String.format("%02d", duration / 3600) + ":" +
             String.format("%02d", duration / 60) +
             ":" + String.format("%02d", duration % 60) + " for " + getScore() + " points";
     }
+
+    /**
+     * Read-only list view of the moves journal.
+     */
+    private final class JournalView extends AbstractList<RevertibleMove> {
+        @Override
+        public RevertibleMove get(int index) {
+            return RevertibleMove.fromJournalEntry(moves.get(index));
+        }
+
+        @Override
+        public int size() {
+            return moves.size();
+        }
+    }
 }
@@ -0,0 +1,362 @@
+package nl.quintor.solitaire.models.state;
+
+import nl.quintor.solitaire.game.CardMoveChecks;
+import nl.quintor.solitaire.game.moves.MoveCode;
+import nl.quintor.solitaire.game.moves.ex.MoveException;
+import nl.quintor.solitaire.models.card.Card;
+import nl.quintor.solitaire.models.deck.Deck;
+import nl.quintor.solitaire.models.deck.DeckType;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Persistent, immutable counterpart of the card layout of a {@link GameState}, with the same piles, numbered the same
+ * way (see {@link GameState#getPile(int)}). Applying a move does not change an ImmutableGameState, but returns a new one
+ * that shares every pile the move did not touch with its parent: a card move copies the two or three piles it changes,
+ * as card ordinals, and a table of {@link GameState#PILE_COUNT} references. One position can be branched into thousands
+ * of others without copying whole games or reverting moves, and as nothing ever changes after construction, any number
+ * of threads can read and branch the same position without locking.
+ *
+ * <p>Moves are {@link MoveCode}s and follow exactly the rules of {@link nl.quintor.solitaire.game.moves.MoveCard} and
+ * {@link nl.quintor.solitaire.game.moves.CycleStock}, including turning over the last invisible card of a column and
+ * showing the next stock card when the top card was taken. The Zobrist hash is kept up to date per changed pile and
+ * equals the one of the same layout in a GameState, so positions can share a
+ * {@link nl.quintor.solitaire.solver.TranspositionTable} with the mutable engines.
+ *
+ * <p>{@link #of(GameState)} and {@link #toGameState()} convert from and to the mutable GameState. Like a
+ * {@link PackedGameState}, an ImmutableGameState holds the card layout only: scores, times, stock cycles and the list
+ * of moves are not part of it.
+ */
+public final class ImmutableGameState {
+    private static final byte[] EMPTY_PILE = new byte[0];
+    private static final String AGAINST_CARD_RULES = "The card does not fit the destination";
+
+    private final byte[][] piles;
+    private final byte[] invisibleCards;
+    private final long zobristHash;
+
+    private ImmutableGameState(byte[][] piles, byte[] invisibleCards, long zobristHash) {
+        this.piles = piles;
+        this.invisibleCards = invisibleCards;
+        this.zobristHash = zobristHash;
+    }
+
+    /**
+     * Creates an ImmutableGameState with the card layout of the provided GameState.
+     *
+     * @param gameState GameState object with 4 stack piles and 7 columns
+     * @return the immutable layout
+     */
+    public static ImmutableGameState of(GameState gameState) {
+        byte[][] piles = new byte[GameState.PILE_COUNT][];
+        byte[] invisibleCards = new byte[GameState.PILE_COUNT];
+        long hash = 0;
+        for (int pile = 0; pile < GameState.PILE_COUNT; pile++) {
+            Deck deck = gameState.getPile(pile);
+            byte[] cards = deck.isEmpty() ? EMPTY_PILE : new byte[deck.size()];
+            for (int i = 0; i < cards.length; i++) cards[i] = (byte) deck.get(i).getOrdinal();
+            piles[pile] = cards;
+            invisibleCards[pile] = (byte) deck.getInvisibleCards();
+            hash ^= pileHash(pile, cards, invisibleCards[pile]);
+        }
+        return new ImmutableGameState(piles, invisibleCards, hash);
+    }
+
+    /**
+     * Creates a new GameState object with this card layout. The new GameState has a fresh start time, a score of zero
+     * and no moves.
+     *
+     * @return new GameState object
+     */
+    public GameState toGameState() {
+        GameState gameState = new GameState();
+        copyTo(gameState.getStock(), GameState.STOCK_PILE);
+        copyTo(gameState.getWaste(), GameState.WASTE_PILE);
+        for (int i = 0; i < GameState.STACK_HEADERS.size(); i++) {
+            Deck stack = new Deck(DeckType.STACK);
+            copyTo(stack, GameState.FIRST_STACK_PILE + i);
+            gameState.getStackPiles().put(GameState.STACK_HEADERS.get(i), stack);
+        }
+        for (int i = 0; i < GameState.COLUMN_HEADERS.size(); i++) {
+            Deck column = new Deck(DeckType.COLUMN);
+            copyTo(column, GameState.FIRST_COLUMN_PILE + i);
+            gameState.getColumns().put(GameState.COLUMN_HEADERS.get(i), column);
+        }
+        gameState.rehashZobrist();
+        return gameState;
+    }
+
+    /**
+     * Applies a move to a new ImmutableGameState, sharing the piles the move does not touch with this one.
+     *
+     * @param code {@link MoveCode} of a card move or {@link MoveCode#CYCLE_STOCK}; the {@link MoveCode#AUTO_PLAYED}
+     * flag is ignored
+     * @return the layout after the move
+     * @throws MoveException on illegal move, with the same message as the move object would give
+     */
+    public ImmutableGameState apply(int code) throws MoveException {
+        if (MoveCode.isCycleStock(code)) return cycleStock();
+        int source = MoveCode.source(code);
+        int destination = MoveCode.destination(code);
+        int index = isColumn(source) ? MoveCode.index(code) : piles[source].length - 1;
+        String error = checkCardMove(source, index, destination);
+        if (error == AGAINST_CARD_RULES) {
+            // let the exception-throwing checks explain which rule the card breaks
+            Deck destinationDeck = new Deck(isColumn(destination) ? DeckType.COLUMN : DeckType.STACK);
+            copyTo(destinationDeck, destination);
+            CardMoveChecks.cardLevelChecks(destinationDeck, Card.of(piles[source][index]));
+        }
+        if (error != null) throw new MoveException(error);
+        return moveCards(source, index, destination);
+    }
+
+    /**
+     * Determines if a move can be applied, without creating a {@link MoveException}.
+     *
+     * @param code {@link MoveCode} of a card move or {@link MoveCode#CYCLE_STOCK}
+     * @return true if {@link #apply(int)} would succeed
+     */
+    public boolean isLegal(int code) {
+        if (MoveCode.isCycleStock(code)) {
+            return piles[GameState.STOCK_PILE].length > 0 || piles[GameState.WASTE_PILE].length > 0;
+        }
+        int source = MoveCode.source(code);
+        int index = isColumn(source) ? MoveCode.index(code) : piles[source].length - 1;
+        return checkCardMove(source, index, MoveCode.destination(code)) == null;
+    }
+
+    /**
+     * Writes the moves that {@link nl.quintor.solitaire.game.MoveGenerator#generate(GameState, int[])} would list for
+     * the same layout to the buffer, in pile order instead of most promising first.
+     *
+     * @param moves buffer for the move codes, {@link MoveCode#MAX_MOVES} long is always enough
+     * @return number of moves written to the buffer
+     */
+    public int listMoves(int[] moves) {
+        int count = 0;
+        for (int source = 0; source < GameState.PILE_COUNT; source++) {
+            if (source == GameState.WASTE_PILE || piles[source].length == 0) continue;
+            boolean column = isColumn(source);
+            int firstIndex = column ? invisibleCards[source] : piles[source].length - 1;
+            for (int index = firstIndex; index < piles[source].length; index++) {
+                for (int destination = GameState.FIRST_STACK_PILE; destination < GameState.PILE_COUNT; destination++) {
+                    boolean toColumn = isColumn(destination);
+                    if (!column && source != GameState.STOCK_PILE && !toColumn) continue;
+                    if (column && index == 0 && piles[destination].length == 0 && toColumn) continue;
+                    if (checkCardMove(source, index, destination) != null) continue;
+                    moves[count++] = MoveCode.of(source, index, destination);
+                }
+            }
+        }
+        if (isLegal(MoveCode.CYCLE_STOCK)) moves[count++] = MoveCode.CYCLE_STOCK;
+        return count;
+    }
+
+    /**
+     * Returns the number of cards of a pile.
+     *
+     * @param pile pile number, see {@link GameState#getPile(int)}
+     * @return number of cards
+     */
+    public int size(int pile) {
+        return piles[pile].length;
+    }
+
+    /**
+     * Returns a card of a pile.
+     *
+     * @param pile pile number, see {@link GameState#getPile(int)}
+     * @param index position in the pile, 0 for the bottom card
+     * @return card ordinal, see {@link Card#getOrdinal()}
+     * @throws IndexOutOfBoundsException if there is no card at the index
+     */
+    public int getCard(int pile, int index) {
+        return piles[pile][index];
+    }
+
+    /**
+     * Returns a read-only view of the cards of a pile, which never changes.
+     *
+     * @param pile pile number, see {@link GameState#getPile(int)}
+     * @return list of the cards, bottom card first
+     */
+    public List<Card> getCards(int pile) {
+        byte[] cards = piles[pile];
+        return new AbstractList<Card>() {
+            @Override
+            public Card get(int index) {
+                return Card.of(cards[index]);
+            }
+
+            @Override
+            public int size() {
+                return cards.length;
+            }
+        };
+    }
+
+    /**
+     * Returns the number of invisible cards of a pile, which is only ever more than 0 for a column.
+     *
+     * @param pile pile number, see {@link GameState#getPile(int)}
+     * @return number of invisible cards
+     */
+    public int getInvisibleCards(int pile) {
+        return invisibleCards[pile];
+    }
+
+    /**
+     * Getter for zobristHash.
+     *
+     * @return the Zobrist hash, the same as {@link GameState#getZobristHash()} of the same layout
+     */
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
+    /**
+     * Determines if this layout wins the game, the same way as
+     * {@link nl.quintor.solitaire.game.GameStateController#hasWinningLayout(GameState)}.
+     *
+     * @return true if there are no invisible cards left in the columns and the stock and waste are empty
+     */
+    public boolean hasWinningLayout() {
+        if (piles[GameState.STOCK_PILE].length > 0 || piles[GameState.WASTE_PILE].length > 0) return false;
+        for (int pile = GameState.FIRST_COLUMN_PILE; pile < GameState.PILE_COUNT; pile++) {
+            if (invisibleCards[pile] > 0) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ImmutableGameState)) return false;
+        ImmutableGameState that = (ImmutableGameState) o;
+        return zobristHash == that.zobristHash && Arrays.equals(invisibleCards, that.invisibleCards) &&
+            Arrays.deepEquals(piles, that.piles);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(zobristHash);
+    }
+
+    /**
+     * Checks a card move against the rules of {@link CardMoveChecks}, in the same order as
+     * {@link nl.quintor.solitaire.game.moves.MoveCard}.
+     *
+     * @return the message of the {@link MoveException} the move would throw, {@link #AGAINST_CARD_RULES} if the card
+     * does not fit the destination, or null if the move is legal
+     */
+    private String checkCardMove(int source, int index, int destination) {
+        if (source >= GameState.PILE_COUNT || destination >= GameState.PILE_COUNT) return "Unknown pile";
+        byte[] sourceCards = piles[source];
+        byte[] destinationCards = piles[destination];
+        if (isColumn(source) && index >= sourceCards.length) {
+            return "Column " + MoveCode.token(source, -1) + " has no card " + index;
+        }
+        if (source == destination) return "Move source and destination can't be the same";
+        if (sourceCards.length == 0) return "You can't move a card from an empty deck";
+        if (destination == GameState.STOCK_PILE) return "You can't move cards to the stock";
+        if (index < invisibleCards[source]) return "You can't move an invisible card";
+        boolean toStack = destination >= GameState.FIRST_STACK_PILE && !isColumn(destination);
+        if (toStack && index < sourceCards.length - 1) return "You can't move more than 1 card at a time to a Stack Pile";
+        if (destination == GameState.WASTE_PILE) return "Target deck is neither Stack nor Column.";
+        int target = destinationCards.length == 0 ? CardMoveChecks.EMPTY_PILE :
+            destinationCards[destinationCards.length - 1];
+        boolean fits = toStack ? CardMoveChecks.canGoOnStack(target, sourceCards[index]) :
+            CardMoveChecks.canGoOnColumn(target, sourceCards[index]);
+        return fits ? null : AGAINST_CARD_RULES;
+    }
+
+    private ImmutableGameState moveCards(int source, int index, int destination) {
+        byte[][] newPiles = piles.clone();
+        byte[] newInvisibleCards = invisibleCards;
+        long hash = zobristHash;
+        byte[] sourceCards = piles[source];
+        byte[] destinationCards = piles[destination];
+        byte[] newSource = Arrays.copyOf(sourceCards, index);
+        byte[] newDestination = Arrays.copyOf(destinationCards, destinationCards.length + sourceCards.length - index);
+        System.arraycopy(sourceCards, index, newDestination, destinationCards.length, sourceCards.length - index);
+        newPiles[source] = newSource;
+        newPiles[destination] = newDestination;
+
+        // turn over the last card of a column if it was invisible
+        int invisible = invisibleCards[source];
+        if (isColumn(source) && invisible > 0 && invisible == newSource.length) {
+            newInvisibleCards = invisibleCards.clone();
+            newInvisibleCards[source] = (byte) (invisible - 1);
+        }
+        hash ^= pileHash(source, sourceCards, invisible) ^ pileHash(source, newSource, newInvisibleCards[source]);
+        int destinationInvisible = invisibleCards[destination];
+        hash ^= pileHash(destination, destinationCards, destinationInvisible) ^
+            pileHash(destination, newDestination, destinationInvisible);
+
+        // show the next stock card if the top card was taken
+        if (source == GameState.STOCK_PILE && newSource.length == 0 && piles[GameState.WASTE_PILE].length > 0) {
+            hash ^= pileHash(GameState.WASTE_PILE, piles[GameState.WASTE_PILE], 0);
+            hash = drawCard(newPiles, hash);
+        }
+        return new ImmutableGameState(newPiles, newInvisibleCards, hash);
+    }
+
+    private ImmutableGameState cycleStock() throws MoveException {
+        if (piles[GameState.STOCK_PILE].length == 0 && piles[GameState.WASTE_PILE].length == 0) {
+            throw new MoveException("Stock is empty");
+        }
+        byte[][] newPiles = piles.clone();
+        long hash = zobristHash ^ pileHash(GameState.STOCK_PILE, piles[GameState.STOCK_PILE], 0) ^
+            pileHash(GameState.WASTE_PILE, piles[GameState.WASTE_PILE], 0);
+
+        // all cards have been seen, turn the stock over and start a new cycle
+        if (piles[GameState.WASTE_PILE].length == 0) {
+            newPiles[GameState.WASTE_PILE] = piles[GameState.STOCK_PILE];
+            newPiles[GameState.STOCK_PILE] = EMPTY_PILE;
+        }
+        return new ImmutableGameState(newPiles, invisibleCards, drawCard(newPiles, hash));
+    }
+
+    /**
+     * Turns the first card of the waste face up on top of the stock, the same as
+     * {@link nl.quintor.solitaire.game.moves.CycleStock}. The provided hash must leave out the stock and the waste,
+     * the returned hash includes them again.
+     */
+    private static long drawCard(byte[][] piles, long hashWithoutStockAndWaste) {
+        byte[] stock = piles[GameState.STOCK_PILE];
+        byte[] waste = piles[GameState.WASTE_PILE];
+        byte[] newStock = Arrays.copyOf(stock, stock.length + 1);
+        newStock[stock.length] = waste[0];
+        byte[] newWaste = waste.length == 1 ? EMPTY_PILE : Arrays.copyOfRange(waste, 1, waste.length);
+        piles[GameState.STOCK_PILE] = newStock;
+        piles[GameState.WASTE_PILE] = newWaste;
+        return hashWithoutStockAndWaste ^ pileHash(GameState.STOCK_PILE, newStock, 0) ^
+            pileHash(GameState.WASTE_PILE, newWaste, 0);
+    }
+
+    /**
+     * Computes the Zobrist keys of a pile the way {@link GameState#computeZobristHash()} does.
+     */
+    private static long pileHash(int pile, byte[] cards, int invisibleCards) {
+        long hash = 0;
+        for (int i = 0; i < cards.length; i++) {
+            int position = pile == GameState.WASTE_PILE ? cards.length - 1 - i : i;
+            boolean faceUp = pile != GameState.WASTE_PILE && i >= invisibleCards;
+            hash ^= ZobristKeys.key(Card.of(cards[i]), pile, position, faceUp);
+        }
+        return hash;
+    }
+
+    private static boolean isColumn(int pile) {
+        return pile >= GameState.FIRST_COLUMN_PILE;
+    }
+
+    private void copyTo(Deck deck, int pile) {
+        byte[] cards = piles[pile];
+        deck.ensureCapacity(cards.length);
+        for (byte card : cards) deck.add(Card.of(card));
+        deck.setInvisibleCards(invisibleCards[pile]);
+    }
+}
@@ -0,0 +1,166 @@
+package nl.quintor.solitaire.models.state;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Bounded undo journal of the moves played in a {@link GameState}. Every move is stored as a single packed 64-bit entry
+ * (see {@link nl.quintor.solitaire.game.moves.RevertibleMove#toJournalEntry()}) in a ring of longs that grows on demand
+ * up to the maximum depth. When the journal is full, pushing a new entry drops the oldest one: that move can then no
+ * longer be reverted. Pushing, peeking and popping are O(1).
+ *
+ * <p>Besides the entries that can still be reverted, the journal counts the moves played: pushed minus popped, including
+ * the entries that have been dropped.
+ */
+public final class MoveJournal {
+    /**
+     * Maximum depth of a journal that is not explicitly limited.
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE - 8;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] entries = new long[INITIAL_CAPACITY];
+    private int head = 0; // index of the oldest entry
+    private int size = 0;
+    private int maxDepth;
+    private int movesPlayed = 0;
+
+    /**
+     * Constructs an unlimited MoveJournal.
+     */
+    public MoveJournal() {
+        this(UNLIMITED);
+    }
+
+    /**
+     * Constructs a MoveJournal that holds at most the provided number of entries.
+     *
+     * @param maxDepth maximum number of revertible moves, at least 1
+     */
+    public MoveJournal(int maxDepth) {
+        setMaxDepth(maxDepth);
+    }
+
+    /**
+     * Appends an entry, dropping the oldest entry if the journal is at its maximum depth.
+     *
+     * @param entry packed move
+     */
+    public void push(long entry) {
+        movesPlayed++;
+        if (size == maxDepth) {
+            head = (head + 1) % entries.length;
+            size--;
+        } else if (size == entries.length) {
+            grow();
+        }
+        entries[(head + size) % entries.length] = entry;
+        size++;
+    }
+
+    /**
+     * Returns the newest entry without removing it.
+     *
+     * @return newest entry
+     * @throws NoSuchElementException if the journal is empty
+     */
+    public long peek() {
+        if (size == 0) throw new NoSuchElementException("Journal is empty");
+        return entries[(head + size - 1) % entries.length];
+    }
+
+    /**
+     * Removes and returns the newest entry.
+     *
+     * @return newest entry
+     * @throws NoSuchElementException if the journal is empty
+     */
+    public long pop() {
+        long entry = peek();
+        size--;
+        movesPlayed--;
+        return entry;
+    }
+
+    /**
+     * Returns an entry by age.
+     *
+     * @param index 0 for the oldest entry up to {@link #size()} - 1 for the newest
+     * @return the entry
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public long get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        return entries[(head + index) % entries.length];
+    }
+
+    /**
+     * Removes all entries and resets the number of moves played.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+        movesPlayed = 0;
+    }
+
+    /**
+     * Getter for size.
+     *
+     * @return number of entries, i.e. the number of moves that can be reverted
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Getter for movesPlayed.
+     *
+     * @return number of moves played: pushed minus popped, including dropped entries
+     */
+    public int getMovesPlayed() {
+        return movesPlayed;
+    }
+
+    /**
+     * Getter for maxDepth.
+     *
+     * @return maximum number of entries
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Setter for maxDepth. If the journal holds more entries than the new maximum, the oldest entries are dropped.
+     *
+     * @param maxDepth maximum number of entries, at least 1
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1 || maxDepth > UNLIMITED) throw new IllegalArgumentException("1 <= maxDepth <= " + UNLIMITED);
+        if (size > maxDepth) {
+            head = (head + size - maxDepth) % entries.length;
+            size = maxDepth;
+        }
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Doubles the capacity of the ring, capped at the maximum depth, and moves the entries to the front.
+     */
+    private void grow() {
+        int capacity = (int) Math.min((long) entries.length * 2, maxDepth);
+        long[] grown = new long[capacity];
+        int tail = Math.min(size, entries.length - head);
+        System.arraycopy(entries, head, grown, 0, tail);
+        System.arraycopy(entries, 0, grown, tail, size - tail);
+        entries = grown;
+        head = 0;
+    }
+
+    @Override
+    public String toString() {
+        long[] ordered = new long[size];
+        for (int i = 0; i < size; i++) ordered[i] = get(i);
+        return Arrays.toString(ordered);
+    }
+}
@@ -0,0 +1,23 @@
+package nl.quintor.solitaire.models.state;
+
+/**
+ * Listener that is told about every move that is applied to or reverted from a {@link GameState}, see
+ * {@link GameState#setMoveListener(MoveListener)}. Moves arrive as journal entries (see {@link MoveJournal}), in the
+ * order in which the GameState remembers and forgets them, including the moves that a single player command such as a
+ * jump applies and reverts.
+ */
+public interface MoveListener {
+    /**
+     * Called after a move has been applied and remembered.
+     *
+     * @param entry journal entry of the applied move
+     */
+    void applied(long entry);
+
+    /**
+     * Called after the newest move has been reverted and forgotten.
+     *
+     * @param entry journal entry of the reverted move
+     */
+    void reverted(long entry);
+}
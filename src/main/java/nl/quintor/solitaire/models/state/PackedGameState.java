@@ -0,0 +1,211 @@
+package nl.quintor.solitaire.models.state;
+
+import nl.quintor.solitaire.models.card.Card;
+import nl.quintor.solitaire.models.deck.Deck;
+import nl.quintor.solitaire.models.deck.DeckType;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Compact, immutable encoding of the card layout of a {@link GameState}: the stock, the waste, the stack piles and the
+ * columns, including the number of invisible cards per column. The encoding fits in a fixed 64 bytes (eight longs), so
+ * large numbers of positions can be stored, copied and compared without building object graphs of {@link Deck}s.
+ *
+ * <p>The encoding is a stream of 6-bit fields. The piles are written in a fixed order: stock, waste, the stack piles
+ * in {@link GameState#STACK_HEADERS} order and the columns in {@link GameState#COLUMN_HEADERS} order. Every pile
+ * starts with its size, columns follow with their number of invisible cards, and then the card ordinals are written
+ * from the first to the last card. Unused trailing bits are zero, so two PackedGameStates are equal if and only if
+ * they encode the same layout.
+ *
+ * <p>Scores, times, stock cycles and the list of moves are not part of the encoding.
+ */
+public final class PackedGameState {
+    /**
+     * Size of the encoding in longs.
+     */
+    public static final int LONGS = 8;
+    /**
+     * Size of the encoding in bytes.
+     */
+    public static final int BYTES = LONGS * Long.BYTES;
+    private static final int FIELD_BITS = 6;
+    private static final long FIELD_MASK = (1L << FIELD_BITS) - 1;
+
+    private final long[] words;
+
+    private PackedGameState(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Encodes the card layout of the provided GameState.
+     *
+     * @param gameState GameState object with 4 stack piles and 7 columns
+     * @return the packed layout
+     * @throws IllegalArgumentException if the GameState does not have the standard piles or holds more than 54 cards
+     */
+    public static PackedGameState pack(GameState gameState) {
+        if (gameState.getStackPiles().size() != GameState.STACK_HEADERS.size() ||
+            gameState.getColumns().size() != GameState.COLUMN_HEADERS.size()) {
+            throw new IllegalArgumentException("Only GameStates with 4 stack piles and 7 columns can be packed");
+        }
+        long[] words = new long[LONGS];
+        int bit = 0;
+        int cards = 0;
+        bit = writePile(words, bit, gameState.getStock(), false);
+        cards += gameState.getStock().size();
+        bit = writePile(words, bit, gameState.getWaste(), false);
+        cards += gameState.getWaste().size();
+        for (String header : GameState.STACK_HEADERS) {
+            Deck stack = gameState.getStackPiles().get(header);
+            bit = writePile(words, bit, stack, false);
+            cards += stack.size();
+        }
+        for (String header : GameState.COLUMN_HEADERS) {
+            Deck column = gameState.getColumns().get(header);
+            bit = writePile(words, bit, column, true);
+            cards += column.size();
+        }
+        if (cards > 54) throw new IllegalArgumentException("A GameState can hold at most 54 cards");
+        return new PackedGameState(words);
+    }
+
+    /**
+     * Encodes the layout of a new game dealt from the provided cards, the same as packing the GameState returned by
+     * {@link nl.quintor.solitaire.game.GameStateController#deal(Deck)} for those cards, but without creating the
+     * GameState.
+     *
+     * @param ordinals card ordinals in dealing order
+     * @param offset index of the first of the 52 ordinals
+     * @return the packed layout
+     */
+    public static PackedGameState packDeal(byte[] ordinals, int offset) {
+        int columns = GameState.COLUMN_HEADERS.size();
+        int firstStockCard = offset + columns * (columns + 1) / 2;
+        int end = offset + 52;
+        long[] words = new long[LONGS];
+        int bit = write(words, 0, 1);
+        bit = write(words, bit, ordinals[firstStockCard]);
+        bit = write(words, bit, end - firstStockCard - 1);
+        for (int i = firstStockCard + 1; i < end; i++) bit = write(words, bit, ordinals[i]);
+        for (int i = 0; i < GameState.STACK_HEADERS.size(); i++) bit = write(words, bit, 0);
+        int card = offset;
+        for (int column = 0; column < columns; column++) {
+            bit = write(words, bit, column + 1);
+            bit = write(words, bit, column);
+            for (int i = 0; i <= column; i++) bit = write(words, bit, ordinals[card++]);
+        }
+        return new PackedGameState(words);
+    }
+
+    /**
+     * Creates a PackedGameState from the longs returned by {@link #toLongArray()}.
+     *
+     * @param words eight longs
+     * @return the packed layout
+     */
+    public static PackedGameState fromLongArray(long[] words) {
+        if (words.length != LONGS) throw new IllegalArgumentException("A packed GameState consists of " + LONGS + " longs");
+        return new PackedGameState(words.clone());
+    }
+
+    /**
+     * Reads a PackedGameState of {@link #BYTES} bytes from the current position of the buffer.
+     *
+     * @param buffer buffer to read from
+     * @return the packed layout
+     */
+    public static PackedGameState readFrom(ByteBuffer buffer) {
+        long[] words = new long[LONGS];
+        for (int i = 0; i < LONGS; i++) words[i] = buffer.getLong();
+        return new PackedGameState(words);
+    }
+
+    /**
+     * Writes this PackedGameState as {@link #BYTES} bytes at the current position of the buffer.
+     *
+     * @param buffer buffer to write to
+     */
+    public void writeTo(ByteBuffer buffer) {
+        for (long word : words) buffer.putLong(word);
+    }
+
+    /**
+     * Returns a copy of the encoding.
+     *
+     * @return eight longs
+     */
+    public long[] toLongArray() {
+        return words.clone();
+    }
+
+    /**
+     * Decodes this PackedGameState into a new GameState object. The new GameState has a fresh start time, a score of
+     * zero and no moves.
+     *
+     * @return new GameState object with the encoded card layout
+     */
+    public GameState unpack() {
+        GameState gameState = new GameState();
+        int bit = readPile(words, 0, gameState.getStock(), false);
+        bit = readPile(words, bit, gameState.getWaste(), false);
+        for (String header : GameState.STACK_HEADERS) {
+            Deck stack = new Deck(DeckType.STACK);
+            bit = readPile(words, bit, stack, false);
+            gameState.getStackPiles().put(header, stack);
+        }
+        for (String header : GameState.COLUMN_HEADERS) {
+            Deck column = new Deck(DeckType.COLUMN);
+            bit = readPile(words, bit, column, true);
+            gameState.getColumns().put(header, column);
+        }
+        gameState.rehashZobrist();
+        return gameState;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PackedGameState && Arrays.equals(((PackedGameState) o).words, words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    private static int writePile(long[] words, int bit, Deck deck, boolean withInvisibleCards) {
+        bit = write(words, bit, deck.size());
+        if (withInvisibleCards) bit = write(words, bit, deck.getInvisibleCards());
+        for (Card card : deck) bit = write(words, bit, card.getOrdinal());
+        return bit;
+    }
+
+    private static int readPile(long[] words, int bit, Deck deck, boolean withInvisibleCards) {
+        int size = read(words, bit);
+        bit += FIELD_BITS;
+        if (withInvisibleCards) {
+            deck.setInvisibleCards(read(words, bit));
+            bit += FIELD_BITS;
+        }
+        for (int i = 0; i < size; i++, bit += FIELD_BITS) deck.add(Card.of(read(words, bit)));
+        return bit;
+    }
+
+    private static int write(long[] words, int bit, int value) {
+        if (value < 0 || value > FIELD_MASK) throw new IllegalArgumentException("Value " + value + " does not fit a field");
+        int word = bit >>> 6;
+        int offset = bit & 63;
+        words[word] |= (long) value << offset;
+        if (offset > 64 - FIELD_BITS) words[word + 1] |= (long) value >>> (64 - offset);
+        return bit + FIELD_BITS;
+    }
+
+    private static int read(long[] words, int bit) {
+        int word = bit >>> 6;
+        int offset = bit & 63;
+        long value = words[word] >>> offset;
+        if (offset > 64 - FIELD_BITS) value |= words[word + 1] << (64 - offset);
+        return (int) (value & FIELD_MASK);
+    }
+}
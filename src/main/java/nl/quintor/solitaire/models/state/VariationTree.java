@@ -0,0 +1,233 @@
+package nl.quintor.solitaire.models.state;
+
+import java.util.Arrays;
+
+/**
+ * Tree of all lines of play explored in a {@link GameState}. Node 0 is the deal; every other node is reached from its
+ * parent by one move, stored as the journal entry of that move (see {@link MoveJournal}). Lines that branch off share
+ * their common prefix, so a move is stored only once, no matter how many variations continue from it.
+ *
+ * <p>The tree follows the GameState: {@link GameState#remember(nl.quintor.solitaire.game.moves.RevertibleMove)} advances
+ * the current node to the child for the applied move, creating it if the move has not been played in this position
+ * before, and {@link GameState#forget(nl.quintor.solitaire.game.moves.RevertibleMove)} returns to the parent. Reverted
+ * moves stay in the tree and can be redone; each node remembers which of its children was visited last.
+ *
+ * <p>Nodes are stored in parallel primitive arrays that grow on demand.
+ */
+public final class VariationTree {
+    /**
+     * Node number of the deal.
+     */
+    public static final int ROOT = 0;
+    /**
+     * Returned by {@link #getRedoChild(int)} for a node without children.
+     */
+    public static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] entries = new long[INITIAL_CAPACITY];
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private int[] depths = new int[INITIAL_CAPACITY];
+    private int[] firstChildren = new int[INITIAL_CAPACITY];
+    private int[] nextSiblings = new int[INITIAL_CAPACITY];
+    private int[] redoChildren = new int[INITIAL_CAPACITY];
+    private int size;
+    private int current;
+
+    /**
+     * Constructs a VariationTree that holds only the deal.
+     */
+    public VariationTree() {
+        clear();
+    }
+
+    /**
+     * Moves to the child of the current node that is reached by the provided move, creating it if necessary.
+     *
+     * @param entry journal entry of the applied move
+     * @return node number of the new current node
+     */
+    public int advance(long entry) {
+        int child = firstChildren[current];
+        while (child != NONE && entries[child] != entry) child = nextSiblings[child];
+        if (child == NONE) child = addChild(current, entry);
+        redoChildren[current] = child;
+        current = child;
+        return current;
+    }
+
+    /**
+     * Moves to the parent of the current node.
+     *
+     * @return node number of the new current node
+     * @throws IllegalStateException if the current node is the deal
+     */
+    public int retreat() {
+        if (current == ROOT) throw new IllegalStateException("The deal has no parent");
+        current = parents[current];
+        return current;
+    }
+
+    /**
+     * Returns the closest node that is an ancestor of, or equal to, both provided nodes.
+     *
+     * @param first node number
+     * @param second node number
+     * @return node number of the common ancestor
+     */
+    public int getCommonAncestor(int first, int second) {
+        checkNode(first);
+        checkNode(second);
+        while (depths[first] > depths[second]) first = parents[first];
+        while (depths[second] > depths[first]) second = parents[second];
+        while (first != second) {
+            first = parents[first];
+            second = parents[second];
+        }
+        return first;
+    }
+
+    /**
+     * Lists the nodes on the way down from an ancestor to a node, excluding the ancestor.
+     *
+     * @param ancestor node number of an ancestor of the node, see {@link #getCommonAncestor(int, int)}
+     * @param node node number
+     * @return node numbers, nearest to the ancestor first
+     */
+    public int[] getPath(int ancestor, int node) {
+        checkNode(ancestor);
+        checkNode(node);
+        if (depths[ancestor] > depths[node]) throw new IllegalArgumentException("Node " + ancestor + " is not an ancestor");
+        int[] path = new int[depths[node] - depths[ancestor]];
+        for (int i = path.length - 1; i >= 0; i--) {
+            path[i] = node;
+            node = parents[node];
+        }
+        if (node != ancestor) throw new IllegalArgumentException("Node " + ancestor + " is not an ancestor");
+        return path;
+    }
+
+    /**
+     * Lists the nodes without children: the end points of all variations.
+     *
+     * @return node numbers in order of creation
+     */
+    public int[] getLeaves() {
+        int[] leaves = new int[size];
+        int count = 0;
+        for (int node = 0; node < size; node++) if (firstChildren[node] == NONE) leaves[count++] = node;
+        return Arrays.copyOf(leaves, count);
+    }
+
+    /**
+     * Getter for the journal entry of a node.
+     *
+     * @param node node number, not the deal
+     * @return journal entry of the move that leads from the parent to the node
+     */
+    public long getEntry(int node) {
+        checkNode(node);
+        if (node == ROOT) throw new IllegalArgumentException("The deal has no move");
+        return entries[node];
+    }
+
+    /**
+     * Getter for the parent of a node.
+     *
+     * @param node node number, not the deal
+     * @return node number of the parent
+     */
+    public int getParent(int node) {
+        checkNode(node);
+        if (node == ROOT) throw new IllegalArgumentException("The deal has no parent");
+        return parents[node];
+    }
+
+    /**
+     * Getter for the depth of a node.
+     *
+     * @param node node number
+     * @return number of moves between the deal and the node
+     */
+    public int getDepth(int node) {
+        checkNode(node);
+        return depths[node];
+    }
+
+    /**
+     * Returns the child to redo from a node: the child that was visited last.
+     *
+     * @param node node number
+     * @return node number of the child, or {@link #NONE} if the node has no children
+     */
+    public int getRedoChild(int node) {
+        checkNode(node);
+        return redoChildren[node];
+    }
+
+    /**
+     * Getter for current.
+     *
+     * @return node number of the current position
+     */
+    public int getCurrent() {
+        return current;
+    }
+
+    /**
+     * Getter for size.
+     *
+     * @return number of nodes, including the deal
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether a node number exists in this tree.
+     *
+     * @param node node number
+     * @return whether the node exists
+     */
+    public boolean contains(int node) {
+        return node >= 0 && node < size;
+    }
+
+    /**
+     * Removes all variations, leaving only the deal.
+     */
+    public void clear() {
+        size = 0;
+        current = addChild(NONE, 0);
+    }
+
+    /**
+     * Appends a node as the first child of its parent.
+     */
+    private int addChild(int parent, long entry) {
+        if (size == entries.length) grow();
+        int node = size++;
+        entries[node] = entry;
+        parents[node] = parent;
+        depths[node] = parent == NONE ? 0 : depths[parent] + 1;
+        firstChildren[node] = NONE;
+        redoChildren[node] = NONE;
+        nextSiblings[node] = parent == NONE ? NONE : firstChildren[parent];
+        if (parent != NONE) firstChildren[parent] = node;
+        return node;
+    }
+
+    private void grow() {
+        int capacity = entries.length * 2;
+        entries = Arrays.copyOf(entries, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        depths = Arrays.copyOf(depths, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        redoChildren = Arrays.copyOf(redoChildren, capacity);
+    }
+
+    private void checkNode(int node) {
+        if (!contains(node)) throw new IllegalArgumentException("Node " + node + " does not exist");
+    }
+}
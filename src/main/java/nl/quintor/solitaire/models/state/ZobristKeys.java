@@ -0,0 +1,32 @@
+package nl.quintor.solitaire.models.state;
+
+import nl.quintor.solitaire.models.card.Card;
+
+/**
+ * Source of the Zobrist keys used by {@link GameState}. Instead of a large table of random numbers, every key is
+ * derived from its (card, pile, position, face-up) coordinates with the SplitMix64 finalizer, which gives the same
+ * statistical quality without the memory footprint. The class is not instantiable.
+ */
+final class ZobristKeys {
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private ZobristKeys(){}
+
+    /**
+     * Returns the Zobrist key of a card at a specific place.
+     *
+     * @param card the card
+     * @param pile pile number, see {@link GameState#getPile(int)}
+     * @param position position of the card in the pile
+     * @param faceUp true if the card is face up
+     * @return 64-bit key
+     */
+    static long key(Card card, int pile, int position, boolean faceUp) {
+        long place = ((long) card.getOrdinal() * GameState.PILE_COUNT + pile) << 7 | position;
+        long coordinates = place << 1 | (faceUp ? 1 : 0);
+        long z = coordinates * SEED + SEED;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,230 @@
+package nl.quintor.solitaire.server;
+
+import nl.quintor.solitaire.solver.HintEngine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server that hosts any number of simultaneous games in one JVM. It accepts connections on a local TCP port and plays a
+ * {@link GameSession} with a line-based protocol on every connection, one thread per connection. The threads are
+ * virtual threads if the JVM has them (Java 21 and later), so thousands of mostly waiting sessions cost little memory;
+ * on older JVMs they are platform threads from a cached pool.
+ *
+ * <p>The games are kept in a {@link SessionStore}, which bounds the number of games on the heap: the games of the least
+ * recently active players, and of players that have been idle for too long, are evicted off-heap and restored when the
+ * player answers.
+ *
+ * <p>The server only listens on the loopback address. Sessions share nothing but the {@link ServerMetrics}, which they
+ * update without locks, the store and a {@link HintEngine}.
+ *
+ * <p>When accepting a connection fails while the server is open, for example because the process is out of file
+ * descriptors, the acceptor waits before it tries again, from {@link #MIN_ACCEPT_BACKOFF} doubling up to
+ * {@link #MAX_ACCEPT_BACKOFF}, so a lasting failure does not keep a core busy. Failures are counted in the
+ * {@link ServerMetrics}.
+ */
+public class GameServer implements Closeable {
+    /**
+     * Default maximum number of games on the heap of sessions that wait for their player.
+     */
+    public static final int DEFAULT_HOT_SESSIONS = 10_000;
+    /**
+     * Default time after which the game of an idle player is evicted.
+     */
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(1);
+    /**
+     * Wait after the first failure to accept a connection.
+     */
+    public static final Duration MIN_ACCEPT_BACKOFF = Duration.ofMillis(10);
+    /**
+     * Longest wait after repeated failures to accept a connection.
+     */
+    public static final Duration MAX_ACCEPT_BACKOFF = Duration.ofSeconds(1);
+    private static final int BACKLOG = 1024;
+
+    private final ServerSocket serverSocket;
+    private final ServerMetrics metrics = new ServerMetrics();
+    private final SessionStore store;
+    private final Duration idleTimeout;
+    private final ScheduledExecutorService reaper;
+    private final ExecutorService sessions = newThreadPerTaskExecutor("game-session");
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final boolean autoPlay;
+    private final HintEngine hintEngine = new HintEngine();
+    private final Thread acceptor;
+
+    /**
+     * Constructs a GameServer with {@link #DEFAULT_HOT_SESSIONS} and {@link #DEFAULT_IDLE_TIMEOUT}, and binds it to a
+     * port of the loopback address. Call {@link #start()} to accept connections.
+     *
+     * @param port TCP port to listen on, 0 for any free port
+     * @param autoPlay whether the sessions auto-play safe cards after every card move and stock cycle
+     * @throws IOException if the port cannot be bound
+     */
+    public GameServer(int port, boolean autoPlay) throws IOException {
+        this(port, autoPlay, DEFAULT_HOT_SESSIONS, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Constructs a GameServer and binds it to a port of the loopback address. Call {@link #start()} to accept
+     * connections.
+     *
+     * @param port TCP port to listen on, 0 for any free port
+     * @param autoPlay whether the sessions auto-play safe cards after every card move and stock cycle
+     * @param hotSessions maximum number of games on the heap of sessions that wait for their player
+     * @param idleTimeout time after which the game of an idle player is evicted, or zero to only evict the least
+     * recently active games beyond the hot sessions
+     * @throws IOException if the port cannot be bound
+     */
+    public GameServer(int port, boolean autoPlay, int hotSessions, Duration idleTimeout) throws IOException {
+        this.store = new SessionStore(hotSessions);
+        this.idleTimeout = idleTimeout;
+        this.reaper = idleTimeout.isZero() ? null : Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-session-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        this.autoPlay = autoPlay;
+        this.acceptor = new Thread(this::accept, "game-server-acceptor");
+    }
+
+    /**
+     * Starts accepting connections on a background thread. If there is an idle timeout, idle games are evicted once
+     * per timeout, so a game is evicted between one and two timeouts after its player answered.
+     */
+    public void start() {
+        acceptor.start();
+        if (reaper != null) {
+            long idleNanos = idleTimeout.toNanos();
+            reaper.scheduleWithFixedDelay(() -> store.evictIdle(idleNanos), idleNanos, idleNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return the counters of the sessions
+     */
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the store of the games of the sessions
+     */
+    public SessionStore getStore() {
+        return store;
+    }
+
+    /**
+     * Stops accepting connections and closes the connections of all sessions, which ends them.
+     *
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket connection : connections) connection.close();
+        sessions.shutdown();
+        if (reaper != null) reaper.shutdown();
+        hintEngine.close();
+    }
+
+    /**
+     * Creates an executor that runs every task on a new virtual thread, or, if the JVM has no virtual threads, on a
+     * pooled platform thread. Virtual threads are looked up by reflection, as the code is compiled for Java 11.
+     *
+     * @param name name prefix of the platform threads
+     * @return the executor
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String name) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threads = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, name + "-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * @return true if {@link #newThreadPerTaskExecutor(String)} creates virtual threads
+     */
+    public static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Accepts connections until the server socket is closed.
+     */
+    private void accept() {
+        long backoffNanos = 0;
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+                backoffNanos = 0;
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) return;
+                metrics.acceptFailed();
+                backoffNanos = backoffNanos == 0 ? MIN_ACCEPT_BACKOFF.toNanos() :
+                    Math.min(2 * backoffNanos, MAX_ACCEPT_BACKOFF.toNanos());
+                try {
+                    TimeUnit.NANOSECONDS.sleep(backoffNanos);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                continue;
+            }
+            connections.add(socket);
+            try {
+                sessions.execute(() -> {
+                    try {
+                        new GameSession(socket, metrics, store, autoPlay, hintEngine).run();
+                    } finally {
+                        connections.remove(socket);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                closeQuietly(socket); // the server was closed in the meantime
+            }
+        }
+    }
+
+    private void closeQuietly(Socket socket) {
+        connections.remove(socket);
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // nothing left to do
+        }
+    }
+}
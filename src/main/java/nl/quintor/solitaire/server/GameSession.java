@@ -0,0 +1,95 @@
+package nl.quintor.solitaire.server;
+
+import nl.quintor.solitaire.PlayerCommands;
+import nl.quintor.solitaire.game.GameStateController;
+import nl.quintor.solitaire.game.moves.Help;
+import nl.quintor.solitaire.game.moves.Move;
+import nl.quintor.solitaire.metrics.GameMetrics;
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.solver.HintEngine;
+import nl.quintor.solitaire.ui.cli.SocketUI;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+
+/**
+ * A game played over a connection of a {@link GameServer}. The session owns its {@link SocketUI} and runs the game loop
+ * of {@link nl.quintor.solitaire.Main} on its own thread, with the same {@link PlayerCommands}, so sessions share
+ * nothing but the {@link ServerMetrics}, the {@link SessionStore} and the {@link HintEngine}. Every session deals a
+ * random deal, records its variations and auto-plays safe cards if the server does. All moves of the command line game
+ * are available; the hints of all sessions are searched one at a time by the engine of the server, so a hint may time
+ * out when many players ask at once.
+ *
+ * <p>The game lives in the store. The session only checks it out to answer a line of the player, and checks it in
+ * before it waits for the next line, so the store can evict the game of an idle player.
+ *
+ * <p>The first frame shows "Deal 123" with the deal number, followed by the help text. The session ends when the game
+ * is over or the connection is closed, and then closes the connection.
+ */
+class GameSession implements Runnable {
+    private final Socket socket;
+    private final ServerMetrics metrics;
+    private final SessionStore store;
+    private final boolean autoPlay;
+    private final HintEngine hintEngine;
+
+    /**
+     * Constructs a GameSession.
+     *
+     * @param socket connection of the player
+     * @param metrics counters of the server
+     * @param store store to keep the game in
+     * @param autoPlay whether to auto-play safe cards after every card move and stock cycle
+     * @param hintEngine engine that answers the hints of the player
+     */
+    GameSession(Socket socket, ServerMetrics metrics, SessionStore store, boolean autoPlay, HintEngine hintEngine) {
+        this.socket = socket;
+        this.metrics = metrics;
+        this.store = store;
+        this.autoPlay = autoPlay;
+        this.hintEngine = hintEngine;
+    }
+
+    @Override
+    public void run() {
+        metrics.sessionStarted();
+        long id = -1;
+        try (Socket ignored = socket) {
+            socket.setTcpNoDelay(true);
+            SocketUI ui = new SocketUI(socket.getInputStream(), socket.getOutputStream(), metrics::moveAnswered);
+            GameState gameState = GameStateController.init(GameStateController.randomDealNumber());
+            gameState.recordVariations();
+            ui.setMessage("Deal " + gameState.getDealNumber() + "\n" + new Help().apply(gameState));
+            id = store.add(gameState);
+            play(id, ui);
+        } catch (IOException | UncheckedIOException e) {
+            // the player went away, there is nobody left to tell
+        } finally {
+            if (id != -1) store.remove(id);
+            metrics.sessionEnded();
+        }
+    }
+
+    /**
+     * Runs the game loop until the game is over, then shows the final frame.
+     */
+    private void play(long id, SocketUI ui) {
+        PlayerCommands commands = new PlayerCommands(hintEngine, autoPlay, GameMetrics.DISABLED);
+        Move move = null;
+        while (true) {
+            GameState gameState = store.checkOut(id);
+            try {
+                if (move != null) commands.apply(gameState, move, ui);
+                if (gameState.isGameOver()) {
+                    commands.end(gameState, ui);
+                    return;
+                }
+                ui.requestMove(gameState, commands.getMoves());
+            } finally {
+                store.checkIn(id);
+            }
+            move = commands.parse(ui.readMove());
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package nl.quintor.solitaire.server;
+
+import nl.quintor.solitaire.CommandLineOptions;
+import nl.quintor.solitaire.game.GameStateController;
+import nl.quintor.solitaire.game.moves.AutoPlay;
+import nl.quintor.solitaire.game.moves.Move;
+import nl.quintor.solitaire.game.moves.MoveCard;
+import nl.quintor.solitaire.game.moves.Quit;
+import nl.quintor.solitaire.game.moves.ex.MoveException;
+import nl.quintor.solitaire.metrics.LatencyHistogram;
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.simulation.GreedyStrategy;
+import nl.quintor.solitaire.simulation.Strategy;
+import nl.quintor.solitaire.ui.cli.SocketUI;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator for a {@link GameServer} on the same machine, started with "load". Every simulated player connects,
+ * reads the deal number from the first frame, and deals the same game locally; it then plays the moves of the
+ * {@link GreedyStrategy} on the local copy and sends them to the server, so every move is legal on the server as well.
+ * When the strategy gives up, the player quits and connects again for a new game. Supported options:
+ *
+ * <ul>
+ *     <li>--port: port of the server, defaults to {@link ServerCommand#DEFAULT_PORT}
+ *     <li>--sessions: number of simultaneous players, defaults to 100
+ *     <li>--seconds: duration of the load, defaults to 10
+ *     <li>--auto-play: whether the server auto-plays safe cards, which the local copy has to follow; defaults to true
+ * </ul>
+ *
+ * The generator measures the round trip of every move: from sending the move to reading the last line of the answer.
+ */
+public class LoadGenerator {
+    private final int port;
+    private final int sessions;
+    private final boolean autoPlay;
+    private final LongAdder games = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LatencyHistogram roundTrips = new LatencyHistogram();
+
+    /**
+     * Constructs a LoadGenerator.
+     *
+     * @param port port of the server on the loopback address
+     * @param sessions number of simultaneous players
+     * @param autoPlay whether the server auto-plays safe cards
+     */
+    public LoadGenerator(int port, int sessions, boolean autoPlay) {
+        this.port = port;
+        this.sessions = sessions;
+        this.autoPlay = autoPlay;
+    }
+
+    /**
+     * Runs the load with the provided options and prints the results.
+     *
+     * @param options parsed command-line options
+     */
+    public static void run(CommandLineOptions options) {
+        int sessions = options.getInt("sessions", 100);
+        long seconds = options.getLong("seconds", 10);
+        LoadGenerator generator = new LoadGenerator(options.getInt("port", ServerCommand.DEFAULT_PORT), sessions,
+            Boolean.parseBoolean(options.getString("auto-play", "true")));
+        try {
+            generator.run(Duration.ofSeconds(seconds));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        System.out.printf("%d sessions for %ds: %d games, %d moves, %.0f moves/s, p99 round trip %d µs%n", sessions,
+            seconds, generator.getGames(), generator.getMoves(), (double) generator.getMoves() / seconds,
+            LatencyHistogram.valueAtPercentile(generator.getRoundTrips().getCounts(), 99) / 1000);
+    }
+
+    /**
+     * Plays games on the server with all players until the duration has passed and the players have quit their games.
+     *
+     * @param duration duration of the load
+     * @throws InterruptedException if interrupted while waiting for the players
+     * @throws UncheckedIOException if a player cannot connect or the server sends something unexpected
+     */
+    public void run(Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService players = GameServer.newThreadPerTaskExecutor("load-player");
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < sessions; i++) {
+            results.add(players.submit(() -> {
+                while (System.nanoTime() - deadline < 0) playGame(deadline);
+                return null;
+            }));
+        }
+        players.shutdown();
+        players.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw new UncheckedIOException("Player failed: " + e.getCause().getMessage(), (IOException) e.getCause());
+                }
+                throw new IllegalStateException("Player failed: " + e.getCause(), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * @return number of games played
+     */
+    public long getGames() {
+        return games.sum();
+    }
+
+    /**
+     * @return number of moves played
+     */
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    /**
+     * @return histogram of the round trip of every move, in nanoseconds
+     */
+    public LatencyHistogram getRoundTrips() {
+        return roundTrips;
+    }
+
+    /**
+     * Plays a game until the strategy gives up, the game is won or the deadline has passed.
+     */
+    private void playGame(long deadline) throws IOException, MoveException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader reader =
+                new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            OutputStream output = socket.getOutputStream();
+            List<String> frame = new ArrayList<>();
+            if (!readFrame(reader, frame)) throw new IOException("The server closed the session before the first move");
+            GameState gameState = GameStateController.init(dealNumber(frame));
+            Strategy strategy = new GreedyStrategy();
+            AutoPlay safeCards = new AutoPlay();
+
+            while (System.nanoTime() - deadline < 0) {
+                Move move = strategy.nextMove(gameState);
+                if (move instanceof Quit) break;
+                String input = move instanceof MoveCard ? ((MoveCard) move).getPlayerInput() : "C";
+                move.apply(gameState);
+                if (autoPlay) safeCards.apply(gameState);
+
+                long start = System.nanoTime();
+                output.write((input + "\n").getBytes(StandardCharsets.UTF_8));
+                boolean prompted = readFrame(reader, frame);
+                roundTrips.record(System.nanoTime() - start);
+                moves.increment();
+                if (!prompted) { // the game was won
+                    games.increment();
+                    return;
+                }
+            }
+            output.write("Q\n".getBytes(StandardCharsets.UTF_8));
+            while (readFrame(reader, frame)) {
+                // read the final frame up to the end of the session
+            }
+            games.increment();
+        }
+    }
+
+    /**
+     * Reads the lines of a frame, up to and including the prompt.
+     *
+     * @param reader lines from the server
+     * @param lines list that is filled with the lines of the frame
+     * @return true if the frame ends with the prompt, false if the server ended the session
+     */
+    private static boolean readFrame(BufferedReader reader, List<String> lines) throws IOException {
+        lines.clear();
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lines.add(line);
+            if (line.equals(SocketUI.PROMPT)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Finds the deal number in the first frame, shown as "Deal 123".
+     */
+    private static long dealNumber(List<String> frame) throws IOException {
+        for (String line : frame) {
+            if (line.startsWith("Deal ")) return Long.parseLong(line.substring(5).trim());
+        }
+        throw new IOException("The first frame has no deal number");
+    }
+}
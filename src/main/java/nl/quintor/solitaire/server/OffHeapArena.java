@@ -0,0 +1,134 @@
+package nl.quintor.solitaire.server;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Allocator of blocks of bytes outside the Java heap, in direct {@link ByteBuffer} chunks of {@link #CHUNK_BYTES}
+ * bytes. Blocks come in size classes of a power of two, from {@link #MIN_BLOCK_BYTES} up to a whole chunk; a freed block
+ * goes to the free list of its class and is reused by the next allocation of that class. Chunks are never given back,
+ * so the arena is as large as its peak use, rounded up to a power of two per block.
+ *
+ * <p>A block is identified by a handle, a long with the size class, the chunk and the offset of the block. The arena
+ * is not thread-safe.
+ */
+class OffHeapArena {
+    /**
+     * Size of a chunk, and the largest block that can be allocated.
+     */
+    static final int CHUNK_BYTES = 1 << 20;
+    /**
+     * Size of the smallest size class.
+     */
+    static final int MIN_BLOCK_BYTES = 64;
+    private static final int MIN_CLASS = Integer.numberOfTrailingZeros(MIN_BLOCK_BYTES);
+    private static final int CLASSES = Integer.numberOfTrailingZeros(CHUNK_BYTES) - MIN_CLASS + 1;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final long[][] freeBlocks = new long[CLASSES][];
+    private final int[] freeCounts = new int[CLASSES];
+    private int chunkOffset = CHUNK_BYTES;
+    private long allocatedBytes = 0;
+
+    /**
+     * Allocates a block.
+     *
+     * @param length number of bytes the block has to hold, at most {@link #CHUNK_BYTES}
+     * @return handle of the block
+     * @throws IllegalArgumentException if the length is larger than a chunk
+     */
+    long allocate(int length) {
+        if (length > CHUNK_BYTES) throw new IllegalArgumentException("Cannot allocate " + length + " bytes off-heap");
+        int sizeClass = sizeClass(length);
+        long handle = freeCounts[sizeClass] > 0 ? freeBlocks[sizeClass][--freeCounts[sizeClass]] : carve(sizeClass);
+        allocatedBytes += blockBytes(sizeClass);
+        return handle;
+    }
+
+    /**
+     * Gives access to the bytes of a block.
+     *
+     * @param handle handle of an allocated block
+     * @param length number of bytes to access, at most the length the block was allocated for
+     * @return buffer of the bytes, positioned at 0, that stays valid until the block is freed
+     */
+    ByteBuffer slice(long handle, int length) {
+        ByteBuffer buffer = chunks.get(chunk(handle)).duplicate();
+        buffer.position(offset(handle)).limit(offset(handle) + length);
+        return buffer.slice();
+    }
+
+    /**
+     * Frees a block for reuse.
+     *
+     * @param handle handle of an allocated block, which is invalid afterwards
+     */
+    void free(long handle) {
+        int sizeClass = (int) (handle >>> 56);
+        allocatedBytes -= blockBytes(sizeClass);
+        push(sizeClass, handle);
+    }
+
+    /**
+     * @return number of bytes in allocated blocks
+     */
+    long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return number of bytes reserved off-heap, in all chunks
+     */
+    long getReservedBytes() {
+        return (long) chunks.size() * CHUNK_BYTES;
+    }
+
+    /**
+     * Cuts a new block from the current chunk. When the chunk is too full, its tail is cut into free blocks of smaller
+     * classes and a new chunk is started.
+     */
+    private long carve(int sizeClass) {
+        int bytes = blockBytes(sizeClass);
+        if (chunkOffset + bytes > CHUNK_BYTES) {
+            for (int rest = CHUNK_BYTES - chunkOffset; rest >= MIN_BLOCK_BYTES; rest = CHUNK_BYTES - chunkOffset) {
+                int restClass = 31 - Integer.numberOfLeadingZeros(rest) - MIN_CLASS;
+                push(restClass, handle(restClass, chunks.size() - 1, chunkOffset));
+                chunkOffset += blockBytes(restClass);
+            }
+            chunks.add(ByteBuffer.allocateDirect(CHUNK_BYTES));
+            chunkOffset = 0;
+        }
+        long handle = handle(sizeClass, chunks.size() - 1, chunkOffset);
+        chunkOffset += bytes;
+        return handle;
+    }
+
+    private void push(int sizeClass, long handle) {
+        long[] free = freeBlocks[sizeClass];
+        if (free == null) free = freeBlocks[sizeClass] = new long[16];
+        else if (freeCounts[sizeClass] == free.length) free = freeBlocks[sizeClass] = Arrays.copyOf(free, free.length * 2);
+        free[freeCounts[sizeClass]++] = handle;
+    }
+
+    private static int sizeClass(int length) {
+        return length <= MIN_BLOCK_BYTES ? 0 : 32 - Integer.numberOfLeadingZeros(length - 1) - MIN_CLASS;
+    }
+
+    private static int blockBytes(int sizeClass) {
+        return MIN_BLOCK_BYTES << sizeClass;
+    }
+
+    private static long handle(int sizeClass, int chunk, int offset) {
+        return (long) sizeClass << 56 | (long) chunk << 32 | offset;
+    }
+
+    private static int chunk(long handle) {
+        return (int) (handle >>> 32) & 0xFFFFFF;
+    }
+
+    private static int offset(long handle) {
+        return (int) handle;
+    }
+}
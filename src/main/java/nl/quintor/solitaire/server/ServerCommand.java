@@ -0,0 +1,58 @@
+package nl.quintor.solitaire.server;
+
+import nl.quintor.solitaire.CommandLineOptions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+
+/**
+ * Command-line entry point of the {@link GameServer}, started with "serve". Runs the server until the JVM is stopped,
+ * and prints a report of the {@link ServerMetrics} at a fixed interval: the number of sessions, the moves per second and
+ * the p99 latency of answering a move, followed by the state of the {@link SessionStore}. Supported options:
+ *
+ * <ul>
+ *     <li>--port: TCP port on the loopback address, defaults to {@link #DEFAULT_PORT}
+ *     <li>--report-seconds: interval between two reports, defaults to 5
+ *     <li>--auto-play: whether the sessions auto-play safe cards, defaults to true
+ *     <li>--hot-sessions: maximum number of games on the heap of sessions that wait for their player, defaults to
+ *     {@link GameServer#DEFAULT_HOT_SESSIONS}
+ *     <li>--idle-seconds: time after which the game of an idle player is evicted off-heap, 0 to never evict idle
+ *     games; defaults to 60
+ * </ul>
+ *
+ * Play with, for example, "nc localhost 7777", or put the server under load with the {@link LoadGenerator}.
+ */
+public class ServerCommand {
+    /**
+     * Default TCP port of the server.
+     */
+    public static final int DEFAULT_PORT = 7777;
+
+    private ServerCommand(){}
+
+    /**
+     * Runs the server with the provided options.
+     *
+     * @param options parsed command-line options
+     */
+    public static void run(CommandLineOptions options) {
+        long reportMillis = options.getLong("report-seconds", 5) * 1000;
+        try (GameServer server = new GameServer(options.getInt("port", DEFAULT_PORT),
+                Boolean.parseBoolean(options.getString("auto-play", "true")),
+                options.getInt("hot-sessions", GameServer.DEFAULT_HOT_SESSIONS),
+                Duration.ofSeconds(options.getLong("idle-seconds", GameServer.DEFAULT_IDLE_TIMEOUT.getSeconds())))) {
+            server.start();
+            System.out.printf("Listening on port %d, %s threads%n", server.getPort(),
+                GameServer.hasVirtualThreads() ? "virtual" : "platform");
+            while (!Thread.currentThread().isInterrupted()) {
+                Thread.sleep(reportMillis);
+                System.out.println(server.getMetrics().report() + "; " + server.getStore());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot run the game server", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package nl.quintor.solitaire.server;
+
+import nl.quintor.solitaire.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a {@link GameServer}: sessions, answered moves, the latency of answering a move and failures to accept a
+ * connection. The sessions update
+ * the counters without any locks, so recording a move never waits for another session; only {@link #report()}, which
+ * is called by a single reporting thread, keeps the state of the previous report.
+ */
+public class ServerMetrics {
+    private final LongAdder sessionsStarted = new LongAdder();
+    private final LongAdder sessionsEnded = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder acceptFailures = new LongAdder();
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    private long reportedMoves = 0;
+    private long[] reportedLatencies = moveLatency.getCounts();
+    private long reportedAt = System.nanoTime();
+
+    /**
+     * Counts a new session.
+     */
+    public void sessionStarted() {
+        sessionsStarted.increment();
+    }
+
+    /**
+     * Counts a session that ended.
+     */
+    public void sessionEnded() {
+        sessionsEnded.increment();
+    }
+
+    /**
+     * Counts a move that was answered.
+     *
+     * @param latencyNanos time between receiving the move and writing the answer, in nanoseconds
+     */
+    public void moveAnswered(long latencyNanos) {
+        moves.increment();
+        moveLatency.record(latencyNanos);
+    }
+
+    /**
+     * Counts a failure to accept a connection.
+     */
+    public void acceptFailed() {
+        acceptFailures.increment();
+    }
+
+    /**
+     * @return number of failures to accept a connection since the server started
+     */
+    public long getAcceptFailures() {
+        return acceptFailures.sum();
+    }
+
+    /**
+     * @return number of sessions that are connected
+     */
+    public long getActiveSessions() {
+        return sessionsStarted.sum() - sessionsEnded.sum();
+    }
+
+    /**
+     * @return number of sessions since the server started
+     */
+    public long getTotalSessions() {
+        return sessionsStarted.sum();
+    }
+
+    /**
+     * @return number of moves answered since the server started
+     */
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    /**
+     * @return histogram of the latency of all answered moves, in nanoseconds
+     */
+    public LatencyHistogram getMoveLatency() {
+        return moveLatency;
+    }
+
+    /**
+     * Describes the sessions and the moves since the previous report, for example "Sessions: 800 active, 1234 total;
+     * 52000 moves/s, p99 move latency 85 µs". Not thread-safe: reports are made by a single thread.
+     *
+     * @return the report
+     */
+    public String report() {
+        long now = System.nanoTime();
+        long totalMoves = moves.sum();
+        long[] latencies = moveLatency.getCounts();
+        long[] interval = new long[latencies.length];
+        for (int i = 0; i < latencies.length; i++) interval[i] = latencies[i] - reportedLatencies[i];
+        double seconds = (now - reportedAt) / 1e9;
+        String report = String.format("Sessions: %d active, %d total; %.0f moves/s, p99 move latency %d µs",
+            getActiveSessions(), getTotalSessions(), seconds == 0 ? 0 : (totalMoves - reportedMoves) / seconds,
+            LatencyHistogram.valueAtPercentile(interval, 99) / 1000);
+        reportedMoves = totalMoves;
+        reportedLatencies = latencies;
+        reportedAt = now;
+        return report;
+    }
+}
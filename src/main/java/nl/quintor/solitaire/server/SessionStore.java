@@ -0,0 +1,312 @@
+package nl.quintor.solitaire.server;
+
+import nl.quintor.solitaire.journal.GameJournal;
+import nl.quintor.solitaire.journal.MoveRecorder;
+import nl.quintor.solitaire.models.state.GameState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Store of the games of the sessions of a {@link GameServer}, which bounds the number of games on the heap. A session
+ * checks its game out while it answers a move and checks it in again before it waits for the next line of the player.
+ * Checked-in games stay on the heap, "hot", up to the configured number of hot sessions; beyond that, the least recently
+ * used game is evicted. Games that are idle for too long are evicted by {@link #evictIdle(long)} as well.
+ *
+ * <p>An evicted game is kept off-heap in an {@link OffHeapArena}, in the format of a {@link GameJournal}: the header
+ * with the deal number, followed by two bytes per applied or reverted move, as recorded by a {@link MoveRecorder}. A
+ * few hundred bytes restore the whole game, moves journal and variations included, so the next check-out rebuilds it
+ * transparently by dealing it again and replaying its moves.
+ *
+ * <p>The store is split into shards by session id, each with its own lock, arena and share of the hot sessions, so
+ * sessions rarely wait for each other. Games that are checked out do not count as hot and are never evicted.
+ */
+public class SessionStore {
+    private static final int MAX_SHARDS = 16;
+    private final Shard[] shards;
+    private final AtomicLong ids = new AtomicLong();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder restores = new LongAdder();
+
+    /**
+     * Constructs a SessionStore.
+     *
+     * @param hotSessions maximum number of checked-in games on the heap, 0 to evict every game that is checked in
+     */
+    public SessionStore(int hotSessions) {
+        if (hotSessions < 0) throw new IllegalArgumentException("Negative number of hot sessions: " + hotSessions);
+        shards = new Shard[Math.max(1, Math.min(MAX_SHARDS, hotSessions))];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(hotSessions / shards.length + (i < hotSessions % shards.length ? 1 : 0));
+        }
+    }
+
+    /**
+     * Adds a new game to the store, checked in. From now on, the store records the moves of the game as its
+     * {@link nl.quintor.solitaire.models.state.MoveListener}.
+     *
+     * @param gameState GameState object of a numbered deal, without moves
+     * @return id of the session, to check the game out with
+     * @throws IllegalArgumentException if the game was not dealt from a deal number
+     */
+    public long add(GameState gameState) {
+        if (gameState.getDealNumber() == GameState.NO_DEAL) {
+            throw new IllegalArgumentException("Only numbered deals can be stored");
+        }
+        long id = ids.incrementAndGet();
+        Slot slot = new Slot(gameState, MoveRecorder.record(gameState));
+        shard(id).add(id, slot);
+        return id;
+    }
+
+    /**
+     * Checks a game out, to apply moves to it. An evicted game is restored first.
+     *
+     * @param id id of the session
+     * @return GameState object of the session, which stays on the heap until it is checked in
+     * @throws NoSuchElementException if the store has no session with this id
+     * @throws IllegalStateException if the game is already checked out, or cannot be restored
+     */
+    public GameState checkOut(long id) {
+        Slot slot = shard(id).checkOut(id);
+        if (slot.gameState != null) return slot.gameState;
+
+        // restore outside the lock, the slot is checked out and belongs to the caller alone
+        ByteBuffer image = ByteBuffer.wrap(slot.image);
+        try {
+            slot.gameState = GameJournal.recover(image);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot restore the game of session " + id, e);
+        }
+        slot.recorder = MoveRecorder.resume(slot.gameState, image.position(GameJournal.HEADER_BYTES));
+        slot.image = null;
+        restores.increment();
+        return slot.gameState;
+    }
+
+    /**
+     * Checks a game in after its moves are applied. The least recently used games are evicted if there are more hot
+     * games than configured.
+     *
+     * @param id id of the session
+     * @throws NoSuchElementException if the store has no session with this id
+     */
+    public void checkIn(long id) {
+        shard(id).checkIn(id, System.nanoTime());
+    }
+
+    /**
+     * Removes a session and frees its game, on or off the heap.
+     *
+     * @param id id of the session; unknown ids are ignored
+     */
+    public void remove(long id) {
+        shard(id).remove(id);
+    }
+
+    /**
+     * Evicts the checked-in games that were last checked in before the maximum idle time.
+     *
+     * @param maxIdleNanos maximum idle time, in nanoseconds
+     */
+    public void evictIdle(long maxIdleNanos) {
+        long now = System.nanoTime();
+        for (Shard shard : shards) shard.evictIdle(now, maxIdleNanos);
+    }
+
+    /**
+     * @return number of checked-in games on the heap
+     */
+    public int getHotSessions() {
+        int hot = 0;
+        for (Shard shard : shards) hot += shard.hotSessions();
+        return hot;
+    }
+
+    /**
+     * @return number of games that are evicted
+     */
+    public int getEvictedSessions() {
+        int evicted = 0;
+        for (Shard shard : shards) evicted += shard.evictedSessions();
+        return evicted;
+    }
+
+    /**
+     * @return number of bytes of the evicted games off-heap, rounded up to their blocks
+     */
+    public long getOffHeapBytes() {
+        long bytes = 0;
+        for (Shard shard : shards) bytes += shard.offHeapBytes();
+        return bytes;
+    }
+
+    /**
+     * @return number of evictions since the store was created
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return number of restored games since the store was created
+     */
+    public long getRestores() {
+        return restores.sum();
+    }
+
+    /**
+     * Describes the store, for example "Store: 1000 hot, 9000 evicted (3312 KiB off-heap); 120 evictions, 80
+     * restores".
+     *
+     * @return the description
+     */
+    @Override
+    public String toString() {
+        return String.format("Store: %d hot, %d evicted (%d KiB off-heap); %d evictions, %d restores", getHotSessions(),
+            getEvictedSessions(), getOffHeapBytes() / 1024, getEvictions(), getRestores());
+    }
+
+    private Shard shard(long id) {
+        return shards[(int) (id % shards.length)];
+    }
+
+    /**
+     * The game of a session: on the heap with its recorder, evicted to a block of the arena, or on its way back as a
+     * copy of that block. Guarded by the lock of its shard, except while it is checked out.
+     */
+    private static final class Slot {
+        private GameState gameState;
+        private MoveRecorder recorder;
+        private byte[] image;
+        private long handle = -1;
+        private int length;
+        private long checkedInAt;
+        private boolean checkedOut;
+
+        private Slot(GameState gameState, MoveRecorder recorder) {
+            this.gameState = gameState;
+            this.recorder = recorder;
+        }
+    }
+
+    /**
+     * A part of the store. The hot games are kept in the order they were checked in, so the first one is the least
+     * recently used.
+     */
+    private final class Shard {
+        private final int hotSessions;
+        private final Map<Long, Slot> slots = new HashMap<>();
+        private final LinkedHashMap<Long, Slot> hot = new LinkedHashMap<>();
+        private final OffHeapArena arena = new OffHeapArena();
+        private int evicted = 0;
+
+        private Shard(int hotSessions) {
+            this.hotSessions = hotSessions;
+        }
+
+        private synchronized void add(long id, Slot slot) {
+            slots.put(id, slot);
+            slot.checkedInAt = System.nanoTime();
+            hot.put(id, slot);
+            evictLeastRecentlyUsed();
+        }
+
+        private synchronized Slot checkOut(long id) {
+            Slot slot = slot(id);
+            if (slot.checkedOut) throw new IllegalStateException("The game of session " + id + " is already checked out");
+            slot.checkedOut = true;
+            if (slot.gameState != null) {
+                hot.remove(id);
+            } else {
+                slot.image = new byte[slot.length];
+                arena.slice(slot.handle, slot.length).get(slot.image);
+                arena.free(slot.handle);
+                slot.handle = -1;
+                evicted--;
+            }
+            return slot;
+        }
+
+        private synchronized void checkIn(long id, long now) {
+            Slot slot = slot(id);
+            slot.checkedOut = false;
+            slot.checkedInAt = now;
+            hot.put(id, slot);
+            evictLeastRecentlyUsed();
+        }
+
+        private synchronized void remove(long id) {
+            Slot slot = slots.remove(id);
+            if (slot == null) return;
+            hot.remove(id);
+            if (slot.handle != -1) {
+                arena.free(slot.handle);
+                evicted--;
+            }
+            slot.gameState = null;
+            slot.recorder = null;
+        }
+
+        private synchronized void evictIdle(long now, long maxIdleNanos) {
+            for (Iterator<Slot> iterator = hot.values().iterator(); iterator.hasNext(); ) {
+                Slot slot = iterator.next();
+                if (now - slot.checkedInAt <= maxIdleNanos) return;
+                iterator.remove();
+                evict(slot);
+            }
+        }
+
+        private synchronized int hotSessions() {
+            return hot.size();
+        }
+
+        private synchronized int evictedSessions() {
+            return evicted;
+        }
+
+        private synchronized long offHeapBytes() {
+            return arena.getAllocatedBytes();
+        }
+
+        private void evictLeastRecentlyUsed() {
+            for (Iterator<Slot> iterator = hot.values().iterator(); hot.size() > hotSessions; ) {
+                Slot slot = iterator.next();
+                iterator.remove();
+                evict(slot);
+            }
+        }
+
+        /**
+         * Moves a game off-heap. A game too large for a block of the arena, hundreds of thousands of moves, stays on
+         * the heap, but no longer counts as hot.
+         */
+        private void evict(Slot slot) {
+            int length = GameJournal.HEADER_BYTES + slot.recorder.size();
+            if (length > OffHeapArena.CHUNK_BYTES) return;
+            slot.handle = arena.allocate(length);
+            slot.length = length;
+            ByteBuffer block = arena.slice(slot.handle, length);
+            GameJournal.writeHeader(slot.gameState, block);
+            slot.recorder.writeTo(block);
+            slot.gameState.setMoveListener(null);
+            slot.gameState = null;
+            slot.recorder = null;
+            evicted++;
+            evictions.increment();
+        }
+
+        private Slot slot(long id) {
+            Slot slot = slots.get(id);
+            if (slot == null) throw new NoSuchElementException("No session with id " + id);
+            return slot;
+        }
+    }
+}
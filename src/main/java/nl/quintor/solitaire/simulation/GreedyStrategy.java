@@ -0,0 +1,54 @@
+package nl.quintor.solitaire.simulation;
+
+import nl.quintor.solitaire.game.MoveGenerator;
+import nl.quintor.solitaire.game.moves.Move;
+import nl.quintor.solitaire.game.moves.MoveCode;
+import nl.quintor.solitaire.game.moves.Quit;
+import nl.quintor.solitaire.game.moves.RevertibleMove;
+import nl.quintor.solitaire.game.moves.ex.MoveException;
+import nl.quintor.solitaire.models.state.GameState;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Strategy that plays the first move listed by {@link MoveGenerator} (which lists the most promising moves first) that
+ * leads to a card layout it has not seen before in this game. Layouts are recognized by their
+ * {@link GameState#getZobristHash()}. When every legal move leads back to a known layout, for example after going
+ * through the whole stock without being able to play a card, the strategy gives up.
+ *
+ * <p>Moves that cannot make progress on their own are never played, see {@link MoveGenerator#isAimless(GameState, int)}.
+ */
+public class GreedyStrategy implements Strategy {
+    private final Set<Long> seen = new HashSet<>();
+    private final int[] moves = new int[MoveCode.MAX_MOVES];
+
+    @Override
+    public Move nextMove(GameState gameState) {
+        seen.add(gameState.getZobristHash());
+        int count = MoveGenerator.generate(gameState, moves);
+        for (int i = 0; i < count; i++) {
+            if (MoveGenerator.isAimless(gameState, moves[i])) continue;
+            RevertibleMove move = MoveCode.toMove(moves[i]);
+            try {
+                move.apply(gameState);
+            } catch (MoveException e) {
+                throw new IllegalStateException("Listed move cannot be applied: " + e.getMessage(), e);
+            }
+            boolean unseen = !seen.contains(gameState.getZobristHash());
+            move.revert(gameState);
+            if (unseen) return move;
+        }
+        return new Quit();
+    }
+
+    @Override
+    public Strategy createInstance() {
+        return new GreedyStrategy();
+    }
+
+    @Override
+    public String toString() {
+        return "Greedy";
+    }
+}
@@ -0,0 +1,59 @@
+package nl.quintor.solitaire.simulation;
+
+import nl.quintor.solitaire.game.MoveGenerator;
+import nl.quintor.solitaire.game.moves.Move;
+import nl.quintor.solitaire.game.moves.MoveCode;
+import nl.quintor.solitaire.game.moves.Quit;
+import nl.quintor.solitaire.game.moves.RevertibleMove;
+import nl.quintor.solitaire.game.moves.ex.MoveException;
+import nl.quintor.solitaire.models.state.GameState;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Strategy that plays a random move out of the moves listed by {@link MoveGenerator} that lead to a card layout it has
+ * not seen before in this game, as a baseline for other strategies. Like the {@link GreedyStrategy}, it never plays
+ * moves that cannot make progress on their own (see {@link MoveGenerator#isAimless(GameState, int)}), and gives up
+ * when every legal move leads back to a known layout.
+ *
+ * <p>The random numbers are seeded with the {@link GameState#getZobristHash()} of the layout the strategy first sees,
+ * so a game is always played the same way, and a simulation with the same seed always gives the same statistics.
+ */
+public class RandomStrategy implements Strategy {
+    private final Set<Long> seen = new HashSet<>();
+    private final int[] moves = new int[MoveCode.MAX_MOVES];
+    private final int[] unseen = new int[MoveCode.MAX_MOVES];
+    private Random random;
+
+    @Override
+    public Move nextMove(GameState gameState) {
+        if (random == null) random = new Random(gameState.getZobristHash());
+        seen.add(gameState.getZobristHash());
+        int count = MoveGenerator.generate(gameState, moves);
+        int unseenCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (MoveGenerator.isAimless(gameState, moves[i])) continue;
+            RevertibleMove move = MoveCode.toMove(moves[i]);
+            try {
+                move.apply(gameState);
+            } catch (MoveException e) {
+                throw new IllegalStateException("Listed move cannot be applied: " + e.getMessage(), e);
+            }
+            if (!seen.contains(gameState.getZobristHash())) unseen[unseenCount++] = moves[i];
+            move.revert(gameState);
+        }
+        return unseenCount == 0 ? new Quit() : MoveCode.toMove(unseen[random.nextInt(unseenCount)]);
+    }
+
+    @Override
+    public Strategy createInstance() {
+        return new RandomStrategy();
+    }
+
+    @Override
+    public String toString() {
+        return "Random";
+    }
+}
@@ -0,0 +1,102 @@
+package nl.quintor.solitaire.simulation;
+
+import nl.quintor.solitaire.CommandLineOptions;
+import nl.quintor.solitaire.corpus.DealCorpus;
+import nl.quintor.solitaire.game.GameStateController;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Command-line entry point of the batch simulation, started with "simulate". Plays games with a {@link Strategy} on a
+ * {@link Simulator} and prints the aggregated results. Supported options:
+ *
+ * <ul>
+ *     <li>--strategy: name of the strategy, "greedy" for the {@link GreedyStrategy} or "random" for the
+ *     {@link RandomStrategy}; defaults to greedy
+ *     <li>--auto-play: "true" to auto-play safe cards after every card move and stock cycle, as a player's game does;
+ *     defaults to false, in which case the strategy plays every card itself and the results are not those of played
+ *     games
+ *     <li>--games: number of games to play, defaults to 1000
+ *     <li>--threads: number of threads, defaults to the number of available processors
+ *     <li>--seed: number of the first deal, the games are dealt from consecutive deal numbers; defaults to a random
+ *     deal number
+ *     <li>--corpus: path of a {@link DealCorpus} file; if provided, all deals of the corpus are played instead, and
+ *     --games and --seed are ignored
+ * </ul>
+ */
+public class SimulateCommand {
+    private static final List<Strategy> STRATEGIES = Arrays.asList(new GreedyStrategy(), new RandomStrategy());
+
+    private SimulateCommand(){}
+
+    /**
+     * Runs the simulation with the provided options.
+     *
+     * @param options parsed command-line options
+     * @throws IllegalArgumentException if the strategy is unknown
+     */
+    public static void run(CommandLineOptions options) {
+        String corpus = options.getString("corpus", null);
+        if (corpus != null) {
+            runCorpus(options, corpus);
+            return;
+        }
+        long games = options.getLong("games", 1000);
+        int threads = options.getInt("threads", Runtime.getRuntime().availableProcessors());
+        long seed = options.getLong("seed", GameStateController.randomDealNumber());
+        Strategy strategy = strategy(options.getString("strategy", "greedy"));
+        boolean autoPlay = Boolean.parseBoolean(options.getString("auto-play", "false"));
+
+        long start = System.nanoTime();
+        SimulationStatistics statistics = new Simulator(strategy, threads, autoPlay).run(games, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%s strategy%s, %d threads, deals %d to %d%n", strategy, autoPlay ? " with auto-play" : "",
+            threads, seed, seed + games - 1);
+        print(statistics, games, seconds);
+    }
+
+    /**
+     * Plays all deals of a corpus file.
+     */
+    private static void runCorpus(CommandLineOptions options, String file) {
+        int threads = options.getInt("threads", Runtime.getRuntime().availableProcessors());
+        Strategy strategy = strategy(options.getString("strategy", "greedy"));
+        boolean autoPlay = Boolean.parseBoolean(options.getString("auto-play", "false"));
+
+        try (DealCorpus corpus = DealCorpus.open(Paths.get(file))) {
+            long start = System.nanoTime();
+            SimulationStatistics statistics = new Simulator(strategy, threads, autoPlay).run(corpus);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%s strategy%s, %d threads, %d deals of %s%n", strategy,
+                autoPlay ? " with auto-play" : "", threads, corpus.size(), file);
+            print(statistics, corpus.size(), seconds);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + file, e);
+        }
+    }
+
+    /**
+     * Looks up a strategy by its name, see {@link Strategy#toString()}, ignoring case.
+     *
+     * @param name name of the strategy, for example "greedy"
+     * @return the strategy
+     * @throws IllegalArgumentException if no strategy has the provided name
+     */
+    static Strategy strategy(String name) {
+        for (Strategy strategy : STRATEGIES) if (strategy.toString().equalsIgnoreCase(name)) return strategy;
+        throw new IllegalArgumentException("Unknown strategy " + name + ", choose one of " +
+            STRATEGIES.stream().map(strategy -> strategy.toString().toLowerCase()).collect(Collectors.joining(", ")));
+    }
+
+    private static void print(SimulationStatistics statistics, long games, double seconds) {
+        System.out.print(statistics);
+        System.out.printf("%.3fs, %.1f games/s%n", seconds, seconds == 0 ? 0 : games / seconds);
+    }
+}
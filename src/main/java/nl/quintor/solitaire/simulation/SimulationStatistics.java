@@ -0,0 +1,145 @@
+package nl.quintor.solitaire.simulation;
+
+import nl.quintor.solitaire.models.state.GameState;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aggregated results of simulated games. Every {@link Simulator} thread collects its own statistics, which are merged
+ * when all games have been played, so no statistics object is ever shared between threads.
+ */
+public class SimulationStatistics {
+    /**
+     * Width of the score buckets in the score distribution.
+     */
+    public static final int SCORE_BUCKET = 100;
+
+    private long games = 0;
+    private long wins = 0;
+    private long moves = 0;
+    private long stockCycles = 0;
+    private long scoreSum = 0;
+    private long minScore = Long.MAX_VALUE;
+    private long maxScore = Long.MIN_VALUE;
+    private final TreeMap<Long, Long> scoreDistribution = new TreeMap<>(); // entries of bucket start and game count
+
+    /**
+     * Adds the result of a finished game.
+     *
+     * @param gameState GameState object of the finished game
+     * @param movesPlayed number of moves that were applied in the game
+     */
+    public void record(GameState gameState, long movesPlayed) {
+        long score = gameState.getScore();
+        games++;
+        if (gameState.isGameWon()) wins++;
+        moves += movesPlayed;
+        stockCycles += gameState.getStockCycles();
+        scoreSum += score;
+        minScore = Math.min(minScore, score);
+        maxScore = Math.max(maxScore, score);
+        scoreDistribution.merge(Math.floorDiv(score, SCORE_BUCKET) * SCORE_BUCKET, 1L, Long::sum);
+    }
+
+    /**
+     * Adds all results of the provided statistics to these statistics.
+     *
+     * @param other statistics to add
+     */
+    public void merge(SimulationStatistics other) {
+        games += other.games;
+        wins += other.wins;
+        moves += other.moves;
+        stockCycles += other.stockCycles;
+        scoreSum += other.scoreSum;
+        minScore = Math.min(minScore, other.minScore);
+        maxScore = Math.max(maxScore, other.maxScore);
+        other.scoreDistribution.forEach((bucket, count) -> scoreDistribution.merge(bucket, count, Long::sum));
+    }
+
+    /**
+     * Getter for games.
+     *
+     * @return number of games played
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Getter for wins.
+     *
+     * @return number of games won
+     */
+    public long getWins() {
+        return wins;
+    }
+
+    /**
+     * Getter for moves.
+     *
+     * @return total number of moves played in all games
+     */
+    public long getMoves() {
+        return moves;
+    }
+
+    /**
+     * Getter for stockCycles.
+     *
+     * @return total number of stock cycles in all games
+     */
+    public long getStockCycles() {
+        return stockCycles;
+    }
+
+    /**
+     * Getter for scoreDistribution.
+     *
+     * @return map of score bucket start and number of games with a score in that bucket, ordered by score
+     */
+    public Map<Long, Long> getScoreDistribution() {
+        return scoreDistribution;
+    }
+
+    /**
+     * Returns the fraction of games that were won.
+     *
+     * @return win rate between 0 and 1, or 0 if no games were played
+     */
+    public double getWinRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    /**
+     * Multi-line report of these statistics, for example:
+     *
+     * <pre>
+     * Games: 1000, won: 93 (9.30%)
+     * Moves per game: 61.4, stock cycles per game: 2.85
+     * Score: min 0, mean 204.3, max 1100
+     *      0 -     99: 400
+     *    100 -    199: 233
+     * </pre>
+     *
+     * @return report of these statistics
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder()
+            .append(String.format("Games: %d, won: %d (%.2f%%)%n", games, wins, getWinRate() * 100))
+            .append(String.format("Moves per game: %.1f, stock cycles per game: %.2f%n", average(moves),
+                average(stockCycles)));
+        if (games > 0) {
+            builder.append(String.format("Score: min %d, mean %.1f, max %d%n", minScore, average(scoreSum), maxScore));
+        }
+        scoreDistribution.forEach((bucket, count) ->
+            builder.append(String.format("%6d - %6d: %d%n", bucket, bucket + SCORE_BUCKET - 1, count)));
+        return builder.toString();
+    }
+
+    private double average(long total) {
+        return games == 0 ? 0 : (double) total / games;
+    }
+}
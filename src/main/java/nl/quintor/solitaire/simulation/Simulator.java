@@ -0,0 +1,180 @@
+package nl.quintor.solitaire.simulation;
+
+import nl.quintor.solitaire.corpus.DealCorpus;
+import nl.quintor.solitaire.game.GameStateController;
+import nl.quintor.solitaire.game.moves.AutoPlay;
+import nl.quintor.solitaire.game.moves.CycleStock;
+import nl.quintor.solitaire.game.moves.Move;
+import nl.quintor.solitaire.game.moves.MoveCard;
+import nl.quintor.solitaire.game.moves.Quit;
+import nl.quintor.solitaire.game.moves.ex.MoveException;
+import nl.quintor.solitaire.models.state.GameState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongFunction;
+
+/**
+ * Plays many games without a player, using a {@link Strategy} to choose the moves. The games are spread over a fixed
+ * number of threads: thread t plays games t, t + threads, t + 2 * threads and so on, each with a new GameState and a new
+ * strategy instance, and collects the results in its own {@link SimulationStatistics}. Nothing mutable is shared
+ * between the threads; their statistics are merged when all games have been played.
+ *
+ * <p>Every game is dealt from the simulation seed and its game number, so a simulation with the same seed, strategy
+ * and number of games always gives the same statistics, regardless of the number of threads. Alternatively, the games
+ * are read from a {@link DealCorpus}.
+ *
+ * <p>By default the strategy plays every card itself. With auto-play, the safe moves to the stack piles are played
+ * after every card move and stock cycle of the strategy, as {@link nl.quintor.solitaire.Main} and the server do for a
+ * player (see {@link AutoPlay}); auto-played cards do not count as moves.
+ */
+public class Simulator {
+    /**
+     * Number of moves after which a game is given up, as a safety net for strategies that keep moving cards around.
+     */
+    public static final int MAX_MOVES = 1000;
+
+    private final Strategy strategy;
+    private final int threads;
+    private final boolean autoPlay;
+
+    /**
+     * Constructs a Simulator without auto-play.
+     *
+     * @param strategy strategy to play the games with, a new instance is created for every game
+     * @param threads number of threads to play games on
+     */
+    public Simulator(Strategy strategy, int threads) {
+        this(strategy, threads, false);
+    }
+
+    /**
+     * Constructs a Simulator.
+     *
+     * @param strategy strategy to play the games with, a new instance is created for every game
+     * @param threads number of threads to play games on
+     * @param autoPlay whether to auto-play safe cards after every card move and stock cycle of the strategy
+     */
+    public Simulator(Strategy strategy, int threads, boolean autoPlay) {
+        if (threads < 1) throw new IllegalArgumentException("threads >= 1");
+        this.strategy = strategy;
+        this.threads = threads;
+        this.autoPlay = autoPlay;
+    }
+
+    /**
+     * Plays the provided number of games and returns their aggregated results.
+     *
+     * @param games number of games to play
+     * @param seed seed from which all games are dealt
+     * @return statistics of all games
+     */
+    public SimulationStatistics run(long games, long seed) {
+        return run(games, game -> deal(seed, game));
+    }
+
+    /**
+     * Plays all deals of a corpus and returns their aggregated results. The threads read their deals from the corpus in
+     * parallel.
+     *
+     * @param corpus corpus of the deals to play
+     * @return statistics of all games
+     */
+    public SimulationStatistics run(DealCorpus corpus) {
+        return run(corpus.size(), corpus::getGameState);
+    }
+
+    /**
+     * Plays the provided number of games, dealt by the provided function, and returns their aggregated results.
+     *
+     * @param games number of games to play
+     * @param dealer deals the game with the provided game number, called from all threads
+     * @return statistics of all games
+     */
+    private SimulationStatistics run(long games, LongFunction<GameState> dealer) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SimulationStatistics>> results = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                long first = thread;
+                results.add(executor.submit(() -> {
+                    SimulationStatistics statistics = new SimulationStatistics();
+                    for (long game = first; game < games; game += threads) {
+                        GameState gameState = dealer.apply(game);
+                        statistics.record(gameState, play(gameState, strategy.createInstance(), autoPlay));
+                    }
+                    return statistics;
+                }));
+            }
+
+            SimulationStatistics total = new SimulationStatistics();
+            for (Future<SimulationStatistics> result : results) total.merge(result.get());
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Deals the game with the provided number of a simulation: deal number seed + game, see
+     * {@link GameStateController#init(long)}.
+     *
+     * @param seed seed of the simulation, the number of its first deal
+     * @param game number of the game in the simulation
+     * @return a new GameState object, ready to go
+     */
+    static GameState deal(long seed, long game) {
+        return GameStateController.init(seed + game);
+    }
+
+    /**
+     * Plays the provided game with the provided strategy without auto-play, see {@link #play(GameState, Strategy,
+     * boolean)}.
+     *
+     * @param gameState GameState object of the game to play
+     * @param strategy strategy instance to play the game with
+     * @return number of moves applied
+     */
+    static long play(GameState gameState, Strategy strategy) {
+        return play(gameState, strategy, false);
+    }
+
+    /**
+     * Plays the provided game with the provided strategy until the game is over, giving up after {@link #MAX_MOVES}
+     * moves. The moves are applied like {@link nl.quintor.solitaire.Main} applies player moves, except that no time
+     * penalty or bonus is applied: simulated games take no time.
+     *
+     * @param gameState GameState object of the game to play
+     * @param strategy strategy instance to play the game with
+     * @param autoPlay whether to auto-play safe cards after every card move and stock cycle
+     * @return number of moves applied, not counting auto-played cards
+     */
+    static long play(GameState gameState, Strategy strategy, boolean autoPlay) {
+        AutoPlay safeMoves = autoPlay ? new AutoPlay() : null;
+        long movesPlayed = 0;
+        while (!gameState.isGameOver()) {
+            Move move = movesPlayed < MAX_MOVES ? strategy.nextMove(gameState) : new Quit();
+            try {
+                move.apply(gameState);
+                if (safeMoves != null && (move instanceof MoveCard || move instanceof CycleStock)) {
+                    safeMoves.apply(gameState);
+                }
+            } catch (MoveException e) {
+                throw new IllegalStateException(strategy + " strategy played an illegal move: " + e.getMessage(), e);
+            }
+            if (!(move instanceof Quit)) movesPlayed++;
+            GameStateController.detectGameWin(gameState);
+            GameStateController.detectDeadEnd(gameState);
+        }
+        return movesPlayed;
+    }
+}
@@ -0,0 +1,37 @@
+package nl.quintor.solitaire.simulation;
+
+import nl.quintor.solitaire.game.moves.Move;
+import nl.quintor.solitaire.game.moves.Quit;
+import nl.quintor.solitaire.models.state.GameState;
+
+/**
+ * Interface representing a way of playing the game without a player. The {@link Simulator} asks the strategy for the
+ * next {@link Move} to play until the game is over. A strategy instance plays a single game, so it may keep state about
+ * that game; every game gets a new instance through {@link #createInstance()}.
+ */
+public interface Strategy {
+    /**
+     * Chooses the next move to play in the provided GameState. The GameState may be changed while choosing, as long
+     * as it is restored before this method returns. The strategy gives up the game by returning a {@link Quit} move.
+     *
+     * @param gameState GameState object of the game being played
+     * @return move to apply next
+     */
+    Move nextMove(GameState gameState);
+
+    /**
+     * Factory method to create a new instance of the implementing class, to play a new game.
+     *
+     * @return new instance of the class that implements the Strategy interface
+     */
+    Strategy createInstance();
+
+    /**
+     * The name of the implementing class, to identify the strategy in reports. Override of {@link Object} method to
+     * force implementing classes to implement the method.
+     *
+     * @return name of the implementing class
+     */
+    @Override
+    String toString();
+}
@@ -0,0 +1,126 @@
+package nl.quintor.solitaire.solver;
+
+import nl.quintor.solitaire.game.GameStateController;
+import nl.quintor.solitaire.game.MoveGenerator;
+import nl.quintor.solitaire.game.moves.MoveCode;
+import nl.quintor.solitaire.game.moves.RevertibleMove;
+import nl.quintor.solitaire.game.moves.ex.MoveException;
+import nl.quintor.solitaire.models.state.GameState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Single-threaded depth-first search from one {@link GameState}, the work horse of {@link Solver} and
+ * {@link ParallelSolver}. The moves listed by {@link MoveGenerator} are applied to and reverted from the GameState
+ * itself, created straight from their {@link MoveCode}s. Every search level reuses its own move buffer, and the path is
+ * kept as move codes, so no player input is created until the winning moves are asked for. Positions are skipped if
+ * they are already in the (possibly shared) {@link TranspositionTable}, and every expanded node is charged to the
+ * (possibly shared) {@link SearchBudget}.
+ */
+final class DepthFirstSearch {
+    static final int MAX_DEPTH = 1000;
+
+    private final TranspositionTable table;
+    private final SearchBudget budget;
+    private int[][] moveBuffers = new int[64][];
+    private int[] path = new int[64];
+    private int pathLength = 0;
+    private int allowance = 0;
+    private long nodesExpanded = 0;
+    private boolean incomplete = false;
+
+    DepthFirstSearch(TranspositionTable table, SearchBudget budget) {
+        this.table = table;
+        this.budget = budget;
+    }
+
+    /**
+     * Searches for a win from the provided GameState, which is restored when the search returns.
+     *
+     * @param gameState position to search from
+     * @param depth depth of the position in the overall search
+     * @return true if a win was found, the moves are available from {@link #getPath()}
+     */
+    boolean search(GameState gameState, int depth) {
+        if (GameStateController.hasWinningLayout(gameState)) return true;
+        if (!table.add(gameState.getZobristHash())) return false;
+        if (depth >= MAX_DEPTH) {
+            incomplete = true;
+            return false;
+        }
+        if (allowance == 0) allowance = budget.reserve();
+        if (allowance == 0 || !budget.proceed()) return false;
+        allowance--;
+        nodesExpanded++;
+
+        int[] moves = moveBuffer(pathLength);
+        int count = MoveGenerator.generate(gameState, moves);
+        for (int i = 0; i < count; i++) {
+            RevertibleMove move = MoveCode.toMove(moves[i]);
+            apply(move, gameState);
+            push(moves[i]);
+            boolean solved = search(gameState, depth + 1);
+            move.revert(gameState);
+            if (solved) return true;
+            pathLength--;
+            if (budget.isStopped()) return false;
+        }
+        return false;
+    }
+
+    /**
+     * @return the winning moves after a successful search, as player input
+     */
+    List<String> getPath() {
+        List<String> moves = new ArrayList<>(pathLength);
+        for (int i = 0; i < pathLength; i++) moves.add(MoveCode.toPlayerInput(path[i]));
+        return moves;
+    }
+
+    /**
+     * Gives the unused part of the node allowance back to the budget, for a search that is done while other searches
+     * share the budget.
+     */
+    void releaseAllowance() {
+        budget.release(allowance);
+        allowance = 0;
+    }
+
+    long getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    /**
+     * @return true if part of the search space was skipped because the maximum depth was reached
+     */
+    boolean isIncomplete() {
+        return incomplete;
+    }
+
+    /**
+     * Applies a move that is known to be legal.
+     *
+     * @param move move listed by {@link MoveGenerator}
+     * @param gameState GameState object to apply the move to
+     */
+    static void apply(RevertibleMove move, GameState gameState) {
+        try {
+            move.apply(gameState);
+        } catch (MoveException e) {
+            throw new IllegalStateException("Listed move turned out to be illegal: " + e.getMessage(), e);
+        }
+    }
+
+    private int[] moveBuffer(int level) {
+        if (level == moveBuffers.length) moveBuffers = Arrays.copyOf(moveBuffers, level * 2);
+        if (moveBuffers[level] == null) moveBuffers[level] = new int[MoveCode.MAX_MOVES];
+        return moveBuffers[level];
+    }
+
+    private void push(int move) {
+        if (pathLength == path.length) path = Arrays.copyOf(path, pathLength * 2);
+        path[pathLength++] = move;
+    }
+}
@@ -0,0 +1,269 @@
+package nl.quintor.solitaire.solver;
+
+import nl.quintor.solitaire.game.GameStateController;
+import nl.quintor.solitaire.game.MoveGenerator;
+import nl.quintor.solitaire.game.moves.MoveCode;
+import nl.quintor.solitaire.game.moves.RevertibleMove;
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.models.state.MoveJournal;
+import nl.quintor.solitaire.models.state.PackedGameState;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Suggests the best next move in a position, with an estimate of the chance to win, within a latency budget. The
+ * search runs on a background thread, on a copy of the position, so the GameState of the game is never touched and the
+ * caller waits no longer than the budget.
+ *
+ * <p>A search has two phases. First a {@link DepthFirstSearch} tries to prove the position during half of the budget,
+ * searching the legal moves in turn, aimless moves (see {@link MoveGenerator#isAimless(GameState, int)}) last: if it
+ * finds a winning line, its first move is the hint, and if it exhausts the search space, the position cannot be won
+ * anymore. Otherwise the rest of the budget is spent on random playouts of every legal move, in turns; a playout
+ * plays mostly the most promising move (see {@link MoveGenerator}) until the game is won or no new layout can be
+ * reached. The move with the highest share of won playouts is the hint, and that share is its win likelihood.
+ *
+ * <p>Results are cached per position, by its {@link PackedGameState}, in a bounded least-recently-used cache, so asking
+ * for a hint again in the same position is instant.
+ */
+public class HintEngine implements Closeable {
+    /**
+     * Default latency budget of a hint.
+     */
+    public static final Duration DEFAULT_LATENCY_BUDGET = Duration.ofMillis(200);
+    /**
+     * Default number of positions in the cache.
+     */
+    public static final int DEFAULT_CACHE_CAPACITY = 1024;
+    private static final int PROOF_TABLE_CAPACITY = 1 << 18;
+    private static final int MAX_PLAYOUT_MOVES = 300;
+    private static final double SKIP_CHANCE = 0.25;
+    private static final long GRACE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final long budgetNanos;
+    private final Map<PackedGameState, HintResult> cache;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hint-engine");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs a HintEngine with the default latency budget and cache capacity.
+     */
+    public HintEngine() {
+        this(DEFAULT_LATENCY_BUDGET, DEFAULT_CACHE_CAPACITY);
+    }
+
+    /**
+     * Constructs a HintEngine.
+     *
+     * @param latencyBudget maximum time to search for a hint
+     * @param cacheCapacity number of positions to remember hints for
+     */
+    public HintEngine(Duration latencyBudget, int cacheCapacity) {
+        if (cacheCapacity < 1) throw new IllegalArgumentException("cacheCapacity >= 1");
+        this.budgetNanos = latencyBudget.toNanos();
+        this.cache = new LinkedHashMap<PackedGameState, HintResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PackedGameState, HintResult> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+    }
+
+    /**
+     * Returns a hint for the provided position: from the cache if the position has been searched before, otherwise from
+     * a new search. Waits at most the latency budget, plus a small grace period for the search to wrap up. The
+     * GameState is not changed.
+     *
+     * @param gameState GameState object to suggest a move for
+     * @return the hint, or a hint without a move with status {@link SolverStatus#TIMEOUT} if the search did not answer
+     * in time
+     */
+    public HintResult hint(GameState gameState) {
+        PackedGameState position = PackedGameState.pack(gameState);
+        HintResult cached = getCached(position);
+        if (cached != null) return cached;
+
+        long deadline = System.nanoTime() + budgetNanos;
+        Future<HintResult> future = executor.submit(() -> search(position, deadline));
+        try {
+            return future.get(budgetNanos + GRACE_NANOS, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return new HintResult(SolverStatus.TIMEOUT, null, 0, 0, Duration.ofNanos(budgetNanos + GRACE_NANOS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a hint", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Hint search failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Stops the background thread.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private synchronized HintResult getCached(PackedGameState position) {
+        return cache.get(position);
+    }
+
+    private synchronized void putCached(PackedGameState position, HintResult result) {
+        cache.put(position, result);
+    }
+
+    /**
+     * Searches a position until the deadline, see the class documentation, and caches the result.
+     */
+    private HintResult search(PackedGameState position, long deadline) {
+        long start = System.nanoTime();
+        GameState gameState = position.unpack();
+        int[] moves = new int[MoveCode.MAX_MOVES];
+        int count = listMoves(gameState, moves);
+        HintResult result;
+        if (count == 0) {
+            result = new HintResult(SolverStatus.UNSOLVABLE, null, 0, 0, Duration.ofNanos(System.nanoTime() - start));
+        } else {
+            result = prove(gameState, moves, count, start, deadline);
+            if (result == null) result = playOut(gameState, moves, count, start, deadline);
+        }
+        putCached(position, result);
+        return result;
+    }
+
+    /**
+     * Lists the legal moves in the order of {@link MoveGenerator}, but with the aimless moves last.
+     *
+     * @return number of moves
+     */
+    private static int listMoves(GameState gameState, int[] moves) {
+        int count = MoveGenerator.generate(gameState, moves);
+        int[] aimless = new int[count];
+        int aimlessCount = 0;
+        int purposeful = 0;
+        for (int i = 0; i < count; i++) {
+            if (MoveGenerator.isAimless(gameState, moves[i])) aimless[aimlessCount++] = moves[i];
+            else moves[purposeful++] = moves[i];
+        }
+        System.arraycopy(aimless, 0, moves, purposeful, aimlessCount);
+        return count;
+    }
+
+    /**
+     * Tries to prove the position with a depth-first search of every move in turn, during half of the remaining time.
+     *
+     * @return the hint if the position was solved or proven unsolvable, otherwise null
+     */
+    private static HintResult prove(GameState gameState, int[] moves, int count, long start, long deadline) {
+        SearchBudget budget = new SearchBudget(Long.MAX_VALUE, start + (deadline - start) / 2);
+        TranspositionTable table = new TranspositionTable(PROOF_TABLE_CAPACITY);
+        table.add(gameState.getZobristHash());
+        DepthFirstSearch search = new DepthFirstSearch(table, budget);
+        for (int i = 0; i < count && !budget.isStopped(); i++) {
+            RevertibleMove move = MoveCode.toMove(moves[i]);
+            DepthFirstSearch.apply(move, gameState);
+            boolean solved = search.search(gameState, 1);
+            move.revert(gameState);
+            if (solved) {
+                return new HintResult(SolverStatus.SOLVED, MoveCode.toPlayerInput(moves[i]), 1, 0,
+                    Duration.ofNanos(System.nanoTime() - start));
+            }
+        }
+        if (budget.isExhausted() || search.isIncomplete()) return null;
+
+        // no line wins, suggest the move the playouts would try first
+        return new HintResult(SolverStatus.UNSOLVABLE, MoveCode.toPlayerInput(moves[0]), 0, 0,
+            Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Plays random playouts of all moves in turns until the deadline, and suggests the move that won most often.
+     */
+    private static HintResult playOut(GameState gameState, int[] moves, int count, long start, long deadline) {
+        SplittableRandom random = new SplittableRandom(gameState.getZobristHash());
+        Set<Long> seen = new HashSet<>();
+        int[] buffer = new int[MoveCode.MAX_MOVES];
+        long[] wins = new long[count];
+        long[] playouts = new long[count];
+        long total = 0;
+        int mark = gameState.getMoveJournal().size();
+        do {
+            int i = (int) (total % count); // every move gets a playout before the deadline is checked
+            DepthFirstSearch.apply(MoveCode.toMove(moves[i]), gameState);
+            if (playOut(gameState, random, seen, buffer)) wins[i]++;
+            playouts[i]++;
+            revertTo(gameState, mark);
+            total++;
+        } while (total < count || System.nanoTime() - deadline < 0);
+
+        int best = 0;
+        for (int i = 1; i < count; i++) if (wins[i] * playouts[best] > wins[best] * playouts[i]) best = i;
+        return new HintResult(SolverStatus.TIMEOUT, MoveCode.toPlayerInput(moves[best]),
+            (double) wins[best] / playouts[best], total, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Plays one random game from the position and reverts it: at every turn the listed moves are tried in order, each
+     * skipped by chance, and the first one that leads to a new layout is played. Aimless moves are never played.
+     *
+     * @return true if the playout won the game
+     */
+    private static boolean playOut(GameState gameState, SplittableRandom random, Set<Long> seen, int[] moves) {
+        int mark = gameState.getMoveJournal().size();
+        seen.clear();
+        seen.add(gameState.getZobristHash());
+        boolean won = false;
+        for (int turn = 0; turn < MAX_PLAYOUT_MOVES; turn++) {
+            if (GameStateController.hasWinningLayout(gameState)) {
+                won = true;
+                break;
+            }
+            if (!playRandomMove(gameState, random, seen, moves)) break;
+        }
+        revertTo(gameState, mark);
+        return won;
+    }
+
+    /**
+     * Plays a move that leads to a new layout, preferring the most promising moves.
+     *
+     * @return false if no move leads to a new layout
+     */
+    private static boolean playRandomMove(GameState gameState, SplittableRandom random, Set<Long> seen, int[] moves) {
+        int count = MoveGenerator.generate(gameState, moves);
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < count; i++) {
+                if (MoveGenerator.isAimless(gameState, moves[i])) continue;
+                if (pass == 0 && random.nextDouble() < SKIP_CHANCE) continue;
+                RevertibleMove move = MoveCode.toMove(moves[i]);
+                DepthFirstSearch.apply(move, gameState);
+                if (seen.add(gameState.getZobristHash())) return true;
+                move.revert(gameState);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reverts moves until the moves journal is back at the provided size.
+     */
+    private static void revertTo(GameState gameState, int size) {
+        MoveJournal journal = gameState.getMoveJournal();
+        while (journal.size() > size) RevertibleMove.fromJournalEntry(journal.peek()).revert(gameState);
+    }
+}
@@ -0,0 +1,103 @@
+package nl.quintor.solitaire.solver;
+
+import java.time.Duration;
+
+/**
+ * Immutable result of a {@link HintEngine} search: the suggested move as player input, the estimated chance to win the
+ * game after playing it, and how the estimate was made. The {@link SolverStatus} tells whether the estimate is exact: a
+ * SOLVED hint is the first move of a winning line, an UNSOLVABLE hint is the best try in a position that cannot be won,
+ * and a TIMEOUT hint is estimated from random playouts. A hint without a move means there are no moves left, or, with
+ * status TIMEOUT, that the search did not answer within the latency budget.
+ */
+public final class HintResult {
+    private final SolverStatus status;
+    private final String move;
+    private final double winLikelihood;
+    private final long playouts;
+    private final Duration elapsed;
+
+    /**
+     * Constructs a HintResult.
+     *
+     * @param status whether the position was solved, proven unsolvable, or estimated
+     * @param move suggested move as player input, for example "M A3 SB", or null if there are no moves
+     * @param winLikelihood estimated chance to win after the suggested move, from 0 to 1
+     * @param playouts number of random playouts the estimate is based on
+     * @param elapsed duration of the search
+     */
+    public HintResult(SolverStatus status, String move, double winLikelihood, long playouts, Duration elapsed) {
+        this.status = status;
+        this.move = move;
+        this.winLikelihood = winLikelihood;
+        this.playouts = playouts;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Getter for status.
+     *
+     * @return how the hint was found
+     */
+    public SolverStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Getter for move.
+     *
+     * @return suggested move as player input, or null if there are no moves
+     */
+    public String getMove() {
+        return move;
+    }
+
+    /**
+     * Getter for winLikelihood.
+     *
+     * @return estimated chance to win after the suggested move, from 0 to 1
+     */
+    public double getWinLikelihood() {
+        return winLikelihood;
+    }
+
+    /**
+     * Getter for playouts.
+     *
+     * @return number of random playouts the estimate is based on
+     */
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    /**
+     * Getter for elapsed.
+     *
+     * @return duration of the search
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * String representation of this hint to show the player, for example "Hint: M A3 SB (win likelihood 35%, 1200
+     * playouts)".
+     *
+     * @return the hint in words
+     */
+    @Override
+    public String toString() {
+        if (move == null) {
+            return status == SolverStatus.TIMEOUT ? "Hint: still thinking, ask again in a moment" :
+                "Hint: there are no moves left";
+        }
+        switch (status) {
+            case SOLVED:
+                return "Hint: " + move + " (wins, a winning line was found)";
+            case UNSOLVABLE:
+                return "Hint: " + move + " (this game cannot be won anymore)";
+            default:
+                return "Hint: " + move + " (win likelihood " + Math.round(winLikelihood * 100) + "%, " + playouts +
+                    " playouts)";
+        }
+    }
+}
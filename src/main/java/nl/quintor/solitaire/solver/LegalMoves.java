@@ -0,0 +1,35 @@
+package nl.quintor.solitaire.solver;
+
+import nl.quintor.solitaire.game.MoveGenerator;
+import nl.quintor.solitaire.game.moves.MoveCode;
+import nl.quintor.solitaire.game.moves.RevertibleMove;
+import nl.quintor.solitaire.models.state.GameState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Library class that lists the legal moves in a {@link GameState} as move objects. The class is not instantiable, all
+ * constructors are private and all methods are static.
+ *
+ * <p>The moves are the ones listed by {@link MoveGenerator}, in the same order: most promising first.
+ */
+public class LegalMoves {
+    private LegalMoves(){}
+
+    /**
+     * Lists the legal moves in the provided GameState object as new, unapplied {@link RevertibleMove}s.
+     *
+     * @param gameState GameState object to list the moves for
+     * @return legal moves, most promising first
+     */
+    public static List<RevertibleMove> of(GameState gameState) {
+        int[] codes = new int[MoveCode.MAX_MOVES];
+        int count = MoveGenerator.generate(gameState, codes);
+        List<RevertibleMove> moves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            moves.add(MoveCode.toMove(codes[i]));
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,172 @@
+package nl.quintor.solitaire.solver;
+
+import nl.quintor.solitaire.game.GameStateController;
+import nl.quintor.solitaire.game.MoveGenerator;
+import nl.quintor.solitaire.game.moves.MoveCode;
+import nl.quintor.solitaire.game.moves.RevertibleMove;
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.models.state.PackedGameState;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parallel version of {@link Solver} on a {@link ForkJoinPool}. The top levels of the move tree, up to the split
+ * depth, are expanded into fork-join tasks that each carry their position as a {@link PackedGameState}. Below the split
+ * depth every task runs a sequential {@link DepthFirstSearch} on its own unpacked GameState. All tasks share one
+ * lock-free {@link TranspositionTable} and one {@link SearchBudget}; as soon as one task finds a win, the budget is
+ * stopped and all other tasks return.
+ *
+ * <p>Unlike {@link Solver}, the provided GameState is never touched: the search works on copies.
+ */
+public class ParallelSolver {
+    /**
+     * Default depth up to which the move tree is split into tasks.
+     */
+    public static final int DEFAULT_SPLIT_DEPTH = 3;
+
+    private final int parallelism;
+    private final long nodeBudget;
+    private final long timeBudgetNanos;
+    private final int tableCapacity;
+    private final int splitDepth;
+
+    /**
+     * Constructs a ParallelSolver with the default transposition table capacity and split depth.
+     *
+     * @param parallelism number of worker threads
+     * @param nodeBudget maximum number of nodes to expand, over all threads
+     * @param timeBudget maximum duration of a search
+     */
+    public ParallelSolver(int parallelism, long nodeBudget, Duration timeBudget) {
+        this(parallelism, nodeBudget, timeBudget, Solver.DEFAULT_TABLE_CAPACITY, DEFAULT_SPLIT_DEPTH);
+    }
+
+    /**
+     * Constructs a ParallelSolver.
+     *
+     * @param parallelism number of worker threads
+     * @param nodeBudget maximum number of nodes to expand, over all threads
+     * @param timeBudget maximum duration of a search
+     * @param tableCapacity number of positions the shared transposition table can hold
+     * @param splitDepth depth up to which the move tree is split into tasks
+     */
+    public ParallelSolver(int parallelism, long nodeBudget, Duration timeBudget, int tableCapacity, int splitDepth) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism >= 1");
+        this.parallelism = parallelism;
+        this.nodeBudget = nodeBudget;
+        this.timeBudgetNanos = timeBudget.toNanos();
+        this.tableCapacity = tableCapacity;
+        this.splitDepth = splitDepth;
+    }
+
+    /**
+     * Searches for a winning sequence of moves from the provided GameState, which is not changed.
+     *
+     * @param gameState GameState object to solve
+     * @return result of the search
+     */
+    public SolverResult solve(GameState gameState) {
+        long start = System.nanoTime();
+        SearchBudget budget = new SearchBudget(nodeBudget, start + timeBudgetNanos);
+        Search search = new Search(budget, new TranspositionTable(tableCapacity));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new SearchTask(search, PackedGameState.pack(gameState), new ArrayList<>(), 0));
+        } finally {
+            pool.shutdownNow();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        List<String> solution = search.solution.get();
+        SolverStatus status = solution != null ? SolverStatus.SOLVED :
+            search.budget.isExhausted() || search.incomplete.get() ? SolverStatus.TIMEOUT : SolverStatus.UNSOLVABLE;
+        return new SolverResult(status, solution != null ? solution : new ArrayList<>(), search.nodes.sum(), elapsed);
+    }
+
+    /**
+     * State shared by all tasks of one search.
+     */
+    private static final class Search {
+        final SearchBudget budget;
+        final TranspositionTable table;
+        final LongAdder nodes = new LongAdder();
+        final AtomicBoolean incomplete = new AtomicBoolean();
+        final AtomicReference<List<String>> solution = new AtomicReference<>();
+
+        Search(SearchBudget budget, TranspositionTable table) {
+            this.budget = budget;
+            this.table = table;
+        }
+
+        void solved(List<String> moves) {
+            if (solution.compareAndSet(null, moves)) budget.stop();
+        }
+    }
+
+    /**
+     * Fork-join task that searches from one position: split into child tasks above the split depth, sequential below.
+     */
+    private final class SearchTask extends RecursiveAction {
+        private final Search search;
+        private final PackedGameState position;
+        private final List<String> prefix;
+        private final int depth;
+
+        SearchTask(Search search, PackedGameState position, List<String> prefix, int depth) {
+            this.search = search;
+            this.position = position;
+            this.prefix = prefix;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (search.budget.isStopped()) return;
+            GameState gameState = position.unpack();
+            if (depth >= splitDepth) {
+                searchSequentially(gameState);
+                return;
+            }
+
+            if (GameStateController.hasWinningLayout(gameState)) {
+                search.solved(prefix);
+                return;
+            }
+            if (!search.table.add(gameState.getZobristHash()) || search.budget.reserve(1) == 0) return;
+            search.nodes.increment();
+
+            List<SearchTask> children = new ArrayList<>();
+            int[] moves = new int[MoveCode.MAX_MOVES];
+            int count = MoveGenerator.generate(gameState, moves);
+            for (int i = 0; i < count; i++) {
+                RevertibleMove move = MoveCode.toMove(moves[i]);
+                DepthFirstSearch.apply(move, gameState);
+                List<String> childPrefix = new ArrayList<>(prefix);
+                childPrefix.add(MoveCode.toPlayerInput(moves[i]));
+                children.add(new SearchTask(search, PackedGameState.pack(gameState), childPrefix, depth + 1));
+                move.revert(gameState);
+            }
+            invokeAll(children);
+        }
+
+        private void searchSequentially(GameState gameState) {
+            DepthFirstSearch dfs = new DepthFirstSearch(search.table, search.budget);
+            boolean solved = dfs.search(gameState, depth);
+            dfs.releaseAllowance();
+            search.nodes.add(dfs.getNodesExpanded());
+            if (dfs.isIncomplete()) search.incomplete.set(true);
+            if (solved) {
+                List<String> moves = new ArrayList<>(prefix);
+                moves.addAll(dfs.getPath());
+                search.solved(moves);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package nl.quintor.solitaire.solver;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node and wall-clock budget of a search, shared by all {@link DepthFirstSearch}es working on the same problem. Node
+ * allowances are handed out in batches, so searches on different threads rarely touch the shared counter; a search
+ * that ends before it used up its batch gives the rest back. A budget can also be stopped explicitly, for example when
+ * a win has been found.
+ */
+final class SearchBudget {
+    static final int BATCH = 64;
+
+    private final long nodeBudget;
+    private final long deadline;
+    private final AtomicLong reserved = new AtomicLong();
+    private volatile boolean stopped = false;
+    private volatile boolean exhausted = false;
+
+    /**
+     * @param nodeBudget maximum number of nodes to expand
+     * @param deadline {@link System#nanoTime()} value after which no more nodes are expanded
+     */
+    SearchBudget(long nodeBudget, long deadline) {
+        this.nodeBudget = nodeBudget;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Reserves an allowance of up to {@link #BATCH} nodes.
+     *
+     * @return number of nodes that may be expanded, 0 if the budget is exhausted or stopped
+     */
+    int reserve() {
+        return reserve(BATCH);
+    }
+
+    /**
+     * Reserves an allowance of up to the provided number of nodes, for example a single node for a search that expands
+     * one node at a time.
+     *
+     * @param nodes number of nodes to reserve, 1 or more
+     * @return number of nodes that may be expanded, 0 if the budget is exhausted or stopped
+     */
+    int reserve(int nodes) {
+        if (stopped) return 0;
+        if (System.nanoTime() - deadline > 0) return exhaust();
+        long before = reserved.getAndAdd(nodes);
+        if (before >= nodeBudget) return exhaust();
+        return (int) Math.min(nodes, nodeBudget - before);
+    }
+
+    /**
+     * Gives back the part of an allowance that was not used, so other searches can use it.
+     *
+     * @param nodes number of reserved nodes that were not expanded
+     */
+    void release(int nodes) {
+        if (nodes > 0) reserved.addAndGet(-nodes);
+    }
+
+    /**
+     * Checks the clock and the stop flag. Meant to be called once per node.
+     *
+     * @return true if the search may continue
+     */
+    boolean proceed() {
+        if (stopped) return false;
+        if (System.nanoTime() - deadline > 0) {
+            exhaust();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stops all searches that use this budget.
+     */
+    void stop() {
+        stopped = true;
+    }
+
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * @return true if the node or time budget ran out
+     */
+    boolean isExhausted() {
+        return exhausted;
+    }
+
+    private int exhaust() {
+        exhausted = true;
+        stopped = true;
+        return 0;
+    }
+}
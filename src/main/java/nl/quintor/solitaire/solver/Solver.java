@@ -0,0 +1,72 @@
+package nl.quintor.solitaire.solver;
+
+import nl.quintor.solitaire.game.GameStateController;
+import nl.quintor.solitaire.game.MoveGenerator;
+import nl.quintor.solitaire.game.moves.RevertibleMove;
+import nl.quintor.solitaire.models.state.GameState;
+
+import java.time.Duration;
+import java.util.ArrayList;
+
+/**
+ * Depth-first Klondike solver. The solver explores the moves listed by {@link MoveGenerator} on the provided
+ * {@link GameState} itself, applying and reverting them with the regular {@link RevertibleMove} cycle, so the GameState
+ * is left as it was when the search ends. Positions that have been searched before are skipped by looking up their
+ * Zobrist hash in a bounded {@link TranspositionTable}.
+ *
+ * <p>The search stops when a win is found (see {@link GameStateController#hasWinningLayout(GameState)}), when the search
+ * space is exhausted, or when the node or time budget runs out. The search runs on the calling thread, see
+ * {@link ParallelSolver} for a search that uses multiple cores.
+ */
+public class Solver {
+    /**
+     * Default number of positions in the transposition table.
+     */
+    public static final int DEFAULT_TABLE_CAPACITY = 1 << 20;
+
+    private final long nodeBudget;
+    private final long timeBudgetNanos;
+    private final int tableCapacity;
+
+    /**
+     * Constructs a Solver with the default transposition table capacity.
+     *
+     * @param nodeBudget maximum number of nodes to expand
+     * @param timeBudget maximum duration of a search
+     */
+    public Solver(long nodeBudget, Duration timeBudget) {
+        this(nodeBudget, timeBudget, DEFAULT_TABLE_CAPACITY);
+    }
+
+    /**
+     * Constructs a Solver.
+     *
+     * @param nodeBudget maximum number of nodes to expand
+     * @param timeBudget maximum duration of a search
+     * @param tableCapacity number of positions the transposition table can hold
+     */
+    public Solver(long nodeBudget, Duration timeBudget, int tableCapacity) {
+        this.nodeBudget = nodeBudget;
+        this.timeBudgetNanos = timeBudget.toNanos();
+        this.tableCapacity = tableCapacity;
+    }
+
+    /**
+     * Searches for a winning sequence of moves from the provided GameState. The GameState is used as the search
+     * board, and is restored when the search ends.
+     *
+     * @param gameState GameState object to solve
+     * @return result of the search
+     */
+    public SolverResult solve(GameState gameState) {
+        long start = System.nanoTime();
+        SearchBudget budget = new SearchBudget(nodeBudget, start + timeBudgetNanos);
+        DepthFirstSearch search = new DepthFirstSearch(new TranspositionTable(tableCapacity), budget);
+        boolean solved = search.search(gameState, 0);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        SolverStatus status = solved ? SolverStatus.SOLVED :
+            budget.isExhausted() || search.isIncomplete() ? SolverStatus.TIMEOUT : SolverStatus.UNSOLVABLE;
+        return new SolverResult(status, solved ? search.getPath() : new ArrayList<>(), search.getNodesExpanded(), elapsed);
+    }
+}
@@ -0,0 +1,43 @@
+package nl.quintor.solitaire.solver;
+
+import nl.quintor.solitaire.CommandLineOptions;
+import nl.quintor.solitaire.game.GameStateController;
+import nl.quintor.solitaire.models.state.GameState;
+
+import java.time.Duration;
+
+/**
+ * Command-line entry point of the solver, started with "solve". Deals a game and searches it with a
+ * {@link ParallelSolver}, printing the result. Supported options:
+ *
+ * <ul>
+ *     <li>--deal: number of the deal to solve, defaults to a random deal
+ *     <li>--threads: number of worker threads, defaults to the number of available processors
+ *     <li>--nodes: node budget, defaults to 10 million
+ *     <li>--millis: time budget in milliseconds, defaults to 60 seconds
+ *     <li>--split: depth up to which the move tree is split into tasks
+ *     <li>--table: transposition table capacity
+ * </ul>
+ */
+public class SolverCommand {
+    private SolverCommand(){}
+
+    /**
+     * Runs the solver with the provided options.
+     *
+     * @param options parsed command-line options
+     */
+    public static void run(CommandLineOptions options) {
+        ParallelSolver solver = new ParallelSolver(
+            options.getInt("threads", Runtime.getRuntime().availableProcessors()),
+            options.getLong("nodes", 10_000_000),
+            Duration.ofMillis(options.getLong("millis", 60_000)),
+            options.getInt("table", Solver.DEFAULT_TABLE_CAPACITY),
+            options.getInt("split", ParallelSolver.DEFAULT_SPLIT_DEPTH));
+        long deal = options.getLong("deal", GameStateController.randomDealNumber());
+        GameState gameState = GameStateController.init(deal);
+        SolverResult result = solver.solve(gameState);
+        System.out.println("Deal " + deal + ": " + result);
+        result.getMoves().forEach(System.out::println);
+    }
+}
@@ -0,0 +1,81 @@
+package nl.quintor.solitaire.solver;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable result of a {@link Solver} search: the {@link SolverStatus}, the winning moves as player input (empty unless
+ * solved), the number of nodes expanded and the time the search took.
+ */
+public final class SolverResult {
+    private final SolverStatus status;
+    private final List<String> moves;
+    private final long nodesExpanded;
+    private final Duration elapsed;
+
+    public SolverResult(SolverStatus status, List<String> moves, long nodesExpanded, Duration elapsed) {
+        this.status = status;
+        this.moves = Collections.unmodifiableList(moves);
+        this.nodesExpanded = nodesExpanded;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Getter for status.
+     *
+     * @return outcome of the search
+     */
+    public SolverStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Getter for moves.
+     *
+     * @return winning sequence of player inputs, for example "M O SA", or an empty list if not solved
+     */
+    public List<String> getMoves() {
+        return moves;
+    }
+
+    /**
+     * Getter for nodesExpanded.
+     *
+     * @return number of positions that were expanded
+     */
+    public long getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    /**
+     * Getter for elapsed.
+     *
+     * @return duration of the search
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Returns the search speed.
+     *
+     * @return nodes expanded per second
+     */
+    public double getNodesPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : nodesExpanded * 1e9 / nanos;
+    }
+
+    /**
+     * String representation of this result, for example "SOLVED in 97 moves, 10512 nodes in 0.052s (202154 nodes/s)".
+     *
+     * @return summary of this result
+     */
+    @Override
+    public String toString() {
+        return status + (status == SolverStatus.SOLVED ? " in " + moves.size() + " moves" : "") + ", " + nodesExpanded +
+            " nodes in " + String.format("%.3f", elapsed.toNanos() / 1e9) + "s (" + Math.round(getNodesPerSecond()) +
+            " nodes/s)";
+    }
+}
@@ -0,0 +1,19 @@
+package nl.quintor.solitaire.solver;
+
+/**
+ * Enum representing the outcome of a {@link Solver} search.
+ */
+public enum SolverStatus {
+    /**
+     * A winning sequence of moves was found.
+     */
+    SOLVED,
+    /**
+     * The search space was exhausted without finding a win, the deal cannot be won.
+     */
+    UNSOLVABLE,
+    /**
+     * The node or time budget ran out before the search was complete.
+     */
+    TIMEOUT
+}
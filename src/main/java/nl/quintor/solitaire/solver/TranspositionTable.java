@@ -0,0 +1,59 @@
+package nl.quintor.solitaire.solver;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded set of positions that have already been searched, identified by their
+ * {@link nl.quintor.solitaire.models.state.GameState#getZobristHash() Zobrist hash}. The table is a fixed-size array of
+ * hashes with short linear probing. When all probed slots are taken, the first one is overwritten, so memory use stays
+ * constant and old positions are forgotten first.
+ *
+ * <p>The table is lock-free: slots are claimed with compare-and-set, so it can be shared by the workers of a
+ * {@link ParallelSolver}.
+ */
+public class TranspositionTable {
+    private static final int PROBES = 4;
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    /**
+     * Constructs a table with room for at least the requested number of positions, rounded up to a power of two.
+     *
+     * @param capacity requested number of positions
+     */
+    public TranspositionTable(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) throw new IllegalArgumentException("1 <= capacity <= 2^30");
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds a position to the table, unless it is already present.
+     *
+     * @param hash Zobrist hash of the position
+     * @return true if the position was added, false if it had been seen before
+     */
+    public boolean add(long hash) {
+        long key = hash == 0 ? 1 : hash; // 0 marks an empty slot
+        int first = (int) (key ^ (key >>> 32)) & mask;
+        for (int i = 0; i < PROBES; i++) {
+            int slot = (first + i) & mask;
+            long current = slots.get(slot);
+            if (current == 0 && slots.compareAndSet(slot, 0, key)) return true;
+            if (current == key || slots.get(slot) == key) return false;
+        }
+        slots.set(first, key);
+        return true;
+    }
+
+    /**
+     * Returns the maximum number of positions in the table.
+     *
+     * @return capacity
+     */
+    public int capacity() {
+        return slots.length();
+    }
+}
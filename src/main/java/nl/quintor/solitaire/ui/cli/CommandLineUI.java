@@ -1,41 +1,178 @@
 package nl.quintor.solitaire.ui.cli;
 
 import nl.quintor.solitaire.game.moves.Move;
+import nl.quintor.solitaire.metrics.GameMetrics;
+import nl.quintor.solitaire.metrics.GameMetrics.Phase;
 import nl.quintor.solitaire.models.state.GameState;
 import nl.quintor.solitaire.ui.UI;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Scanner;
 import java.util.stream.Collectors;
 
 /**
  * Command line implementation of {@link UI}.
+ *
+ * <p>By default every refresh clears the screen and prints the complete frame. The frame is encoded by a
+ * {@link GameStateEncoder} into a reusable byte buffer, together with the pre-encoded message, moves and prompt, and
+ * written to standard output in a single write. In incremental mode an
+ * {@link IncrementalRenderer} rewrites only the parts of the frame that changed, which avoids flickering and saves
+ * bandwidth over slow connections. Incremental mode uses ANSI escape sequences and is not available on Windows. It
+ * asks the terminal for its size, to redraw the whole frame after a resize, at the first frame and after that at most
+ * once per {@link #SIZE_CHECK_INTERVAL}, as every check starts a process.
+ *
+ * <p>Encoding a frame, writing it and waiting for the player are recorded as the {@link Phase#RENDER},
+ * {@link Phase#OUTPUT} and {@link Phase#INPUT} phases of the {@link GameMetrics}, if enabled.
  */
 public class CommandLineUI implements UI{
     private static final String ANSI_RED = "\u001B[31m";
     private static final String ANSI_RESET = "\u001B[0m";
+    private static final byte[] CLEAR_SCREEN = GameStateEncoder.utf8("\033\143");
+    private static final byte[] PROMPT = GameStateEncoder.utf8("What would you like to do?\n");
+    private static final boolean WINDOWS = System.getProperty("os.name").contains("Windows");
+    /**
+     * Minimum time between two checks of the terminal size in incremental mode.
+     */
+    public static final Duration SIZE_CHECK_INTERVAL = Duration.ofSeconds(5);
+    private final GameStateEncoder encoder = new GameStateEncoder();
     private String message = "";
+    private byte[] encodedMessage = new byte[0];
+    private Collection<Move> encodedMovesSource;
+    private byte[] encodedMoves;
     private Scanner reader = new Scanner(System.in);
+    private final IncrementalRenderer renderer;
+    private final boolean frameStats;
+    private final GameMetrics metrics;
+    private int[] terminalSize;
+    private long terminalSizeCheckedAt;
+
+    /**
+     * Constructs a CommandLineUI that redraws the complete frame on every refresh.
+     */
+    public CommandLineUI(){
+        this(false, false);
+    }
+
+    /**
+     * Constructs a CommandLineUI.
+     *
+     * @param incremental whether to render only the changes between frames; ignored on Windows
+     * @param frameStats whether to print the number of bytes written for every frame, in incremental mode
+     */
+    public CommandLineUI(boolean incremental, boolean frameStats){
+        this(incremental, frameStats, GameMetrics.DISABLED);
+    }
+
+    /**
+     * Constructs a CommandLineUI that records the latency of rendering, writing and reading.
+     *
+     * @param incremental whether to render only the changes between frames; ignored on Windows
+     * @param frameStats whether to print the number of bytes written for every frame, in incremental mode
+     * @param metrics metrics to record the phases in
+     */
+    public CommandLineUI(boolean incremental, boolean frameStats, GameMetrics metrics){
+        this.renderer = incremental && !WINDOWS ? new IncrementalRenderer() : null;
+        this.frameStats = frameStats;
+        this.metrics = metrics;
+    }
 
     public void setMessage(String message){
         this.message = message;
+        this.encodedMessage = message.length() == 0 ? new byte[0] : GameStateEncoder.utf8(message + "\n");
     }
 
     public void setErrorMessage(String message){
-        this.message = System.getProperty("os.name").contains("Windows") ? message : ANSI_RED + message + ANSI_RESET;
+        setMessage(WINDOWS ? message : ANSI_RED + message + ANSI_RESET);
     }
 
     public void refresh(GameState gameState){
-        clrscr();
-        System.out.println(GameStateParser.parseGameState(gameState));
-        if (message.length() != 0) System.out.println(message);
+        if (renderer == null) write(gameState, null);
+        else print(gameState, null);
     }
 
     public String refreshAndRequestMove(GameState gameState, Collection<Move> moves){
-        refresh(gameState);
-        System.out.println(parseMoves(moves));
-        return requestMove();
+        if (renderer == null) {
+            write(gameState, moves);
+        } else {
+            print(gameState, moves);
+        }
+        long start = metrics.start();
+        String line = reader.nextLine();
+        metrics.record(Phase.INPUT, start);
+        return line;
+    }
+
+    /**
+     * Writes a complete frame on a cleared screen in a single write: the game state, the message and, if moves are
+     * provided, the moves and the prompt. The moves are encoded again only when another collection is provided.
+     *
+     * @param gameState the game state to be visualized
+     * @param moves the moves that are possible in this game state, or null if no move is requested
+     */
+    private void write(GameState gameState, Collection<Move> moves){
+        if (WINDOWS) clrscr();
+        long start = metrics.start();
+        encoder.reset();
+        if (!WINDOWS) encoder.append(CLEAR_SCREEN);
+        encoder.appendGameState(gameState);
+        encoder.append('\n');
+        encoder.append(encodedMessage);
+        if (moves != null) {
+            if (moves != encodedMovesSource) {
+                encodedMoves = GameStateEncoder.utf8(parseMoves(moves) + "\n");
+                encodedMovesSource = moves;
+            }
+            encoder.append(encodedMoves);
+            encoder.append(PROMPT);
+        }
+        metrics.record(Phase.RENDER, start);
+        start = metrics.start();
+        try {
+            encoder.writeTo(System.out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        metrics.record(Phase.OUTPUT, start);
+    }
+
+    /**
+     * Prints a frame as an incremental update of the previous frame: the game state, the message and, if moves are
+     * provided, the moves and the prompt.
+     *
+     * @param gameState the game state to be visualized
+     * @param moves the moves that are possible in this game state, or null if no move is requested
+     */
+    private void print(GameState gameState, Collection<Move> moves){
+        long start = metrics.start();
+        long now = System.nanoTime();
+        if (terminalSize == null || now - terminalSizeCheckedAt >= SIZE_CHECK_INTERVAL.toNanos()) {
+            terminalSize = terminalSize();
+            terminalSizeCheckedAt = now;
+        }
+        int[] size = terminalSize;
+        long sizeNanos = metrics.start() - start; // asking the terminal is output, not rendering
+
+        start = metrics.start();
+        StringBuilder frame = new StringBuilder(GameStateParser.parseGameState(gameState)).append('\n');
+        if (message.length() != 0) frame.append(message).append('\n');
+        if (moves != null) {
+            frame.append(parseMoves(moves)).append('\n');
+            frame.append("What would you like to do?").append('\n');
+        }
+        String update = renderer.render(frame.toString(), size[1], size[0]);
+        metrics.record(Phase.RENDER, start);
+
+        start = metrics.start() - sizeNanos;
+        System.out.print(update);
+        if (frameStats) {
+            System.out.println("Frame: " + renderer.getLastFrameBytes() + " bytes" + (renderer.isLastFrameFull() ?
+                " (full redraw)" : "") + ", average " + renderer.getAverageFrameBytes() + " bytes");
+        }
+        System.out.flush();
+        metrics.record(Phase.OUTPUT, start);
     }
 
     /**
@@ -49,13 +186,24 @@ public class CommandLineUI implements UI{
     }
 
     /**
-     * Politely requests player input and returns it as a String.
+     * Determines the size of the terminal with "stty size", to detect resizes in incremental mode.
      *
-     * @return player input
+     * @return number of lines and columns, or zeros if the size cannot be determined
      */
-    private String requestMove(){
-        System.out.println("What would you like to do?");
-        return reader.nextLine();
+    private static int[] terminalSize(){
+        try {
+            Process process = new ProcessBuilder("sh", "-c", "stty size < /dev/tty").redirectErrorStream(true).start();
+            try (Scanner scanner = new Scanner(process.getInputStream())) {
+                int[] size = {scanner.nextInt(), scanner.nextInt()};
+                process.waitFor();
+                return size;
+            }
+        } catch (IOException | RuntimeException e) {
+            return new int[2];
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new int[2];
+        }
     }
 
     /**
@@ -64,7 +212,7 @@ public class CommandLineUI implements UI{
     private static void clrscr(){
         //Clears Screen in java
         try {
-            if (System.getProperty("os.name").contains("Windows"))
+            if (WINDOWS)
                 new ProcessBuilder("cmd", "/c", "cls").inheritIO().start().waitFor();
             else
                 System.out.print("\033\143");
@@ -0,0 +1,257 @@
+package nl.quintor.solitaire.ui.cli;
+
+import nl.quintor.solitaire.models.card.Card;
+import nl.quintor.solitaire.models.deck.Deck;
+import nl.quintor.solitaire.models.state.GameState;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Renders frames as UTF-8 bytes into a reusable buffer, producing exactly the text of
+ * {@link GameStateParser#parseGameState(GameState)} without building Strings. Every cell of the table (card glyphs,
+ * "? ?", "_ _", headers, row numbers and padding) is encoded once, when the class is loaded, and copied into the
+ * buffer with {@link System#arraycopy(Object, int, Object, int, int)}; numbers are written digit by digit. Once the
+ * buffer has grown to the size of a frame, encoding a frame does not allocate.
+ *
+ * <p>A frame is built by {@link #reset()}, followed by any number of appends, and then written with a single call of
+ * {@link #writeTo(OutputStream)}.
+ */
+class GameStateEncoder {
+    private static final int CARD_COUNT = 54;
+    private static final int ROW_CELL_COUNT = 32;
+    private static final byte[][] CARD_CELLS = new byte[CARD_COUNT][];
+    private static final byte[][] WIDE_CARD_CELLS = new byte[CARD_COUNT][];
+    private static final byte[][] ROW_CELLS = new byte[ROW_CELL_COUNT][];
+    private static final byte[][] STACK_HEADER_CELLS = new byte[GameState.STACK_HEADERS.size()][];
+    private static final byte[][] COLUMN_HEADER_CELLS = new byte[GameState.COLUMN_HEADERS.size()][];
+    private static final byte[] HIDDEN_CELL = cell("? ?", GameStateParser.COLUMN_WIDTH);
+    private static final byte[] EMPTY_PILE_CELL = cell("_ _", GameStateParser.COLUMN_WIDTH);
+    private static final byte[] WIDE_EMPTY_PILE_CELL = cell("_ _", GameStateParser.COLUMN_WIDTH * 3);
+    private static final byte[] BLANK_CELL = cell("", GameStateParser.COLUMN_WIDTH);
+    private static final byte[] BLANK_ROW_HEADER = cell("", GameStateParser.FIRST_COLUMN_WIDTH);
+    private static final byte[] MOVES_PLAYED = utf8(" move(s) played in ");
+    private static final byte[] FOR = utf8(" for ");
+    private static final byte[] POINTS = utf8(" points");
+    private static final byte[] STOCK_HEADER = utf8("O (");
+
+    static {
+        for (int ordinal = 0; ordinal < CARD_COUNT; ordinal++) {
+            String glyph = Card.of(ordinal).toShortString();
+            CARD_CELLS[ordinal] = cell(glyph, GameStateParser.COLUMN_WIDTH);
+            WIDE_CARD_CELLS[ordinal] = cell(glyph, GameStateParser.COLUMN_WIDTH * 3);
+        }
+        for (int row = 0; row < ROW_CELL_COUNT; row++) {
+            ROW_CELLS[row] = cell(String.valueOf(row), GameStateParser.FIRST_COLUMN_WIDTH);
+        }
+        for (int i = 0; i < STACK_HEADER_CELLS.length; i++) {
+            STACK_HEADER_CELLS[i] = cell(GameState.STACK_HEADERS.get(i), GameStateParser.COLUMN_WIDTH);
+        }
+        for (int i = 0; i < COLUMN_HEADER_CELLS.length; i++) {
+            COLUMN_HEADER_CELLS[i] = cell(GameState.COLUMN_HEADERS.get(i), GameStateParser.COLUMN_WIDTH);
+        }
+    }
+
+    private byte[] buffer = new byte[2048];
+    private int length = 0;
+
+    /**
+     * Empties the buffer to start a new frame.
+     */
+    void reset() {
+        length = 0;
+    }
+
+    /**
+     * Appends the game state, the same text as {@link GameStateParser#parseGameState(GameState)}.
+     *
+     * @param gameState a representation of the current state of the game
+     */
+    void appendGameState(GameState gameState) {
+        appendStatus(gameState);
+        append('\n');
+        append('\n');
+
+        // stock and stack piles: headers, then the top cards
+        Deck stock = gameState.getStock();
+        append(BLANK_ROW_HEADER);
+        appendStockHeader(stock.size() + gameState.getWaste().size());
+        append(STACK_HEADER_CELLS);
+        append('\n');
+        append(BLANK_ROW_HEADER);
+        append(stock.isEmpty() ? WIDE_EMPTY_PILE_CELL : WIDE_CARD_CELLS[stock.get(stock.size() - 1).getOrdinal()]);
+        for (int i = 0; i < STACK_HEADER_CELLS.length; i++) {
+            Deck stackPile = gameState.getPile(GameState.FIRST_STACK_PILE + i);
+            append(stackPile.isEmpty() ? EMPTY_PILE_CELL : CARD_CELLS[stackPile.get(stackPile.size() - 1).getOrdinal()]);
+        }
+        append('\n');
+        append('\n');
+
+        // columns: headers, then rows until a row is empty
+        append(BLANK_ROW_HEADER);
+        append(COLUMN_HEADER_CELLS);
+        append('\n');
+        boolean rowHasCards;
+        int row = 0;
+        do {
+            appendRowHeader(row);
+            rowHasCards = appendRow(gameState, row++);
+            append('\n');
+        } while (rowHasCards);
+    }
+
+    /**
+     * Appends pre-encoded bytes.
+     *
+     * @param bytes UTF-8 bytes
+     */
+    void append(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    /**
+     * Appends a single ASCII character.
+     *
+     * @param c ASCII character
+     */
+    void append(char c) {
+        ensureCapacity(1);
+        buffer[length++] = (byte) c;
+    }
+
+    /**
+     * Writes the frame to the provided stream in a single write and flushes the stream.
+     *
+     * @param out stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, length);
+        out.flush();
+    }
+
+    /**
+     * Returns a copy of the frame, for testing.
+     *
+     * @return UTF-8 bytes of the frame
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Getter for length.
+     *
+     * @return number of bytes in the frame
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Encodes a String as UTF-8 bytes.
+     *
+     * @param string String to encode
+     * @return UTF-8 bytes
+     */
+    static byte[] utf8(String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends the status line, the same text as {@link GameState#toString()}.
+     */
+    private void appendStatus(GameState gameState) {
+        long duration = gameState.getPlayingSeconds();
+        appendNumber(gameState.getMoveJournal().getMovesPlayed(), 1);
+        append(MOVES_PLAYED);
+        appendNumber(duration / 3600, 2);
+        append(':');
+        appendNumber(duration / 60, 2);
+        append(':');
+        appendNumber(duration % 60, 2);
+        append(FOR);
+        appendNumber(gameState.getScore(), 1);
+        append(POINTS);
+    }
+
+    /**
+     * Appends the stock header, "O (24)", padded to three cells.
+     */
+    private void appendStockHeader(int cards) {
+        int start = length;
+        append(STOCK_HEADER);
+        appendNumber(cards, 1);
+        append(')');
+        for (int i = length - start; i < GameStateParser.COLUMN_WIDTH * 3; i++) append(' ');
+    }
+
+    private void appendRowHeader(int row) {
+        if (row < ROW_CELL_COUNT) {
+            append(ROW_CELLS[row]);
+            return;
+        }
+        int start = length;
+        appendNumber(row, 1);
+        for (int i = length - start; i < GameStateParser.FIRST_COLUMN_WIDTH; i++) append(' ');
+    }
+
+    /**
+     * Appends a row of all columns, like {@link GameStateParser#printRow(StringBuilder, java.util.Collection, int)}.
+     *
+     * @return whether the row contained any cards
+     */
+    private boolean appendRow(GameState gameState, int row) {
+        boolean rowHasCards = false;
+        for (int i = 0; i < COLUMN_HEADER_CELLS.length; i++) {
+            Deck column = gameState.getPile(GameState.FIRST_COLUMN_PILE + i);
+            if (row >= column.size()) {
+                append(BLANK_CELL);
+                continue;
+            }
+            rowHasCards = true;
+            append(row < column.getInvisibleCards() ? HIDDEN_CELL : CARD_CELLS[column.get(row).getOrdinal()]);
+        }
+        return rowHasCards;
+    }
+
+    private void append(byte[][] cells) {
+        for (byte[] cell : cells) append(cell);
+    }
+
+    /**
+     * Appends a number in decimal, with leading zeros up to the minimum number of digits.
+     */
+    private void appendNumber(long number, int minDigits) {
+        if (number < 0) {
+            append('-');
+            number = -number;
+        }
+        int digits = 1;
+        for (long rest = number / 10; rest > 0; rest /= 10) digits++;
+        digits = Math.max(digits, minDigits);
+        ensureCapacity(digits);
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (byte) ('0' + number % 10);
+            number /= 10;
+        }
+        length += digits;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+    }
+
+    /**
+     * Encodes a cell the way {@link GameStateParser#padNAdd(StringBuilder, String, int)} pads it.
+     */
+    private static byte[] cell(String string, int width) {
+        StringBuilder builder = new StringBuilder();
+        GameStateParser.padNAdd(builder, string, width);
+        return utf8(builder.toString());
+    }
+}
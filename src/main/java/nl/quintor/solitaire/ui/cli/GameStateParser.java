@@ -9,8 +9,8 @@ import java.util.Collection;
  * {@link GameState} parser for terminal printing. The class is not instantiable, all constructors are private.
  */
 class GameStateParser {
-    private final static int COLUMN_WIDTH = 8; // 8 columns in 64 char width (80 char width is Windows default)
-    private final static int FIRST_COLUMN_WIDTH = 3;
+    final static int COLUMN_WIDTH = 8; // 8 columns in 64 char width (80 char width is Windows default)
+    final static int FIRST_COLUMN_WIDTH = 3;
 
     protected GameStateParser(){}
 
@@ -40,8 +40,32 @@ class GameStateParser {
      *  @return a visual representation of the gameState (for monospace terminal printing)
      */
     static String parseGameState(GameState gameState){
-        // TODO: Write implementation
-        return "";
+        StringBuilder builder = new StringBuilder();
+        builder.append(gameState).append("\n\n");
+
+        // stock and stack piles: headers, then the top cards
+        Deck stock = gameState.getStock();
+        padNAdd(builder, "", FIRST_COLUMN_WIDTH);
+        padNAdd(builder, "O (" + (stock.size() + gameState.getWaste().size()) + ")", COLUMN_WIDTH * 3);
+        for (String header : gameState.getStackPiles().keySet()) padNAdd(builder, header, COLUMN_WIDTH);
+        builder.append("\n");
+        padNAdd(builder, "", FIRST_COLUMN_WIDTH);
+        padNAdd(builder, topCardString(stock), COLUMN_WIDTH * 3);
+        for (Deck stackPile : gameState.getStackPiles().values()) padNAdd(builder, topCardString(stackPile), COLUMN_WIDTH);
+        builder.append("\n\n");
+
+        // columns: headers, then rows until a row is empty
+        padNAdd(builder, "", FIRST_COLUMN_WIDTH);
+        for (String header : gameState.getColumns().keySet()) padNAdd(builder, header, COLUMN_WIDTH);
+        builder.append("\n");
+        boolean rowHasCards;
+        int row = 0;
+        do {
+            padNAdd(builder, String.valueOf(row), FIRST_COLUMN_WIDTH);
+            rowHasCards = printRow(builder, gameState.getColumns().values(), row++);
+            builder.append("\n");
+        } while (rowHasCards);
+        return builder.toString();
     }
 
     /**
@@ -56,8 +80,16 @@ class GameStateParser {
      * @return did the row contain any cards
      */
     protected static boolean printRow(StringBuilder builder, Collection<Deck> columns, int row){
-        // TODO: Write implementation
-        return true;
+        boolean rowHasCards = false;
+        for (Deck column : columns) {
+            String card = getCardStringOrNull(column, row);
+            if (card != null) {
+                rowHasCards = true;
+                if (row < column.getInvisibleCards()) card = "? ?";
+            }
+            padNAdd(builder, card == null ? "" : card, COLUMN_WIDTH);
+        }
+        return rowHasCards;
     }
 
     /**
@@ -68,8 +100,17 @@ class GameStateParser {
      * @return the requested card or null
      */
     protected static String getCardStringOrNull(Deck deck, int index){
-        // TODO: Write implementation
-        return null;
+        return index >= 0 && index < deck.size() ? deck.get(index).toShortString() : null;
+    }
+
+    /**
+     * Returns the short description of the top card of the deck, or "_ _" if the deck is empty.
+     *
+     * @param deck deck of which the top card is shown
+     * @return short description of the top card
+     */
+    private static String topCardString(Deck deck){
+        return deck.isEmpty() ? "_ _" : deck.get(deck.size() - 1).toShortString();
     }
 
     /**
@@ -81,6 +122,8 @@ class GameStateParser {
      * @param totalLength The total length that the String must become
      */
     protected static void padNAdd(StringBuilder builder, String string, int totalLength){
-        // TODO: Write implementation
+        if (string.length() == 1) string = " " + string;
+        builder.append(string);
+        for (int i = string.length(); i < totalLength; i++) builder.append(' ');
     }
 }
@@ -0,0 +1,216 @@
+package nl.quintor.solitaire.ui.cli;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Turns successive terminal frames into ANSI updates that only rewrite what changed since the previous frame.
+ *
+ * <p>Frames are laid out by {@link GameStateParser} as a grid: every line starts with a row header of
+ * {@link GameStateParser#FIRST_COLUMN_WIDTH} characters, followed by cells of {@link GameStateParser#COLUMN_WIDTH}
+ * characters, one per stock, stack pile or column. The renderer compares each cell with the same cell of the previous
+ * frame and moves the cursor to the cells that differ, so a move that changes two piles rewrites two cells plus the
+ * status line. The cell positions are only terminal columns as long as every character takes exactly one column, so
+ * lines with anything else are rewritten as a whole: escape sequences, such as those of colored error messages,
+ * combining characters, such as the underlines of the move names, and characters outside the Basic Multilingual Plane
+ * or of double width.
+ *
+ * <p>The first frame and every frame after the terminal has been resized are drawn in full on a cleared screen. So are
+ * frames with a line wider than the terminal, and the frame after one: the terminal wraps such a line over several
+ * rows, which moves all rows below it away from their line numbers. After
+ * each frame the cursor is parked below it and the rest of the screen is cleared, which also removes the player input
+ * echoed by the terminal.
+ */
+class IncrementalRenderer {
+    private static final String ESC = "\u001B[";
+
+    private String[] previous;
+    private int width = -1;
+    private int height = -1;
+    private boolean previousWrapped = false;
+    private int lastFrameBytes = 0;
+    private boolean lastFrameFull = false;
+    private long totalBytes = 0;
+    private long frames = 0;
+
+    /**
+     * Renders a frame as the ANSI update from the previous frame.
+     *
+     * @param frame complete text of the frame, lines separated by "\n"
+     * @param width current terminal width in characters, or 0 if unknown
+     * @param height current terminal height in lines, or 0 if unknown
+     * @return text to write to the terminal
+     */
+    String render(String frame, int width, int height) {
+        String[] lines = frame.split("\n", -1);
+        StringBuilder builder = new StringBuilder();
+        boolean wrapped = wraps(lines, width);
+        lastFrameFull = previous == null || width != this.width || height != this.height || wrapped || previousWrapped;
+        if (lastFrameFull) {
+            builder.append(ESC).append("H").append(ESC).append("2J").append(frame);
+        } else {
+            int rows = Math.max(lines.length, previous.length);
+            for (int row = 0; row < rows; row++) {
+                String line = row < lines.length ? lines[row] : "";
+                String before = row < previous.length ? previous[row] : "";
+                if (!line.equals(before)) updateLine(builder, row, line, before);
+            }
+            moveTo(builder, lines.length - 1, 0);
+        }
+        builder.append(ESC).append("J");
+
+        previous = lines;
+        previousWrapped = wrapped;
+        this.width = width;
+        this.height = height;
+        String update = builder.toString();
+        lastFrameBytes = update.getBytes(StandardCharsets.UTF_8).length;
+        totalBytes += lastFrameBytes;
+        frames++;
+        return update;
+    }
+
+    /**
+     * Forgets the previous frame, so the next frame is drawn in full.
+     */
+    void reset() {
+        previous = null;
+    }
+
+    /**
+     * Getter for lastFrameBytes.
+     *
+     * @return number of UTF-8 bytes of the last update
+     */
+    int getLastFrameBytes() {
+        return lastFrameBytes;
+    }
+
+    /**
+     * Getter for lastFrameFull.
+     *
+     * @return whether the last frame was drawn in full
+     */
+    boolean isLastFrameFull() {
+        return lastFrameFull;
+    }
+
+    /**
+     * Returns the average size of the updates so far.
+     *
+     * @return average number of UTF-8 bytes per frame
+     */
+    long getAverageFrameBytes() {
+        return frames == 0 ? 0 : totalBytes / frames;
+    }
+
+    /**
+     * Appends the updates of one changed line: the cells that differ, then a clear to the end of the line if the line
+     * got shorter.
+     *
+     * @param builder update being built
+     * @param row line number, 0-based
+     * @param line new content of the line
+     * @param before previous content of the line
+     */
+    private static void updateLine(StringBuilder builder, int row, String line, String before) {
+        if (!isSingleWidth(line) || !isSingleWidth(before)) {
+            moveTo(builder, row, 0);
+            builder.append(line).append(ESC).append("K");
+            return;
+        }
+        int length = Math.max(line.length(), before.length());
+        for (int start = 0; start < length; ) {
+            int end = start == 0 ? GameStateParser.FIRST_COLUMN_WIDTH : start + GameStateParser.COLUMN_WIDTH;
+            String cell = cell(line, start, end);
+            if (!cell.equals(cell(before, start, end))) {
+                moveTo(builder, row, start);
+                builder.append(cell);
+                if (end >= line.length()) {
+                    builder.append(ESC).append("K"); // last cell: clear whatever followed it
+                    return;
+                }
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Determines if every character of a line takes exactly one terminal column, so that character positions are
+     * terminal columns: no control characters such as escape, no combining characters, no surrogates and no double
+     * width characters.
+     */
+    private static boolean isSingleWidth(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c < 0x7F) {
+                if (c < 0x20) return false;
+            } else if (c < 0xA0 || isZeroWidth(c) || Character.isSurrogate(c) || isWide(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determines if any line takes more terminal columns than the terminal is wide. Escape sequences take no columns,
+     * combining characters none and double width characters two.
+     */
+    private static boolean wraps(String[] lines, int width) {
+        if (width <= 0) return false;
+        for (String line : lines) {
+            if (line.length() <= width) continue; // no line is wider than its length in chars
+            int columns = 0;
+            for (int i = 0; i < line.length(); ) {
+                int c = line.codePointAt(i);
+                if (c == '\u001B') {
+                    i = skipEscapeSequence(line, i);
+                    continue;
+                }
+                if (!isZeroWidth(c)) columns += isWide(c) ? 2 : 1;
+                i += Character.charCount(c);
+            }
+            if (columns > width) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the position after an escape sequence "ESC [ parameters final-byte" that starts at a position.
+     */
+    private static int skipEscapeSequence(String line, int start) {
+        int i = start + 2;
+        while (i < line.length() && (line.charAt(i) < 0x40 || line.charAt(i) > 0x7E)) i++;
+        return i + 1;
+    }
+
+    private static boolean isZeroWidth(int c) {
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK || type == Character.FORMAT;
+    }
+
+    /**
+     * Determines if a character is of double width: the East Asian wide and full-width blocks, and the emoji.
+     */
+    private static boolean isWide(int c) {
+        return c >= 0x1100 && (c <= 0x115F || (c >= 0x2E80 && c <= 0xA4CF && c != 0x303F) || (c >= 0xAC00 && c <= 0xD7A3) ||
+            (c >= 0xF900 && c <= 0xFAFF) || (c >= 0xFE30 && c <= 0xFE4F) || (c >= 0xFF00 && c <= 0xFF60) ||
+            (c >= 0xFFE0 && c <= 0xFFE6) || (c >= 0x1F300 && c <= 0x1F64F) || (c >= 0x1F900 && c <= 0x1F9FF) ||
+            (c >= 0x20000 && c <= 0x3FFFD));
+    }
+
+    /**
+     * Returns the characters of a line between two positions, or fewer if the line ends before the second.
+     */
+    private static String cell(String line, int start, int end) {
+        if (start >= line.length()) return "";
+        if (end <= line.length()) return line.substring(start, end);
+        return line.substring(start);
+    }
+
+    /**
+     * Appends the ANSI sequence that moves the cursor to a 0-based position.
+     */
+    private static void moveTo(StringBuilder builder, int row, int column) {
+        builder.append(ESC).append(row + 1).append(';').append(column + 1).append('H');
+    }
+}
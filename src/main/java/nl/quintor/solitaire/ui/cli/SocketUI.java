@@ -0,0 +1,136 @@
+package nl.quintor.solitaire.ui.cli;
+
+import nl.quintor.solitaire.game.moves.Move;
+import nl.quintor.solitaire.models.state.GameState;
+import nl.quintor.solitaire.ui.UI;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link UI} for a player connected over a socket, with a line-based protocol. Every refresh writes
+ * the same frame as {@link CommandLineUI} does, encoded by a {@link GameStateEncoder} and written in a single write,
+ * but without escape sequences: no clearing of the screen and no colours. A frame that requests a move ends with the
+ * line "What would you like to do?", after which the player answers with a single line.
+ *
+ * <p>A closed connection is answered as if the player typed "Q", so the game loop always ends. Errors while writing
+ * are thrown as {@link UncheckedIOException}.
+ */
+public class SocketUI implements UI {
+    /**
+     * Last line of every frame that requests a move.
+     */
+    public static final String PROMPT = "What would you like to do?";
+    private static final byte[] ENCODED_PROMPT = GameStateEncoder.utf8(PROMPT + "\n");
+    private final GameStateEncoder encoder = new GameStateEncoder();
+    private final BufferedReader reader;
+    private final OutputStream output;
+    private final LongConsumer answerListener;
+    private byte[] encodedMessage = new byte[0];
+    private Collection<Move> encodedMovesSource;
+    private byte[] encodedMoves;
+    private long inputNanos = -1;
+
+    /**
+     * Constructs a SocketUI.
+     *
+     * @param input stream with the lines of the player
+     * @param output stream to write the frames to
+     * @param answerListener listener that is called with the time between receiving a line of the player and writing
+     * the frame that answers it, in nanoseconds
+     */
+    public SocketUI(InputStream input, OutputStream output, LongConsumer answerListener) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.output = output;
+        this.answerListener = answerListener;
+    }
+
+    @Override
+    public void setMessage(String message) {
+        this.encodedMessage = message.length() == 0 ? new byte[0] : GameStateEncoder.utf8(message + "\n");
+    }
+
+    @Override
+    public void setErrorMessage(String message) {
+        setMessage(message);
+    }
+
+    @Override
+    public void refresh(GameState gameState) {
+        write(gameState, null);
+    }
+
+    @Override
+    public String refreshAndRequestMove(GameState gameState, Collection<Move> moves) {
+        requestMove(gameState, moves);
+        return readMove();
+    }
+
+    /**
+     * Writes the frame that requests a move, without waiting for the answer. Together with {@link #readMove()} the same
+     * as {@link #refreshAndRequestMove(GameState, Collection)}, but the game state is not needed while the player
+     * thinks.
+     *
+     * @param gameState the game state to be visualized
+     * @param moves the moves that are possible in this game state
+     */
+    public void requestMove(GameState gameState, Collection<Move> moves) {
+        write(gameState, moves);
+    }
+
+    /**
+     * Waits for the answer of the player to the frame of {@link #requestMove(GameState, Collection)}.
+     *
+     * @return line of the player, or "Q" if the connection was closed
+     */
+    public String readMove() {
+        try {
+            String line = reader.readLine();
+            inputNanos = System.nanoTime();
+            return line == null ? "Q" : line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a frame in a single write: the game state, the message and, if moves are provided, the moves and the
+     * prompt. Tells the answer listener how long the frame took if it answers a line of the player.
+     *
+     * @param gameState the game state to be visualized
+     * @param moves the moves that are possible in this game state, or null if no move is requested
+     */
+    private void write(GameState gameState, Collection<Move> moves) {
+        encoder.reset();
+        encoder.appendGameState(gameState);
+        encoder.append('\n');
+        encoder.append(encodedMessage);
+        if (moves != null) {
+            if (moves != encodedMovesSource) {
+                String menu = moves.stream().map(Move::toString).collect(Collectors.joining(", "));
+                encodedMoves = GameStateEncoder.utf8(menu + "\n");
+                encodedMovesSource = moves;
+            }
+            encoder.append(encodedMoves);
+            encoder.append(ENCODED_PROMPT);
+        }
+        try {
+            encoder.writeTo(output);
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (inputNanos != -1) {
+            answerListener.accept(System.nanoTime() - inputNanos);
+            inputNanos = -1;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package nl.quintor.solitaire
+
+import nl.quintor.solitaire.game.moves.CycleStock
+import nl.quintor.solitaire.game.moves.Dummy
+import nl.quintor.solitaire.game.moves.Hint
+import nl.quintor.solitaire.game.moves.Move
+import nl.quintor.solitaire.metrics.GameMetrics
+import nl.quintor.solitaire.models.state.GameState
+import nl.quintor.solitaire.solver.HintEngine
+import nl.quintor.solitaire.ui.UI
+import spock.lang.Specification
+
+class PlayerCommandsSpec extends Specification {
+
+    def "An empty line repeats the previous command and an unknown letter is a dummy move" () {
+        given:
+            def commands = new PlayerCommands(null, false, GameMetrics.DISABLED)
+        expect:
+            commands.parse("c") instanceof CycleStock
+            commands.parse("") instanceof CycleStock
+            commands.parse("X") instanceof Dummy
+    }
+
+    def "The hint is only offered with a hint engine" () {
+        given:
+            def engine = new HintEngine()
+        expect:
+            !new PlayerCommands(null, true, GameMetrics.DISABLED).moves.any { it instanceof Hint }
+            new PlayerCommands(engine, true, GameMetrics.DISABLED).parse("I") instanceof Hint
+        cleanup:
+            engine.close()
+    }
+
+    def "Applying a command sets the result or the error as the message and records the move" () {
+        given:
+            def metrics = new GameMetrics()
+            def commands = new PlayerCommands(null, false, metrics)
+            def gameState = TestUtil.createFixedNewGame()
+            def ui = new RecordingUI()
+        when:
+            commands.apply(gameState, commands.parse("C"), ui)
+        then:
+            ui.message.startsWith("Stock card ")
+            ui.error == null
+            metrics.moves["CycleStock"].count == 1
+            metrics.getPhase(GameMetrics.Phase.DETECT_WIN).count == 1
+        when:
+            commands.apply(gameState, commands.parse("M A0 B"), ui)
+        then:
+            ui.error != null
+            metrics.moves["MoveCard"].count == 1
+    }
+
+    def "A game that is lost by a command says so" () {
+        given:
+            def commands = new PlayerCommands(null, false, GameMetrics.DISABLED)
+            def gameState = TestUtil.createGameWithEmptyStockAndWaste()
+            gameState.columns.values().each { column -> column.invisibleCards = column.size() }
+            gameState.rehashZobrist()
+            def ui = new RecordingUI()
+        when: "no card is visible, so nothing can move"
+            commands.apply(gameState, commands.parse("H"), ui)
+        then:
+            gameState.isGameLost()
+            ui.message.endsWith("No card can be moved any more, the game is lost")
+    }
+
+    private static class RecordingUI implements UI {
+        String message
+        String error
+
+        void setMessage(String message) { this.message = message }
+
+        void setErrorMessage(String message) { this.error = message }
+
+        void refresh(GameState gameState) { }
+
+        String refreshAndRequestMove(GameState gameState, Collection<Move> moves) { "" }
+    }
+}
@@ -1,15 +1,16 @@
 package nl.quintor.solitaire
 
 import nl.quintor.solitaire.game.GameStateController
+import nl.quintor.solitaire.game.moves.Quit
 import nl.quintor.solitaire.models.card.Card
 import nl.quintor.solitaire.models.card.Rank
 import nl.quintor.solitaire.models.card.Suit
 import nl.quintor.solitaire.models.deck.Deck
 import nl.quintor.solitaire.models.deck.DeckType
 import nl.quintor.solitaire.models.state.GameState
+import nl.quintor.solitaire.simulation.GreedyStrategy
 
 import java.time.LocalDateTime
-import java.util.stream.IntStream
 
 class TestUtil {
     static  Deck createTestDeck(deckType, nrOfCards = 0, nrOfInvisible = 0){
@@ -33,11 +34,11 @@ class TestUtil {
     static  Collection<Deck> createTestColumnsCollections(int nrOfRows) {
 
         def result = new ArrayList<>(7)
-        IntStream.range(0,7).forEach({result.add(new Deck())})
+        (0..<7).each({result.add(new Deck())})
         Deck cards = Deck.createDefaultDeck()
 
-        IntStream.range(0,nrOfRows)
-            .forEach({result.stream().forEach({deck->deck.add(cards.remove(cards.size()-1))})})
+        (0..<nrOfRows)
+            .each({result.stream().forEach({deck->deck.add(cards.remove(cards.size()-1))})})
         return result
     }
 
@@ -88,4 +89,18 @@ class TestUtil {
         result.getStackPiles().get("SA").add(new Card(Suit.CLUBS, Rank.ACE))
         return result
     }
+
+    static void play(GameState gameState, int moves) {
+        def strategy = new GreedyStrategy()
+        for (int i = 0; i < moves; i++) {
+            def move = strategy.nextMove(gameState)
+            if (move instanceof Quit) return
+            move.apply(gameState)
+        }
+    }
+
+    static List<Long> entries(GameState gameState) {
+        def journal = gameState.moveJournal
+        return (0..<journal.size()).collect { journal.get(it) }
+    }
 }
@@ -0,0 +1,114 @@
+package nl.quintor.solitaire.corpus
+
+import nl.quintor.solitaire.game.GameStateController
+import nl.quintor.solitaire.models.state.GameState
+import nl.quintor.solitaire.models.state.PackedGameState
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+class DealCorpusSpec extends Specification {
+    Path file
+
+    def setup() {
+        file = Files.createTempFile("deals", ".corpus")
+    }
+
+    def cleanup() {
+        Files.deleteIfExists(file)
+    }
+
+    def "Deals read from a corpus are the same games as the numbered deals" () {
+        given:
+            DealCorpusWriter.writeNumberedDeals(file, 1000, 10_000)
+        when:
+            def corpus = DealCorpus.open(file)
+            def gameState = corpus.getGameState(index)
+            def expected = GameStateController.init(1000 + index)
+        then:
+            corpus.size() == 10_000
+            Files.size(file) == DealCorpus.HEADER_BYTES + 10_000 * DealCorpus.DEAL_BYTES
+            gameState.dealNumber == 1000 + index
+            gameState.columns == expected.columns
+            gameState.stock == expected.stock
+            gameState.waste == expected.waste
+            corpus.getPackedGameState(index) == PackedGameState.pack(expected)
+        cleanup:
+            corpus?.close()
+        where:
+            index << [0L, 1L, 4095L, 4096L, 9999L]
+    }
+
+    def "Deals without numbers keep their cards and have no deal number" () {
+        given:
+            def first = (0..51).collect { it as byte } as byte[]
+            def second = (51..0).collect { it as byte } as byte[]
+            new DealCorpusWriter(file, GameState.NO_DEAL).withCloseable {
+                it.write(first, 0)
+                it.write(second, 0)
+            }
+        when:
+            def corpus = DealCorpus.open(file)
+            def ordinals = new byte[DealCorpus.DEAL_BYTES]
+            corpus.readDeal(1, ordinals, 0)
+        then:
+            ordinals == second
+            corpus.getDealNumber(0) == GameState.NO_DEAL
+            corpus.getGameState(0).dealNumber == GameState.NO_DEAL
+            corpus.getGameState(0).columns["A"][0].ordinal == 0
+            corpus.getGameState(1).stock[0].ordinal == 51 - 28
+        cleanup:
+            corpus?.close()
+    }
+
+    def "Reading a deal outside the corpus should throw" () {
+        given:
+            DealCorpusWriter.writeNumberedDeals(file, 0, 3)
+            def corpus = DealCorpus.open(file)
+        when:
+            corpus.getGameState(index)
+        then:
+            thrown(IndexOutOfBoundsException)
+        cleanup:
+            corpus.close()
+        where:
+            index << [-1L, 3L]
+    }
+
+    def "Opening a file that is not a complete corpus should throw" () {
+        given:
+            DealCorpusWriter.writeNumberedDeals(file, 0, 3)
+            def content = Files.readAllBytes(file)
+            Files.write(file, mutate(content))
+        when:
+            DealCorpus.open(file)
+        then:
+            thrown(IOException)
+        where:
+            mutate << [
+                { byte[] bytes -> bytes[0] = 0; bytes },
+                { byte[] bytes -> bytes[7] = 2; bytes },
+                { byte[] bytes -> Arrays.copyOf(bytes, bytes.length - 1) },
+                { byte[] bytes -> Arrays.copyOf(bytes, 10) }
+            ]
+    }
+
+    def "Threads should read deals from one corpus in parallel" () {
+        given:
+            DealCorpusWriter.writeNumberedDeals(file, 0, 2000)
+            def corpus = DealCorpus.open(file)
+            def executor = Executors.newFixedThreadPool(4)
+        when:
+            def results = executor.invokeAll((0..3).collect { int thread ->
+                { -> (thread..<2000).step(4).every { corpus.getPackedGameState(it) == PackedGameState.pack(GameStateController.init(it)) } } as Callable<Boolean>
+            })
+        then:
+            results.every { it.get() }
+        cleanup:
+            executor.shutdownNow()
+            corpus.close()
+    }
+}
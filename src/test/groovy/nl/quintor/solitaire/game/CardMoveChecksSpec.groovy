@@ -102,7 +102,7 @@ class CardMoveChecksSpec extends Specification {
         TestUtil.createTestDeckWithCards(DeckType.STACK, [new Card(Suit.HEARTS, Rank.ACE)]) | new Card(Suit.HEARTS, Rank.THREE) | 'Stack Piles hold same-suit cards of increasing Rank from Ace to King' || "Moving card to stack should be increasing"
         TestUtil.createTestDeckWithCards(DeckType.STACK, [new Card(Suit.HEARTS, Rank.ACE)]) | new Card(Suit.DIAMONDS, Rank.TWO) | 'Stack Piles can only contain same-suit cards' || "Moving card to stack should be same suit"
         new Deck(DeckType.COLUMN)| new Card(Suit.DIAMONDS, Rank.TWO) | 'A King has to be the first card of a Column' || "Moving card to empty column can only be a King"
-        TestUtil.createTestDeckWithCards(DeckType.COLUMN, [new Card(Suit.HEARTS, Rank.KING)]) | new Card(Suit.DIAMONDS, Rank.QUEEN) | 'Column cards have te alternate colors (red and black)' || "Moving card to column must be opposite suit"
+        TestUtil.createTestDeckWithCards(DeckType.COLUMN, [new Card(Suit.HEARTS, Rank.KING)]) | new Card(Suit.DIAMONDS, Rank.QUEEN) | 'Column cards have to alternate colors (red and black)' || "Moving card to column must be opposite suit"
         TestUtil.createTestDeckWithCards(DeckType.COLUMN, [new Card(Suit.HEARTS, Rank.KING)]) | new Card(Suit.SPADES, Rank.JACK) | 'Columns hold alternating-color cards of decreasing rank from King to Two' || "Moving card to column must be in descending rank"
     }
 
@@ -177,5 +177,47 @@ class CardMoveChecksSpec extends Specification {
 
     }
 
+    def "The lookup tables agree with the throwing checks for every pair of cards and empty piles" () {
+        given:
+            def cards = (0..<CardMoveChecks.EMPTY_PILE).collect { Card.of(it) }
+        expect:
+            ([null] + cards).each { target ->
+                cards.each { card ->
+                    assert CardMoveChecks.canGoOnStack(target, card) == passes { CardMoveChecks.checkStackMove(target, card) }
+                    assert CardMoveChecks.canGoOnColumn(target, card) == passes { CardMoveChecks.checkColumnMove(target, card) }
+                }
+            }
+    }
 
+    @Unroll
+    def "Jokers can't be placed on #target" () {
+        given:
+            def blackJoker = Card.of(Suit.JOKER, Rank.JOKER_BLACK)
+            def redJoker = Card.of(Suit.JOKER, Rank.JOKER_RED)
+        expect:
+            !CardMoveChecks.canGoOnStack(target, redJoker)
+            !CardMoveChecks.canGoOnStack(target, blackJoker)
+            !CardMoveChecks.canGoOnColumn(target, redJoker)
+            !CardMoveChecks.canGoOnColumn(target, blackJoker)
+        where:
+            target << [null, Card.of(Suit.JOKER, Rank.JOKER_BLACK), Card.of(Suit.HEARTS, Rank.KING), Card.of(Suit.SPADES, Rank.ACE)]
+    }
+
+    def "The ordinal fast path uses EMPTY_PILE for empty piles" () {
+        expect:
+            CardMoveChecks.canGoOnStack(CardMoveChecks.EMPTY_PILE, Card.of(Suit.CLUBS, Rank.ACE).ordinal)
+            !CardMoveChecks.canGoOnStack(CardMoveChecks.EMPTY_PILE, Card.of(Suit.CLUBS, Rank.TWO).ordinal)
+            CardMoveChecks.canGoOnColumn(CardMoveChecks.EMPTY_PILE, Card.of(Suit.HEARTS, Rank.KING).ordinal)
+            CardMoveChecks.canGoOnColumn(Card.of(Suit.HEARTS, Rank.KING).ordinal, Card.of(Suit.SPADES, Rank.QUEEN).ordinal)
+            !CardMoveChecks.canGoOnColumn(Card.of(Suit.HEARTS, Rank.KING).ordinal, Card.of(Suit.DIAMONDS, Rank.QUEEN).ordinal)
+    }
+
+    private static boolean passes(Closure check) {
+        try {
+            check()
+            return true
+        } catch (MoveException ignored) {
+            return false
+        }
+    }
 }
@@ -1,9 +1,12 @@
 package nl.quintor.solitaire.game
 
 import nl.quintor.solitaire.TestUtil
+import nl.quintor.solitaire.game.moves.CycleStock
+import nl.quintor.solitaire.game.moves.MoveCard
 import nl.quintor.solitaire.models.card.Card
 import nl.quintor.solitaire.models.card.Rank
 import nl.quintor.solitaire.models.card.Suit
+import nl.quintor.solitaire.models.deck.Deck
 import nl.quintor.solitaire.models.deck.DeckType
 import nl.quintor.solitaire.models.state.GameState
 import org.assertj.core.api.SoftAssertions
@@ -73,6 +76,39 @@ class GameStateControllerSpec extends Specification {
             softAssert.assertAll()
     }
 
+    def "A numbered deal should always deal the same cards" () {
+        when:
+            def first = GameStateController.init(dealNumber)
+            def second = GameStateController.init(dealNumber)
+        then:
+            first.dealNumber == dealNumber
+            first.columns == second.columns
+            first.stock == second.stock
+            first.waste == second.waste
+            first.columns["A"][0] == columnA
+            first.columns["G"][6] == columnG
+            first.stock[0] == stock
+        where:
+            dealNumber | columnA                          | columnG                          | stock
+            1L         | Card.of(Suit.SPADES, Rank.TEN)   | Card.of(Suit.CLUBS, Rank.TEN)    | Card.of(Suit.CLUBS, Rank.FIVE)
+            1000000L   | Card.of(Suit.HEARTS, Rank.QUEEN) | Card.of(Suit.SPADES, Rank.JACK)  | Card.of(Suit.SPADES, Rank.SIX)
+    }
+
+    def "Consecutive deal numbers should deal different games with all 52 cards" () {
+        when:
+            def deals = (0L..99L).collect { GameStateController.init(it) }
+        then:
+            deals.collect { it.columns.values().flatten() + it.stock + it.waste }.toSet().size() == 100
+            deals.every { game -> (game.columns.values().flatten() + game.stock + game.waste).toSet().size() == 52 }
+    }
+
+    def "A negative deal number should be rejected" () {
+        when:
+            GameStateController.init(-1L)
+        then:
+            thrown(IllegalArgumentException)
+    }
+
     @Unroll
     def "Win detection should return #expectedResult when testing: #testCase" () {
         expect:
@@ -85,6 +121,112 @@ class GameStateControllerSpec extends Specification {
         TestUtil.createGameWithOnlyVisibleCards()   | true           || "Empty stock and waste but visible cards left in columns"
     }
 
+    def "Win detection should count the invisible cards of a layout built by hand" () {
+        given:
+            def gameState = new GameState()
+            GameState.STACK_HEADERS.each { gameState.stackPiles.put(it, new Deck(DeckType.STACK)) }
+            GameState.COLUMN_HEADERS.each { gameState.columns.put(it, new Deck(DeckType.COLUMN)) }
+            gameState.columns["C"].add(new Card(Suit.CLUBS, Rank.TWO))
+            gameState.columns["C"].add(new Card(Suit.HEARTS, Rank.ACE))
+            gameState.columns["C"].setInvisibleCards(1)
+        expect:
+            !GameStateController.hasWinningLayout(gameState)
+        when:
+            gameState.columns["C"].setInvisibleCards(0)
+        then:
+            GameStateController.hasWinningLayout(gameState)
+    }
+
+    def "Dead end detection should only lose a game in which no card can be moved, not even from the stock" () {
+        given:
+            def gameState = createStuckGame()
+        when:
+            GameStateController.detectDeadEnd(gameState)
+        then:
+            gameState.isGameLost()
+            !gameState.isGameWon()
+    }
+
+    @Unroll
+    def "Dead end detection should not lose the game when #testCase" () {
+        given:
+            def gameState = createStuckGame()
+            stockCards.each { gameState.stock.add(it) }
+            gameState.rehashZobrist()
+        when:
+            GameStateController.detectDeadEnd(gameState)
+        then:
+            !gameState.isGameLost()
+        where:
+            stockCards                                                          || testCase
+            [new Card(Suit.CLUBS, Rank.ACE)]                                    || "the stock holds a card that can be moved"
+            [new Card(Suit.CLUBS, Rank.ACE), new Card(Suit.CLUBS, Rank.SEVEN)] || "the stock still shows more than one card"
+    }
+
+    def "Dead end detection should lose a game in which a pass through the stock only moved cards back and forth" () {
+        given:
+            def gameState = createOscillatingGame(new Card(Suit.DIAMONDS, Rank.JACK))
+        when:
+            GameStateController.detectDeadEnd(gameState)
+            ["M A2 B", "C", "M B2 A", "C"].each {
+                (it == "C" ? new CycleStock() : new MoveCard(it)).apply(gameState)
+                GameStateController.detectDeadEnd(gameState)
+            }
+        then:
+            gameState.isGameLost()
+    }
+
+    def "Dead end detection should not lose a game after an unchanged pass while a move can still make progress" () {
+        given:
+            def gameState = createOscillatingGame(new Card(Suit.CLUBS, Rank.ACE))
+        when:
+            GameStateController.detectDeadEnd(gameState)
+            2.times {
+                new CycleStock().apply(gameState)
+                GameStateController.detectDeadEnd(gameState)
+            }
+        then:
+            gameState.stockCycles == 1
+            !gameState.isGameLost()
+    }
+
+    @Unroll
+    def "Dead end detection should not lose a game after a pass that only cycled the stock while #testCase" () {
+        given:
+            def gameState = createStuckGame()
+            layout(gameState)
+            gameState.stock.add(stockCard)
+            gameState.waste.add(new Card(Suit.DIAMONDS, Rank.JACK))
+            gameState.rehashZobrist()
+        when:
+            GameStateController.detectDeadEnd(gameState)
+            2.times {
+                new CycleStock().apply(gameState)
+                GameStateController.detectDeadEnd(gameState)
+            }
+        then:
+            gameState.stockCycles == 1
+            !gameState.isGameLost()
+        where:
+            layout << [
+                { GameState game ->
+                    (1..6).each { game.stackPiles["SB"].add(new Card(Suit.SPADES, Rank.values()[(it + 11) % 13])) }
+                    game.columns["C"].set(1, new Card(Suit.HEARTS, Rank.SEVEN))
+                },
+                { GameState game ->
+                    (1..7).each { game.stackPiles["SA"].add(new Card(Suit.CLUBS, Rank.values()[(it + 11) % 13])) }
+                    game.columns["A"].set(1, new Card(Suit.CLUBS, Rank.EIGHT))
+                    game.columns["A"].add(new Card(Suit.HEARTS, Rank.SEVEN))
+                    game.columns["B"].set(1, new Card(Suit.SPADES, Rank.EIGHT))
+                }
+            ]
+            stockCard << [new Card(Suit.DIAMONDS, Rank.FIVE), new Card(Suit.CLUBS, Rank.QUEEN)]
+            testCase << [
+                "a stack pile card can go back to a column to take a stock card",
+                "moving part of a column frees a card for the stack piles"
+            ]
+    }
+
     @Unroll
     def "A bonus should be given of #expectedTimeScore when testing: #testCase" () {
         expect:
@@ -110,4 +252,39 @@ class GameStateControllerSpec extends Specification {
             TestUtil.createGame(500L) | 500 || -100
 
     }
+
+    /**
+     * Creates a game with an empty stock and waste, and one invisible card under each column, of which no visible card
+     * can be moved: there are no aces or kings on top, and no two top cards differ by one in rank.
+     */
+    private static GameState createStuckGame() {
+        def gameState = TestUtil.createGameWithEmptyStockAndWaste()
+        def tops = [new Card(Suit.CLUBS, Rank.TWO), new Card(Suit.SPADES, Rank.TWO), new Card(Suit.HEARTS, Rank.TWO),
+                    new Card(Suit.DIAMONDS, Rank.TWO), new Card(Suit.CLUBS, Rank.FOUR), new Card(Suit.SPADES, Rank.FOUR),
+                    new Card(Suit.HEARTS, Rank.FOUR)]
+        GameState.COLUMN_HEADERS.eachWithIndex { header, i ->
+            def column = gameState.columns.get(header)
+            column.clear()
+            column.add(new Card(Suit.DIAMONDS, Rank.FOUR))
+            column.add(tops[i])
+            column.setInvisibleCards(1)
+        }
+        gameState.rehashZobrist()
+        return gameState
+    }
+
+    /**
+     * Creates a stuck game in which only the nine of spades can move, back and forth between the tens of columns A and
+     * B. The stock shows the queen of clubs, with one other card left in the waste.
+     */
+    private static GameState createOscillatingGame(Card wasteCard) {
+        def gameState = createStuckGame()
+        gameState.columns["A"].set(1, new Card(Suit.HEARTS, Rank.TEN))
+        gameState.columns["A"].add(new Card(Suit.SPADES, Rank.NINE))
+        gameState.columns["B"].set(1, new Card(Suit.DIAMONDS, Rank.TEN))
+        gameState.stock.add(new Card(Suit.CLUBS, Rank.QUEEN))
+        gameState.waste.add(wasteCard)
+        gameState.rehashZobrist()
+        return gameState
+    }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package nl.quintor.solitaire.game
+
+import nl.quintor.solitaire.TestUtil
+import nl.quintor.solitaire.game.moves.CycleStock
+import nl.quintor.solitaire.game.moves.MoveCard
+import nl.quintor.solitaire.game.moves.MoveCode
+import nl.quintor.solitaire.game.moves.ex.MoveException
+import nl.quintor.solitaire.models.state.GameState
+import spock.lang.Specification
+
+class MoveGeneratorSpec extends Specification {
+
+    def "Move codes hold the source, card index and destination" () {
+        when:
+            def code = MoveCode.of(GameState.FIRST_COLUMN_PILE + 2, 17, GameState.FIRST_STACK_PILE + 1)
+        then:
+            MoveCode.source(code) == GameState.FIRST_COLUMN_PILE + 2
+            MoveCode.index(code) == 17
+            MoveCode.destination(code) == GameState.FIRST_STACK_PILE + 1
+            !MoveCode.isCycleStock(code)
+            MoveCode.toPlayerInput(code) == "M C17 SB"
+            MoveCode.toPlayerInput(MoveCode.of(GameState.STOCK_PILE, 0, GameState.FIRST_COLUMN_PILE)) == "M O A"
+            MoveCode.toPlayerInput(MoveCode.CYCLE_STOCK) == "C"
+    }
+
+    def "During random play the generated moves are exactly the moves the exception-throwing checks allow" () {
+        given:
+            def random = new Random(7)
+            def gameState = GameStateController.init(random)
+            def buffer = new int[MoveCode.MAX_MOVES]
+        expect:
+            200.times {
+                def count = MoveGenerator.generate(gameState, buffer)
+                def generated = (0..<count).collect { MoveCode.toPlayerInput(buffer[it]) }
+                assert generated as Set == checkedMoves(gameState) as Set
+                assert generated.size() == count
+                def cardMoves = generated.findAll { it != "C" }
+                if (cardMoves.isEmpty() || random.nextInt(3) == 0) new CycleStock().apply(gameState)
+                else new MoveCard(cardMoves[random.nextInt(cardMoves.size())]).apply(gameState)
+            }
+    }
+
+    def "Moves are ordered from most to least promising, with cycling the stock last" () {
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+            def buffer = new int[MoveCode.MAX_MOVES]
+        when:
+            def count = MoveGenerator.generate(gameState, buffer)
+            def moves = (0..<count).collect { MoveCode.toPlayerInput(buffer[it]) }
+        then:
+            moves == ["M C2 SA", "M D3 SB", "M D3 SC", "M D3 SD", "M B1 A", "M F5 E", "M O F", "C"]
+    }
+
+    def "Cycling the stock is not listed when stock and waste are empty" () {
+        given:
+            def gameState = TestUtil.createGameWithEmptyStockAndWaste()
+            def buffer = new int[MoveCode.MAX_MOVES]
+        when:
+            def count = MoveGenerator.generate(gameState, buffer)
+        then:
+            !(0..<count).any { MoveCode.isCycleStock(buffer[it]) }
+    }
+
+    /**
+     * Lists the moves that pass the exception-throwing checks, leaving out the moves the generator skips on purpose:
+     * moves between stack piles and moving a whole column to an empty column.
+     */
+    private static List<String> checkedMoves(GameState gameState) {
+        def moves = []
+        for (int source = 0; source < GameState.PILE_COUNT; source++) {
+            if (source == GameState.WASTE_PILE) continue
+            def sourceDeck = gameState.getPile(source)
+            for (int index = 0; index < sourceDeck.size(); index++) {
+                if (source < GameState.FIRST_COLUMN_PILE && index != sourceDeck.size() - 1) continue
+                for (int destination = GameState.FIRST_STACK_PILE; destination < GameState.PILE_COUNT; destination++) {
+                    def destinationDeck = gameState.getPile(destination)
+                    if (source >= GameState.FIRST_STACK_PILE && source < GameState.FIRST_COLUMN_PILE && destination < GameState.FIRST_COLUMN_PILE) continue
+                    if (source >= GameState.FIRST_COLUMN_PILE && index == 0 && destinationDeck.isEmpty() && destination >= GameState.FIRST_COLUMN_PILE) continue
+                    try {
+                        CardMoveChecks.deckLevelChecks(sourceDeck, index, destinationDeck)
+                        CardMoveChecks.cardLevelChecks(destinationDeck, sourceDeck.get(index))
+                        assert CardMoveChecks.isLegalMove(sourceDeck, index, destinationDeck)
+                        moves << MoveCode.toPlayerInput(MoveCode.of(source, index, destination))
+                    } catch (MoveException ignored) {
+                        assert !CardMoveChecks.isLegalMove(sourceDeck, index, destinationDeck)
+                    }
+                }
+            }
+        }
+        if (!gameState.stock.isEmpty() || !gameState.waste.isEmpty()) moves << "C"
+        return moves
+    }
+}
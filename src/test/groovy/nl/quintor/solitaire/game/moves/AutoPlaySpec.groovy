@@ -0,0 +1,109 @@
+package nl.quintor.solitaire.game.moves
+
+import nl.quintor.solitaire.game.GameStateController
+import nl.quintor.solitaire.models.card.Card
+import nl.quintor.solitaire.models.card.Rank
+import nl.quintor.solitaire.models.card.Suit
+import nl.quintor.solitaire.models.state.GameState
+import spock.lang.Specification
+
+class AutoPlaySpec extends Specification {
+
+    def "Safe cards are played to the stack piles, a card a column may still need is not" () {
+        given:
+            def gameState = layout([SA: [card("C", "A")], SB: [card("D", "A"), card("D", "2")],
+                                    A: [card("C", "2")], B: [card("D", "3")], C: [card("S", "A")]])
+        when:
+            def result = new AutoPlay().apply(gameState)
+        then:
+            result == 'Auto-played 2 card(s) to the stack piles'
+            with(gameState){
+                stackPiles["SA"].size() == 2
+                stackPiles["SC"] == [card("S", "A")]
+                columns["B"] == [card("D", "3")]
+                moves.size() == 2
+            }
+    }
+
+    def "A played card can make the next card safe" () {
+        given:
+            def gameState = layout([SA: [card("C", "A")], SB: [card("D", "A"), card("D", "2")],
+                                    A: [card("C", "2")], B: [card("D", "3")], C: [card("S", "A")], D: [card("S", "2")]])
+        when:
+            def result = new AutoPlay().apply(gameState)
+        then:
+            result == 'Auto-played 4 card(s) to the stack piles'
+            gameState.columns.values().every { it.isEmpty() }
+    }
+
+    def "Nothing is played if no card is safe" () {
+        given:
+            def gameState = layout([SA: [card("C", "A")], A: [card("D", "3")]])
+        expect:
+            new AutoPlay().apply(gameState) == ''
+            gameState.moves.isEmpty()
+    }
+
+    def "With the stock empty and all cards face up the game is finished in one go" () {
+        given:
+            def stacks = [SA: ranks("C", 10), SB: ranks("D", 11), SC: ranks("H", 12), SD: ranks("S", 9)]
+            def gameState = layout(stacks + [A: [card("S", "K"), card("D", "Q"), card("C", "J")],
+                                             B: [card("D", "K"), card("S", "Q")], C: [card("H", "K"), card("C", "Q")],
+                                             D: [card("C", "K")], E: [card("S", "J")], F: [card("S", "10")]], [])
+        when:
+            def result = new AutoPlay().apply(gameState)
+        then:
+            result == 'Finished the game: auto-played 10 card(s) to the stack piles'
+            gameState.stackPiles.values().every { it.size() == 13 }
+            GameStateController.hasWinningLayout(gameState)
+    }
+
+    def "Revert undoes the auto-play in one go, and then the move of the player; redo plays both again" () {
+        given:
+            def gameState = layout([SA: [card("C", "A")], SB: [card("D", "A"), card("D", "2")],
+                                    A: [card("C", "2"), card("H", "3")], B: [card("D", "3")], C: [card("S", "A")],
+                                    E: [card("S", "4")]])
+            gameState.recordVariations()
+            new MoveCard("M A1 E").apply(gameState)
+            new AutoPlay().apply(gameState)
+            assert gameState.moves.size() == 3
+        when:
+            def reverted = new Revert().apply(gameState)
+        then:
+            reverted == 'Reverted auto-play of 2 card(s)'
+            gameState.moves.size() == 1
+            gameState.columns["A"] == [card("C", "2")]
+            gameState.columns["C"] == [card("S", "A")]
+        when:
+            new Revert().apply(gameState)
+            new Redo().apply(gameState)
+            def redone = new Redo().apply(gameState)
+        then:
+            redone == 'Redo: Auto-played 2 card(s) to the stack piles'
+            gameState.moves.size() == 3
+            gameState.columns["A"].isEmpty()
+            gameState.variations.size() == 4
+    }
+
+    private static Card card(String suit, String rank) {
+        return Card.of(Suit.values().find { it.name().startsWith(suit) }, Rank.values().find { it.symbol == rank })
+    }
+
+    private static List<Card> ranks(String suit, int count) {
+        return ["A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"].take(count).collect { card(suit, it) }
+    }
+
+    private static GameState layout(Map<String, List<Card>> piles, List<Card> stock = [card("H", "K")]) {
+        def gameState = GameStateController.init(1L)
+        gameState.waste.clear()
+        gameState.stock.clear()
+        gameState.stock.addAll(stock)
+        (gameState.stackPiles + gameState.columns).each { header, deck ->
+            deck.clear()
+            deck.setInvisibleCards(0)
+            deck.addAll(piles.getOrDefault(header, []))
+        }
+        gameState.rehashZobrist()
+        return gameState
+    }
+}
@@ -0,0 +1,28 @@
+package nl.quintor.solitaire.game.moves
+
+import nl.quintor.solitaire.game.GameStateController
+import nl.quintor.solitaire.solver.HintEngine
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import java.time.Duration
+
+class HintMoveSpec extends Specification {
+    @AutoCleanup
+    HintEngine engine = new HintEngine(Duration.ofMillis(50), 16)
+
+    def "Hint move should suggest a move without changing the game" () {
+        given:
+            def gameState = GameStateController.init(5L)
+        when:
+            def message = new Hint(engine).createInstance("I").apply(gameState)
+        then:
+            message.startsWith("Hint: ")
+            gameState.moves.isEmpty()
+    }
+
+    def "Hint move toString should return 'Hi̲nt'" () {
+        expect:
+            new Hint(engine).toString() == "Hi̲nt"
+    }
+}
@@ -0,0 +1,52 @@
+package nl.quintor.solitaire.game.moves
+
+import nl.quintor.solitaire.TestUtil
+import nl.quintor.solitaire.game.moves.ex.MoveException
+import spock.lang.Specification
+
+class JumpMoveSpec extends Specification {
+
+    def "Jumping to another variation only replays the moves after the branch point" () {
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+            gameState.recordVariations()
+            new MoveCard().createInstance("M O F").apply(gameState)
+            new MoveCard().createInstance("M B1 A").apply(gameState)
+            def target = gameState.variations.current
+            def hash = gameState.zobristHash
+            def score = gameState.baseScore
+            new Revert().createInstance("R").apply(gameState)
+            new CycleStock().createInstance("C").apply(gameState)
+        when:
+            def result = new Jump().createInstance("J " + target).apply(gameState)
+        then:
+            result == "Jumped to node " + target + ": reverted 1 and played 1 move(s)"
+            gameState.zobristHash == hash
+            gameState.baseScore == score
+            gameState.moves.size() == 2
+            gameState.variations.current == target
+    }
+
+    def "Jump without a node lists the variations" () {
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+            gameState.recordVariations()
+            new MoveCard().createInstance("M O F").apply(gameState)
+            new Revert().createInstance("R").apply(gameState)
+            new CycleStock().createInstance("C").apply(gameState)
+        expect:
+            new Jump().createInstance("J").apply(gameState) ==
+                'Variations: 1 (1 moves, last M O F), 2 (current, 1 moves, last C); jump with J <node>, J 0 for the deal'
+    }
+
+    def "Jump move should throw MoveException on an unknown node" () {
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+            gameState.recordVariations()
+        when:
+            new Jump().createInstance("J 5").apply(gameState)
+        then:
+            def exception = thrown(MoveException)
+            exception.message == 'Node 5 does not exist'
+    }
+}
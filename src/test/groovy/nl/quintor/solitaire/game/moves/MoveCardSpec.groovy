@@ -1,9 +1,11 @@
 package nl.quintor.solitaire.game.moves
 
 import nl.quintor.solitaire.TestUtil
+import nl.quintor.solitaire.game.moves.ex.MoveException
 import nl.quintor.solitaire.models.card.Card
 import nl.quintor.solitaire.models.card.Rank
 import nl.quintor.solitaire.models.card.Suit
+import nl.quintor.solitaire.models.state.GameState
 import spock.lang.Shared
 import spock.lang.Specification
 import spock.lang.Unroll
@@ -47,4 +49,23 @@ class MoveCardSpec extends Specification {
             "M C2 SA"|"Moved [♧ 2] from C2 to SA"|"legal move from column to stack"
     }
 
+    @Unroll
+    def "A move code naming pile #source or #destination is rejected as an unknown pile" (){
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+            gameState.rehashZobrist()
+            def hash = gameState.zobristHash
+        when:
+            new MoveCard(MoveCode.of(source, 0, destination)).apply(gameState)
+        then:
+            def e = thrown(MoveException)
+            e.message == "Unknown pile"
+            gameState.zobristHash == hash
+            gameState.moves.isEmpty()
+        where:
+            source                       | destination
+            GameState.PILE_COUNT         | GameState.FIRST_COLUMN_PILE
+            GameState.FIRST_COLUMN_PILE  | 15
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package nl.quintor.solitaire.game.moves
+
+import nl.quintor.solitaire.TestUtil
+import nl.quintor.solitaire.game.moves.ex.MoveException
+import nl.quintor.solitaire.models.state.GameState
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class MoveCodeSpec extends Specification {
+
+    @Unroll
+    def "Player input #input is parsed to source #source, index #index and destination #destination" () {
+        when:
+            def code = MoveCode.parse(input)
+        then:
+            MoveCode.source(code) == source
+            MoveCode.index(code) == index
+            MoveCode.destination(code) == destination
+        where:
+            input            || source                          | index | destination
+            "M O SA"         || GameState.STOCK_PILE            | 0     | GameState.FIRST_STACK_PILE
+            "m a3 sd"        || GameState.FIRST_COLUMN_PILE     | 3     | GameState.FIRST_STACK_PILE + 3
+            "  M\tG12   B  " || GameState.FIRST_COLUMN_PILE + 6 | 12    | GameState.FIRST_COLUMN_PILE + 1
+            "M SC O"         || GameState.FIRST_STACK_PILE + 2  | 0     | GameState.STOCK_PILE
+    }
+
+    @Unroll
+    def "Player input #input is not a card move" () {
+        expect:
+            MoveCode.parse(input) == MoveCode.INVALID
+        where:
+            input << [null, "", "M", "M O", "M O SA X", "C", "X O SA", "MM O SA", "M Z A", "M O X", "M A A", "M O A1",
+                      "M SE A", "M S A", "M A123 B", "M A1X B", "M A99 B"]
+    }
+
+    def "Parsed player input and generated codes give the same player input" () {
+        expect:
+            MoveCode.toPlayerInput(MoveCode.parse("m  b1 a")) == "M B1 A"
+            MoveCode.parse(MoveCode.toPlayerInput(MoveCode.of(GameState.FIRST_COLUMN_PILE + 4, 17, GameState.FIRST_STACK_PILE))) ==
+                MoveCode.of(GameState.FIRST_COLUMN_PILE + 4, 17, GameState.FIRST_STACK_PILE)
+    }
+
+    def "A card move created from a move code is applied without player input" () {
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+            def move = new MoveCard(MoveCode.of(GameState.FIRST_COLUMN_PILE + 1, 1, GameState.FIRST_COLUMN_PILE))
+        when:
+            def result = move.apply(gameState)
+        then:
+            result == "Moved [♧ Q] from B1 to A"
+            move.playerInput == "M B1 A"
+            gameState.columns["A"].size() == 2
+    }
+
+    def "A row number that is too large to encode is reported as a missing card" () {
+        when:
+            new MoveCard("M A45 B").apply(TestUtil.createFixedNewGame())
+        then:
+            def ex = thrown(MoveException)
+            ex.message == "Column A has no card 45"
+    }
+}
@@ -0,0 +1,56 @@
+package nl.quintor.solitaire.game.moves
+
+import nl.quintor.solitaire.TestUtil
+import nl.quintor.solitaire.game.moves.ex.MoveException
+import nl.quintor.solitaire.models.card.Card
+import nl.quintor.solitaire.models.card.Rank
+import nl.quintor.solitaire.models.card.Suit
+import spock.lang.Specification
+
+class RedoMoveSpec extends Specification {
+
+    def "Redo move should throw MoveException when no moves have been reverted" () {
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+            gameState.recordVariations()
+        when:
+            new Redo().createInstance("D").apply(gameState)
+        then:
+            def exception = thrown(MoveException)
+            exception.message == 'Cannot redo; no moves have been reverted.'
+    }
+
+    def "Given two reverted moves both can be redone in order" () {
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+            gameState.recordVariations()
+            new MoveCard().createInstance("M O F").apply(gameState)
+            new MoveCard().createInstance("M B1 A").apply(gameState)
+            2.times { new Revert().createInstance("R").apply(gameState) }
+        when:
+            def first = new Redo().createInstance("D").apply(gameState)
+            new Redo().createInstance("D").apply(gameState)
+        then:
+            first == 'Redo: Moved [♧ 8] from O to F'
+            with(gameState){
+                moves.size() == 2
+                columns["F"].get(6) == new Card(Suit.CLUBS, Rank.EIGHT)
+                columns["A"].get(1) == new Card(Suit.CLUBS, Rank.QUEEN)
+                variations.size() == 3
+            }
+    }
+
+    def "Playing a new move after a revert redoes the new move" () {
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+            gameState.recordVariations()
+            new MoveCard().createInstance("M O F").apply(gameState)
+            new Revert().createInstance("R").apply(gameState)
+            new CycleStock().createInstance("C").apply(gameState)
+            new Revert().createInstance("R").apply(gameState)
+        when:
+            def result = new Redo().createInstance("D").apply(gameState)
+        then:
+            result.startsWith('Redo: Stock card')
+    }
+}
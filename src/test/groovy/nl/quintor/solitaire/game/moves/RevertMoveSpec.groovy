@@ -91,4 +91,37 @@ class RevertMoveSpec extends Specification {
             }
     }
 
-}
\ No newline at end of file
+    def "Reverting every move from the journal restores the score and the layout" () {
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+            def layout = gameState.columns.collectEntries { key, value -> [key, value.toList()] }
+            new MoveCard().createInstance("M O F").apply(gameState)
+            new MoveCard().createInstance("M B1 A").apply(gameState)
+            new CycleStock().createInstance("C").apply(gameState)
+            assert gameState.baseScore == -90
+        when:
+            3.times { new Revert().createInstance("R").apply(gameState) }
+        then:
+            with(gameState){
+                moves.isEmpty()
+                baseScore == 0
+                columns.collectEntries { key, value -> [key, value.toList()] } == layout
+                stock[0] == new Card(Suit.CLUBS, Rank.EIGHT)
+            }
+    }
+
+    def "Given a limited undo depth only the most recent moves can be reverted" () {
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+            gameState.undoDepth = 1
+            new MoveCard().createInstance("M O F").apply(gameState)
+            new MoveCard().createInstance("M B1 A").apply(gameState)
+        when:
+            new Revert().createInstance("R").apply(gameState)
+            new Revert().createInstance("R").apply(gameState)
+        then:
+            def exception = thrown(MoveException)
+            exception.message == 'Cannot revert; no moves have been played.'
+            gameState.columns["F"].get(6) == new Card(Suit.CLUBS, Rank.EIGHT)
+    }
+}
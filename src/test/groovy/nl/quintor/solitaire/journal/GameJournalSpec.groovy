@@ -0,0 +1,140 @@
+package nl.quintor.solitaire.journal
+
+import nl.quintor.solitaire.TestUtil
+import nl.quintor.solitaire.game.GameStateController
+import nl.quintor.solitaire.game.moves.AutoPlay
+import nl.quintor.solitaire.game.moves.CycleStock
+import nl.quintor.solitaire.game.moves.Jump
+import nl.quintor.solitaire.game.moves.Revert
+import nl.quintor.solitaire.models.state.GameState
+import nl.quintor.solitaire.models.state.PackedGameState
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+class GameJournalSpec extends Specification {
+    Path file
+
+    def setup() {
+        file = Files.createTempFile("game", ".journal")
+    }
+
+    def cleanup() {
+        Files.deleteIfExists(file)
+    }
+
+    def "A recovered game has the layout, score, moves and variations of the journaled game" () {
+        given:
+            def gameState = GameStateController.init(42L)
+            gameState.recordVariations()
+            def journal = GameJournalWriter.create(file, gameState, 0)
+            TestUtil.play(gameState, 30)
+            3.times { new Revert().apply(gameState) }
+            TestUtil.play(gameState, 10)
+            new Jump("J " + gameState.variations.leaves[0]).apply(gameState)
+            journal.commit()
+        when:
+            def recovered = GameJournal.recover(file)
+        then:
+            recovered.dealNumber == 42L
+            recovered.startTime.withNano(0) == gameState.startTime.withNano(0)
+            PackedGameState.pack(recovered) == PackedGameState.pack(gameState)
+            recovered.zobristHash == gameState.zobristHash
+            recovered.score == gameState.score
+            recovered.stockCycles == gameState.stockCycles
+            TestUtil.entries(recovered) == TestUtil.entries(gameState)
+            recovered.moveJournal.movesPlayed == gameState.moveJournal.movesPlayed
+            recovered.variations.size() == gameState.variations.size()
+            recovered.variations.current == gameState.variations.current
+        cleanup:
+            journal.close()
+    }
+
+    def "Recovery ignores a record that was cut off" () {
+        given:
+            def gameState = GameStateController.init(7L)
+            GameJournalWriter.create(file, gameState, 0).withCloseable { TestUtil.play(gameState, 5); it.commit() }
+            Files.write(file, [1] as byte[], StandardOpenOption.APPEND)
+        when:
+            def recovered = GameJournal.recover(file)
+        then:
+            recovered.variations == null
+            PackedGameState.pack(recovered) == PackedGameState.pack(gameState)
+    }
+
+    def "A recovered game continues its journal" () {
+        given:
+            def gameState = GameStateController.init(9L)
+            GameJournalWriter.create(file, gameState, 0).withCloseable { TestUtil.play(gameState, 5) }
+            Files.write(file, [1] as byte[], StandardOpenOption.APPEND)
+            def recovered = GameJournal.recover(file)
+        when:
+            GameJournalWriter.append(file, recovered, 0).withCloseable { TestUtil.play(recovered, 5) }
+        then:
+            (Files.size(file) - GameJournal.HEADER_BYTES) % GameJournal.RECORD_BYTES == 0
+            PackedGameState.pack(GameJournal.recover(file)) == PackedGameState.pack(recovered)
+            TestUtil.entries(GameJournal.recover(file)) == TestUtil.entries(recovered)
+    }
+
+    def "Closing the writer stops listening to the game" () {
+        given:
+            def gameState = GameStateController.init(3L)
+            GameJournalWriter.create(file, gameState, 1000).close()
+        when:
+            TestUtil.play(gameState, 3)
+        then:
+            Files.size(file) == GameJournal.HEADER_BYTES
+    }
+
+    def "A recovered auto-play is still reverted as a whole" () {
+        given:
+            def gameState = GameStateController.init(42L)
+            GameJournalWriter.create(file, gameState, 0).withCloseable {
+                def autoPlayed = ''
+                for (int i = 0; i < 100 && !autoPlayed; i++) {
+                    new CycleStock().apply(gameState)
+                    autoPlayed = new AutoPlay().apply(gameState)
+                }
+                assert autoPlayed
+            }
+            def recovered = GameJournal.recover(file)
+        when:
+            new Revert().apply(gameState)
+            new Revert().apply(recovered)
+        then:
+            PackedGameState.pack(recovered) == PackedGameState.pack(gameState)
+            TestUtil.entries(recovered) == TestUtil.entries(gameState)
+    }
+
+    def "Only numbered deals can be journaled" () {
+        when:
+            GameJournalWriter.create(file, GameStateController.init(new Random(1)), 0)
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    def "Recovering a file that is not a journal, or holds an impossible move, should throw" () {
+        given:
+            Files.write(file, content as byte[])
+        when:
+            GameJournal.recover(file)
+        then:
+            thrown(IOException)
+        where:
+            content << [
+                [0] * 40,
+                header(GameJournal.MAGIC, 2),
+                header(GameJournal.MAGIC, GameJournal.VERSION) + [0x80, 0x00], // a revert without moves
+                header(GameJournal.MAGIC, GameJournal.VERSION) + [0x00, 0x70] // a move to the waste
+            ]
+    }
+
+    private static List<Integer> header(int magic, int version) {
+        def buffer = ByteBuffer.allocate(GameJournal.HEADER_BYTES)
+        buffer.putInt(magic).putInt(version).putInt(0).putInt(0).putLong(1).putLong(0)
+        return buffer.array().toList().collect { it as int }
+    }
+}
@@ -0,0 +1,95 @@
+package nl.quintor.solitaire.metrics
+
+import nl.quintor.solitaire.game.moves.CycleStock
+import nl.quintor.solitaire.game.moves.Help
+import nl.quintor.solitaire.metrics.GameMetrics.Phase
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import javax.management.ObjectName
+import java.lang.management.ManagementFactory
+import java.nio.file.Files
+import java.time.Duration
+
+class GameMetricsSpec extends Specification {
+    @AutoCleanup
+    GameMetrics metrics = new GameMetrics()
+
+    def "Disabled metrics do not read the clock and record nothing" () {
+        given:
+            def disabled = GameMetrics.DISABLED
+        when:
+            def start = disabled.start()
+            disabled.record(Phase.RENDER, start)
+            disabled.recordMove(new Help(), start)
+            disabled.registerMBeans()
+        then:
+            start == 0
+            disabled.getPhase(Phase.RENDER) == null
+            disabled.moves.isEmpty()
+            disabled.report().isEmpty()
+    }
+
+    def "Phases and moves are recorded separately, moves by their implementation" () {
+        when:
+            2.times { metrics.recordMove(new CycleStock(), metrics.start()) }
+            metrics.recordMove(new Help(), metrics.start())
+            metrics.record(Phase.DETECT_WIN, metrics.start())
+        then:
+            metrics.moves.keySet().toList() == ["CycleStock", "Help"]
+            metrics.moves["CycleStock"].count == 2
+            metrics.moves["Help"].count == 1
+            metrics.getPhase(Phase.DETECT_WIN).count == 1
+            metrics.getPhase(Phase.RENDER).count == 0
+            metrics.report().readLines().size() == 3
+    }
+
+    def "Latency statistics summarize their samples" () {
+        given:
+            def stats = new LatencyStats()
+        when:
+            (1..1000).each { stats.record(it * 1000) }
+        then:
+            stats.count == 1000
+            stats.totalNanos == 500_500_000
+            stats.meanNanos == 500_500
+            stats.maxNanos == 1_000_000
+            Math.abs(stats.p50Nanos - 500_000) <= 500_000 / LatencyHistogram.SUB_BUCKETS
+            Math.abs(stats.p99Nanos - 990_000) <= 990_000 / LatencyHistogram.SUB_BUCKETS
+            stats.p999Nanos >= stats.p99Nanos
+    }
+
+    def "The statistics are published as MBeans until the metrics are closed, moves when first applied" () {
+        given:
+            def server = ManagementFactory.platformMBeanServer
+            def phase = new ObjectName(GameMetrics.DOMAIN + ":type=Phase,name=DETECT_WIN")
+            def move = new ObjectName(GameMetrics.DOMAIN + ":type=Move,name=Help")
+        when:
+            metrics.registerMBeans()
+            metrics.record(Phase.DETECT_WIN, metrics.start())
+            metrics.recordMove(new Help(), metrics.start())
+        then:
+            server.getAttribute(phase, "Count") == 1L
+            server.getAttribute(move, "Count") == 1L
+        when:
+            metrics.close()
+        then:
+            !server.isRegistered(phase)
+            !server.isRegistered(move)
+    }
+
+    def "The dump appends reports to a file, and a final one when closed" () {
+        given:
+            def file = Files.createTempFile("metrics", ".log")
+        when:
+            metrics.startDump(file, Duration.ofHours(1))
+            metrics.recordMove(new Help(), metrics.start())
+            metrics.close()
+        then:
+            def lines = Files.readAllLines(file)
+            lines.count { it.startsWith("Metrics at ") } == 2
+            lines.last().startsWith("move Help: 1 samples")
+        cleanup:
+            Files.deleteIfExists(file)
+    }
+}
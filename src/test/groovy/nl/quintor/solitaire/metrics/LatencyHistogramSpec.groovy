@@ -0,0 +1,36 @@
+package nl.quintor.solitaire.metrics
+
+import spock.lang.Specification
+
+class LatencyHistogramSpec extends Specification {
+
+    def "Every value falls into a bucket whose highest value is at most 1/16 above it" () {
+        expect:
+            [0L, 1L, 15L, 16L, 17L, 31L, 32L, 1000L, 123456789L, Long.MAX_VALUE >> 1, Long.MAX_VALUE].every { value ->
+                def highest = LatencyHistogram.highestValue(LatencyHistogram.bucket(value))
+                highest >= value && highest - value <= value / LatencyHistogram.SUB_BUCKETS
+            }
+    }
+
+    def "Buckets are ordered like their values" () {
+        given:
+            def random = new Random(1)
+        expect:
+            1000.times {
+                def a = random.nextLong() >>> (1 + random.nextInt(63))
+                def b = random.nextLong() >>> (1 + random.nextInt(63))
+                assert a <= b ? LatencyHistogram.bucket(a) <= LatencyHistogram.bucket(b) : LatencyHistogram.bucket(a) >= LatencyHistogram.bucket(b)
+            }
+    }
+
+    def "The p99 of 99 fast and 1 slow latency is the fast one, the p100 the slow one" () {
+        given:
+            def histogram = new LatencyHistogram()
+            99.times { histogram.record(1_000) }
+            histogram.record(1_000_000)
+        expect:
+            Math.abs(LatencyHistogram.valueAtPercentile(histogram.counts, 99) - 1_000) <= 1_000 / 16
+            Math.abs(LatencyHistogram.valueAtPercentile(histogram.counts, 100) - 1_000_000) <= 1_000_000 / 16
+            LatencyHistogram.valueAtPercentile(new LatencyHistogram().counts, 99) == 0
+    }
+}
@@ -0,0 +1,67 @@
+package nl.quintor.solitaire.models.card
+
+import nl.quintor.solitaire.models.deck.Deck
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class CardSpec extends Specification {
+
+    def "Card.of returns the same canonical instance by ordinal, by suit and rank, and from the deck factories" () {
+        given:
+            def deck = Deck.createDefaultDeckWithJokers()
+        expect:
+            (0..53).every { ordinal ->
+                def card = Card.of(ordinal)
+                card.ordinal == ordinal &&
+                    Card.of(card.suit, card.rank).is(card) &&
+                    deck[ordinal].is(card) &&
+                    new Card(ordinal) == card && !new Card(ordinal).is(card)
+            }
+            Deck.createDefaultDeck().every { it.is(Card.of(it.ordinal)) }
+            Deck.createPiquetDeck().every { it.is(Card.of(it.ordinal)) }
+    }
+
+    def "The descriptions are computed once and shared by copies of a card" () {
+        given:
+            def card = Card.of(Suit.SPADES, Rank.KING)
+        expect:
+            card.toString() == "SPADES KING"
+            card.toString().is(card.toString())
+            card.toShortString().is(card.toShortString())
+            new Card(Suit.SPADES, Rank.KING).toString().is(card.toString())
+            new Card(card.ordinal).toShortString().is(card.toShortString())
+    }
+
+    def "Ordinals outside 0 to 53 are rejected" () {
+        when:
+            Card.of(ordinal)
+        then:
+            thrown(IllegalArgumentException)
+        where:
+            ordinal << [-1, 54]
+    }
+
+    @Unroll
+    def "A #suit #rank card is rejected, as only jokers combine the joker suit and a joker rank" () {
+        when:
+            new Card(suit, rank)
+        then:
+            thrown(IllegalArgumentException)
+        when:
+            Card.of(suit, rank)
+        then:
+            thrown(IllegalArgumentException)
+        where:
+            suit        | rank
+            Suit.JOKER  | Rank.ACE
+            Suit.HEARTS | Rank.JOKER_RED
+            Suit.CLUBS  | Rank.JOKER_BLACK
+    }
+
+    def "The jokers take ordinals 52 and 53" () {
+        expect:
+            Card.of(Suit.JOKER, Rank.JOKER_BLACK).ordinal == 52
+            Card.of(Suit.JOKER, Rank.JOKER_RED).ordinal == 53
+            new Card(Suit.JOKER, Rank.JOKER_RED) == Card.of(53)
+    }
+}
@@ -0,0 +1,96 @@
+package nl.quintor.solitaire.models.state
+
+import nl.quintor.solitaire.TestUtil
+import nl.quintor.solitaire.game.GameStateController
+import nl.quintor.solitaire.game.MoveGenerator
+import nl.quintor.solitaire.game.moves.MoveCard
+import nl.quintor.solitaire.game.moves.MoveCode
+import nl.quintor.solitaire.game.moves.ex.MoveException
+import spock.lang.Specification
+
+class ImmutableGameStateSpec extends Specification {
+
+    def "Converting a game to an ImmutableGameState and back restores the layout and the hash" () {
+        given:
+            def gameState = GameStateController.init(42)
+        when:
+            def position = ImmutableGameState.of(gameState)
+            def result = position.toGameState()
+        then:
+            position.zobristHash == gameState.zobristHash
+            PackedGameState.pack(result) == PackedGameState.pack(gameState)
+            result.zobristHash == gameState.zobristHash
+            position.getCards(GameState.FIRST_COLUMN_PILE + 6) == gameState.columns["G"]
+            position.getInvisibleCards(GameState.FIRST_COLUMN_PILE + 6) == 6
+            !position.hasWinningLayout()
+    }
+
+    def "During random play every move gives the same layout and hash as the mutable game, and lists the same moves" () {
+        given:
+            def random = new Random(11)
+            def gameState = GameStateController.init(random)
+            gameState.verifyZobristHash = true
+            def position = ImmutableGameState.of(gameState)
+            def buffer = new int[MoveCode.MAX_MOVES]
+        expect:
+            300.times {
+                def count = MoveGenerator.generate(gameState, buffer)
+                def generated = (0..<count).collect { buffer[it] } as Set
+                def listed = (0..<position.listMoves(buffer)).collect { buffer[it] } as Set
+                assert listed == generated
+                def code = generated[random.nextInt(generated.size())]
+                def parent = position
+                def parentLayout = PackedGameState.pack(parent.toGameState())
+                position = position.apply(code)
+                MoveCode.toMove(code).apply(gameState)
+                assert position.zobristHash == gameState.zobristHash
+                assert PackedGameState.pack(position.toGameState()) == PackedGameState.pack(gameState)
+                assert PackedGameState.pack(parent.toGameState()) == parentLayout
+            }
+    }
+
+    def "A move shares the untouched piles with its parent" () {
+        given:
+            def parent = ImmutableGameState.of(TestUtil.createFixedNewGame())
+        when: "the ace of spades goes from column D to stack pile SB"
+            def child = parent.apply(MoveCode.parse("M D3 SB"))
+        then:
+            def changed = [GameState.FIRST_COLUMN_PILE + 3, GameState.FIRST_STACK_PILE + 1]
+            (0..<GameState.PILE_COUNT).every { pile ->
+                changed.contains(pile) != child.@piles[pile].is(parent.@piles[pile])
+            }
+            child.getInvisibleCards(GameState.FIRST_COLUMN_PILE + 3) == 2
+            parent.getInvisibleCards(GameState.FIRST_COLUMN_PILE + 3) == 3
+    }
+
+    def "An illegal move is rejected with the message of the move object" () {
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+            def position = ImmutableGameState.of(gameState)
+        when:
+            position.apply(MoveCode.parse(input))
+        then:
+            def e = thrown(MoveException)
+            !position.isLegal(MoveCode.parse(input))
+        when:
+            new MoveCard(input).apply(gameState)
+        then:
+            def expected = thrown(MoveException)
+            expected.message == e.message
+        where:
+            input << ["M C2 SB", "M A0 B", "M D3 D", "M SA A", "M A9 B"]
+    }
+
+    def "Threads can branch the same position at the same time" () {
+        given:
+            def position = ImmutableGameState.of(GameStateController.init(7))
+            def buffer = new int[MoveCode.MAX_MOVES]
+            def moves = (0..<position.listMoves(buffer)).collect { buffer[it] }
+            def expected = moves.collect { position.apply(it) }
+        when:
+            def branches = moves.parallelStream().map { position.apply(it) }.collect()
+        then:
+            branches == expected
+            ImmutableGameState.of(GameStateController.init(7)) == position
+    }
+}
@@ -0,0 +1,52 @@
+package nl.quintor.solitaire.models.state
+
+import spock.lang.Specification
+
+class MoveJournalSpec extends Specification {
+
+    def "Entries are popped newest first" () {
+        given:
+            def journal = new MoveJournal()
+            (1..100).each { journal.push(it) }
+        expect:
+            journal.size() == 100
+            journal.get(0) == 1L
+            (100..1).every { journal.pop() == it }
+            journal.size() == 0
+    }
+
+    def "A full journal drops its oldest entries but keeps counting moves played" () {
+        given:
+            def journal = new MoveJournal(3)
+        when:
+            (1..5).each { journal.push(it) }
+        then:
+            journal.toString() == "[3, 4, 5]"
+            journal.movesPlayed == 5
+        when:
+            journal.pop()
+            journal.push(6)
+            journal.push(7)
+        then:
+            journal.toString() == "[4, 6, 7]"
+            journal.movesPlayed == 6
+    }
+
+    def "Lowering the maximum depth drops the oldest entries" () {
+        given:
+            def journal = new MoveJournal()
+            (1..70).each { journal.push(it) }
+        when:
+            journal.maxDepth = 2
+            journal.push(71)
+        then:
+            journal.toString() == "[70, 71]"
+    }
+
+    def "Popping an empty journal throws NoSuchElementException" () {
+        when:
+            new MoveJournal().pop()
+        then:
+            thrown(NoSuchElementException)
+    }
+}
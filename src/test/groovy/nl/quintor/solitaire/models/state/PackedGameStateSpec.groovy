@@ -0,0 +1,65 @@
+package nl.quintor.solitaire.models.state
+
+import nl.quintor.solitaire.TestUtil
+import nl.quintor.solitaire.game.GameStateController
+import nl.quintor.solitaire.models.card.Card
+import nl.quintor.solitaire.models.card.Rank
+import nl.quintor.solitaire.models.card.Suit
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+
+class PackedGameStateSpec extends Specification {
+
+    def "Packing and unpacking a new game restores all piles and invisible cards" () {
+        given:
+            def gameState = GameStateController.init()
+        when:
+            def result = PackedGameState.pack(gameState).unpack()
+        then:
+            result.stock == gameState.stock
+            result.waste == gameState.waste
+            result.stackPiles == gameState.stackPiles
+            result.columns == gameState.columns
+            GameState.COLUMN_HEADERS.every {
+                result.columns[it].invisibleCards == gameState.columns[it].invisibleCards
+            }
+    }
+
+    def "Packing and unpacking a game with cards on the stack piles restores the stack piles" () {
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+        when:
+            def result = PackedGameState.pack(gameState).unpack()
+        then:
+            result.stackPiles["SA"] == [new Card(Suit.CLUBS, Rank.ACE)]
+            result.columns["A"].last() == new Card(Suit.HEARTS, Rank.KING)
+            PackedGameState.pack(result) == PackedGameState.pack(gameState)
+    }
+
+    def "Equal layouts have equal packed forms, different layouts do not" () {
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+            def packed = PackedGameState.pack(gameState)
+            def copy = packed.unpack()
+        when:
+            gameState.columns["C"].invisibleCards = 1
+        then:
+            packed == PackedGameState.pack(copy)
+            packed.hashCode() == PackedGameState.pack(copy).hashCode()
+            packed != PackedGameState.pack(gameState)
+    }
+
+    def "The packed form survives a round trip through longs and bytes" () {
+        given:
+            def packed = PackedGameState.pack(GameStateController.init())
+            def buffer = ByteBuffer.allocate(PackedGameState.BYTES)
+        when:
+            packed.writeTo(buffer)
+            buffer.flip()
+        then:
+            PackedGameState.readFrom(buffer) == packed
+            PackedGameState.fromLongArray(packed.toLongArray()) == packed
+            PackedGameState.fromLongArray(packed.toLongArray()).hashCode() == packed.hashCode()
+    }
+}
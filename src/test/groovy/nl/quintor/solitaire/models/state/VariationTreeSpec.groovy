@@ -0,0 +1,51 @@
+package nl.quintor.solitaire.models.state
+
+import spock.lang.Specification
+
+class VariationTreeSpec extends Specification {
+
+    def "Advancing with a move that was played before reuses its node" () {
+        given:
+            def tree = new VariationTree()
+            def first = tree.advance(1)
+            tree.retreat()
+        when:
+            def again = tree.advance(1)
+        then:
+            again == first
+            tree.size() == 2
+    }
+
+    def "Variations share their common prefix" () {
+        given:
+            def tree = new VariationTree()
+            tree.advance(1)
+            def a = tree.advance(2)
+            tree.retreat()
+            def b = tree.advance(3)
+        expect:
+            tree.size() == 4
+            tree.getCommonAncestor(a, b) == tree.getParent(a)
+            tree.getPath(VariationTree.ROOT, a).collect { tree.getEntry(it) } == [1L, 2L]
+            tree.leaves as List == [a, b]
+    }
+
+    def "The redo child is the child that was visited last" () {
+        given:
+            def tree = new VariationTree()
+            tree.advance(1)
+            tree.retreat()
+            def second = tree.advance(2)
+            tree.retreat()
+        expect:
+            tree.getRedoChild(VariationTree.ROOT) == second
+            tree.getRedoChild(second) == VariationTree.NONE
+    }
+
+    def "The deal can not be retreated from" () {
+        when:
+            new VariationTree().retreat()
+        then:
+            thrown(IllegalStateException)
+    }
+}
@@ -0,0 +1,121 @@
+package nl.quintor.solitaire.models.state
+
+import nl.quintor.solitaire.TestUtil
+import nl.quintor.solitaire.game.GameStateController
+import nl.quintor.solitaire.game.MoveGenerator
+import nl.quintor.solitaire.game.moves.CycleStock
+import nl.quintor.solitaire.game.moves.MoveCard
+import nl.quintor.solitaire.game.moves.MoveCode
+import nl.quintor.solitaire.game.moves.Revert
+import nl.quintor.solitaire.game.moves.ex.MoveException
+import spock.lang.Specification
+
+class ZobristHashSpec extends Specification {
+    static final SOURCES = ["O"] + GameState.STACK_HEADERS + GameState.COLUMN_HEADERS.collectMany { column -> (0..18).collect { column + it } }
+    static final DESTINATIONS = GameState.STACK_HEADERS + GameState.COLUMN_HEADERS
+
+    def "A new game has a hash that matches a full recompute" () {
+        when:
+            def gameState = GameStateController.init()
+        then:
+            gameState.zobristHash != 0
+            gameState.zobristHash == gameState.computeZobristHash()
+    }
+
+    def "Cycling the stock updates the hash incrementally and reverting restores it" () {
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+            gameState.rehashZobrist()
+            gameState.verifyZobristHash = true
+            def initialHash = gameState.zobristHash
+        when:
+            (1..5).each { new CycleStock().apply(gameState) }
+        then:
+            gameState.zobristHash != initialHash
+        when:
+            (1..5).each { new Revert().apply(gameState) }
+        then:
+            gameState.zobristHash == initialHash
+    }
+
+    def "Random play keeps the hash in sync with a full recompute" () {
+        given:
+            def random = new Random(42)
+            def gameState = GameStateController.init()
+            gameState.verifyZobristHash = true
+            def initialHash = gameState.zobristHash
+        when: "legal moves are applied, verified against a full recompute after every move"
+            100.times {
+                def legal = legalMoves(gameState)
+                if (legal.isEmpty() || random.nextInt(4) == 0) new CycleStock().apply(gameState)
+                else new MoveCard(legal[random.nextInt(legal.size())]).apply(gameState)
+            }
+        and: "all moves are reverted"
+            while (!gameState.moves.isEmpty()) new Revert().apply(gameState)
+        then:
+            gameState.zobristHash == initialHash
+    }
+
+    def "The tableau hash after a card move is known before the move is made, and ignores the stock" () {
+        given:
+            def random = new Random(5)
+            def gameState = GameStateController.init(5)
+            gameState.verifyZobristHash = true
+            def buffer = new int[MoveCode.MAX_MOVES]
+        expect:
+            100.times {
+                def count = MoveGenerator.generate(gameState, buffer)
+                def code = buffer[random.nextInt(count)]
+                def expected = MoveCode.isCycleStock(code) || MoveCode.source(code) < GameState.FIRST_STACK_PILE ? null :
+                    gameState.getTableauHashAfter(MoveCode.source(code), MoveCode.index(code), MoveCode.destination(code))
+                def tableauHash = gameState.tableauHash
+                MoveCode.toMove(code).apply(gameState)
+                if (expected != null) assert gameState.tableauHash == expected
+                if (MoveCode.isCycleStock(code)) assert gameState.tableauHash == tableauHash
+            }
+    }
+
+    def "Verification mode detects a hash that is out of sync" () {
+        given:
+            def gameState = GameStateController.init()
+            gameState.verifyZobristHash = true
+            gameState.stock.clear()
+        when:
+            gameState.verifyZobristHash()
+        then:
+            thrown(IllegalStateException)
+    }
+
+    def "Moves keep count of the invisible column cards and the cards on the stack piles" () {
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+            gameState.rehashZobrist()
+            gameState.verifyZobristHash = true
+        expect:
+            gameState.faceDownCards == 21
+            gameState.foundationCards == 1
+        when: "the ace of spades goes to a stack pile and turns over the card under it"
+            new MoveCard("M D3 SB").apply(gameState)
+        then:
+            gameState.faceDownCards == 20
+            gameState.foundationCards == 2
+        when:
+            new Revert().apply(gameState)
+        then:
+            gameState.faceDownCards == 21
+            gameState.foundationCards == 1
+    }
+
+    private static List<String> legalMoves(GameState gameState) {
+        def packed = PackedGameState.pack(gameState)
+        [SOURCES, DESTINATIONS].combinations().collect { "M ${it[0]} ${it[1]}".toString() }.findAll { input ->
+            def probe = packed.unpack()
+            try {
+                new MoveCard(input).apply(probe)
+                return true
+            } catch (MoveException ignored) {
+                return false
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package nl.quintor.solitaire.server
+
+import nl.quintor.solitaire.ui.cli.SocketUI
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.nio.charset.StandardCharsets
+import java.time.Duration
+
+class GameServerSpec extends Specification {
+    @AutoCleanup
+    GameServer server = new GameServer(0, true)
+
+    def setup() {
+        server.start()
+    }
+
+    def "A session deals a game, answers every line with a frame and ends when the player quits" () {
+        given:
+            def socket = new Socket(InetAddress.loopbackAddress, server.port)
+            def reader = new BufferedReader(new InputStreamReader(socket.inputStream, StandardCharsets.UTF_8))
+        when:
+            def first = readFrame(reader)
+            socket.outputStream.write("C\n".getBytes(StandardCharsets.UTF_8))
+            def second = readFrame(reader)
+            socket.outputStream.write("Q\n".getBytes(StandardCharsets.UTF_8))
+            def last = readFrame(reader)
+        then:
+            first.any { it ==~ /Deal \d+/ }
+            first.last() == SocketUI.PROMPT
+            second.any { it.startsWith("Stock card ") }
+            last.contains("Game Over")
+            last.last() != SocketUI.PROMPT
+            reader.readLine() == null
+            new PollingConditions(timeout: 5).eventually {
+                assert server.metrics.totalSessions == 1
+                assert server.metrics.activeSessions == 0
+                assert server.metrics.moves == 2
+            }
+        cleanup:
+            socket.close()
+    }
+
+    def "The load generator plays whole games with legal moves only" () {
+        given:
+            def generator = new LoadGenerator(server.port, 4, true)
+        when:
+            generator.run(Duration.ofMillis(500))
+        then:
+            generator.games > 0
+            generator.moves > 0
+            new PollingConditions(timeout: 5).eventually {
+                assert server.metrics.totalSessions == generator.games
+                assert server.metrics.moves >= generator.moves
+            }
+    }
+
+    def "Games that are evicted between moves are restored transparently" () {
+        given:
+            def evicting = new GameServer(0, true, 1, Duration.ofMillis(50))
+            evicting.start()
+            def generator = new LoadGenerator(evicting.port, 4, true)
+        when:
+            generator.run(Duration.ofMillis(500))
+        then:
+            generator.games > 0
+            evicting.store.evictions > 0
+            evicting.store.restores > 0
+            new PollingConditions(timeout: 5).eventually {
+                assert evicting.metrics.activeSessions == 0
+                assert evicting.store.hotSessions == 0
+                assert evicting.store.evictedSessions == 0
+                assert evicting.store.offHeapBytes == 0
+            }
+        cleanup:
+            evicting.close()
+    }
+
+    private static List<String> readFrame(BufferedReader reader) {
+        def lines = []
+        for (def line = reader.readLine(); line != null; line = reader.readLine()) {
+            lines << line
+            if (line == SocketUI.PROMPT) break
+        }
+        return lines
+    }
+}
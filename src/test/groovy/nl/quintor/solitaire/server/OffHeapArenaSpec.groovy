@@ -0,0 +1,54 @@
+package nl.quintor.solitaire.server
+
+import spock.lang.Specification
+
+class OffHeapArenaSpec extends Specification {
+    OffHeapArena arena = new OffHeapArena()
+
+    def "Blocks are rounded up to a power of two and keep their bytes apart" () {
+        given:
+            def handles = lengths.collect { arena.allocate(it) }
+        when:
+            handles.eachWithIndex { handle, i -> arena.slice(handle, lengths[i]).put([i + 1] * lengths[i] as byte[]) }
+        then:
+            arena.allocatedBytes == allocated
+            handles.withIndex().every { handle, i ->
+                def bytes = new byte[lengths[i]]
+                arena.slice(handle, lengths[i]).get(bytes)
+                bytes.every { it == i + 1 }
+            }
+        where:
+            lengths              | allocated
+            [1, 64]              | 128
+            [65, 100, 200, 1000] | 128 + 128 + 256 + 1024
+    }
+
+    def "A freed block is reused by the next allocation of its size class" () {
+        given:
+            def handle = arena.allocate(300)
+        when:
+            arena.free(handle)
+        then:
+            arena.allocatedBytes == 0
+            arena.allocate(500) == handle
+            arena.allocate(500) != handle
+    }
+
+    def "The tail of a full chunk is reused for smaller blocks" () {
+        given:
+            int half = OffHeapArena.CHUNK_BYTES / 2
+            int quarter = OffHeapArena.CHUNK_BYTES / 4
+        when:
+            [half, quarter, half, quarter, half].each { arena.allocate(it) }
+        then:
+            arena.reservedBytes == 2 * OffHeapArena.CHUNK_BYTES
+            arena.allocatedBytes == 2 * OffHeapArena.CHUNK_BYTES
+    }
+
+    def "Blocks larger than a chunk cannot be allocated" () {
+        when:
+            arena.allocate(OffHeapArena.CHUNK_BYTES + 1)
+        then:
+            thrown(IllegalArgumentException)
+    }
+}
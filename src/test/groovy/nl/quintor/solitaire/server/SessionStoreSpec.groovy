@@ -0,0 +1,118 @@
+package nl.quintor.solitaire.server
+
+import nl.quintor.solitaire.TestUtil
+import nl.quintor.solitaire.game.GameStateController
+import nl.quintor.solitaire.game.moves.Jump
+import nl.quintor.solitaire.game.moves.Revert
+import nl.quintor.solitaire.models.state.GameState
+import nl.quintor.solitaire.models.state.PackedGameState
+import spock.lang.Specification
+
+class SessionStoreSpec extends Specification {
+
+    def "An evicted game is restored with its layout, score, moves and variations" () {
+        given:
+            def store = new SessionStore(0)
+            def id = store.add(newGame(42L))
+            def gameState = store.checkOut(id)
+            TestUtil.play(gameState, 30)
+            3.times { new Revert().apply(gameState) }
+            TestUtil.play(gameState, 10)
+            new Jump("J " + gameState.variations.leaves[0]).apply(gameState)
+            def packed = PackedGameState.pack(gameState)
+            def score = gameState.score
+            def moves = TestUtil.entries(gameState)
+            def variations = gameState.variations.size()
+        when:
+            store.checkIn(id)
+            def restored = store.checkOut(id)
+        then:
+            !restored.is(gameState)
+            PackedGameState.pack(restored) == packed
+            restored.score == score
+            TestUtil.entries(restored) == moves
+            restored.variations.size() == variations
+            store.evictions == 2
+            store.restores == 2
+    }
+
+    def "A restored game keeps recording its moves" () {
+        given:
+            def store = new SessionStore(0)
+            def id = store.add(newGame(9L))
+            TestUtil.play(store.checkOut(id), 5)
+            store.checkIn(id)
+            def gameState = store.checkOut(id)
+            TestUtil.play(gameState, 5)
+            new Revert().apply(gameState)
+            def packed = PackedGameState.pack(gameState)
+        when:
+            store.checkIn(id)
+        then:
+            PackedGameState.pack(store.checkOut(id)) == packed
+    }
+
+    def "Only the least recently used games beyond the hot sessions are evicted" () {
+        given:
+            def store = new SessionStore(2)
+            def ids = (1..4).collect { store.add(newGame(it)) }
+        when:
+            def first = store.checkOut(ids[0])
+            store.checkIn(ids[0])
+        then:
+            store.hotSessions == 2
+            store.evictedSessions == 2
+            store.offHeapBytes > 0
+            store.checkOut(ids[0]).is(first)
+            store.restores == 1
+    }
+
+    def "Idle games are evicted, active games stay on the heap" () {
+        given:
+            def store = new SessionStore(10)
+            def idle = store.add(newGame(1L))
+            Thread.sleep(200)
+            def active = store.add(newGame(2L))
+        when:
+            store.evictIdle(100_000_000)
+        then:
+            store.hotSessions == 1
+            store.evictedSessions == 1
+        when:
+            store.checkOut(idle)
+            store.checkIn(idle)
+        then:
+            store.hotSessions == 2
+            store.evictedSessions == 0
+    }
+
+    def "Removing a session frees its game" () {
+        given:
+            def store = new SessionStore(0)
+            def id = store.add(newGame(5L))
+        when:
+            store.remove(id)
+            store.checkOut(id)
+        then:
+            store.evictedSessions == 0
+            store.offHeapBytes == 0
+            thrown(NoSuchElementException)
+    }
+
+    def "A game cannot be checked out twice" () {
+        given:
+            def store = new SessionStore(1)
+            def id = store.add(newGame(5L))
+            store.checkOut(id)
+        when:
+            store.checkOut(id)
+        then:
+            thrown(IllegalStateException)
+    }
+
+    private static GameState newGame(long dealNumber) {
+        def gameState = GameStateController.init(dealNumber)
+        gameState.recordVariations()
+        return gameState
+    }
+}
@@ -0,0 +1,96 @@
+package nl.quintor.solitaire.simulation
+
+import nl.quintor.solitaire.game.GameStateController
+import nl.quintor.solitaire.game.moves.Quit
+import nl.quintor.solitaire.models.state.GameState
+import spock.lang.Specification
+
+class SimulatorSpec extends Specification {
+
+    def "The same seed gives the same statistics on any number of threads" () {
+        when:
+            def single = new Simulator(new GreedyStrategy(), 1).run(12, 7)
+            def parallel = new Simulator(new GreedyStrategy(), 4).run(12, 7)
+        then:
+            single.games == 12
+            parallel.games == 12
+            single.toString() == parallel.toString()
+            single.scoreDistribution.values().sum() == 12
+    }
+
+    def "A simulated game is played until it is over" () {
+        given:
+            def gameState = Simulator.deal(3, 0)
+        when:
+            def moves = Simulator.play(gameState, new GreedyStrategy())
+        then:
+            gameState.gameOver
+            moves > 0
+            moves <= Simulator.MAX_MOVES
+            gameState.gameWon == GameStateController.hasWinningLayout(gameState)
+    }
+
+    def "A simulated game with auto-play lets the strategy play the other cards" () {
+        given:
+            def gameState = Simulator.deal(3, 0)
+        when:
+            def moves = Simulator.play(gameState, new GreedyStrategy(), true)
+        then:
+            gameState.gameOver
+            moves > 0
+            gameState.moveJournal.size() > moves
+    }
+
+    def "The random strategy plays a game the same way every time" () {
+        when:
+            def first = new Simulator(new RandomStrategy(), 1).run(6, 11)
+            def second = new Simulator(new RandomStrategy(), 3).run(6, 11)
+        then:
+            first.games == 6
+            first.toString() == second.toString()
+    }
+
+    def "The simulate command picks the strategy by name and rejects unknown names" () {
+        expect:
+            SimulateCommand.strategy("GREEDY") instanceof GreedyStrategy
+            SimulateCommand.strategy("random") instanceof RandomStrategy
+        when:
+            SimulateCommand.strategy("clever")
+        then:
+            def e = thrown(IllegalArgumentException)
+            e.message == "Unknown strategy clever, choose one of greedy, random"
+    }
+
+    def "The greedy strategy gives up when no move leads to a new layout" () {
+        given:
+            def gameState = GameStateController.init(new Random(1))
+            gameState.stock.clear()
+            gameState.waste.clear()
+            gameState.columns.values().each { it.clear(); it.invisibleCards = 0 }
+            gameState.rehashZobrist()
+        expect:
+            new GreedyStrategy().nextMove(gameState) instanceof Quit
+    }
+
+    def "Statistics are merged" () {
+        given:
+            def won = new GameState()
+            won.gameWon = true
+            won.baseScore = 250
+            def lost = new GameState()
+            lost.stockCycles = 3
+            def first = new SimulationStatistics()
+            def second = new SimulationStatistics()
+        when:
+            first.record(won, 10)
+            second.record(lost, 30)
+            first.merge(second)
+        then:
+            first.games == 2
+            first.wins == 1
+            first.winRate == 0.5
+            first.moves == 40
+            first.stockCycles == 3
+            first.scoreDistribution == [0L: 1L, 200L: 1L]
+    }
+}
@@ -0,0 +1,72 @@
+package nl.quintor.solitaire.solver
+
+import nl.quintor.solitaire.game.GameStateController
+import nl.quintor.solitaire.models.card.Card
+import nl.quintor.solitaire.models.card.Rank
+import nl.quintor.solitaire.models.card.Suit
+import nl.quintor.solitaire.models.state.PackedGameState
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import java.time.Duration
+
+class HintEngineSpec extends Specification {
+    @AutoCleanup
+    HintEngine engine = new HintEngine(Duration.ofMillis(100), 16)
+
+    def "A position with a winning line is hinted with its first move" () {
+        when:
+            def hint = engine.hint(SolverSpec.endgame())
+        then:
+            hint.status == SolverStatus.SOLVED
+            hint.move == "C"
+            hint.winLikelihood == 1
+            hint.toString() == "Hint: C (wins, a winning line was found)"
+    }
+
+    def "A position without moves is hinted as lost" () {
+        given:
+            def gameState = SolverSpec.emptyTable()
+            gameState.columns["A"].addAll([Card.of(Suit.CLUBS, Rank.ACE), Card.of(Suit.CLUBS, Rank.TWO)])
+            gameState.columns["A"].invisibleCards = 1
+            gameState.rehashZobrist()
+        when:
+            def hint = engine.hint(gameState)
+        then:
+            hint.status == SolverStatus.UNSOLVABLE
+            hint.move == null
+            hint.winLikelihood == 0
+    }
+
+    def "A new game is hinted within the latency budget without changing the game" () {
+        given:
+            def gameState = GameStateController.init(11L)
+            def packed = PackedGameState.pack(gameState)
+            def hash = gameState.zobristHash
+        when:
+            def start = System.nanoTime()
+            def hint = engine.hint(gameState)
+            def millis = (System.nanoTime() - start) / 1_000_000
+        then:
+            hint.move != null
+            hint.status == SolverStatus.SOLVED || hint.playouts > 0
+            hint.winLikelihood >= 0 && hint.winLikelihood <= 1
+            millis < 150
+            PackedGameState.pack(gameState) == packed
+            gameState.zobristHash == hash
+            gameState.moves.isEmpty()
+    }
+
+    def "Asking again in the same position returns the cached hint" () {
+        given:
+            def gameState = GameStateController.init(12L)
+            def first = engine.hint(gameState)
+        when:
+            def start = System.nanoTime()
+            def second = engine.hint(GameStateController.init(12L))
+            def millis = (System.nanoTime() - start) / 1_000_000
+        then:
+            second.is(first)
+            millis < 10
+    }
+}
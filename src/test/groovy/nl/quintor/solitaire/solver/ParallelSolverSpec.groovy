@@ -0,0 +1,92 @@
+package nl.quintor.solitaire.solver
+
+import nl.quintor.solitaire.CommandLineOptions
+import nl.quintor.solitaire.game.GameStateController
+import nl.quintor.solitaire.game.moves.CycleStock
+import nl.quintor.solitaire.game.moves.MoveCard
+import nl.quintor.solitaire.models.card.Card
+import nl.quintor.solitaire.models.card.Rank
+import nl.quintor.solitaire.models.card.Suit
+import spock.lang.Specification
+
+import java.time.Duration
+
+class ParallelSolverSpec extends Specification {
+
+    def "A position that needs the stock and an invisible card is solved on #threads threads with split depth #split" () {
+        given:
+            def gameState = SolverSpec.endgame()
+            def hash = gameState.zobristHash
+        when:
+            def result = new ParallelSolver(threads, 10_000, Duration.ofSeconds(10), 1 << 16, split).solve(gameState)
+        then:
+            result.status == SolverStatus.SOLVED
+            result.moves.contains("C")
+        and: "the GameState is not touched"
+            gameState.zobristHash == hash
+        when: "the winning moves are replayed"
+            result.moves.each { it == "C" ? new CycleStock().apply(gameState) : new MoveCard(it).apply(gameState) }
+        then:
+            GameStateController.hasWinningLayout(gameState)
+        where:
+            threads | split
+            1       | 0
+            4       | 1
+            4       | 3
+    }
+
+    def "A position where the next card is buried under its predecessor is unsolvable" () {
+        given:
+            def gameState = SolverSpec.emptyTable()
+            def column = gameState.columns["A"]
+            column.addAll([Card.of(Suit.CLUBS, Rank.ACE), Card.of(Suit.CLUBS, Rank.TWO)])
+            column.invisibleCards = 1
+            gameState.rehashZobrist()
+        when:
+            def result = new ParallelSolver(4, 10_000, Duration.ofSeconds(10)).solve(gameState)
+        then:
+            result.status == SolverStatus.UNSOLVABLE
+            result.moves.isEmpty()
+    }
+
+    def "The node budget is shared by all threads" () {
+        when:
+            def result = new ParallelSolver(4, 100, Duration.ofSeconds(10)).solve(GameStateController.init())
+        then:
+            result.status == SolverStatus.TIMEOUT
+            result.nodesExpanded <= 100
+    }
+
+    def "Split nodes and finished searches do not waste the node budget" () {
+        when:
+            def result = new ParallelSolver(4, 2000, Duration.ofSeconds(10), 1 << 16, 3).solve(GameStateController.init(42))
+        then:
+            result.status == SolverStatus.TIMEOUT
+            result.nodesExpanded <= 2000
+            result.nodesExpanded > 2000 - 4 * SearchBudget.BATCH
+    }
+
+    def "The time budget is respected" () {
+        when:
+            def result = new ParallelSolver(4, Long.MAX_VALUE, Duration.ofMillis(200)).solve(GameStateController.init())
+        then:
+            result.status != SolverStatus.UNSOLVABLE
+            result.elapsed < Duration.ofSeconds(5)
+    }
+
+    def "Command-line options are parsed with defaults" () {
+        when:
+            def options = new CommandLineOptions("--threads", "8", "--millis", "500")
+        then:
+            options.getInt("threads", 1) == 8
+            options.getLong("millis", 0) == 500
+            options.getLong("nodes", 42) == 42
+    }
+
+    def "Command-line options without a value are rejected" () {
+        when:
+            new CommandLineOptions("--threads")
+        then:
+            thrown(IllegalArgumentException)
+    }
+}
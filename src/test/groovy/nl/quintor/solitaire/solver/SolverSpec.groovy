@@ -0,0 +1,89 @@
+package nl.quintor.solitaire.solver
+
+import nl.quintor.solitaire.TestUtil
+import nl.quintor.solitaire.game.GameStateController
+import nl.quintor.solitaire.game.moves.CycleStock
+import nl.quintor.solitaire.game.moves.MoveCard
+import nl.quintor.solitaire.models.card.Card
+import nl.quintor.solitaire.models.card.Rank
+import nl.quintor.solitaire.models.card.Suit
+import nl.quintor.solitaire.models.state.GameState
+import spock.lang.Specification
+
+import java.time.Duration
+
+class SolverSpec extends Specification {
+
+    def "A position that needs the stock and an invisible card is solved" () {
+        given:
+            def gameState = endgame()
+            def hash = gameState.zobristHash
+        when:
+            def result = new Solver(10_000, Duration.ofSeconds(10)).solve(gameState)
+        then:
+            result.status == SolverStatus.SOLVED
+            result.moves.contains("C")
+            result.nodesExpanded > 0
+        and: "the GameState is restored"
+            gameState.zobristHash == hash
+            gameState.moves.isEmpty()
+        when: "the winning moves are replayed"
+            result.moves.each { it == "C" ? new CycleStock().apply(gameState) : new MoveCard(it).apply(gameState) }
+        then:
+            GameStateController.hasWinningLayout(gameState)
+    }
+
+    def "A position where the next card is buried under its predecessor is unsolvable" () {
+        given:
+            def gameState = emptyTable()
+            def column = gameState.columns["A"]
+            column.addAll([Card.of(Suit.CLUBS, Rank.ACE), Card.of(Suit.CLUBS, Rank.TWO)])
+            column.invisibleCards = 1
+            gameState.rehashZobrist()
+        when:
+            def result = new Solver(10_000, Duration.ofSeconds(10)).solve(gameState)
+        then:
+            result.status == SolverStatus.UNSOLVABLE
+            result.moves.isEmpty()
+    }
+
+    def "The node budget is respected" () {
+        when:
+            def result = new Solver(10, Duration.ofSeconds(10)).solve(GameStateController.init())
+        then:
+            result.status == SolverStatus.TIMEOUT
+            result.nodesExpanded == 10
+    }
+
+    def "The time budget is respected" () {
+        when:
+            def result = new Solver(Long.MAX_VALUE, Duration.ZERO).solve(GameStateController.init())
+        then:
+            result.status == SolverStatus.TIMEOUT
+            result.nodesExpanded <= 1
+    }
+
+    static GameState emptyTable() {
+        def gameState = TestUtil.createGameWithEmptyStockAndWaste()
+        gameState.columns.values().each { it.clear(); it.invisibleCards = 0 }
+        gameState.stackPiles.values().each { it.clear() }
+        return gameState
+    }
+
+    /**
+     * All diamonds, hearts and spades are on the stack piles, clubs up to ten as well. The Jack of clubs waits in the
+     * waste, the Queen of clubs covers the invisible King of clubs in column A.
+     */
+    static GameState endgame() {
+        def gameState = emptyTable()
+        [Suit.CLUBS, Suit.DIAMONDS, Suit.HEARTS, Suit.SPADES].eachWithIndex { suit, i ->
+            def ranks = [Rank.ACE] + Rank.values()[0..(suit == Suit.CLUBS ? 8 : 11)]
+            gameState.stackPiles[GameState.STACK_HEADERS[i]].addAll(ranks.collect { Card.of(suit, it) })
+        }
+        gameState.waste << Card.of(Suit.CLUBS, Rank.JACK)
+        gameState.columns["A"].addAll([Card.of(Suit.CLUBS, Rank.KING), Card.of(Suit.CLUBS, Rank.QUEEN)])
+        gameState.columns["A"].invisibleCards = 1
+        gameState.rehashZobrist()
+        return gameState
+    }
+}
@@ -0,0 +1,57 @@
+package nl.quintor.solitaire.ui.cli
+
+import nl.quintor.solitaire.TestUtil
+import nl.quintor.solitaire.game.GameStateController
+import nl.quintor.solitaire.game.MoveGenerator
+import nl.quintor.solitaire.game.moves.MoveCode
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.LocalDateTime
+
+class GameStateEncoderSpec extends Specification {
+
+    @Unroll
+    def "Encoding deal #seed during play gives the same text as parseGameState" () {
+        given:
+            def gameState = GameStateController.init(new Random(seed))
+            gameState.startTime = LocalDateTime.of(2020, 1, 1, 0, 0)
+            gameState.endTime = LocalDateTime.of(2020, 1, 1, 1, 2, 3)
+            def encoder = new GameStateEncoder()
+            def buffer = new int[MoveCode.MAX_MOVES]
+        expect:
+            30.times {
+                encoder.reset()
+                encoder.appendGameState(gameState)
+                assert new String(encoder.toByteArray(), "UTF-8") == GameStateParser.parseGameState(gameState)
+                assert MoveGenerator.generate(gameState, buffer) > 0
+                MoveCode.toMove(buffer[0]).apply(gameState) // play the most promising move
+            }
+        where:
+            seed << [1L, 2L, 3L]
+    }
+
+    def "Encoding a fixed game gives the same text as parseGameState" () {
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+            gameState.endTime = gameState.startTime.plusSeconds(29)
+            def encoder = new GameStateEncoder()
+        when:
+            encoder.appendGameState(gameState)
+        then:
+            new String(encoder.toByteArray(), "UTF-8") == GameStateParser.parseGameState(gameState)
+    }
+
+    def "The buffer is reused for the next frame" () {
+        given:
+            def gameState = TestUtil.createFixedNewGame()
+            def encoder = new GameStateEncoder()
+            encoder.appendGameState(gameState)
+            def length = encoder.length()
+        when:
+            encoder.reset()
+            encoder.appendGameState(gameState)
+        then:
+            encoder.length() == length
+    }
+}
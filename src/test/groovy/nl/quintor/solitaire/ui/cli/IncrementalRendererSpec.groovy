@@ -0,0 +1,85 @@
+package nl.quintor.solitaire.ui.cli
+
+import spock.lang.Specification
+
+class IncrementalRendererSpec extends Specification {
+    static final String ESC = "\u001B["
+
+    def "The first frame is drawn in full on a cleared screen" () {
+        given:
+            def renderer = new IncrementalRenderer()
+        expect:
+            renderer.render("status\n", 80, 24) == ESC + "H" + ESC + "2J" + "status\n" + ESC + "J"
+            renderer.lastFrameFull
+    }
+
+    def "Only the cells that changed are rewritten" () {
+        given:
+            def renderer = new IncrementalRenderer()
+            renderer.render(" 0 ♦ 6     ? ?     ♤ 8     \n", 80, 24)
+        when:
+            def update = renderer.render(" 0 ♦ 6     ♥ 9     ♤ 8     \n", 80, 24)
+        then:
+            update == ESC + "1;12H" + "♥ 9     " + ESC + "2;1H" + ESC + "J"
+            !renderer.lastFrameFull
+            renderer.lastFrameBytes == update.getBytes("UTF-8").length
+    }
+
+    def "A line that got shorter is cleared after its last cell" () {
+        given:
+            def renderer = new IncrementalRenderer()
+            renderer.render(" 0 ♦ 6     ? ?     \n", 80, 24)
+        when:
+            def update = renderer.render(" 0 ♦ 6     \n", 80, 24)
+        then:
+            update == ESC + "1;12H" + ESC + "K" + ESC + "2;1H" + ESC + "J"
+    }
+
+    def "A resized terminal gets a full redraw" () {
+        given:
+            def renderer = new IncrementalRenderer()
+            renderer.render("status\n", 80, 24)
+        when:
+            renderer.render("status\n", 100, 24)
+        then:
+            renderer.lastFrameFull
+    }
+
+    def "A colored line is rewritten as a whole" () {
+        given:
+            def renderer = new IncrementalRenderer()
+            renderer.render("board\nfirst\n", 80, 24)
+        when:
+            def update = renderer.render("board\n" + ESC + "31merror" + ESC + "0m\n", 80, 24)
+        then:
+            update == ESC + "2;1H" + ESC + "31merror" + ESC + "0m" + ESC + "K" + ESC + "3;1H" + ESC + "J"
+    }
+
+    def "A line with a combining character is rewritten as a whole" () {
+        given:
+            def renderer = new IncrementalRenderer()
+            renderer.render("board\nC\u0332ycle stock, M\u0332ove     \n", 80, 24)
+        when:
+            def update = renderer.render("board\nC\u0332ycle stock, M\u0332ove, H\u0332elp\n", 80, 24)
+        then:
+            update == ESC + "2;1H" + "C\u0332ycle stock, M\u0332ove, H\u0332elp" + ESC + "K" + ESC + "3;1H" + ESC + "J"
+    }
+
+    def "A frame with a line wider than the terminal, and the frame after it, are drawn in full" () {
+        given:
+            def renderer = new IncrementalRenderer()
+            renderer.render("board\nshort\n", 20, 24)
+        when:
+            renderer.render("board\n" + "x" * 21 + "\n", 20, 24)
+        then:
+            renderer.lastFrameFull
+        when:
+            renderer.render("board\nshort\n", 20, 24)
+        then:
+            renderer.lastFrameFull
+        when: "escape sequences take no columns"
+            renderer.render("board\n" + ESC + "31m" + "x" * 20 + ESC + "0m\n", 20, 24)
+        then:
+            !renderer.lastFrameFull
+    }
+}